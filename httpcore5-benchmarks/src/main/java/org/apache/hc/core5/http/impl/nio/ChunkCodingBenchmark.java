@@ -0,0 +1,148 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http.impl.nio;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ChunkDecoder} and {@link ChunkEncoder} throughput for a 64 KiB message body.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChunkCodingBenchmark {
+
+    static final int BODY_SIZE = 64 * 1024;
+
+    @Param({"256", "4096"})
+    public int chunkSize;
+
+    private byte[] body;
+    private byte[] chunkedBody;
+    private ByteBuffer dst;
+    private WritableByteChannel sink;
+
+    @Setup
+    public void setup() {
+        body = new byte[BODY_SIZE];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        final StringBuilder buffer = new StringBuilder(BODY_SIZE + BODY_SIZE / chunkSize * 16);
+        for (int off = 0; off < body.length; off += chunkSize) {
+            final int len = Math.min(chunkSize, body.length - off);
+            buffer.append(Integer.toHexString(len)).append("\r\n");
+            for (int i = 0; i < len; i++) {
+                buffer.append((char) body[off + i]);
+            }
+            buffer.append("\r\n");
+        }
+        buffer.append("0\r\n\r\n");
+        chunkedBody = new byte[buffer.length()];
+        for (int i = 0; i < chunkedBody.length; i++) {
+            chunkedBody[i] = (byte) buffer.charAt(i);
+        }
+        dst = ByteBuffer.allocate(8192);
+        sink = new WritableByteChannel() {
+
+            @Override
+            public int write(final ByteBuffer src) {
+                final int len = src.remaining();
+                src.position(src.limit());
+                return len;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+
+        };
+    }
+
+    @Benchmark
+    public long decode() throws IOException {
+        final ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(chunkedBody));
+        final SessionInputBufferImpl inbuf = new SessionInputBufferImpl(8192);
+        final ChunkDecoder decoder = new ChunkDecoder(channel, inbuf, new BasicHttpTransportMetrics());
+        long total = 0;
+        while (!decoder.isCompleted()) {
+            dst.clear();
+            final int bytesRead = decoder.read(dst);
+            if (bytesRead > 0) {
+                total += bytesRead;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long encode() throws IOException {
+        final SessionOutputBufferImpl outbuf = new SessionOutputBufferImpl(8192);
+        final BasicHttpTransportMetrics metrics = new BasicHttpTransportMetrics();
+        final ChunkEncoder encoder = new ChunkEncoder(sink, outbuf, metrics, chunkSize);
+        final ByteBuffer src = ByteBuffer.wrap(body);
+        while (src.hasRemaining()) {
+            final int limit = Math.min(src.position() + chunkSize, body.length);
+            final ByteBuffer chunk = src.duplicate();
+            chunk.limit(limit);
+            encoder.write(chunk);
+            src.position(chunk.position());
+        }
+        encoder.complete(null);
+        outbuf.flush(sink);
+        return metrics.getBytesTransferred();
+    }
+
+}
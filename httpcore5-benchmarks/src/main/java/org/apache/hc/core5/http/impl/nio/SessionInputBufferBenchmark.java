@@ -0,0 +1,105 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http.impl.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.util.CharArrayBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SessionInputBufferImpl#readLine(CharArrayBuffer, boolean)} over a realistic
+ * HTTP/1.1 request head, with and without a charset decoder.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SessionInputBufferBenchmark {
+
+    static final String REQUEST_HEAD =
+            "GET /api/v1/resources/12345?expand=children&limit=50 HTTP/1.1\r\n" +
+            "Host: www.example.com\r\n" +
+            "User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:78.0) Gecko/20100101 Firefox/78.0\r\n" +
+            "Accept: application/json, text/plain, */*\r\n" +
+            "Accept-Language: en-US,en;q=0.5\r\n" +
+            "Accept-Encoding: gzip, deflate, br\r\n" +
+            "Connection: keep-alive\r\n" +
+            "Cookie: session=8f14e45fceea167a5a36dedd4bea2543; theme=dark\r\n" +
+            "X-Request-ID: 0d5c3a94-5b0e-4b1f-8f5c-4f2bb8a1d3c7\r\n" +
+            "Cache-Control: no-cache\r\n" +
+            "\r\n";
+
+    @Param({"false", "true"})
+    public boolean charsetDecoding;
+
+    private ByteBuffer head;
+    private SessionInputBufferImpl inbuf;
+    private CharArrayBuffer lineBuffer;
+
+    @Setup
+    public void setup() {
+        head = ByteBuffer.wrap(REQUEST_HEAD.getBytes(StandardCharsets.US_ASCII));
+        inbuf = charsetDecoding
+                ? new SessionInputBufferImpl(8192, 256, 0, StandardCharsets.US_ASCII)
+                : new SessionInputBufferImpl(8192, 256, 0);
+        lineBuffer = new CharArrayBuffer(256);
+    }
+
+    @Benchmark
+    public int readLines() throws IOException {
+        inbuf.clear();
+        head.rewind();
+        inbuf.put(head);
+        int count = 0;
+        for (;;) {
+            lineBuffer.clear();
+            if (!inbuf.readLine(lineBuffer, false) || lineBuffer.isEmpty()) {
+                break;
+            }
+            count += lineBuffer.length();
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http.message;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.util.CharArrayBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link BasicLineParser} parsing a realistic HTTP/1.1 request head.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BasicLineParserBenchmark {
+
+    static final String[] REQUEST_HEAD = {
+            "GET /api/v1/resources/12345?expand=children&limit=50 HTTP/1.1",
+            "Host: www.example.com",
+            "User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:78.0) Gecko/20100101 Firefox/78.0",
+            "Accept: application/json, text/plain, */*",
+            "Accept-Language: en-US,en;q=0.5",
+            "Accept-Encoding: gzip, deflate, br",
+            "Connection: keep-alive",
+            "Cookie: session=8f14e45fceea167a5a36dedd4bea2543; theme=dark",
+            "X-Request-ID: 0d5c3a94-5b0e-4b1f-8f5c-4f2bb8a1d3c7",
+            "Cache-Control: no-cache"
+    };
+
+    private BasicLineParser parser;
+    private CharArrayBuffer requestLine;
+    private CharArrayBuffer[] headerLines;
+
+    private static CharArrayBuffer toBuffer(final String s) {
+        final CharArrayBuffer buffer = new CharArrayBuffer(s.length());
+        buffer.append(s);
+        return buffer;
+    }
+
+    @Setup
+    public void setup() {
+        parser = BasicLineParser.INSTANCE;
+        requestLine = toBuffer(REQUEST_HEAD[0]);
+        headerLines = new CharArrayBuffer[REQUEST_HEAD.length - 1];
+        for (int i = 1; i < REQUEST_HEAD.length; i++) {
+            headerLines[i - 1] = toBuffer(REQUEST_HEAD[i]);
+        }
+    }
+
+    @Benchmark
+    public Object parseRequestLine() throws ParseException {
+        return parser.parseRequestLine(requestLine);
+    }
+
+    @Benchmark
+    public void parseHeaders(final Blackhole blackhole) throws ParseException {
+        for (int i = 0; i < headerLines.length; i++) {
+            final Header header = parser.parseHeader(headerLines[i]);
+            blackhole.consume(header.getName());
+            blackhole.consume(header.getValue());
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http.message;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link HeaderGroup} look-ups of the kind performed by protocol interceptors
+ * on every message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeaderGroupBenchmark {
+
+    private HeaderGroup headerGroup;
+
+    @Setup
+    public void setup() throws Exception {
+        headerGroup = new HeaderGroup();
+        for (int i = 1; i < BasicLineParserBenchmark.REQUEST_HEAD.length; i++) {
+            final String line = BasicLineParserBenchmark.REQUEST_HEAD[i];
+            final int colon = line.indexOf(':');
+            headerGroup.addHeader(new BasicHeader(line.substring(0, colon), line.substring(colon + 1).trim()));
+        }
+    }
+
+    @Benchmark
+    public void interceptorLookups(final Blackhole blackhole) {
+        blackhole.consume(headerGroup.containsHeader(HttpHeaders.TRANSFER_ENCODING));
+        blackhole.consume(headerGroup.containsHeader(HttpHeaders.CONTENT_LENGTH));
+        blackhole.consume(headerGroup.getFirstHeader(HttpHeaders.HOST));
+        blackhole.consume(headerGroup.getFirstHeader(HttpHeaders.CONNECTION));
+        blackhole.consume(headerGroup.getFirstHeader(HttpHeaders.EXPECT));
+    }
+
+    @Benchmark
+    public Header[] getHeaders() {
+        return headerGroup.getHeaders(HttpHeaders.ACCEPT);
+    }
+
+    @Benchmark
+    public Header getLastHeader() {
+        return headerGroup.getLastHeader(HttpHeaders.CACHE_CONTROL);
+    }
+
+}
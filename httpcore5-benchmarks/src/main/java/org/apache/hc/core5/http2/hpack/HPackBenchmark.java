@@ -0,0 +1,118 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http2.hpack;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.util.ByteArrayBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * HPACK encoding and decoding of a typical HTTP/2 request header list.
+ * <p>
+ * The {@code warm} benchmarks re-use the same encoder / decoder across invocations
+ * and therefore mostly hit the dynamic table, the {@code cold} ones start every
+ * header block with an empty dynamic table as on a fresh connection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HPackBenchmark {
+
+    @Param({"true", "false"})
+    public boolean huffman;
+
+    private List<Header> headers;
+    private HPackEncoder encoder;
+    private ByteArrayBuffer buffer;
+    private byte[] block;
+
+    @Setup
+    public void setup() throws CharacterCodingException {
+        headers = Arrays.<Header>asList(
+                new BasicHeader(":method", "GET"),
+                new BasicHeader(":scheme", "https"),
+                new BasicHeader(":authority", "www.example.com"),
+                new BasicHeader(":path", "/api/v1/resources/12345?expand=children&limit=50"),
+                new BasicHeader("user-agent", "Mozilla/5.0 (X11; Linux x86_64; rv:78.0) Gecko/20100101 Firefox/78.0"),
+                new BasicHeader("accept", "application/json, text/plain, */*"),
+                new BasicHeader("accept-language", "en-US,en;q=0.5"),
+                new BasicHeader("accept-encoding", "gzip, deflate, br"),
+                new BasicHeader("cookie", "session=8f14e45fceea167a5a36dedd4bea2543; theme=dark"),
+                new BasicHeader("x-request-id", "0d5c3a94-5b0e-4b1f-8f5c-4f2bb8a1d3c7"),
+                new BasicHeader("cache-control", "no-cache"));
+        encoder = new HPackEncoder(StandardCharsets.US_ASCII);
+        buffer = new ByteArrayBuffer(1024);
+
+        final ByteArrayBuffer tmp = new ByteArrayBuffer(1024);
+        new HPackEncoder(StandardCharsets.US_ASCII).encodeHeaders(tmp, headers, huffman);
+        block = tmp.toByteArray();
+    }
+
+    @Benchmark
+    public int encodeWarm() throws CharacterCodingException {
+        buffer.clear();
+        encoder.encodeHeaders(buffer, headers, huffman);
+        return buffer.length();
+    }
+
+    @Benchmark
+    public int encodeCold() throws CharacterCodingException {
+        buffer.clear();
+        final HPackEncoder coldEncoder = new HPackEncoder(StandardCharsets.US_ASCII);
+        coldEncoder.encodeHeaders(buffer, headers, huffman);
+        return buffer.length();
+    }
+
+    @Benchmark
+    public List<Header> decodeCold() throws HPackException {
+        final HPackDecoder coldDecoder = new HPackDecoder(StandardCharsets.US_ASCII);
+        return coldDecoder.decodeHeaders(ByteBuffer.wrap(block));
+    }
+
+}
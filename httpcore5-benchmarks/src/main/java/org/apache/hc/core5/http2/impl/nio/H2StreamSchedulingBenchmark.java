@@ -0,0 +1,181 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.function.Supplier;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.entity.NoopEntityConsumer;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.support.BasicResponseConsumer;
+import org.apache.hc.core5.http.nio.support.BasicResponseProducer;
+import org.apache.hc.core5.http.nio.support.ImmediateResponseExchangeHandler;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.config.H2StreamSchedulingPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2MultiplexingRequester;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2MultiplexingRequesterBootstrap;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.util.Timeout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency distribution of small responses sharing an HTTP/2 connection with a number
+ * of continuous large downloads. Compare the upper percentiles across scheduling policies.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class H2StreamSchedulingBenchmark {
+
+    static final Timeout TIMEOUT = Timeout.ofSeconds(30);
+
+    @Param({"SEQUENTIAL", "ROUND_ROBIN", "PRIORITY"})
+    public H2StreamSchedulingPolicy policy;
+
+    @Param({"4"})
+    public int largeStreams;
+
+    @Param({"4194304"})
+    public int largeSize;
+
+    private HttpAsyncServer server;
+    private H2MultiplexingRequester requester;
+    private HttpHost target;
+    private AtomicBoolean running;
+
+    private static Supplier<AsyncServerExchangeHandler> content(final byte[] content) {
+        return new Supplier<AsyncServerExchangeHandler>() {
+
+            @Override
+            public AsyncServerExchangeHandler get() {
+                return new ImmediateResponseExchangeHandler(new BasicResponseProducer(200,
+                        AsyncEntityProducers.create(content, ContentType.APPLICATION_OCTET_STREAM)));
+            }
+
+        };
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        server = H2ServerBootstrap.bootstrap()
+                .setH2Config(H2Config.custom()
+                        .setStreamSchedulingPolicy(policy)
+                        .build())
+                .register("/small", content(new byte[256]))
+                .register("/large", content(new byte[largeSize]))
+                .create();
+        server.start();
+        final ListenerEndpoint endpoint = server.listen(new InetSocketAddress("localhost", 0), URIScheme.HTTP).get();
+        target = new HttpHost("localhost", ((InetSocketAddress) endpoint.getAddress()).getPort());
+
+        // Large flow control windows so that output is limited by the connection, not by flow control
+        requester = H2MultiplexingRequesterBootstrap.bootstrap()
+                .setH2Config(H2Config.custom()
+                        .setInitialWindowSize(16 * 1024 * 1024)
+                        .build())
+                .create();
+        requester.start();
+
+        running = new AtomicBoolean(true);
+        for (int i = 0; i < largeStreams; i++) {
+            downloadLarge();
+        }
+    }
+
+    private void downloadLarge() {
+        if (!running.get()) {
+            return;
+        }
+        requester.execute(
+                new BasicRequestProducer(Method.GET, target, "/large"),
+                new BasicResponseConsumer<>(new NoopEntityConsumer()),
+                TIMEOUT,
+                new FutureCallback<Message<HttpResponse, Void>>() {
+
+                    @Override
+                    public void completed(final Message<HttpResponse, Void> result) {
+                        downloadLarge();
+                    }
+
+                    @Override
+                    public void failed(final Exception ex) {
+                        downloadLarge();
+                    }
+
+                    @Override
+                    public void cancelled() {
+                    }
+
+                });
+    }
+
+    @TearDown
+    public void tearDown() {
+        running.set(false);
+        requester.close(CloseMode.IMMEDIATE);
+        server.close(CloseMode.IMMEDIATE);
+    }
+
+    @Benchmark
+    public Message<HttpResponse, Void> smallRequest() throws Exception {
+        return requester.execute(
+                new BasicRequestProducer(Method.GET, target, "/small"),
+                new BasicResponseConsumer<>(new NoopEntityConsumer()),
+                TIMEOUT,
+                null).get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+    }
+
+}
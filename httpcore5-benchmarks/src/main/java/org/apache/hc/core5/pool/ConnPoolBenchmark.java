@@ -0,0 +1,138 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.pool;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.io.ModalCloseable;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lease / release round trips of pooled connections under contention from multiple
+ * threads spread across a configurable number of routes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ConnPoolBenchmark {
+
+    static final Timeout LEASE_TIMEOUT = Timeout.ofSeconds(30);
+
+    static final class DummyConnection implements ModalCloseable {
+
+        @Override
+        public void close(final CloseMode closeMode) {
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+    @Param({"STRICT", "STRIPED", "LAX"})
+    public PoolConcurrencyPolicy policy;
+
+    @Param({"1", "10", "100"})
+    public int routes;
+
+    @Param({"5"})
+    public int maxPerRoute;
+
+    private ManagedConnPool<String, DummyConnection> pool;
+    private String[] routeNames;
+
+    @Setup
+    public void setup() {
+        switch (policy) {
+            case STRICT:
+                pool = new StrictConnPool<>(
+                        maxPerRoute,
+                        routes * maxPerRoute,
+                        TimeValue.NEG_ONE_MILLISECOND,
+                        PoolReusePolicy.LIFO,
+                        null);
+                break;
+            case STRIPED:
+                pool = new StripedConnPool<>(
+                        maxPerRoute,
+                        routes * maxPerRoute,
+                        TimeValue.NEG_ONE_MILLISECOND,
+                        PoolReusePolicy.LIFO,
+                        null);
+                break;
+            case LAX:
+                pool = new LaxConnPool<>(maxPerRoute);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected policy: " + policy);
+        }
+        routeNames = new String[routes];
+        for (int i = 0; i < routes; i++) {
+            routeNames[i] = "route-" + i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.close(CloseMode.IMMEDIATE);
+    }
+
+    @Benchmark
+    public PoolEntry<String, DummyConnection> leaseRelease() throws InterruptedException, ExecutionException {
+        final String route = routeNames[ThreadLocalRandom.current().nextInt(routeNames.length)];
+        final PoolEntry<String, DummyConnection> entry = pool.lease(route, null, LEASE_TIMEOUT, null).get();
+        if (!entry.hasConnection()) {
+            entry.assignConnection(new DummyConnection());
+        }
+        pool.release(entry, true);
+        return entry;
+    }
+
+}
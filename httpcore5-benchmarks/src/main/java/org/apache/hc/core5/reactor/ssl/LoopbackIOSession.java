@@ -0,0 +1,244 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor.ssl;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.Command;
+import org.apache.hc.core5.reactor.IOEventHandler;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * In-memory {@link IOSession} connected back to back with a peer session. Data written
+ * to one end becomes available for reading at the other end. There is no I/O reactor
+ * involved; I/O events have to be triggered explicitly by the caller.
+ */
+final class LoopbackIOSession implements IOSession {
+
+    private final String id;
+    private final ByteBuffer inbound;
+    private final Lock lock;
+    private final Deque<Command> commandQueue;
+    private LoopbackIOSession peer;
+    private IOEventHandler handler;
+    private int eventMask;
+    private Timeout socketTimeout;
+    private volatile Status status;
+
+    LoopbackIOSession(final String id, final int bufferSize) {
+        this.id = id;
+        this.inbound = ByteBuffer.allocate(bufferSize);
+        this.lock = new ReentrantLock();
+        this.commandQueue = new ArrayDeque<>();
+        this.socketTimeout = Timeout.DISABLED;
+        this.status = Status.ACTIVE;
+    }
+
+    static void connect(final LoopbackIOSession session1, final LoopbackIOSession session2) {
+        session1.peer = session2;
+        session2.peer = session1;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public IOEventHandler getHandler() {
+        return handler;
+    }
+
+    @Override
+    public void upgrade(final IOEventHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public Lock getLock() {
+        return lock;
+    }
+
+    @Override
+    public void enqueue(final Command command, final Command.Priority priority) {
+        if (priority == Command.Priority.IMMEDIATE) {
+            commandQueue.addFirst(command);
+        } else {
+            commandQueue.addLast(command);
+        }
+    }
+
+    @Override
+    public boolean hasCommands() {
+        return !commandQueue.isEmpty();
+    }
+
+    @Override
+    public Command poll() {
+        return commandQueue.poll();
+    }
+
+    @Override
+    public ByteChannel channel() {
+        return this;
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+        return InetSocketAddress.createUnresolved("localhost", 0);
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() {
+        return InetSocketAddress.createUnresolved("localhost", 0);
+    }
+
+    @Override
+    public int getEventMask() {
+        return eventMask;
+    }
+
+    @Override
+    public void setEventMask(final int ops) {
+        eventMask = ops;
+    }
+
+    @Override
+    public void setEvent(final int op) {
+        eventMask |= op;
+    }
+
+    @Override
+    public void clearEvent(final int op) {
+        eventMask &= ~op;
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws ClosedChannelException {
+        if (status == Status.CLOSED) {
+            throw new ClosedChannelException();
+        }
+        inbound.flip();
+        try {
+            final int len = Math.min(dst.remaining(), inbound.remaining());
+            if (len == 0) {
+                return peer.status == Status.CLOSED ? -1 : 0;
+            }
+            final ByteBuffer chunk = inbound.duplicate();
+            chunk.limit(chunk.position() + len);
+            dst.put(chunk);
+            inbound.position(inbound.position() + len);
+            return len;
+        } finally {
+            inbound.compact();
+        }
+    }
+
+    @Override
+    public int write(final ByteBuffer src) throws ClosedChannelException {
+        if (status == Status.CLOSED) {
+            throw new ClosedChannelException();
+        }
+        final ByteBuffer dst = peer.inbound;
+        final int len = Math.min(src.remaining(), dst.remaining());
+        final ByteBuffer chunk = src.duplicate();
+        chunk.limit(chunk.position() + len);
+        dst.put(chunk);
+        src.position(src.position() + len);
+        return len;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return status == Status.ACTIVE;
+    }
+
+    @Override
+    public void close() {
+        close(CloseMode.GRACEFUL);
+    }
+
+    @Override
+    public void close(final CloseMode closeMode) {
+        status = Status.CLOSED;
+    }
+
+    @Override
+    public Status getStatus() {
+        return status;
+    }
+
+    @Override
+    public Timeout getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    @Override
+    public void setSocketTimeout(final Timeout timeout) {
+        this.socketTimeout = timeout;
+    }
+
+    @Override
+    public long getLastReadTime() {
+        return 0;
+    }
+
+    @Override
+    public long getLastWriteTime() {
+        return 0;
+    }
+
+    @Override
+    public long getLastEventTime() {
+        return 0;
+    }
+
+    @Override
+    public void updateReadTime() {
+    }
+
+    @Override
+    public void updateWriteTime() {
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+
+}
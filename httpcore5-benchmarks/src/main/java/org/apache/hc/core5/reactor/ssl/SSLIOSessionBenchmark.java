@@ -0,0 +1,173 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor.ssl;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.hc.core5.reactor.IOEventHandler;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.ssl.SSLContextBuilder;
+import org.apache.hc.core5.util.Timeout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SSLIOSession} wrap / unwrap throughput over a pair of in-memory sessions
+ * connected back to back. Each invocation transfers a 64 KiB payload from the client
+ * end to the server end, using application writes of the given size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SSLIOSessionBenchmark {
+
+    static final int PAYLOAD_SIZE = 64 * 1024;
+
+    static final class CountingHandler implements IOEventHandler {
+
+        long bytesReceived;
+
+        @Override
+        public void connected(final IOSession session) {
+        }
+
+        @Override
+        public void inputReady(final IOSession session, final ByteBuffer src) {
+            if (src != null) {
+                bytesReceived += src.remaining();
+                src.position(src.limit());
+            }
+        }
+
+        @Override
+        public void outputReady(final IOSession session) {
+        }
+
+        @Override
+        public void timeout(final IOSession session, final Timeout timeout) {
+        }
+
+        @Override
+        public void exception(final IOSession session, final Exception cause) {
+        }
+
+        @Override
+        public void disconnected(final IOSession session) {
+        }
+
+    }
+
+    @Param({"1024", "16384"})
+    public int writeSize;
+
+    @Param({"STATIC", "DYNAMIC"})
+    public SSLBufferMode bufferMode;
+
+    private SSLIOSession client;
+    private SSLIOSession server;
+    private IOEventHandler clientTransport;
+    private IOEventHandler serverTransport;
+    private CountingHandler serverHandler;
+    private ByteBuffer payload;
+
+    static SSLContext createSSLContext() throws Exception {
+        final URL keyStoreURL = SSLIOSessionBenchmark.class.getResource("/test.p12");
+        final char[] storePassword = "nopassword".toCharArray();
+        return SSLContextBuilder.create()
+                .setKeyStoreType("pkcs12")
+                .loadTrustMaterial(keyStoreURL, storePassword)
+                .loadKeyMaterial(keyStoreURL, storePassword, storePassword)
+                .build();
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        final SSLContext sslContext = createSSLContext();
+        final LoopbackIOSession clientSession = new LoopbackIOSession("client", 256 * 1024);
+        final LoopbackIOSession serverSession = new LoopbackIOSession("server", 256 * 1024);
+        LoopbackIOSession.connect(clientSession, serverSession);
+        clientSession.upgrade(new CountingHandler());
+        serverHandler = new CountingHandler();
+        serverSession.upgrade(serverHandler);
+
+        client = new SSLIOSession(null, clientSession, SSLMode.CLIENT, sslContext, bufferMode,
+                null, null, null, null, null);
+        server = new SSLIOSession(null, serverSession, SSLMode.SERVER, sslContext, bufferMode,
+                null, null, null, null, null);
+        clientTransport = client.getHandler();
+        serverTransport = server.getHandler();
+
+        clientTransport.connected(client);
+        serverTransport.connected(server);
+        for (int i = 0; i < 100 && (client.getTlsDetails() == null || server.getTlsDetails() == null); i++) {
+            clientTransport.outputReady(client);
+            serverTransport.inputReady(server, null);
+            serverTransport.outputReady(server);
+            clientTransport.inputReady(client, null);
+        }
+        if (client.getTlsDetails() == null || server.getTlsDetails() == null) {
+            throw new IllegalStateException("TLS handshake failed to complete");
+        }
+        payload = ByteBuffer.allocate(PAYLOAD_SIZE);
+    }
+
+    @Benchmark
+    public long transfer() throws IOException {
+        serverHandler.bytesReceived = 0;
+        payload.clear();
+        while (payload.hasRemaining()) {
+            final ByteBuffer chunk = payload.duplicate();
+            chunk.limit(Math.min(chunk.position() + writeSize, chunk.capacity()));
+            while (chunk.hasRemaining()) {
+                client.write(chunk);
+                clientTransport.outputReady(client);
+                serverTransport.inputReady(server, null);
+            }
+            payload.position(chunk.position());
+        }
+        return serverHandler.bytesReceived;
+    }
+
+}
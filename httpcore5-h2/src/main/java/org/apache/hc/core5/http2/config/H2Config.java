@@ -31,6 +31,7 @@
 import org.apache.hc.core5.annotation.ThreadingBehavior;
 import org.apache.hc.core5.http2.frame.FrameConsts;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.Timeout;
 
 /**
  * HTTP/2 protocol configuration.
@@ -50,10 +51,19 @@ public class H2Config {
     private final int maxFrameSize;
     private final int maxHeaderListSize;
     private final boolean compressionEnabled;
+    private final boolean releaseIdleBuffers;
+    private final H2StreamSchedulingPolicy streamSchedulingPolicy;
+    private final boolean inputWindowAutoTuning;
+    private final int maxInputWindowSize;
+    private final H2HeaderIndexingPolicy headerIndexingPolicy;
+    private final Timeout idleBufferTimeout;
 
     H2Config(final int headerTableSize, final boolean pushEnabled, final int maxConcurrentStreams,
              final int initialWindowSize, final int maxFrameSize, final int maxHeaderListSize,
-             final boolean compressionEnabled) {
+             final boolean compressionEnabled, final boolean releaseIdleBuffers,
+             final H2StreamSchedulingPolicy streamSchedulingPolicy,
+             final boolean inputWindowAutoTuning, final int maxInputWindowSize,
+             final H2HeaderIndexingPolicy headerIndexingPolicy, final Timeout idleBufferTimeout) {
         super();
         this.headerTableSize = headerTableSize;
         this.pushEnabled = pushEnabled;
@@ -62,6 +72,12 @@ public class H2Config {
         this.maxFrameSize = maxFrameSize;
         this.maxHeaderListSize = maxHeaderListSize;
         this.compressionEnabled = compressionEnabled;
+        this.releaseIdleBuffers = releaseIdleBuffers;
+        this.streamSchedulingPolicy = streamSchedulingPolicy;
+        this.inputWindowAutoTuning = inputWindowAutoTuning;
+        this.maxInputWindowSize = maxInputWindowSize;
+        this.headerIndexingPolicy = headerIndexingPolicy;
+        this.idleBufferTimeout = idleBufferTimeout;
     }
 
     public int getHeaderTableSize() {
@@ -92,6 +108,48 @@ public boolean isCompressionEnabled() {
         return compressionEnabled;
     }
 
+    /**
+     * @since 5.1
+     */
+    public boolean isReleaseIdleBuffers() {
+        return releaseIdleBuffers;
+    }
+
+    /**
+     * @since 5.1
+     */
+    public Timeout getIdleBufferTimeout() {
+        return idleBufferTimeout;
+    }
+
+    /**
+     * @since 5.1
+     */
+    public H2StreamSchedulingPolicy getStreamSchedulingPolicy() {
+        return streamSchedulingPolicy;
+    }
+
+    /**
+     * @since 5.1
+     */
+    public boolean isInputWindowAutoTuning() {
+        return inputWindowAutoTuning;
+    }
+
+    /**
+     * @since 5.1
+     */
+    public int getMaxInputWindowSize() {
+        return maxInputWindowSize;
+    }
+
+    /**
+     * @since 5.1
+     */
+    public H2HeaderIndexingPolicy getHeaderIndexingPolicy() {
+        return headerIndexingPolicy;
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
@@ -102,6 +160,12 @@ public String toString() {
                 .append(", maxFrameSize=").append(this.maxFrameSize)
                 .append(", maxHeaderListSize=").append(this.maxHeaderListSize)
                 .append(", compressionEnabled=").append(this.compressionEnabled)
+                .append(", releaseIdleBuffers=").append(this.releaseIdleBuffers)
+                .append(", idleBufferTimeout=").append(this.idleBufferTimeout)
+                .append(", streamSchedulingPolicy=").append(this.streamSchedulingPolicy)
+                .append(", inputWindowAutoTuning=").append(this.inputWindowAutoTuning)
+                .append(", maxInputWindowSize=").append(this.maxInputWindowSize)
+                .append(", headerIndexingPolicy=").append(this.headerIndexingPolicy)
                 .append("]");
         return builder.toString();
     }
@@ -134,7 +198,13 @@ public static H2Config.Builder copy(final H2Config config) {
                 .setInitialWindowSize(config.getInitialWindowSize())
                 .setMaxFrameSize(config.getMaxFrameSize())
                 .setMaxHeaderListSize(config.getMaxHeaderListSize())
-                .setCompressionEnabled(config.isCompressionEnabled());
+                .setCompressionEnabled(config.isCompressionEnabled())
+                .setReleaseIdleBuffers(config.isReleaseIdleBuffers())
+                .setIdleBufferTimeout(config.getIdleBufferTimeout())
+                .setStreamSchedulingPolicy(config.getStreamSchedulingPolicy())
+                .setInputWindowAutoTuning(config.isInputWindowAutoTuning())
+                .setMaxInputWindowSize(config.getMaxInputWindowSize())
+                .setHeaderIndexingPolicy(config.getHeaderIndexingPolicy());
     }
 
     public static class Builder {
@@ -146,6 +216,12 @@ public static class Builder {
         private int maxFrameSize;
         private int maxHeaderListSize;
         private boolean compressionEnabled;
+        private boolean releaseIdleBuffers;
+        private H2StreamSchedulingPolicy streamSchedulingPolicy;
+        private boolean inputWindowAutoTuning;
+        private int maxInputWindowSize;
+        private H2HeaderIndexingPolicy headerIndexingPolicy;
+        private Timeout idleBufferTimeout;
 
         Builder() {
             this.headerTableSize = INIT_HEADER_TABLE_SIZE * 2;
@@ -155,6 +231,12 @@ public static class Builder {
             this.maxFrameSize  = FrameConsts.MIN_FRAME_SIZE * 4;
             this.maxHeaderListSize = FrameConsts.MAX_FRAME_SIZE;
             this.compressionEnabled = true;
+            this.releaseIdleBuffers = false;
+            this.streamSchedulingPolicy = H2StreamSchedulingPolicy.SEQUENTIAL;
+            this.inputWindowAutoTuning = false;
+            this.maxInputWindowSize = 16 * 1024 * 1024;
+            this.headerIndexingPolicy = H2HeaderIndexingPolicy.ALWAYS;
+            this.idleBufferTimeout = Timeout.ofSeconds(1);
         }
 
         public Builder setHeaderTableSize(final int headerTableSize) {
@@ -197,6 +279,96 @@ public Builder setCompressionEnabled(final boolean compressionEnabled) {
             return this;
         }
 
+        /**
+         * Determines whether frame buffers are to be released back to the buffer allocator
+         * when the connection has no active streams and all buffered data have been processed.
+         * Released buffers are re-acquired on the next read or write. Buffers are released
+         * once the connection has stayed idle for the period set with
+         * {@link #setIdleBufferTimeout(Timeout)}.
+         *
+         * @since 5.1
+         */
+        public Builder setReleaseIdleBuffers(final boolean releaseIdleBuffers) {
+            this.releaseIdleBuffers = releaseIdleBuffers;
+            return this;
+        }
+
+        /**
+         * Sets the period of inactivity after which the frame buffers of an idle connection
+         * get released if {@link #setReleaseIdleBuffers(boolean)} is enabled. A zero timeout
+         * releases buffers as soon as the connection becomes idle.
+         * <p>
+         * Default: {@code 1} second
+         * </p>
+         *
+         * @since 5.1
+         */
+        public Builder setIdleBufferTimeout(final Timeout idleBufferTimeout) {
+            this.idleBufferTimeout = idleBufferTimeout;
+            return this;
+        }
+
+        /**
+         * Determines in what order and in what shares streams sharing a connection
+         * get to produce output.
+         * <p>
+         * Default: {@link H2StreamSchedulingPolicy#SEQUENTIAL}
+         * </p>
+         *
+         * @since 5.1
+         */
+        public Builder setStreamSchedulingPolicy(final H2StreamSchedulingPolicy streamSchedulingPolicy) {
+            this.streamSchedulingPolicy = streamSchedulingPolicy;
+            return this;
+        }
+
+        /**
+         * Enables automatic tuning of stream receive windows. Stream windows start at
+         * the initial window size and grow up to the {@link #setMaxInputWindowSize(int)
+         * max input window size} when the rate at which stream data gets consumed
+         * indicates that the window limits throughput given the round trip time
+         * measured with PING frames. Window updates are batched.
+         * <p>
+         * Default: {@code false}
+         * </p>
+         *
+         * @since 5.1
+         */
+        public Builder setInputWindowAutoTuning(final boolean inputWindowAutoTuning) {
+            this.inputWindowAutoTuning = inputWindowAutoTuning;
+            return this;
+        }
+
+        /**
+         * Sets the upper limit of stream receive windows grown by
+         * {@link #setInputWindowAutoTuning(boolean) window auto-tuning}. It caps the amount
+         * of data each stream may have in flight and therefore the memory needed to buffer it.
+         * <p>
+         * Default: 16 MiB
+         * </p>
+         *
+         * @since 5.1
+         */
+        public Builder setMaxInputWindowSize(final int maxInputWindowSize) {
+            Args.positive(maxInputWindowSize, "Max input window size");
+            this.maxInputWindowSize = maxInputWindowSize;
+            return this;
+        }
+
+        /**
+         * Determines which header fields get added to the HPACK dynamic table
+         * when encoding outgoing header blocks.
+         * <p>
+         * Default: {@link H2HeaderIndexingPolicy#ALWAYS}
+         * </p>
+         *
+         * @since 5.1
+         */
+        public Builder setHeaderIndexingPolicy(final H2HeaderIndexingPolicy headerIndexingPolicy) {
+            this.headerIndexingPolicy = headerIndexingPolicy;
+            return this;
+        }
+
         public H2Config build() {
             return new H2Config(
                     headerTableSize,
@@ -205,7 +377,13 @@ public H2Config build() {
                     initialWindowSize,
                     maxFrameSize,
                     maxHeaderListSize,
-                    compressionEnabled);
+                    compressionEnabled,
+                    releaseIdleBuffers,
+                    streamSchedulingPolicy != null ? streamSchedulingPolicy : H2StreamSchedulingPolicy.SEQUENTIAL,
+                    inputWindowAutoTuning,
+                    maxInputWindowSize,
+                    headerIndexingPolicy != null ? headerIndexingPolicy : H2HeaderIndexingPolicy.ALWAYS,
+                    idleBufferTimeout != null ? idleBufferTimeout : Timeout.ofSeconds(1));
         }
 
     }
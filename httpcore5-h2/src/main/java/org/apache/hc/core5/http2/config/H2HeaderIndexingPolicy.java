@@ -0,0 +1,51 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.config;
+
+/**
+ * Policy that determines which header fields get added to the HPACK dynamic table
+ * when encoding outgoing header blocks. Header fields marked as sensitive are
+ * never indexed regardless of the policy.
+ *
+ * @since 5.1
+ */
+public enum H2HeaderIndexingPolicy {
+
+    /**
+     * Every header field gets indexed.
+     */
+    ALWAYS,
+
+    /**
+     * Header fields whose values rarely repeat for the same name, such as request IDs
+     * or content lengths, stop getting indexed so that they do not evict entries
+     * from the dynamic table that actually compress. Statistics are kept per
+     * connection.
+     */
+    ADAPTIVE
+
+}
@@ -0,0 +1,62 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http2.config;
+
+/**
+ * Policy that determines in what order and in what shares HTTP/2 streams sharing
+ * a connection get to produce output.
+ *
+ * @since 5.1
+ */
+public enum H2StreamSchedulingPolicy {
+
+    /**
+     * Streams get to produce output one after another in no particular order
+     * and each stream may write as much data as the connection can take.
+     * Streams served first can starve the others.
+     */
+    SEQUENTIAL,
+
+    /**
+     * Deficit round-robin. Streams take turns and each stream may write a fixed
+     * quantum of data per turn. The quantum is weighted by the urgency of the
+     * stream as signaled by the {@code priority} header (RFC 9218): streams
+     * of higher urgency get a proportionally larger share of the connection.
+     * Streams without the {@code priority} header get equal shares.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Extensible prioritization scheme for HTTP (RFC 9218). Streams of higher
+     * urgency are served strictly before streams of lower urgency. Within the same
+     * urgency non-incremental streams are served one at a time in the order of their
+     * stream id, followed by incremental streams served round-robin.
+     */
+    PRIORITY
+
+}
@@ -0,0 +1,107 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.hpack;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hc.core5.annotation.Internal;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link HPackIndexingPolicy} that keeps track of recently seen values of each header name
+ * and stops indexing headers whose values rarely repeat, such as request IDs, trace
+ * identifiers or content lengths. Such values would otherwise churn the dynamic table
+ * and evict entries that actually compress.
+ * <p>
+ * A value is indexed if it matches one of the last few values seen for its name or
+ * if the name has not yet proven volatile. A name is considered volatile once most of
+ * its values have not been seen recently. Statistics are kept for a bounded number
+ * of names; headers with names beyond that bound are always indexed.
+ * </p>
+ *
+ * @since 5.1
+ */
+@Internal
+public final class AdaptiveHPackIndexingPolicy implements HPackIndexingPolicy {
+
+    static final int HISTORY = 4;
+
+    private final int maxNames;
+    private final Map<String, ValueStats> statsMap;
+
+    public AdaptiveHPackIndexingPolicy(final int maxNames) {
+        this.maxNames = Args.positive(maxNames, "Max names");
+        this.statsMap = new HashMap<>();
+    }
+
+    public AdaptiveHPackIndexingPolicy() {
+        this(256);
+    }
+
+    @Override
+    public boolean isIndexable(final String name, final String value) {
+        ValueStats stats = statsMap.get(name);
+        if (stats == null) {
+            if (statsMap.size() >= maxNames) {
+                return true;
+            }
+            stats = new ValueStats();
+            statsMap.put(name, stats);
+        }
+        return stats.update(value != null ? value : "");
+    }
+
+    static final class ValueStats {
+
+        private final String[] recent = new String[HISTORY];
+        private int pos;
+        private int observed;
+        private int missed;
+
+        boolean update(final String value) {
+            // Decay old observations so that a name can recover once its values settle
+            if (observed == 64) {
+                observed >>= 1;
+                missed >>= 1;
+            }
+            observed++;
+            for (int i = 0; i < recent.length; i++) {
+                if (value.equals(recent[i])) {
+                    return true;
+                }
+            }
+            recent[pos] = value;
+            pos = (pos + 1) % recent.length;
+            missed++;
+            // Volatile if at least 3 out of 4 values have not been seen recently
+            return missed < 2 || missed * 4 < observed * 3;
+        }
+
+    }
+
+}
@@ -40,7 +40,6 @@
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.ByteArrayBuffer;
-import org.apache.hc.core5.util.LangUtils;
 
 /**
  * HPACK encoder.
@@ -51,15 +50,32 @@
 public final class HPackEncoder {
 
     private final OutboundDynamicTable dynamicTable;
-    private final ByteArrayBuffer huffmanBuf;
     private final CharsetEncoder charsetEncoder;
+    private final HPackIndexingPolicy indexingPolicy;
+    private final HeaderBlockMemo memo;
     private ByteBuffer tmpBuf;
     private int maxTableSize;
 
-    HPackEncoder(final OutboundDynamicTable dynamicTable, final CharsetEncoder charsetEncoder) {
+    HPackEncoder(
+            final OutboundDynamicTable dynamicTable,
+            final CharsetEncoder charsetEncoder,
+            final HPackIndexingPolicy indexingPolicy,
+            final HeaderBlockMemo memo) {
         this.dynamicTable = dynamicTable != null ? dynamicTable : new OutboundDynamicTable();
-        this.huffmanBuf = new ByteArrayBuffer(128);
         this.charsetEncoder = charsetEncoder;
+        this.indexingPolicy = indexingPolicy != null ? indexingPolicy : HPackIndexingPolicy.ALWAYS;
+        this.memo = memo != null ? memo : new HeaderBlockMemo();
+    }
+
+    HPackEncoder(
+            final OutboundDynamicTable dynamicTable,
+            final CharsetEncoder charsetEncoder,
+            final HPackIndexingPolicy indexingPolicy) {
+        this(dynamicTable, charsetEncoder, indexingPolicy, null);
+    }
+
+    HPackEncoder(final OutboundDynamicTable dynamicTable, final CharsetEncoder charsetEncoder) {
+        this(dynamicTable, charsetEncoder, null);
     }
 
     HPackEncoder(final OutboundDynamicTable dynamicTable, final Charset charset) {
@@ -74,6 +90,13 @@ public HPackEncoder(final CharsetEncoder charsetEncoder) {
         this(new OutboundDynamicTable(), charsetEncoder);
     }
 
+    /**
+     * @since 5.1
+     */
+    public HPackEncoder(final CharsetEncoder charsetEncoder, final HPackIndexingPolicy indexingPolicy) {
+        this(new OutboundDynamicTable(), charsetEncoder, indexingPolicy);
+    }
+
     static void encodeInt(final ByteArrayBuffer dst, final int n, final int i, final int mask) {
 
         final int nbits = 0xFF >>> (8 - n);
@@ -100,13 +123,12 @@ static void encodeHuffman(final ByteArrayBuffer dst, final ByteBuffer src) {
     void encodeString(final ByteArrayBuffer dst, final ByteBuffer src, final boolean huffman) {
 
         final int strLen = src.remaining();
-        if (huffman) {
-            this.huffmanBuf.clear();
-            this.huffmanBuf.ensureCapacity(strLen);
-            Huffman.ENCODER.encode(this.huffmanBuf, src);
-            dst.ensureCapacity(this.huffmanBuf.length() + 8);
-            encodeInt(dst, 7, this.huffmanBuf.length(), 0x80);
-            dst.append(this.huffmanBuf.array(), 0, this.huffmanBuf.length());
+        // Fall back to plain encoding if Huffman coding would make the string longer
+        final int encodedLen = huffman ? Huffman.ENCODER.encodedLength(src) : Integer.MAX_VALUE;
+        if (encodedLen <= strLen) {
+            dst.ensureCapacity(encodedLen + 8);
+            encodeInt(dst, 7, encodedLen, 0x80);
+            Huffman.ENCODER.encode(dst, src);
         } else {
             dst.ensureCapacity(strLen + 8);
             encodeInt(dst, 7, strLen, 0x0);
@@ -150,13 +172,11 @@ int encodeString(
 
         clearState();
         if (this.charsetEncoder == null) {
-            if (huffman) {
-                this.huffmanBuf.clear();
-                this.huffmanBuf.ensureCapacity(len);
-                Huffman.ENCODER.encode(this.huffmanBuf, charSequence, off, len);
-                dst.ensureCapacity(this.huffmanBuf.length() + 8);
-                encodeInt(dst, 7, this.huffmanBuf.length(), 0x80);
-                dst.append(this.huffmanBuf.array(), 0, this.huffmanBuf.length());
+            final int encodedLen = huffman ? Huffman.ENCODER.encodedLength(charSequence, off, len) : Integer.MAX_VALUE;
+            if (encodedLen <= len) {
+                dst.ensureCapacity(encodedLen + 8);
+                encodeInt(dst, 7, encodedLen, 0x80);
+                Huffman.ENCODER.encode(dst, charSequence, off, len);
             } else {
                 dst.ensureCapacity(len + 8);
                 encodeInt(dst, 7, len, 0x0);
@@ -226,6 +246,15 @@ void encodeLiteralHeader(
         } else {
             encodeInt(dst, n, index, mask);
             nameLen = existing.getHeader().getNameLen();
+            final StatusCodeCache statusCodeCache = StatusCodeCache.INSTANCE;
+            final HPackHeader cached = existing == statusCodeCache.getNameEntry() ? statusCodeCache.getHeader(value) : null;
+            if (cached != null) {
+                statusCodeCache.encodeValue(dst, cached, useHuffman);
+                if (representation == HPackRepresentation.WITH_INDEXING) {
+                    dynamicTable.add(cached);
+                }
+                return;
+            }
         }
         final int valueLen = encodeString(dst, value != null ? value : "", useHuffman);
         if (representation == HPackRepresentation.WITH_INDEXING) {
@@ -237,19 +266,6 @@ void encodeIndex(final ByteArrayBuffer dst, final int index) {
         encodeInt(dst, 7, index, 0x80);
     }
 
-    private int findFullMatch(final List<HPackEntry> entries, final String value) {
-        if (entries == null || entries.isEmpty()) {
-            return 0;
-        }
-        for (int i = 0; i < entries.size(); i++) {
-            final HPackEntry entry = entries.get(i);
-            if (LangUtils.equals(value, entry.getHeader().getValue())) {
-                return entry.getIndex();
-            }
-        }
-        return 0;
-    }
-
     void encodeHeader(
             final ByteArrayBuffer dst, final Header header,
             final boolean noIndexing, final boolean useHuffman) throws CharacterCodingException {
@@ -265,35 +281,27 @@ void encodeHeader(
             representation = HPackRepresentation.NEVER_INDEXED;
         } else if (noIndexing) {
             representation = HPackRepresentation.WITHOUT_INDEXING;
+        } else if (!indexingPolicy.isIndexable(name, value)) {
+            representation = HPackRepresentation.WITHOUT_INDEXING;
         } else {
             representation = HPackRepresentation.WITH_INDEXING;
         }
 
-        final List<HPackEntry> staticEntries = StaticTable.INSTANCE.getByName(name);
-
-        if (representation == HPackRepresentation.WITH_INDEXING) {
+        if (!sensitive && !noIndexing) {
             // Try to find full match and encode as as index
-            final int staticIndex = findFullMatch(staticEntries, value);
-            if (staticIndex > 0) {
-                encodeIndex(dst, staticIndex);
-                return;
+            HPackEntry match = StaticTable.INSTANCE.getFullMatch(name, value);
+            if (match == null) {
+                match = dynamicTable.getFullMatch(name, value);
             }
-            final List<HPackEntry> dynamicEntries = dynamicTable.getByName(name);
-            final int dynamicIndex = findFullMatch(dynamicEntries, value);
-            if (dynamicIndex > 0) {
-                encodeIndex(dst, dynamicIndex);
+            if (match != null) {
+                encodeIndex(dst, match.getIndex());
                 return;
             }
         }
         // Encode as literal
-        HPackEntry existing = null;
-        if (staticEntries != null && !staticEntries.isEmpty()) {
-            existing = staticEntries.get(0);
-        } else {
-            final List<HPackEntry> dynamicEntries = dynamicTable.getByName(name);
-            if (dynamicEntries != null && !dynamicEntries.isEmpty()) {
-                existing = dynamicEntries.get(0);
-            }
+        HPackEntry existing = StaticTable.INSTANCE.getNameMatch(name);
+        if (existing == null) {
+            existing = dynamicTable.getNameMatch(name);
         }
         encodeLiteralHeader(dst, existing, name, value, sensitive, representation, useHuffman);
     }
@@ -301,8 +309,28 @@ void encodeHeader(
     void encodeHeaders(
             final ByteArrayBuffer dst, final List<? extends Header> headers,
             final boolean noIndexing, final boolean useHuffman) throws CharacterCodingException {
-        for (int i = 0; i < headers.size(); i++) {
+        final int start = dst.length();
+        final long version = dynamicTable.getVersion();
+        final int[] offsets = memo.offsets(headers.size());
+        final int replayed = memo.replay(dst, headers, offsets, version, noIndexing, useHuffman);
+        if (replayed == headers.size()) {
+            return;
+        }
+        for (int i = replayed; i < headers.size(); i++) {
             encodeHeader(dst, headers.get(i), noIndexing, useHuffman);
+            offsets[i] = dst.length() - start;
+        }
+        // Blocks that did not alter the dynamic table can be reused as long as the table stays unchanged.
+        // Only memoize the leading fields represented as indexes; literals are likely to vary.
+        if (dynamicTable.getVersion() == version) {
+            final byte[] b = dst.array();
+            int indexed = replayed;
+            while (indexed < headers.size() && (b[start + (indexed > 0 ? offsets[indexed - 1] : 0)] & 0x80) != 0) {
+                indexed++;
+            }
+            if (indexed > replayed) {
+                memo.store(headers, indexed, b, start, version, noIndexing, useHuffman);
+            }
         }
     }
 
@@ -0,0 +1,63 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.hpack;
+
+import org.apache.hc.core5.annotation.Internal;
+
+/**
+ * Decides whether a header field not marked as sensitive should be added to the HPACK
+ * dynamic table. Instances are used by a single {@link HPackEncoder} and can keep
+ * per connection state. They do not need to be thread-safe.
+ *
+ * @since 5.1
+ */
+@Internal
+public interface HPackIndexingPolicy {
+
+    /**
+     * Indexes every header field.
+     */
+    HPackIndexingPolicy ALWAYS = new HPackIndexingPolicy() {
+
+        @Override
+        public boolean isIndexable(final String name, final String value) {
+            return true;
+        }
+
+    };
+
+    /**
+     * Called once for every non-sensitive header field that is being encoded.
+     *
+     * @param name the header name.
+     * @param value the header value. May be {@code null}.
+     * @return {@code true} if the header field should be represented with incremental indexing,
+     * {@code false} if it should be represented without indexing.
+     */
+    boolean isIndexable(String name, String value);
+
+}
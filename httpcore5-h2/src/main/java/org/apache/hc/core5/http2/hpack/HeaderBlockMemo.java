@@ -0,0 +1,163 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.hpack;
+
+import java.util.List;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.util.ByteArrayBuffer;
+import org.apache.hc.core5.util.LangUtils;
+
+/**
+ * Per encoder memo of recently encoded header blocks. A block can only be reused as long
+ * as the state of the dynamic table is exactly the same as at the time the block was
+ * encoded, which is the case for blocks whose encoding did not insert any entry into the
+ * dynamic table. Any prefix of a memoized block can be reused for header lists
+ * starting with the same header fields. Sensitive header fields never match.
+ * <p>
+ * With the default {@link HPackIndexingPolicy#ALWAYS} policy the first blocks of a connection
+ * populate the dynamic table and are not memoized; once the fields of a recurring header list
+ * are all present in the table, its blocks get memoized and replayed until the next insertion.
+ * Header lists with a field value changing on every message cause an insertion each time and
+ * therefore do not benefit from the memo.
+ */
+final class HeaderBlockMemo {
+
+    static final int DEFAULT_SIZE = 8;
+    static final int MAX_BLOCK_SIZE = 2048;
+
+    private final Entry[] entries;
+    private int next;
+    private int[] offsets;
+
+    HeaderBlockMemo(final int size) {
+        this.entries = new Entry[size];
+        this.offsets = new int[16];
+    }
+
+    HeaderBlockMemo() {
+        this(DEFAULT_SIZE);
+    }
+
+    private static boolean matches(final Header header, final String name, final String value) {
+        return !header.isSensitive()
+                && name.equals(header.getName())
+                && LangUtils.equals(value, header.getValue());
+    }
+
+    /**
+     * Appends the encoded form of the longest memoized prefix of the given header list
+     * and records the offsets of its header field boundaries.
+     *
+     * @return the number of header fields that have been encoded.
+     */
+    int replay(
+            final ByteArrayBuffer dst, final List<? extends Header> headers, final int[] offsets,
+            final long version, final boolean noIndexing, final boolean useHuffman) {
+        Entry best = null;
+        int bestLen = 0;
+        for (int i = 0; i < entries.length; i++) {
+            final Entry entry = entries[i];
+            if (entry == null || entry.version != version
+                    || entry.noIndexing != noIndexing || entry.useHuffman != useHuffman) {
+                continue;
+            }
+            final int max = Math.min(entry.names.length, headers.size());
+            int len = 0;
+            while (len < max && matches(headers.get(len), entry.names[len], entry.values[len])) {
+                len++;
+            }
+            if (len > bestLen) {
+                best = entry;
+                bestLen = len;
+            }
+        }
+        if (best != null) {
+            System.arraycopy(best.offsets, 0, offsets, 0, bestLen);
+            dst.append(best.encoded, 0, best.offsets[bestLen - 1]);
+        }
+        return bestLen;
+    }
+
+    /**
+     * Returns a buffer for the offsets of the header field boundaries (relative to the start
+     * of the block) of a block with the given number of header fields.
+     */
+    int[] offsets(final int count) {
+        if (offsets.length < count) {
+            offsets = new int[Math.max(count, offsets.length << 1)];
+        }
+        return offsets;
+    }
+
+    /**
+     * Memoizes the first {@code count} header fields of an encoded block. The offsets of
+     * the header field boundaries must have been recorded in the array returned by
+     * {@link #offsets(int)}.
+     */
+    void store(
+            final List<? extends Header> headers, final int count, final byte[] b, final int off,
+            final long version, final boolean noIndexing, final boolean useHuffman) {
+        if (count == 0 || offsets[count - 1] > MAX_BLOCK_SIZE) {
+            return;
+        }
+        final Entry entry = new Entry(count, version, noIndexing, useHuffman);
+        for (int i = 0; i < count; i++) {
+            final Header header = headers.get(i);
+            entry.names[i] = header.getName();
+            entry.values[i] = header.getValue();
+            entry.offsets[i] = offsets[i];
+        }
+        entry.encoded = new byte[offsets[count - 1]];
+        System.arraycopy(b, off, entry.encoded, 0, entry.encoded.length);
+        entries[next] = entry;
+        next = (next + 1) % entries.length;
+    }
+
+    static final class Entry {
+
+        final String[] names;
+        final String[] values;
+        final int[] offsets;
+        final long version;
+        final boolean noIndexing;
+        final boolean useHuffman;
+
+        byte[] encoded;
+
+        Entry(final int count, final long version, final boolean noIndexing, final boolean useHuffman) {
+            this.names = new String[count];
+            this.values = new String[count];
+            this.offsets = new int[count];
+            this.version = version;
+            this.noIndexing = noIndexing;
+            this.useHuffman = useHuffman;
+        }
+
+    }
+
+}
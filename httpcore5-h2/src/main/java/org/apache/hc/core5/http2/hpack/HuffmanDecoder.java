@@ -24,7 +24,6 @@
  * <http://www.apache.org/>.
  *
  */
-
 package org.apache.hc.core5.http2.hpack;
 
 import java.nio.ByteBuffer;
@@ -32,89 +31,129 @@
 import org.apache.hc.core5.util.ByteArrayBuffer;
 
 /**
- * This Huffman codec implementation has been derived from Twitter HPack project
- * (https://github.com/twitter/hpack)
+ * Table driven Huffman decoder. The code tree is flattened into a finite state machine
+ * whose states are the internal nodes of the tree. The machine consumes input four bits
+ * at a time, which given the shortest code length of five bits emits at most one symbol
+ * per transition.
  */
 final class HuffmanDecoder {
 
-    private final HuffmanNode root;
+    private static final int STATE_MASK = 0xFF;
+    private static final int SYMBOL_SHIFT = 8;
+    private static final int FLAG_EMIT = 1 << 16;
+    private static final int FLAG_ACCEPT = 1 << 17;
+    private static final int FLAG_FAIL = 1 << 18;
+
+    /**
+     * Transitions indexed by {@code (state << 4) | nibble}. Each entry encodes the next state
+     * in its lowest 8 bits, the emitted symbol in the next 8 bits followed by the flags.
+     */
+    private final int[] transitions;
 
     HuffmanDecoder(final int[] codes, final byte[] lengths) {
-        root = buildTree(codes, lengths);
+        this.transitions = buildTransitions(codes, lengths);
     }
 
     void decode(final ByteArrayBuffer out, final ByteBuffer src) throws HPackException {
-        HuffmanNode node = this.root;
-        int current = 0;
-        int bits = 0;
+        final int[] table = this.transitions;
+        int state = 0;
+        int flags = FLAG_ACCEPT;
         while (src.hasRemaining()) {
             final int b = src.get() & 0xFF;
-            current = (current << 8) | b;
-            bits += 8;
-            while (bits >= 8) {
-                final int c = (current >>> (bits - 8)) & 0xFF;
-                node = node.getChild(c);
-                bits -= node.getBits();
-                if (node.isTerminal()) {
-                    if (node.getSymbol() == Huffman.EOS) {
-                        throw new HPackException("EOS decoded");
-                    }
-                    out.append(node.getSymbol());
-                    node = root;
+            int t = table[(state << 4) | (b >>> 4)];
+            if ((t & (FLAG_EMIT | FLAG_FAIL)) != 0) {
+                if ((t & FLAG_FAIL) != 0) {
+                    throw new HPackException("EOS decoded");
                 }
+                out.append((t >>> SYMBOL_SHIFT) & 0xFF);
             }
-        }
-
-        while (bits > 0) {
-            final int c = (current << (8 - bits)) & 0xFF;
-            node = node.getChild(c);
-            if (node.isTerminal() && node.getBits() <= bits) {
-                bits -= node.getBits();
-                out.append(node.getSymbol());
-                node = this.root;
-            } else {
-                break;
+            state = t & STATE_MASK;
+            t = table[(state << 4) | (b & 0x0F)];
+            if ((t & (FLAG_EMIT | FLAG_FAIL)) != 0) {
+                if ((t & FLAG_FAIL) != 0) {
+                    throw new HPackException("EOS decoded");
+                }
+                out.append((t >>> SYMBOL_SHIFT) & 0xFF);
             }
+            state = t & STATE_MASK;
+            flags = t;
         }
 
         // Section 5.2. String Literal Representation
-        // Padding not corresponding to the most significant bits of the code
-        // for the EOS symbol (0xFF) MUST be treated as a decoding error.
-        final int mask = (1 << bits) - 1;
-        if ((current & mask) != mask) {
+        // Padding strictly longer than 7 bits or not corresponding to the most significant
+        // bits of the code for the EOS symbol MUST be treated as a decoding error.
+        if ((flags & FLAG_ACCEPT) == 0) {
             throw new HPackException("Invalid padding");
         }
     }
 
-    private static HuffmanNode buildTree(final int[] codes, final byte[] lengths) {
-        final HuffmanNode root = new HuffmanNode();
+    private static int[] buildTransitions(final int[] codes, final byte[] lengths) {
+        // Binary code tree. Internal nodes are numbered from 0 (root); a child reference
+        // is either a non-negative internal node number or a leaf encoded as -(symbol + 1)
+        final int maxNodes = codes.length - 1;
+        final int[] children = new int[maxNodes * 2];
+        final int[] depths = new int[maxNodes];
+        final boolean[] allOnes = new boolean[maxNodes];
+        allOnes[0] = true;
+        int nodeCount = 1;
         for (int symbol = 0; symbol < codes.length; symbol++) {
-
             final int code = codes[symbol];
-            int length = lengths[symbol];
-
-            HuffmanNode current = root;
-            while (length > 8) {
-                if (current.isTerminal()) {
+            final int length = lengths[symbol];
+            int node = 0;
+            for (int i = length - 1; i > 0; i--) {
+                final int bit = (code >>> i) & 1;
+                int child = children[node * 2 + bit];
+                if (child < 0) {
                     throw new IllegalStateException("Invalid Huffman code: prefix not unique");
                 }
-                length -= 8;
-                final int i = (code >>> length) & 0xFF;
-                if (!current.hasChild(i)) {
-                    current.setChild(i, new HuffmanNode());
+                if (child == 0) {
+                    if (nodeCount >= maxNodes) {
+                        throw new IllegalStateException("Invalid Huffman code: too many nodes");
+                    }
+                    child = nodeCount++;
+                    children[node * 2 + bit] = child;
+                    depths[child] = depths[node] + 1;
+                    allOnes[child] = allOnes[node] && bit == 1;
                 }
-                current = current.getChild(i);
+                node = child;
+            }
+            final int bit = code & 1;
+            if (children[node * 2 + bit] != 0) {
+                throw new IllegalStateException("Invalid Huffman code: prefix not unique");
             }
+            children[node * 2 + bit] = -(symbol + 1);
+        }
+        if (nodeCount != maxNodes) {
+            throw new IllegalStateException("Invalid Huffman code: code tree not complete");
+        }
 
-            final HuffmanNode terminal = new HuffmanNode(symbol, length);
-            final int shift = 8 - length;
-            final int start = (code << shift) & 0xFF;
-            final int end = 1 << shift;
-            for (int i = start; i < start + end; i++) {
-                current.setChild(i, terminal);
+        final int[] table = new int[maxNodes << 4];
+        for (int state = 0; state < maxNodes; state++) {
+            for (int nibble = 0; nibble < 16; nibble++) {
+                int node = state;
+                int entry = 0;
+                for (int i = 3; i >= 0; i--) {
+                    final int child = children[node * 2 + ((nibble >>> i) & 1)];
+                    if (child < 0) {
+                        final int symbol = -child - 1;
+                        if (symbol == Huffman.EOS) {
+                            entry |= FLAG_FAIL;
+                            break;
+                        }
+                        entry |= FLAG_EMIT | (symbol << SYMBOL_SHIFT);
+                        node = 0;
+                    } else {
+                        node = child;
+                    }
+                }
+                // Root or a run of less than 8 one bits from the root is valid padding
+                if (node == 0 || (allOnes[node] && depths[node] < 8)) {
+                    entry |= FLAG_ACCEPT;
+                }
+                table[(state << 4) | nibble] = entry | node;
             }
         }
-        return root;
+        return table;
     }
 
-}
\ No newline at end of file
+}
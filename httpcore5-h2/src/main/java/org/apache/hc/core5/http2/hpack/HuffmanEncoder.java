@@ -24,7 +24,6 @@
  * <http://www.apache.org/>.
  *
  */
-
 package org.apache.hc.core5.http2.hpack;
 
 import java.nio.ByteBuffer;
@@ -34,6 +33,10 @@
 /**
  * This Huffman codec implementation has been derived from Twitter HPack project
  * (https://github.com/twitter/hpack)
+ * <p>
+ * Codes are packed into a 64 bit accumulator and flushed to the output 32 bits at a time
+ * directly into the backing array of the output buffer, which is sized upfront
+ * to the exact encoded length.
  */
 final class HuffmanEncoder {
 
@@ -45,58 +48,88 @@ final class HuffmanEncoder {
         this.lengths = lengths;
     }
 
+    int encodedLength(final ByteBuffer src) {
+        long nbits = 0;
+        for (int i = src.position(); i < src.limit(); i++) {
+            nbits += lengths[src.get(i) & 0xFF];
+        }
+        return (int) ((nbits + 7) >>> 3);
+    }
+
+    int encodedLength(final CharSequence src, final int off, final int len) {
+        long nbits = 0;
+        for (int i = 0; i < len; i++) {
+            nbits += lengths[src.charAt(off + i) & 0xFF];
+        }
+        return (int) ((nbits + 7) >>> 3);
+    }
+
     void encode(final ByteArrayBuffer out, final ByteBuffer src) {
+        final int start = out.length();
+        final int total = encodedLength(src);
+        out.ensureCapacity(total);
+        final byte[] dst = out.array();
+        int pos = start;
 
         long current = 0;
         int n = 0;
-
         while (src.hasRemaining()) {
             final int b = src.get() & 0xFF;
-            final int code = codes[b];
-            final int nbits = lengths[b];
-
-            current <<= nbits;
-            current |= code;
-            n += nbits;
-
-            while (n >= 8) {
-                n -= 8;
-                out.append((int)(current >> n));
+            current = (current << lengths[b]) | codes[b];
+            n += lengths[b];
+            if (n >= 32) {
+                n -= 32;
+                final int word = (int) (current >>> n);
+                dst[pos] = (byte) (word >>> 24);
+                dst[pos + 1] = (byte) (word >>> 16);
+                dst[pos + 2] = (byte) (word >>> 8);
+                dst[pos + 3] = (byte) word;
+                pos += 4;
             }
         }
-
-        if (n > 0) {
-            current <<= (8 - n);
-            current |= (0xFF >>> n); // this should be EOS symbol
-            out.append((int) current);
-        }
+        pos = flush(dst, pos, current, n);
+        out.setLength(pos);
     }
 
     void encode(final ByteArrayBuffer out, final CharSequence src, final int off, final int len) {
+        final int start = out.length();
+        final int total = encodedLength(src, off, len);
+        out.ensureCapacity(total);
+        final byte[] dst = out.array();
+        int pos = start;
 
         long current = 0;
         int n = 0;
-
         for (int i = 0; i < len; i++) {
             final int b = src.charAt(off + i) & 0xFF;
-            final int code = codes[b];
-            final int nbits = lengths[b];
-
-            current <<= nbits;
-            current |= code;
-            n += nbits;
-
-            while (n >= 8) {
-                n -= 8;
-                out.append((int)(current >> n));
+            current = (current << lengths[b]) | codes[b];
+            n += lengths[b];
+            if (n >= 32) {
+                n -= 32;
+                final int word = (int) (current >>> n);
+                dst[pos] = (byte) (word >>> 24);
+                dst[pos + 1] = (byte) (word >>> 16);
+                dst[pos + 2] = (byte) (word >>> 8);
+                dst[pos + 3] = (byte) word;
+                pos += 4;
             }
         }
+        pos = flush(dst, pos, current, n);
+        out.setLength(pos);
+    }
 
-        if (n > 0) {
-            current <<= (8 - n);
-            current |= (0xFF >>> n); // this should be EOS symbol
-            out.append((int) current);
+    private static int flush(final byte[] dst, final int off, final long current, final int n) {
+        int pos = off;
+        int remaining = n;
+        while (remaining >= 8) {
+            remaining -= 8;
+            dst[pos++] = (byte) (current >>> remaining);
+        }
+        if (remaining > 0) {
+            // pad with the most significant bits of the EOS symbol
+            dst[pos++] = (byte) ((current << (8 - remaining)) | (0xFF >>> remaining));
         }
+        return pos;
     }
 
 }
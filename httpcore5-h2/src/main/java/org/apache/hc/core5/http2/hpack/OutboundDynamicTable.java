@@ -24,30 +24,39 @@
  * <http://www.apache.org/>.
  *
  */
-
 package org.apache.hc.core5.http2.hpack;
 
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
-
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.util.Asserts;
+import org.apache.hc.core5.util.LangUtils;
 
+/**
+ * Encoder side dynamic table. Entries are kept in a ring ordered by insertion sequence number
+ * and indexed by two chained hash tables, one keyed by header name and value and one keyed
+ * by header name only. The HPACK index of an entry is derived from its sequence number,
+ * so insertions and evictions never require re-indexing of other entries.
+ */
 final class OutboundDynamicTable {
 
+    private static final int INITIAL_CAPACITY = 16;
+
     private final StaticTable staticTable;
-    private final FifoLinkedList headers;
-    private final Map<String, LinkedList<HPackEntry>> mapByName;
+
+    private Entry[] ring;
+    private Entry[] buckets;
+    private Entry[] nameBuckets;
+    private int count;
+    private long lastSeq;
+    private long version;
 
     private int maxSize;
     private int currentSize;
 
     OutboundDynamicTable(final StaticTable staticTable) {
         this.staticTable = staticTable;
-        this.headers = new FifoLinkedList();
-        this.mapByName = new HashMap<>();
+        this.ring = new Entry[INITIAL_CAPACITY];
+        this.buckets = new Entry[INITIAL_CAPACITY];
+        this.nameBuckets = new Entry[INITIAL_CAPACITY];
         this.maxSize = Integer.MAX_VALUE;
         this.currentSize = 0;
     }
@@ -62,9 +71,18 @@ public int getMaxSize() {
 
     public void setMaxSize(final int maxSize) {
         this.maxSize = maxSize;
+        this.version++;
         evict();
     }
 
+    /**
+     * Returns a number that changes every time the table gets modified. As long as the version
+     * stays the same, so do the indexes of all entries.
+     */
+    long getVersion() {
+        return version;
+    }
+
     public int getCurrentSize() {
         return currentSize;
     }
@@ -74,15 +92,18 @@ int staticLength() {
     }
 
     int dynamicLength() {
-        return headers.size();
+        return count;
     }
 
     Header getDynamicEntry(final int index) {
-        return headers.get(index);
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException();
+        }
+        return ring[(int) (lastSeq - index) & (ring.length - 1)].header;
     }
 
     public int length() {
-        return staticTable.length() + headers.size();
+        return staticTable.length() + count;
     }
 
     public Header getHeader(final int index) {
@@ -91,49 +112,131 @@ public Header getHeader(final int index) {
         }
         return index <= staticTable.length()
                         ? staticTable.get(index)
-                        : headers.get(index - staticTable.length() - 1);
+                        : getDynamicEntry(index - staticTable.length() - 1);
     }
 
     public void add(final HPackHeader header) {
+        version++;
         final int entrySize = header.getTotalSize();
         if (entrySize > this.maxSize) {
             clear();
-            this.mapByName.clear();
             return;
         }
-        final String key = header.getName();
-        final FifoLinkedList.InternalNode node = headers.addFirst(header);
-        LinkedList<HPackEntry> nodes = mapByName.get(key);
-        if (nodes == null) {
-            nodes = new LinkedList<>();
-            mapByName.put(key, nodes);
+        if (count == ring.length) {
+            expand();
         }
-        nodes.addFirst(node);
+        final Entry entry = new Entry(header, ++lastSeq);
+        ring[(int) entry.seq & (ring.length - 1)] = entry;
+        link(entry);
+        count++;
         currentSize += entrySize;
         evict();
     }
 
-    private void clear() {
-        currentSize = 0;
-        headers.clear();
+    /**
+     * Returns the most recently added entry matching both the name and the value
+     * or {@code null} if there is none.
+     */
+    HPackEntry getFullMatch(final String name, final String value) {
+        final int hash = hash(name, value);
+        for (Entry entry = buckets[hash & (buckets.length - 1)]; entry != null; entry = entry.next) {
+            if (entry.hash == hash
+                    && name.equals(entry.header.getName())
+                    && LangUtils.equals(value, entry.header.getValue())) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the most recently added entry with the given name or {@code null} if there is none.
+     */
+    HPackEntry getNameMatch(final String name) {
+        final int nameHash = name.hashCode();
+        for (Entry entry = nameBuckets[nameHash & (nameBuckets.length - 1)]; entry != null; entry = entry.nextByName) {
+            if (entry.nameHash == nameHash && name.equals(entry.header.getName())) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    static int hash(final String name, final String value) {
+        return name.hashCode() * 31 + (value != null ? value.hashCode() : 0);
+    }
+
+    private void link(final Entry entry) {
+        final int i = entry.hash & (buckets.length - 1);
+        entry.next = buckets[i];
+        buckets[i] = entry;
+        final int j = entry.nameHash & (nameBuckets.length - 1);
+        entry.nextByName = nameBuckets[j];
+        nameBuckets[j] = entry;
+    }
+
+    private void unlink(final Entry entry) {
+        final int i = entry.hash & (buckets.length - 1);
+        if (buckets[i] == entry) {
+            buckets[i] = entry.next;
+        } else {
+            Entry current = buckets[i];
+            while (current != null && current.next != entry) {
+                current = current.next;
+            }
+            if (current != null) {
+                current.next = entry.next;
+            }
+        }
+        final int j = entry.nameHash & (nameBuckets.length - 1);
+        if (nameBuckets[j] == entry) {
+            nameBuckets[j] = entry.nextByName;
+        } else {
+            Entry current = nameBuckets[j];
+            while (current != null && current.nextByName != entry) {
+                current = current.nextByName;
+            }
+            if (current != null) {
+                current.nextByName = entry.nextByName;
+            }
+        }
+        entry.next = null;
+        entry.nextByName = null;
+    }
+
+    private void expand() {
+        final int capacity = ring.length << 1;
+        final Entry[] newRing = new Entry[capacity];
+        this.buckets = new Entry[capacity];
+        this.nameBuckets = new Entry[capacity];
+        // Re-link from the oldest to the newest to keep the most recent entries first in their chains
+        for (long seq = lastSeq - count + 1; seq <= lastSeq; seq++) {
+            final Entry entry = ring[(int) seq & (ring.length - 1)];
+            newRing[(int) seq & (capacity - 1)] = entry;
+            link(entry);
+        }
+        this.ring = newRing;
     }
 
-    public List<HPackEntry> getByName(final String key) {
-        return this.mapByName.get(key);
+    private void clear() {
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = null;
+            buckets[i] = null;
+            nameBuckets[i] = null;
+        }
+        count = 0;
+        currentSize = 0;
     }
 
     private void evict() {
         while (currentSize > maxSize) {
-            final FifoLinkedList.InternalNode node = headers.removeLast();
-            if (node != null) {
-                final HPackHeader header = node.getHeader();
-                currentSize -= header.getTotalSize();
-
-                final String key = header.getName();
-                final LinkedList<HPackEntry> nodes = mapByName.get(key);
-                if (nodes != null) {
-                    nodes.remove(node);
-                }
+            if (count > 0) {
+                final int i = (int) (lastSeq - count + 1) & (ring.length - 1);
+                final Entry entry = ring[i];
+                ring[i] = null;
+                unlink(entry);
+                count--;
+                currentSize -= entry.header.getTotalSize();
             } else {
                 Asserts.check(currentSize == 0, "Current table size must be zero");
                 break;
@@ -141,4 +244,38 @@ private void evict() {
         }
     }
 
+    final class Entry implements HPackEntry {
+
+        private final HPackHeader header;
+        private final long seq;
+        private final int hash;
+        private final int nameHash;
+
+        private Entry next;
+        private Entry nextByName;
+
+        Entry(final HPackHeader header, final long seq) {
+            this.header = header;
+            this.seq = seq;
+            this.hash = hash(header.getName(), header.getValue());
+            this.nameHash = header.getName().hashCode();
+        }
+
+        @Override
+        public HPackHeader getHeader() {
+            return header;
+        }
+
+        @Override
+        public int getIndex() {
+            return staticTable.length() + (int) (lastSeq - seq) + 1;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + header + "; seqNum=" + seq + ']';
+        }
+
+    }
+
 }
@@ -27,14 +27,16 @@
 
 package org.apache.hc.core5.http2.hpack;
 
-import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Arrays;
 
 import org.apache.hc.core5.http2.H2PseudoRequestHeaders;
 import org.apache.hc.core5.http2.H2PseudoResponseHeaders;
+import org.apache.hc.core5.util.LangUtils;
 
+/**
+ * Static table. Lookups by header name and value as well as by header name only
+ * are resolved through collision free (perfect) hash tables computed at construction time.
+ */
 final class StaticTable {
 
     static final HPackHeader[] STANDARD_HEADERS = {
@@ -104,24 +106,22 @@ final class StaticTable {
     final static StaticTable INSTANCE = new StaticTable(STANDARD_HEADERS);
 
     private final HPackHeader[] headers;
-    private final ConcurrentMap<String, CopyOnWriteArrayList<HPackEntry>> mapByName;
+    private final PerfectHash fullIndex;
+    private final PerfectHash nameIndex;
 
     StaticTable(final HPackHeader... headers) {
         this.headers = headers;
-        this.mapByName = new ConcurrentHashMap<>();
-
+        final InternalEntry[] entries = new InternalEntry[headers.length];
+        final int[] fullHashes = new int[headers.length];
+        final int[] nameHashes = new int[headers.length];
         for (int i = 0; i < headers.length; i++) {
             final HPackHeader header = headers[i];
-
-            final String key = header.getName();
-            CopyOnWriteArrayList<HPackEntry> entries = this.mapByName.get(key);
-            if (entries == null) {
-                entries = new CopyOnWriteArrayList<>(new HPackEntry[] { new InternalEntry(header, i) });
-                this.mapByName.put(key, entries);
-            } else {
-                entries.add(new InternalEntry(header, i));
-            }
+            entries[i] = new InternalEntry(header, i);
+            fullHashes[i] = OutboundDynamicTable.hash(header.getName(), header.getValue());
+            nameHashes[i] = header.getName().hashCode();
         }
+        this.fullIndex = new PerfectHash(entries, fullHashes, true);
+        this.nameIndex = new PerfectHash(entries, nameHashes, false);
     }
 
     public int length() {
@@ -132,8 +132,76 @@ public HPackHeader get(final int index) {
         return this.headers[index - 1];
     }
 
-    public List<HPackEntry> getByName(final String key) {
-        return this.mapByName.get(key);
+    /**
+     * Returns the entry matching both the name and the value or {@code null} if there is none.
+     */
+    HPackEntry getFullMatch(final String name, final String value) {
+        final InternalEntry entry = fullIndex.get(OutboundDynamicTable.hash(name, value));
+        return entry != null
+                && name.equals(entry.header.getName())
+                && LangUtils.equals(value, entry.header.getValue()) ? entry : null;
+    }
+
+    /**
+     * Returns the entry with the lowest index with the given name or {@code null} if there is none.
+     */
+    HPackEntry getNameMatch(final String name) {
+        final InternalEntry entry = nameIndex.get(name.hashCode());
+        return entry != null && name.equals(entry.header.getName()) ? entry : null;
+    }
+
+    /**
+     * Open addressing table of power of two size with a multiplicative hash function whose
+     * multiplier is chosen so that no two distinct keys share a slot. Of entries with equal keys
+     * only the first one is indexed.
+     */
+    static final class PerfectHash {
+
+        private final InternalEntry[] slots;
+        private final int multiplier;
+        private final int shift;
+
+        PerfectHash(final InternalEntry[] entries, final int[] hashes, final boolean matchValue) {
+            int bits = 1;
+            while ((1 << bits) < entries.length * 2) {
+                bits++;
+            }
+            for (; bits <= 16; bits++) {
+                final InternalEntry[] candidate = new InternalEntry[1 << bits];
+                for (int attempt = 0; attempt < 1024; attempt++) {
+                    final int m = 0x9E3779B9 + (attempt << 1);
+                    if (fill(candidate, entries, hashes, m, 32 - bits, matchValue)) {
+                        this.slots = candidate;
+                        this.multiplier = m;
+                        this.shift = 32 - bits;
+                        return;
+                    }
+                    Arrays.fill(candidate, null);
+                }
+            }
+            throw new IllegalStateException("Unable to compute perfect hash of the static table");
+        }
+
+        private static boolean fill(
+                final InternalEntry[] slots, final InternalEntry[] entries, final int[] hashes,
+                final int m, final int shift, final boolean matchValue) {
+            for (int i = 0; i < entries.length; i++) {
+                final int slot = (hashes[i] * m) >>> shift;
+                final InternalEntry existing = slots[slot];
+                if (existing == null) {
+                    slots[slot] = entries[i];
+                } else if (!existing.header.getName().equals(entries[i].header.getName())
+                        || matchValue && !LangUtils.equals(existing.header.getValue(), entries[i].header.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        InternalEntry get(final int hash) {
+            return slots[(hash * multiplier) >>> shift];
+        }
+
     }
 
     static class InternalEntry implements HPackEntry {
@@ -0,0 +1,122 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.hpack;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hc.core5.http2.H2PseudoResponseHeaders;
+import org.apache.hc.core5.util.ByteArrayBuffer;
+
+/**
+ * Shared cache of {@code :status} header fields with pre-encoded values, for all three digit
+ * status codes not present in the static table. The name of such header fields is always
+ * encoded as a reference to the {@code :status} entry of the static table, so the encoded
+ * value can be reused across connections regardless of their dynamic table state.
+ */
+final class StatusCodeCache {
+
+    static final StatusCodeCache INSTANCE = new StatusCodeCache(StaticTable.INSTANCE);
+
+    private static final int MIN_CODE = 100;
+    private static final int MAX_CODE = 599;
+
+    private final HPackEntry nameEntry;
+    private final HPackHeader[] headers;
+    private final byte[][] huffmanValues;
+    private final byte[][] plainValues;
+
+    StatusCodeCache(final StaticTable staticTable) {
+        this.nameEntry = staticTable.getNameMatch(H2PseudoResponseHeaders.STATUS);
+        final int n = MAX_CODE - MIN_CODE + 1;
+        this.headers = new HPackHeader[n];
+        this.huffmanValues = new byte[n][];
+        this.plainValues = new byte[n][];
+        final ByteArrayBuffer buffer = new ByteArrayBuffer(8);
+        for (int code = MIN_CODE; code <= MAX_CODE; code++) {
+            final String value = Integer.toString(code);
+            headers[code - MIN_CODE] = new HPackHeader(H2PseudoResponseHeaders.STATUS, value);
+            final byte[] raw = value.getBytes(StandardCharsets.US_ASCII);
+
+            buffer.clear();
+            final int encodedLen = Huffman.ENCODER.encodedLength(ByteBuffer.wrap(raw));
+            if (encodedLen <= raw.length) {
+                HPackEncoder.encodeInt(buffer, 7, encodedLen, 0x80);
+                Huffman.ENCODER.encode(buffer, ByteBuffer.wrap(raw));
+            } else {
+                HPackEncoder.encodeInt(buffer, 7, raw.length, 0x0);
+                buffer.append(raw, 0, raw.length);
+            }
+            huffmanValues[code - MIN_CODE] = buffer.toByteArray();
+
+            buffer.clear();
+            HPackEncoder.encodeInt(buffer, 7, raw.length, 0x0);
+            buffer.append(raw, 0, raw.length);
+            plainValues[code - MIN_CODE] = buffer.toByteArray();
+        }
+    }
+
+    /**
+     * Returns the static table entry used as the name reference of all cached header fields.
+     */
+    HPackEntry getNameEntry() {
+        return nameEntry;
+    }
+
+    private static int parse(final String value) {
+        if (value == null || value.length() != 3) {
+            return -1;
+        }
+        final int d1 = value.charAt(0) - '0';
+        final int d2 = value.charAt(1) - '0';
+        final int d3 = value.charAt(2) - '0';
+        if (d1 < 0 || d1 > 9 || d2 < 0 || d2 > 9 || d3 < 0 || d3 > 9) {
+            return -1;
+        }
+        final int code = d1 * 100 + d2 * 10 + d3;
+        return code >= MIN_CODE && code <= MAX_CODE ? code : -1;
+    }
+
+    /**
+     * Returns the shared header instance for the given status value or {@code null}
+     * if the value is not cached.
+     */
+    HPackHeader getHeader(final String value) {
+        final int code = parse(value);
+        return code > 0 ? headers[code - MIN_CODE] : null;
+    }
+
+    /**
+     * Appends the encoded string literal of the given cached header.
+     */
+    void encodeValue(final ByteArrayBuffer dst, final HPackHeader header, final boolean huffman) {
+        final int i = parse(header.getValue()) - MIN_CODE;
+        final byte[] encoded = huffman ? huffmanValues[i] : plainValues[i];
+        dst.append(encoded, 0, encoded.length);
+    }
+
+}
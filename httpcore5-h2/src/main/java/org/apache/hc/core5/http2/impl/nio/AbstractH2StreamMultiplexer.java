@@ -32,15 +32,15 @@
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.charset.CharacterCodingException;
+import java.util.ArrayList;
 import java.util.Deque;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.CancellationException;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hc.core5.concurrent.Cancellable;
@@ -69,15 +69,19 @@
 import org.apache.hc.core5.http2.H2Error;
 import org.apache.hc.core5.http2.H2StreamResetException;
 import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.config.H2HeaderIndexingPolicy;
 import org.apache.hc.core5.http2.config.H2Param;
 import org.apache.hc.core5.http2.config.H2Setting;
+import org.apache.hc.core5.http2.frame.FrameConsts;
 import org.apache.hc.core5.http2.frame.FrameFactory;
 import org.apache.hc.core5.http2.frame.FrameFlag;
 import org.apache.hc.core5.http2.frame.FrameType;
 import org.apache.hc.core5.http2.frame.RawFrame;
 import org.apache.hc.core5.http2.frame.StreamIdGenerator;
+import org.apache.hc.core5.http2.hpack.AdaptiveHPackIndexingPolicy;
 import org.apache.hc.core5.http2.hpack.HPackDecoder;
 import org.apache.hc.core5.http2.hpack.HPackEncoder;
+import org.apache.hc.core5.http2.hpack.HPackIndexingPolicy;
 import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
 import org.apache.hc.core5.http2.nio.AsyncPingHandler;
 import org.apache.hc.core5.http2.nio.command.PingCommand;
@@ -87,6 +91,7 @@
 import org.apache.hc.core5.reactor.ssl.TlsDetails;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.ByteArrayBuffer;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.Identifiable;
 import org.apache.hc.core5.util.Timeout;
 
@@ -94,6 +99,9 @@ abstract class AbstractH2StreamMultiplexer implements Identifiable, HttpConnecti
 
     private static final long LINGER_TIME = 1000; // 1 second
     private static final long CONNECTION_WINDOW_LOW_MARK = 10 * 1024 * 1024; // 10 MiB
+    private static final long RTT_PROBE_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+    private static final int MAX_OUTPUT_BATCH = 64;
+    private static final long MAX_STREAMS_UPDATE_INTERVAL = TimeUnit.SECONDS.toNanos(1);
 
     enum ConnectionHandshake { READY, ACTIVE, GRACEFUL_SHUTDOWN, SHUTDOWN}
     enum SettingsHandshake { READY, TRANSMITTED, ACKED }
@@ -109,9 +117,15 @@ enum SettingsHandshake { READY, TRANSMITTED, ACKED }
     private final FrameInputBuffer inputBuffer;
     private final FrameOutputBuffer outputBuffer;
     private final Deque<RawFrame> outputQueue;
+    private final List<RawFrame> outputBatch;
+    private final Queue<RawFrame> controlQueue;
+    private final Queue<H2StreamChannelImpl> creditQueue;
+    private final H2StreamScheduler streamScheduler;
     private final HPackEncoder hPackEncoder;
     private final HPackDecoder hPackDecoder;
-    private final Map<Integer, H2Stream> streamMap;
+    private final H2StreamMap<H2Stream> streamMap;
+    private final Queue<H2Stream> pushedStreams;
+    private final Queue<H2StreamChannelImpl> readyQueue;
     private final Queue<AsyncPingHandler> pingHandlers;
     private final AtomicInteger connInputWindow;
     private final AtomicInteger connOutputWindow;
@@ -125,15 +139,47 @@ enum SettingsHandshake { READY, TRANSMITTED, ACKED }
 
     private int initInputWinSize;
     private int initOutputWinSize;
-    private int lowMark;
+
+    // Input window auto-tuning
+    private volatile long rttNanos;
+    private long rttProbeData;
+    private long rttProbeTime;
+    private long settingsTime;
+
+    private final H2StreamAdmissionController admissionController;
+    private int advertisedMaxStreams;
+    private long maxStreamsUpdateTime;
+    private boolean admissionRegistered;
 
     private volatile H2Config remoteConfig;
 
     private Continuation continuation;
 
+    // Streams that may have output to produce. Confined to the I/O thread
+    private H2Stream readyHead;
+    private H2Stream readyTail;
+
     private int processedRemoteStreamId;
     private EndpointDetails endpointDetails;
 
+    // Socket timeout replaced by the idle buffer timeout while buffer release is pending
+    private Timeout suspendedTimeout;
+    // Remainder of the suspended socket timeout once idle buffers have been released
+    private Timeout remainingTimeout;
+
+    AbstractH2StreamMultiplexer(
+            final ProtocolIOSession ioSession,
+            final FrameFactory frameFactory,
+            final StreamIdGenerator idGenerator,
+            final HttpProcessor httpProcessor,
+            final CharCodingConfig charCodingConfig,
+            final H2Config h2Config,
+            final H2StreamListener streamListener,
+            final ByteBufferAllocator bufferAllocator) {
+        this(ioSession, frameFactory, idGenerator, httpProcessor, charCodingConfig, h2Config, streamListener,
+                bufferAllocator, null);
+    }
+
     AbstractH2StreamMultiplexer(
             final ProtocolIOSession ioSession,
             final FrameFactory frameFactory,
@@ -141,24 +187,37 @@ enum SettingsHandshake { READY, TRANSMITTED, ACKED }
             final HttpProcessor httpProcessor,
             final CharCodingConfig charCodingConfig,
             final H2Config h2Config,
-            final H2StreamListener streamListener) {
+            final H2StreamListener streamListener,
+            final ByteBufferAllocator bufferAllocator,
+            final H2StreamAdmissionController admissionController) {
         this.ioSession = Args.notNull(ioSession, "IO session");
         this.frameFactory = Args.notNull(frameFactory, "Frame factory");
         this.idGenerator = Args.notNull(idGenerator, "Stream id generator");
         this.httpProcessor = Args.notNull(httpProcessor, "HTTP processor");
         this.localConfig = h2Config != null ? h2Config : H2Config.DEFAULT;
+        this.admissionController = admissionController;
+        this.advertisedMaxStreams = this.localConfig.getMaxConcurrentStreams();
         this.inputMetrics = new BasicH2TransportMetrics();
         this.outputMetrics = new BasicH2TransportMetrics();
         this.connMetrics = new BasicHttpConnectionMetrics(this.inputMetrics, this.outputMetrics);
-        this.inputBuffer = new FrameInputBuffer(this.inputMetrics, this.localConfig.getMaxFrameSize());
-        this.outputBuffer = new FrameOutputBuffer(this.outputMetrics, this.localConfig.getMaxFrameSize());
+        this.inputBuffer = new FrameInputBuffer(this.inputMetrics, this.localConfig.getMaxFrameSize(), bufferAllocator);
+        this.outputBuffer = new FrameOutputBuffer(this.outputMetrics, this.localConfig.getMaxFrameSize(), bufferAllocator);
         this.outputQueue = new ConcurrentLinkedDeque<>();
+        this.outputBatch = new ArrayList<>(MAX_OUTPUT_BATCH);
+        this.controlQueue = new ConcurrentLinkedQueue<>();
+        this.creditQueue = new ConcurrentLinkedQueue<>();
+        this.streamScheduler = H2StreamScheduler.create(this.localConfig.getStreamSchedulingPolicy());
         this.pingHandlers = new ConcurrentLinkedQueue<>();
         this.outputRequests = new AtomicInteger(0);
         this.lastStreamId = new AtomicInteger(0);
-        this.hPackEncoder = new HPackEncoder(CharCodingSupport.createEncoder(charCodingConfig));
+        this.hPackEncoder = new HPackEncoder(
+                CharCodingSupport.createEncoder(charCodingConfig),
+                this.localConfig.getHeaderIndexingPolicy() == H2HeaderIndexingPolicy.ADAPTIVE
+                        ? new AdaptiveHPackIndexingPolicy() : HPackIndexingPolicy.ALWAYS);
         this.hPackDecoder = new HPackDecoder(CharCodingSupport.createDecoder(charCodingConfig));
-        this.streamMap = new ConcurrentHashMap<>();
+        this.streamMap = new H2StreamMap<>();
+        this.pushedStreams = new ConcurrentLinkedQueue<>();
+        this.readyQueue = new ConcurrentLinkedQueue<>();
         this.remoteConfig = H2Config.INIT;
         this.connInputWindow = new AtomicInteger(H2Config.INIT.getInitialWindowSize());
         this.connOutputWindow = new AtomicInteger(H2Config.INIT.getInitialWindowSize());
@@ -170,7 +229,6 @@ enum SettingsHandshake { READY, TRANSMITTED, ACKED }
         this.hPackEncoder.setMaxTableSize(H2Config.INIT.getHeaderTableSize());
         this.hPackDecoder.setMaxListSize(H2Config.INIT.getMaxHeaderListSize());
 
-        this.lowMark = H2Config.INIT.getInitialWindowSize() / 2;
         this.streamListener = streamListener;
     }
 
@@ -237,6 +295,8 @@ private int updateOutputWindow(
     }
 
     private void commitFrameInternal(final RawFrame frame) throws IOException {
+        // Control frames committed earlier must go out first
+        flushControlFrames();
         if (outputBuffer.isEmpty() && outputQueue.isEmpty()) {
             if (streamListener != null) {
                 streamListener.onFrameOutput(this, frame.getStreamId(), frame);
@@ -258,6 +318,61 @@ private void commitFrame(final RawFrame frame) throws IOException {
         }
     }
 
+    /**
+     * Queues a control frame for emission with the next batch of control frames.
+     * Pending control frames are written out as a batch at the end of each input event,
+     * at the start of the next output event or ahead of any other frame, whichever
+     * comes first.
+     */
+    private void commitControlFrame(final RawFrame frame) {
+        controlQueue.add(frame);
+    }
+
+    private void flushControlFrames() throws IOException {
+        if (controlQueue.isEmpty() && creditQueue.isEmpty()) {
+            return;
+        }
+        ioSession.getLock().lock();
+        try {
+            int batchLength = 0;
+            RawFrame frame;
+            while ((frame = controlQueue.poll()) != null) {
+                outputBatch.add(frame);
+                batchLength += FrameConsts.HEAD_LEN + frame.getLength();
+            }
+            H2StreamChannelImpl channel;
+            while ((channel = creditQueue.poll()) != null) {
+                frame = produceWindowUpdate(channel);
+                if (frame != null) {
+                    outputBatch.add(frame);
+                    batchLength += FrameConsts.HEAD_LEN + frame.getLength();
+                }
+            }
+            if (outputBatch.isEmpty()) {
+                return;
+            }
+            try {
+                if (outputBuffer.isEmpty() && outputQueue.isEmpty()
+                        && batchLength <= FrameConsts.HEAD_LEN + localConfig.getMaxFrameSize()) {
+                    if (streamListener != null) {
+                        for (int i = 0; i < outputBatch.size(); i++) {
+                            final RawFrame batchFrame = outputBatch.get(i);
+                            streamListener.onFrameOutput(this, batchFrame.getStreamId(), batchFrame);
+                        }
+                    }
+                    outputBuffer.write(outputBatch, ioSession);
+                } else {
+                    outputQueue.addAll(outputBatch);
+                }
+            } finally {
+                outputBatch.clear();
+            }
+            ioSession.setEvent(SelectionKey.OP_WRITE);
+        } finally {
+            ioSession.getLock().unlock();
+        }
+    }
+
     private void commitHeaders(
             final int streamId, final List<? extends Header> headers, final boolean endStream) throws IOException {
         if (streamListener != null) {
@@ -344,6 +459,7 @@ private void streamDataFrame(
 
     private int streamData(
             final int streamId, final AtomicInteger streamOutputWindow, final ByteBuffer payload) throws IOException {
+        flushControlFrames();
         if (outputBuffer.isEmpty() && outputQueue.isEmpty()) {
             final int capacity = Math.min(connOutputWindow.get(), streamOutputWindow.get());
             if (capacity <= 0) {
@@ -371,18 +487,93 @@ private int streamData(
         return 0;
     }
 
-    private void incrementInputCapacity(
-            final int streamId, final AtomicInteger inputWindow, final int inputCapacity) throws IOException {
-        if (inputCapacity > 0) {
-            final int streamWinSize = inputWindow.get();
-            final int remainingCapacity = Integer.MAX_VALUE - streamWinSize;
-            final int chunk = Math.min(inputCapacity, remainingCapacity);
-            if (chunk != 0) {
-                final RawFrame windowUpdateFrame = frameFactory.createWindowUpdate(streamId, chunk);
-                commitFrame(windowUpdateFrame);
-                updateInputWindow(streamId, inputWindow, chunk);
+    private void updateRtt(final long sample) {
+        if (sample > 0) {
+            final long rtt = rttNanos;
+            rttNanos = rtt > 0 ? (rtt * 7 + sample) / 8 : sample;
+        }
+    }
+
+    private void probeRtt() {
+        if (rttProbeData != 0) {
+            return;
+        }
+        final long now = System.nanoTime();
+        if (rttProbeTime != 0 && now - rttProbeTime < RTT_PROBE_INTERVAL) {
+            return;
+        }
+        rttProbeTime = now;
+        rttProbeData = now != 0 ? now : 1;
+        final ByteBuffer data = ByteBuffer.allocate(8);
+        data.putLong(rttProbeData);
+        data.flip();
+        commitControlFrame(frameFactory.createPing(data));
+    }
+
+    /**
+     * Accumulates input capacity released by the stream consumer. Window updates are only sent
+     * once half of the stream window can be granted or the peer is about to run out of window.
+     */
+    private void releaseInputCredit(final H2StreamChannelImpl channel, final int increment) {
+        if (increment <= 0) {
+            return;
+        }
+        int credit;
+        for (;;) {
+            final int current = channel.inputCredit.get();
+            credit = (int) Math.min((long) current + increment, Integer.MAX_VALUE);
+            if (channel.inputCredit.compareAndSet(current, credit)) {
+                break;
             }
         }
+        final int threshold = channel.inputWindowTarget / 2;
+        if (credit >= threshold || channel.getInputWindow().get() < threshold) {
+            scheduleInputCredit(channel);
+        }
+    }
+
+    private void scheduleInputCredit(final H2StreamChannelImpl channel) {
+        if (channel.inputCredit.get() > 0 && channel.creditPending.compareAndSet(false, true)) {
+            ioSession.getLock().lock();
+            try {
+                creditQueue.add(channel);
+                requestSessionOutput();
+            } finally {
+                ioSession.getLock().unlock();
+            }
+        }
+    }
+
+    private RawFrame produceWindowUpdate(final H2StreamChannelImpl channel) {
+        channel.creditPending.set(false);
+        final int credit = channel.inputCredit.getAndSet(0);
+        if (credit <= 0 || channel.isRemoteClosed() || channel.isLocalReset()) {
+            return null;
+        }
+        final AtomicInteger inputWindow = channel.getInputWindow();
+        final int increment;
+        if (localConfig.isInputWindowAutoTuning()) {
+            final long now = System.nanoTime();
+            final long rtt = rttNanos;
+            int target = channel.inputWindowTarget;
+            final int maxTarget = localConfig.getMaxInputWindowSize();
+            if (rtt > 0 && channel.inputCreditTime != 0 && now - channel.inputCreditTime < 2 * rtt && target < maxTarget) {
+                // Half of the window got consumed in less than two round trips,
+                // so the window rather than the consumer limits throughput
+                target = (int) Math.min(maxTarget, target * 2L);
+                channel.inputWindowTarget = target;
+            }
+            channel.inputCreditTime = now;
+            // Never let the window exceed the target no matter how much capacity the consumer grants
+            increment = Math.min(credit, target - inputWindow.get());
+        } else {
+            increment = Math.min(credit, Integer.MAX_VALUE - inputWindow.get());
+        }
+        if (increment <= 0) {
+            return null;
+        }
+        updateInputWindow(channel.getId(), inputWindow, increment);
+        return frameFactory.createWindowUpdate(channel.getId(), increment);
     }
 
     private void requestSessionOutput() {
@@ -390,6 +581,139 @@ private void requestSessionOutput() {
         ioSession.setEvent(SelectionKey.OP_WRITE);
     }
 
+    private void linkReady(final H2Stream stream) {
+        if (stream.ready) {
+            return;
+        }
+        stream.ready = true;
+        stream.prevReady = readyTail;
+        stream.nextReady = null;
+        if (readyTail != null) {
+            readyTail.nextReady = stream;
+        } else {
+            readyHead = stream;
+        }
+        readyTail = stream;
+        streamScheduler.add(stream);
+    }
+
+    private void unlinkReady(final H2Stream stream) {
+        if (!stream.ready) {
+            return;
+        }
+        final H2Stream prev = stream.prevReady;
+        final H2Stream next = stream.nextReady;
+        if (prev != null) {
+            prev.nextReady = next;
+        } else {
+            readyHead = next;
+        }
+        if (next != null) {
+            next.prevReady = prev;
+        } else {
+            readyTail = prev;
+        }
+        stream.prevReady = null;
+        stream.nextReady = null;
+        stream.ready = false;
+        streamScheduler.remove(stream);
+    }
+
+    /**
+     * Moves streams that have requested output from any thread to the ready list.
+     */
+    private void processOutputRequests() {
+        H2StreamChannelImpl channel;
+        while ((channel = readyQueue.poll()) != null) {
+            channel.outputRequested.set(false);
+            final H2Stream stream = streamMap.get(channel.getId());
+            if (stream != null && stream.channel == channel) {
+                linkReady(stream);
+            }
+        }
+    }
+
+    /**
+     * Registers streams promised by {@link H2StreamChannelImpl#push(List, AsyncPushProducer)}.
+     */
+    private void processPushedStreams() {
+        H2Stream stream;
+        while ((stream = pushedStreams.poll()) != null) {
+            streamMap.put(stream.getId(), stream);
+            linkReady(stream);
+        }
+    }
+
+    private void removeStream(final H2Stream stream) {
+        streamMap.remove(stream.getId());
+        unlinkReady(stream);
+        if (stream.admissionTime != 0) {
+            releaseAdmission(stream);
+        }
+    }
+
+    private void removeAllStreams() {
+        if (admissionController != null) {
+            for (final H2Stream stream : streamMap.values()) {
+                if (stream.admissionTime != 0) {
+                    releaseAdmission(stream);
+                }
+            }
+        }
+        streamMap.clear();
+        while (readyHead != null) {
+            unlinkReady(readyHead);
+        }
+    }
+
+    private void admitStream(final H2Stream stream) throws H2StreamResetException {
+        // Streams exceeding the advertised limit may have been initiated before the peer
+        // received the updated setting
+        if (streamMap.size() > advertisedMaxStreams || !admissionController.admit()) {
+            throw new H2StreamResetException(H2Error.REFUSED_STREAM, "Stream refused");
+        }
+        final long now = System.nanoTime();
+        stream.admissionTime = now != 0 ? now : 1;
+    }
+
+    private void releaseAdmission(final H2Stream stream) {
+        final long latency = System.nanoTime() - stream.admissionTime;
+        stream.admissionTime = 0;
+        admissionController.release(latency);
+    }
+
+    private void closeAdmission() {
+        if (admissionRegistered) {
+            admissionRegistered = false;
+            for (final H2Stream stream : streamMap.values()) {
+                if (stream.admissionTime != 0) {
+                    releaseAdmission(stream);
+                }
+            }
+            admissionController.connectionClosed();
+        }
+    }
+
+    /**
+     * Adjusts the advertised {@code MAX_CONCURRENT_STREAMS} to the share of the
+     * server wide admission limit. Updates are sent at most once per
+     * {@link #MAX_STREAMS_UPDATE_INTERVAL} unless the limit drops by more than half.
+     */
+    private void updateMaxConcurrentStreams() throws IOException {
+        if (connState != ConnectionHandshake.ACTIVE || localSettingState != SettingsHandshake.ACKED) {
+            return;
+        }
+        final int maxStreams = admissionController.getMaxConcurrentStreams(localConfig.getMaxConcurrentStreams());
+        if (maxStreams != advertisedMaxStreams) {
+            final long now = System.nanoTime();
+            if (maxStreams < advertisedMaxStreams / 2 || now - maxStreamsUpdateTime >= MAX_STREAMS_UPDATE_INTERVAL) {
+                commitControlFrame(frameFactory.createSettings(new H2Setting(H2Param.MAX_CONCURRENT_STREAMS, maxStreams)));
+                advertisedMaxStreams = maxStreams;
+                maxStreamsUpdateTime = now;
+            }
+        }
+    }
+
     private void updateLastStreamId(final int streamId) {
         final int currentId = lastStreamId.get();
         if (streamId > currentId) {
@@ -419,7 +743,13 @@ public final void onConnect() throws HttpException, IOException {
 
         commitFrame(settingsFrame);
         localSettingState = SettingsHandshake.TRANSMITTED;
+        if (admissionController != null) {
+            admissionController.connectionOpened();
+            admissionRegistered = true;
+        }
+        settingsTime = System.nanoTime();
         maximizeConnWindow(connInputWindow.get());
+        flushControlFrames();
 
         if (streamListener != null) {
             final int initInputWindow = connInputWindow.get();
@@ -438,30 +768,57 @@ public final void onInput(final ByteBuffer src) throws HttpException, IOExceptio
             }
             RawFrame frame;
             while ((frame = inputBuffer.read(ioSession)) != null) {
+                if (!pushedStreams.isEmpty()) {
+                    processPushedStreams();
+                }
                 if (streamListener != null) {
                     streamListener.onFrameInput(this, frame.getStreamId(), frame);
                 }
                 consumeFrame(frame);
             }
+            if (admissionController != null) {
+                updateMaxConcurrentStreams();
+            }
+            flushControlFrames();
+            if (localConfig.isReleaseIdleBuffers() && streamMap.isEmpty() && !inputBuffer.hasData()) {
+                scheduleBufferRelease();
+            }
         }
     }
 
     public final void onOutput() throws HttpException, IOException {
+        flushControlFrames();
+        processPushedStreams();
         ioSession.getLock().lock();
         try {
             if (!outputBuffer.isEmpty()) {
                 outputBuffer.flush(ioSession);
             }
+            // Write out queued frames in batches that fit into the output buffer
+            final int maxBatchLength = FrameConsts.HEAD_LEN + localConfig.getMaxFrameSize();
             while (outputBuffer.isEmpty()) {
-                final RawFrame frame = outputQueue.poll();
-                if (frame != null) {
+                int batchLength = 0;
+                RawFrame frame;
+                while (outputBatch.size() < MAX_OUTPUT_BATCH && (frame = outputQueue.peek()) != null) {
+                    final int frameLength = FrameConsts.HEAD_LEN + frame.getLength();
+                    if (!outputBatch.isEmpty() && batchLength + frameLength > maxBatchLength) {
+                        break;
+                    }
+                    outputQueue.poll();
                     if (streamListener != null) {
                         streamListener.onFrameOutput(this, frame.getStreamId(), frame);
                     }
-                    outputBuffer.write(frame, ioSession);
-                } else {
+                    outputBatch.add(frame);
+                    batchLength += frameLength;
+                }
+                if (outputBatch.isEmpty()) {
                     break;
                 }
+                try {
+                    outputBuffer.write(outputBatch, ioSession);
+                } finally {
+                    outputBatch.clear();
+                }
             }
         } finally {
             ioSession.getLock().unlock();
@@ -474,10 +831,9 @@ public final void onOutput() throws HttpException, IOException {
             }
             final int pendingOutputRequests = outputRequests.get();
             boolean outputPending = false;
-            if (!streamMap.isEmpty() && connOutputWindow.get() > 0) {
-                for (final Iterator<Map.Entry<Integer, H2Stream>> it = streamMap.entrySet().iterator(); it.hasNext(); ) {
-                    final Map.Entry<Integer, H2Stream> entry = it.next();
-                    final H2Stream stream = entry.getValue();
+            processOutputRequests();
+            if (connOutputWindow.get() > 0) {
+                for (H2Stream stream = readyHead; stream != null; stream = stream.nextReady) {
                     if (!stream.isLocalClosed()
                             && stream.getOutputWindow().get() > 0
                             && stream.isOutputReady()) {
@@ -489,8 +845,12 @@ public final void onOutput() throws HttpException, IOException {
             ioSession.getLock().lock();
             try {
                 if (!outputPending && outputBuffer.isEmpty() && outputQueue.isEmpty()
+                        && controlQueue.isEmpty() && creditQueue.isEmpty()
                         && outputRequests.compareAndSet(pendingOutputRequests, 0)) {
                     ioSession.clearEvent(SelectionKey.OP_WRITE);
+                    if (localConfig.isReleaseIdleBuffers() && streamMap.isEmpty()) {
+                        scheduleBufferRelease();
+                    }
                 } else {
                     outputRequests.addAndGet(-pendingOutputRequests);
                 }
@@ -503,12 +863,10 @@ public final void onOutput() throws HttpException, IOException {
             processPendingCommands();
         }
         if (connState.compareTo(ConnectionHandshake.GRACEFUL_SHUTDOWN) == 0) {
-            for (final Iterator<Map.Entry<Integer, H2Stream>> it = streamMap.entrySet().iterator(); it.hasNext(); ) {
-                final Map.Entry<Integer, H2Stream> entry = it.next();
-                final H2Stream stream = entry.getValue();
+            for (final H2Stream stream : streamMap.values()) {
                 if (stream.isLocalClosed() && stream.isRemoteClosed()) {
                     stream.releaseResources();
-                    it.remove();
+                    removeStream(stream);
                 }
             }
             if (streamMap.isEmpty()) {
@@ -527,7 +885,97 @@ public final void onOutput() throws HttpException, IOException {
         }
     }
 
+    /**
+     * Releases idle frame buffers once the connection has seen no I/O activity for
+     * the idle buffer timeout. The socket timeout of the session gets temporarily
+     * replaced with the idle buffer timeout, so that the I/O reactor signals the end
+     * of the idle period. Any I/O activity in the meantime postpones it.
+     */
+    private void scheduleBufferRelease() {
+        final Timeout idleBufferTimeout = localConfig.getIdleBufferTimeout();
+        if (idleBufferTimeout.isDisabled()) {
+            releaseIdleBuffers();
+            return;
+        }
+        ioSession.getLock().lock();
+        try {
+            final Timeout socketTimeout = ioSession.getSocketTimeout();
+            if (suspendedTimeout != null) {
+                if (remainingTimeout == null && idleBufferTimeout.equals(socketTimeout)) {
+                    return;
+                }
+                if (remainingTimeout != null && remainingTimeout.equals(socketTimeout)) {
+                    remainingTimeout = null;
+                    ioSession.setSocketTimeout(idleBufferTimeout);
+                    return;
+                }
+                // The socket timeout has been reset since
+                suspendedTimeout = null;
+                remainingTimeout = null;
+            }
+            if (socketTimeout.isDisabled() || socketTimeout.compareTo(idleBufferTimeout) > 0) {
+                suspendedTimeout = socketTimeout;
+                ioSession.setSocketTimeout(idleBufferTimeout);
+            }
+        } finally {
+            ioSession.getLock().unlock();
+        }
+    }
+
+    private boolean expireBufferRelease(final Timeout timeout) {
+        ioSession.getLock().lock();
+        try {
+            if (suspendedTimeout == null || remainingTimeout != null
+                    || !timeout.equals(localConfig.getIdleBufferTimeout())) {
+                return false;
+            }
+            // Restore the remainder of the original socket timeout
+            remainingTimeout = suspendedTimeout.isDisabled() ? suspendedTimeout :
+                    Timeout.ofMilliseconds(suspendedTimeout.toMilliseconds() - timeout.toMilliseconds());
+            ioSession.setSocketTimeout(remainingTimeout);
+        } finally {
+            ioSession.getLock().unlock();
+        }
+        releaseIdleBuffers();
+        return true;
+    }
+
+    private void releaseIdleBuffers() {
+        if (!streamMap.isEmpty()) {
+            return;
+        }
+        if (!inputBuffer.hasData()) {
+            inputBuffer.release();
+        }
+        ioSession.getLock().lock();
+        try {
+            if (outputBuffer.isEmpty() && outputQueue.isEmpty()) {
+                outputBuffer.release();
+            }
+        } finally {
+            ioSession.getLock().unlock();
+        }
+    }
+
+    private Timeout getSessionTimeout() {
+        ioSession.getLock().lock();
+        try {
+            final Timeout socketTimeout = ioSession.getSocketTimeout();
+            if (suspendedTimeout != null && (remainingTimeout != null
+                    ? remainingTimeout.equals(socketTimeout)
+                    : localConfig.getIdleBufferTimeout().equals(socketTimeout))) {
+                return suspendedTimeout;
+            }
+            return socketTimeout;
+        } finally {
+            ioSession.getLock().unlock();
+        }
+    }
+
     public final void onTimeout(final Timeout timeout) throws HttpException, IOException {
+        if (expireBufferRelease(timeout)) {
+            return;
+        }
         connState = ConnectionHandshake.SHUTDOWN;
 
         final RawFrame goAway;
@@ -539,39 +987,43 @@ public final void onTimeout(final Timeout timeout) throws HttpException, IOExcep
                             "Timeout due to inactivity (" + timeout + ")");
         }
         commitFrame(goAway);
-        for (final Iterator<Map.Entry<Integer, H2Stream>> it = streamMap.entrySet().iterator(); it.hasNext(); ) {
-            final Map.Entry<Integer, H2Stream> entry = it.next();
-            final H2Stream stream = entry.getValue();
+        processPushedStreams();
+        for (final H2Stream stream : streamMap.values()) {
             stream.reset(new H2StreamResetException(H2Error.NO_ERROR, "Timeout due to inactivity (" + timeout + ")"));
         }
-        streamMap.clear();
+        removeAllStreams();
     }
 
     public final void onDisconnect() {
-        for (;;) {
-            final AsyncPingHandler pingHandler = pingHandlers.poll();
-            if (pingHandler != null) {
-                pingHandler.cancel();
-            } else {
-                break;
+        try {
+            for (;;) {
+                final AsyncPingHandler pingHandler = pingHandlers.poll();
+                if (pingHandler != null) {
+                    pingHandler.cancel();
+                } else {
+                    break;
+                }
             }
-        }
-        for (final Iterator<Map.Entry<Integer, H2Stream>> it = streamMap.entrySet().iterator(); it.hasNext(); ) {
-            final Map.Entry<Integer, H2Stream> entry = it.next();
-            final H2Stream stream = entry.getValue();
-            stream.cancel();
-        }
-        for (;;) {
-            final Command command = ioSession.poll();
-            if (command != null) {
-                if (command instanceof ExecutableCommand) {
-                    ((ExecutableCommand) command).failed(new ConnectionClosedException());
+            processPushedStreams();
+            for (final H2Stream stream : streamMap.values()) {
+                stream.cancel();
+            }
+            for (;;) {
+                final Command command = ioSession.poll();
+                if (command != null) {
+                    if (command instanceof ExecutableCommand) {
+                        ((ExecutableCommand) command).failed(new ConnectionClosedException());
+                    } else {
+                        command.cancel();
+                    }
                 } else {
-                    command.cancel();
+                    break;
                 }
-            } else {
-                break;
             }
+        } finally {
+            closeAdmission();
+            inputBuffer.release();
+            outputBuffer.release();
         }
     }
 
@@ -584,12 +1036,10 @@ private void processPendingCommands() throws IOException, HttpException {
             if (command instanceof ShutdownCommand) {
                 final ShutdownCommand shutdownCommand = (ShutdownCommand) command;
                 if (shutdownCommand.getType() == CloseMode.IMMEDIATE) {
-                    for (final Iterator<Map.Entry<Integer, H2Stream>> it = streamMap.entrySet().iterator(); it.hasNext(); ) {
-                        final Map.Entry<Integer, H2Stream> entry = it.next();
-                        final H2Stream stream = entry.getValue();
+                    for (final H2Stream stream : streamMap.values()) {
                         stream.cancel();
                     }
-                    streamMap.clear();
+                    removeAllStreams();
                     connState = ConnectionHandshake.SHUTDOWN;
                 } else {
                     if (connState.compareTo(ConnectionHandshake.ACTIVE) <= 0) {
@@ -615,6 +1065,7 @@ private void processPendingCommands() throws IOException, HttpException {
 
                 final H2Stream stream = new H2Stream(channel, streamHandler, false);
                 streamMap.put(streamId, stream);
+                linkReady(stream);
 
                 if (streamListener != null) {
                     final int initInputWindow = stream.getInputWindow().get();
@@ -666,12 +1117,11 @@ public final void onException(final Exception cause) {
                     break;
                 }
             }
-            for (final Iterator<Map.Entry<Integer, H2Stream>> it = streamMap.entrySet().iterator(); it.hasNext(); ) {
-                final Map.Entry<Integer, H2Stream> entry = it.next();
-                final H2Stream stream = entry.getValue();
+            processPushedStreams();
+            for (final H2Stream stream : streamMap.values()) {
                 stream.reset(cause);
             }
-            streamMap.clear();
+            removeAllStreams();
             if (!(cause instanceof ConnectionClosedException)) {
                 if (connState.compareTo(ConnectionHandshake.GRACEFUL_SHUTDOWN) <= 0) {
                     final H2Error errorCode;
@@ -689,6 +1139,7 @@ public final void onException(final Exception cause) {
             connState = ConnectionHandshake.SHUTDOWN;
         } catch (final IOException ignore) {
         } finally {
+            closeAdmission();
             ioSession.close(cause instanceof IOException ? CloseMode.IMMEDIATE : CloseMode.GRACEFUL);
         }
     }
@@ -732,8 +1183,11 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                 }
 
                 if (stream.isTerminated()) {
-                    streamMap.remove(streamId);
+                    removeStream(stream);
                     stream.releaseResources();
+                } else if (stream.isOutputReady()) {
+                    // Incoming messages may unblock output such as a request body awaiting 100-continue
+                    linkReady(stream);
                 }
             }
             break;
@@ -773,8 +1227,10 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                 }
 
                 if (stream.isTerminated()) {
-                    streamMap.remove(streamId);
+                    removeStream(stream);
                     stream.releaseResources();
+                } else if (stream.isOutputReady()) {
+                    linkReady(stream);
                 }
             }
             break;
@@ -797,8 +1253,10 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                 }
 
                 if (stream.isTerminated()) {
-                    streamMap.remove(streamId);
+                    removeStream(stream);
                     stream.releaseResources();
+                } else if (stream.isOutputReady()) {
+                    linkReady(stream);
                 }
             }
             break;
@@ -825,6 +1283,7 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                         } catch (final ArithmeticException ex) {
                             throw new H2ConnectionException(H2Error.FLOW_CONTROL_ERROR, ex.getMessage());
                         }
+                        linkReady(stream);
                     }
                 }
                 ioSession.setEvent(SelectionKey.OP_WRITE);
@@ -846,7 +1305,7 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                     }
                     final int errorCode = payload.getInt();
                     stream.reset(new H2StreamResetException(errorCode, "Stream reset (" + errorCode + ")"));
-                    streamMap.remove(streamId);
+                    removeStream(stream);
                     stream.releaseResources();
                 }
             }
@@ -860,16 +1319,20 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                     throw new H2ConnectionException(H2Error.FRAME_SIZE_ERROR, "Invalid PING frame payload");
                 }
                 if (frame.isFlagSet(FrameFlag.ACK)) {
-                    final AsyncPingHandler pingHandler = pingHandlers.poll();
-                    if (pingHandler != null) {
-                        pingHandler.consumeResponse(ping);
+                    if (rttProbeData != 0 && ping.getLong(ping.position()) == rttProbeData) {
+                        rttProbeData = 0;
+                        updateRtt(System.nanoTime() - rttProbeTime);
+                    } else {
+                        final AsyncPingHandler pingHandler = pingHandlers.poll();
+                        if (pingHandler != null) {
+                            pingHandler.consumeResponse(ping);
+                        }
                     }
                 } else {
                     final ByteBuffer pong = ByteBuffer.allocate(ping.remaining());
                     pong.put(ping);
                     pong.flip();
-                    final RawFrame response = frameFactory.createPingAck(pong);
-                    commitFrame(response);
+                    commitControlFrame(frameFactory.createPingAck(pong));
                 }
             }
             break;
@@ -880,6 +1343,10 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                 if (frame.isFlagSet(FrameFlag.ACK)) {
                     if (localSettingState == SettingsHandshake.TRANSMITTED) {
                         localSettingState = SettingsHandshake.ACKED;
+                        if (localConfig.isInputWindowAutoTuning()) {
+                            // Initial RTT estimate
+                            updateRtt(System.nanoTime() - settingsTime);
+                        }
                         ioSession.setEvent(SelectionKey.OP_WRITE);
                         applyLocalSettings();
                     }
@@ -893,8 +1360,7 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                         remoteSettingState = SettingsHandshake.TRANSMITTED;
                     }
                     // Send ACK
-                    final RawFrame response = frameFactory.createSettingsAck();
-                    commitFrame(response);
+                    commitControlFrame(frameFactory.createSettingsAck());
                     remoteSettingState = SettingsHandshake.ACKED;
                 }
             }
@@ -957,24 +1423,20 @@ private void consumeFrame(final RawFrame frame) throws HttpException, IOExceptio
                 final int errorCode = payload.getInt();
                 if (errorCode == H2Error.NO_ERROR.getCode()) {
                     if (connState.compareTo(ConnectionHandshake.ACTIVE) <= 0) {
-                        for (final Iterator<Map.Entry<Integer, H2Stream>> it = streamMap.entrySet().iterator(); it.hasNext(); ) {
-                            final Map.Entry<Integer, H2Stream> entry = it.next();
-                            final int activeStreamId = entry.getKey();
+                        for (final H2Stream stream : streamMap.values()) {
+                            final int activeStreamId = stream.getId();
                             if (!idGenerator.isSameSide(activeStreamId) && activeStreamId > processedLocalStreamId) {
-                                final H2Stream stream = entry.getValue();
                                 stream.cancel();
-                                it.remove();
+                                removeStream(stream);
                             }
                         }
                     }
                     connState = streamMap.isEmpty() ? ConnectionHandshake.SHUTDOWN : ConnectionHandshake.GRACEFUL_SHUTDOWN;
                 } else {
-                    for (final Iterator<Map.Entry<Integer, H2Stream>> it = streamMap.entrySet().iterator(); it.hasNext(); ) {
-                        final Map.Entry<Integer, H2Stream> entry = it.next();
-                        final H2Stream stream = entry.getValue();
+                    for (final H2Stream stream : streamMap.values()) {
                         stream.reset(new H2StreamResetException(errorCode, "Connection terminated by the peer (" + errorCode + ")"));
                     }
-                    streamMap.clear();
+                    removeAllStreams();
                     connState = ConnectionHandshake.SHUTDOWN;
                 }
             }
@@ -989,7 +1451,12 @@ private void consumeDataFrame(final RawFrame frame, final H2Stream stream) throw
         if (payload != null) {
             final int frameLength = frame.getLength();
             final int streamWinSize = updateInputWindow(streamId, stream.getInputWindow(), -frameLength);
-            if (streamWinSize < lowMark && !stream.isRemoteClosed()) {
+            if (localConfig.isInputWindowAutoTuning()) {
+                probeRtt();
+            }
+            if (streamWinSize < stream.getInputWindowTarget() / 2 && !stream.isRemoteClosed()) {
+                // The peer is about to run out of window. Release capacity withheld so far
+                scheduleInputCredit(stream.channel);
                 stream.produceInputCapacityUpdate();
             }
             final int connWinSize = updateInputWindow(0, connInputWindow, -frameLength);
@@ -1009,11 +1476,10 @@ private void consumeDataFrame(final RawFrame frame, final H2Stream stream) throw
         stream.consumeData(payload);
     }
 
-    private void maximizeConnWindow(final int connWinSize) throws IOException {
+    private void maximizeConnWindow(final int connWinSize) {
         final int delta = Integer.MAX_VALUE - connWinSize;
         if (delta > 0) {
-            final RawFrame windowUpdateFrame = frameFactory.createWindowUpdate(0, delta);
-            commitFrame(windowUpdateFrame);
+            commitControlFrame(frameFactory.createWindowUpdate(0, delta));
             updateInputWindow(0, connInputWindow, delta);
         }
     }
@@ -1072,6 +1538,9 @@ private void consumeHeaderFrame(final RawFrame frame, final H2Stream stream) thr
             if (connState == ConnectionHandshake.GRACEFUL_SHUTDOWN) {
                 throw new H2StreamResetException(H2Error.PROTOCOL_ERROR, "Stream refused");
             }
+            if (admissionController != null && stream.isRemoteInitiated() && stream.admissionTime == 0) {
+                admitStream(stream);
+            }
             if (frame.isFlagSet(FrameFlag.END_STREAM)) {
                 stream.setRemoteEndStream();
             }
@@ -1102,6 +1571,10 @@ private void consumeContinuationFrame(final RawFrame frame, final H2Stream strea
             if (stream.isLocalReset()) {
                 return;
             }
+            if (admissionController != null && stream.isRemoteInitiated() && stream.admissionTime == 0
+                    && continuation.type == FrameType.HEADERS.getValue()) {
+                admitStream(stream);
+            }
             if (continuation.endStream) {
                 stream.setRemoteEndStream();
             }
@@ -1167,20 +1640,38 @@ private void consumeSettingsFrame(final ByteBuffer payload) throws HttpException
     }
 
     private void produceOutput() throws HttpException, IOException {
-        for (final Iterator<Map.Entry<Integer, H2Stream>> it = streamMap.entrySet().iterator(); it.hasNext(); ) {
-            final Map.Entry<Integer, H2Stream> entry = it.next();
-            final H2Stream stream = entry.getValue();
+        processOutputRequests();
+        if (readyHead == null) {
+            return;
+        }
+        final List<H2Stream> schedule = streamScheduler.schedule();
+        for (int i = 0; i < schedule.size(); i++) {
+            final H2Stream stream = schedule.get(i);
+            if (!stream.ready) {
+                continue;
+            }
             if (!stream.isLocalClosed() && stream.getOutputWindow().get() > 0) {
-                stream.produceOutput();
+                streamScheduler.prepare(stream);
+                try {
+                    stream.produceOutput();
+                } finally {
+                    streamScheduler.served(stream);
+                }
             }
             if (stream.isTerminated()) {
-                it.remove();
+                removeStream(stream);
                 stream.releaseResources();
+            } else if (!stream.isLocalReset()
+                    && (stream.isLocalClosed() || stream.getOutputWindow().get() <= 0 || !stream.isOutputReady())) {
+                // Streams re-join the ready list when requesting output or when their output window
+                // gets updated. Locally reset streams stay until they can be disposed of
+                unlinkReady(stream);
             }
             if (!outputQueue.isEmpty()) {
                 break;
             }
         }
+        schedule.clear();
     }
 
     private void applyRemoteSettings(final H2Config config) throws H2ConnectionException {
@@ -1193,20 +1684,21 @@ private void applyRemoteSettings(final H2Config config) throws H2ConnectionExcep
         if (delta != 0) {
             updateOutputWindow(0, connOutputWindow, delta);
             if (!streamMap.isEmpty()) {
-                for (final Iterator<Map.Entry<Integer, H2Stream>> it = streamMap.entrySet().iterator(); it.hasNext(); ) {
-                    final Map.Entry<Integer, H2Stream> entry = it.next();
-                    final H2Stream stream = entry.getValue();
+                for (final H2Stream stream : streamMap.values()) {
                     try {
                         updateOutputWindow(stream.getId(), stream.getOutputWindow(), delta);
                     } catch (final ArithmeticException ex) {
                         throw new H2ConnectionException(H2Error.FLOW_CONTROL_ERROR, ex.getMessage());
                     }
+                    if (delta > 0) {
+                        linkReady(stream);
+                    }
                 }
             }
         }
     }
 
-    private void applyLocalSettings() throws H2ConnectionException {
+    private void applyLocalSettings() throws IOException {
         hPackDecoder.setMaxTableSize(localConfig.getHeaderTableSize());
         hPackDecoder.setMaxListSize(localConfig.getMaxHeaderListSize());
 
@@ -1214,17 +1706,20 @@ private void applyLocalSettings() throws H2ConnectionException {
         initInputWinSize = localConfig.getInitialWindowSize();
 
         if (delta != 0 && !streamMap.isEmpty()) {
-            for (final Iterator<Map.Entry<Integer, H2Stream>> it = streamMap.entrySet().iterator(); it.hasNext(); ) {
-                final Map.Entry<Integer, H2Stream> entry = it.next();
-                final H2Stream stream = entry.getValue();
+            for (final H2Stream stream : streamMap.values()) {
                 try {
-                    updateInputWindow(stream.getId(), stream.getInputWindow(), delta);
+                    final int streamWinSize = updateInputWindow(stream.getId(), stream.getInputWindow(), delta);
+                    stream.channel.inputWindowTarget = Math.max(stream.channel.inputWindowTarget + delta, 1);
+                    if (streamWinSize < stream.getInputWindowTarget() / 2 && !stream.isRemoteClosed()) {
+                        // Data sent before the peer applied the new window size may have used it up
+                        scheduleInputCredit(stream.channel);
+                        stream.produceInputCapacityUpdate();
+                    }
                 } catch (final ArithmeticException ex) {
                     throw new H2ConnectionException(H2Error.FLOW_CONTROL_ERROR, ex.getMessage());
                 }
             }
         }
-        lowMark = initInputWinSize / 2;
     }
 
     @Override
@@ -1244,7 +1739,14 @@ public boolean isOpen() {
 
     @Override
     public void setSocketTimeout(final Timeout timeout) {
-        ioSession.setSocketTimeout(timeout);
+        ioSession.getLock().lock();
+        try {
+            suspendedTimeout = null;
+            remainingTimeout = null;
+            ioSession.setSocketTimeout(timeout);
+        } finally {
+            ioSession.getLock().unlock();
+        }
     }
 
     @Override
@@ -1260,14 +1762,14 @@ public EndpointDetails getEndpointDetails() {
                     ioSession.getRemoteAddress(),
                     ioSession.getLocalAddress(),
                     connMetrics,
-                    ioSession.getSocketTimeout());
+                    getSessionTimeout());
         }
         return endpointDetails;
     }
 
     @Override
     public Timeout getSocketTimeout() {
-        return ioSession.getSocketTimeout();
+        return getSessionTimeout();
     }
 
     @Override
@@ -1285,6 +1787,14 @@ public SocketAddress getLocalAddress() {
         return ioSession.getLocalAddress();
     }
 
+    int getActiveStreamCount() {
+        return streamMap.size();
+    }
+
+    int getPeerMaxConcurrentStreams() {
+        return remoteConfig.getMaxConcurrentStreams();
+    }
+
     void appendState(final StringBuilder buf) {
         buf.append("connState=").append(connState)
                 .append(", connInputWindow=").append(connInputWindow)
@@ -1333,12 +1843,29 @@ private class H2StreamChannelImpl implements H2StreamChannel {
         private volatile boolean localEndStream;
 
         private volatile long deadline;
+        private volatile H2StreamPriority priority;
+        private volatile int outputQuota;
+
+        // Input capacity released by the consumer but not yet granted to the peer
+        private final AtomicInteger inputCredit;
+        private final AtomicBoolean creditPending;
+        private volatile int inputWindowTarget;
+        private long inputCreditTime;
+
+        // Set while the stream awaits being added to the ready list
+        private final AtomicBoolean outputRequested;
 
         H2StreamChannelImpl(final int id, final boolean idle, final int initialInputWindowSize, final int initialOutputWindowSize) {
             this.id = id;
             this.idle = idle;
             this.inputWindow = new AtomicInteger(initialInputWindowSize);
             this.outputWindow = new AtomicInteger(initialOutputWindowSize);
+            this.priority = H2StreamPriority.DEFAULT;
+            this.outputQuota = Integer.MAX_VALUE;
+            this.inputCredit = new AtomicInteger(0);
+            this.creditPending = new AtomicBoolean(false);
+            this.inputWindowTarget = initialInputWindowSize;
+            this.outputRequested = new AtomicBoolean(false);
         }
 
         int getId() {
@@ -1364,10 +1891,12 @@ public void submit(final List<Header> headers, final boolean endStream) throws I
                     return;
                 }
                 idle = false;
+                updatePriority(headers);
                 commitHeaders(id, headers, endStream);
                 if (endStream) {
                     localEndStream = true;
                 }
+                requestOutput();
             } finally {
                 ioSession.getLock().unlock();
             }
@@ -1388,7 +1917,6 @@ public void push(final List<Header> headers, final AsyncPushProducer pushProduce
             final H2StreamHandler streamHandler = new ServerPushH2StreamHandler(
                     channel, httpProcessor, connMetrics, pushProducer, context);
             final H2Stream stream = new H2Stream(channel, streamHandler, false);
-            streamMap.put(promisedStreamId, stream);
 
             ioSession.getLock().lock();
             try {
@@ -1396,6 +1924,9 @@ public void push(final List<Header> headers, final AsyncPushProducer pushProduce
                     stream.releaseResources();
                     return;
                 }
+                // The stream map is confined to the I/O thread, which registers the stream
+                // before it processes any frame that may refer to it
+                pushedStreams.add(stream);
                 commitPushPromise(id, promisedStreamId, headers);
                 idle = false;
             } finally {
@@ -1408,18 +1939,22 @@ public void update(final int increment) throws IOException {
             if (remoteEndStream) {
                 return;
             }
-            incrementInputCapacity(0, connInputWindow, increment);
-            incrementInputCapacity(id, inputWindow, increment);
+            // The connection window is kept maximized. Only the stream window needs updating
+            releaseInputCredit(this, increment);
         }
 
         @Override
         public int write(final ByteBuffer payload) throws IOException {
             ioSession.getLock().lock();
             try {
-                if (localEndStream) {
+                if (localEndStream || outputQuota <= 0) {
                     return 0;
                 }
-                return streamData(id, outputWindow, payload);
+                final int bytesWritten = streamData(id, outputWindow, payload);
+                if (outputQuota != Integer.MAX_VALUE) {
+                    outputQuota -= bytesWritten;
+                }
+                return bytesWritten;
             } finally {
                 ioSession.getLock().unlock();
             }
@@ -1439,6 +1974,7 @@ public void endStream(final List<? extends Header> trailers) throws IOException
                     final RawFrame frame = frameFactory.createData(id, null, true);
                     commitFrameInternal(frame);
                 }
+                requestOutput();
             } finally {
                 ioSession.getLock().unlock();
             }
@@ -1451,6 +1987,9 @@ public void endStream() throws IOException {
 
         @Override
         public void requestOutput() {
+            if (outputRequested.compareAndSet(false, true)) {
+                readyQueue.add(this);
+            }
             requestSessionOutput();
         }
 
@@ -1458,6 +1997,25 @@ boolean isRemoteClosed() {
             return remoteEndStream;
         }
 
+        H2StreamPriority getPriority() {
+            return priority;
+        }
+
+        void updatePriority(final List<? extends Header> headers) {
+            final H2StreamPriority newPriority = H2StreamPriority.parse(headers);
+            if (newPriority != null) {
+                priority = newPriority;
+            }
+        }
+
+        int getOutputQuota() {
+            return outputQuota;
+        }
+
+        void setOutputQuota(final int outputQuota) {
+            this.outputQuota = outputQuota;
+        }
+
         void setRemoteEndStream() {
             remoteEndStream = true;
         }
@@ -1487,9 +2045,10 @@ boolean localReset(final int code) throws IOException {
                 }
                 localEndStream = true;
                 deadline = System.currentTimeMillis() + LINGER_TIME;
+                // The I/O thread disposes of the stream once it terminates
+                requestOutput();
                 if (!idle) {
-                    final RawFrame resetStream = frameFactory.createResetStream(id, code);
-                    commitFrameInternal(resetStream);
+                    commitControlFrame(frameFactory.createResetStream(id, code));
                     return true;
                 }
                 return false;
@@ -1517,7 +2076,8 @@ void appendState(final StringBuilder buf) {
                     .append(", inputWindow=").append(inputWindow)
                     .append(", outputWindow=").append(outputWindow)
                     .append(", localEndStream=").append(localEndStream)
-                    .append(", idle=").append(idle);
+                    .append(", idle=").append(idle)
+                    .append(", priority=").append(priority);
         }
 
         @Override
@@ -1537,6 +2097,28 @@ static class H2Stream {
         private final H2StreamHandler handler;
         private final boolean remoteInitiated;
 
+        /**
+         * Output credit carried over between turns by {@link H2StreamScheduler}.
+         */
+        int deficit;
+
+        // Ready list links
+        boolean ready;
+        H2Stream prevReady;
+        H2Stream nextReady;
+
+        // Links maintained by {@link H2StreamScheduler}
+        boolean scheduled;
+        int scheduledBucket;
+        H2Stream prevScheduled;
+        H2Stream nextScheduled;
+
+        /**
+         * Time the stream was admitted by {@link H2StreamAdmissionController}
+         * or zero if the stream holds no admission.
+         */
+        long admissionTime;
+
         private H2Stream(
                 final H2StreamChannelImpl channel,
                 final H2StreamHandler handler,
@@ -1546,6 +2128,10 @@ private H2Stream(
             this.remoteInitiated = remoteInitiated;
         }
 
+        int getInputWindowTarget() {
+            return channel.inputWindowTarget;
+        }
+
         int getId() {
             return channel.getId();
         }
@@ -1562,6 +2148,25 @@ AtomicInteger getInputWindow() {
             return channel.getInputWindow();
         }
 
+        H2StreamPriority getPriority() {
+            return channel.getPriority();
+        }
+
+        int getOutputQuota() {
+            return channel.getOutputQuota();
+        }
+
+        /**
+         * Limits the amount of data the stream may write until the quota gets reset.
+         */
+        void setOutputQuota(final int outputQuota) {
+            channel.setOutputQuota(outputQuota);
+        }
+
+        void resetOutputQuota() {
+            channel.setOutputQuota(Integer.MAX_VALUE);
+        }
+
         boolean isTerminated() {
             return channel.isLocalClosed() && (channel.isRemoteClosed() || channel.isResetDeadline());
         }
@@ -1592,6 +2197,7 @@ void consumePromise(final List<Header> headers) throws HttpException, IOExceptio
         }
 
         void consumeHeader(final List<Header> headers) throws HttpException, IOException {
+            channel.updatePriority(headers);
             try {
                 handler.consumeHeader(headers, channel.isRemoteClosed());
             } catch (final ProtocolException ex) {
@@ -38,6 +38,7 @@
 import org.apache.hc.core5.http2.frame.DefaultFrameFactory;
 import org.apache.hc.core5.reactor.ProtocolIOSession;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 
 /**
  * {@link ClientH2StreamMultiplexer} factory.
@@ -53,18 +54,33 @@ public final class ClientH2StreamMultiplexerFactory {
     private final H2Config h2Config;
     private final CharCodingConfig charCodingConfig;
     private final H2StreamListener streamListener;
+    private final ByteBufferAllocator bufferAllocator;
 
+    /**
+     * @since 5.1
+     */
     public ClientH2StreamMultiplexerFactory(
             final HttpProcessor httpProcessor,
             final HandlerFactory<AsyncPushConsumer> pushHandlerFactory,
             final H2Config h2Config,
             final CharCodingConfig charCodingConfig,
-            final H2StreamListener streamListener) {
+            final H2StreamListener streamListener,
+            final ByteBufferAllocator bufferAllocator) {
         this.httpProcessor = Args.notNull(httpProcessor, "HTTP processor");
         this.pushHandlerFactory = pushHandlerFactory;
         this.h2Config = h2Config != null ? h2Config : H2Config.DEFAULT;
         this.charCodingConfig = charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT;
         this.streamListener = streamListener;
+        this.bufferAllocator = bufferAllocator;
+    }
+
+    public ClientH2StreamMultiplexerFactory(
+            final HttpProcessor httpProcessor,
+            final HandlerFactory<AsyncPushConsumer> pushHandlerFactory,
+            final H2Config h2Config,
+            final CharCodingConfig charCodingConfig,
+            final H2StreamListener streamListener) {
+        this(httpProcessor, pushHandlerFactory, h2Config, charCodingConfig, streamListener, null);
     }
 
     public ClientH2StreamMultiplexerFactory(
@@ -82,7 +98,7 @@ public ClientH2StreamMultiplexerFactory(
 
     public ClientH2StreamMultiplexer create(final ProtocolIOSession ioSession) {
         return new ClientH2StreamMultiplexer(ioSession, DefaultFrameFactory.INSTANCE, httpProcessor,
-                pushHandlerFactory, h2Config, charCodingConfig, streamListener);
+                pushHandlerFactory, h2Config, charCodingConfig, streamListener, bufferAllocator);
     }
 
 }
@@ -37,9 +37,12 @@
 import org.apache.hc.core5.http2.H2TransportMetrics;
 import org.apache.hc.core5.http2.frame.FrameConsts;
 import org.apache.hc.core5.http2.frame.FrameFlag;
+import org.apache.hc.core5.http2.frame.FrameType;
 import org.apache.hc.core5.http2.frame.RawFrame;
 import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
 
 /**
  * Frame input buffer for HTTP/2 non-blocking connections.
@@ -52,8 +55,9 @@ enum State { HEAD_EXPECTED, PAYLOAD_EXPECTED }
 
     private final BasicH2TransportMetrics metrics;
     private final int maxFramePayloadSize;
-    private final byte[] bytes;
-    private final ByteBuffer buffer;
+    private final int bufferLen;
+    private final ByteBufferAllocator allocator;
+    private ByteBuffer buffer;
 
     private State state;
     private int payloadLen;
@@ -61,26 +65,52 @@ enum State { HEAD_EXPECTED, PAYLOAD_EXPECTED }
     private int flags;
     private int streamId;
 
-    FrameInputBuffer(final BasicH2TransportMetrics metrics, final int bufferLen, final int maxFramePayloadSize) {
+    FrameInputBuffer(
+            final BasicH2TransportMetrics metrics,
+            final int bufferLen,
+            final int maxFramePayloadSize,
+            final ByteBufferAllocator allocator) {
         Args.notNull(metrics, "HTTP2 transport metrcis");
         Args.positive(maxFramePayloadSize, "Maximum payload size");
         this.metrics = metrics;
         this.maxFramePayloadSize = Math.max(maxFramePayloadSize, FrameConsts.MIN_FRAME_SIZE);
-        this.bytes = new byte[bufferLen];
-        this.buffer = ByteBuffer.wrap(bytes);
-        this.buffer.flip();
+        this.bufferLen = bufferLen;
+        this.allocator = allocator != null ? allocator : HeapByteBufferAllocator.INSTANCE;
         this.state = State.HEAD_EXPECTED;
     }
 
+    FrameInputBuffer(final BasicH2TransportMetrics metrics, final int bufferLen, final int maxFramePayloadSize) {
+        this(metrics, bufferLen, maxFramePayloadSize, null);
+    }
+
+    /**
+     * @since 5.1
+     */
+    public FrameInputBuffer(
+            final BasicH2TransportMetrics metrics,
+            final int maxFramePayloadSize,
+            final ByteBufferAllocator allocator) {
+        this(metrics, FrameConsts.HEAD_LEN + maxFramePayloadSize, maxFramePayloadSize, allocator);
+    }
+
     public FrameInputBuffer(final BasicH2TransportMetrics metrics, final int maxFramePayloadSize) {
-        this(metrics, FrameConsts.HEAD_LEN + maxFramePayloadSize, maxFramePayloadSize);
+        this(metrics, maxFramePayloadSize, null);
     }
 
     public FrameInputBuffer(final int maxFramePayloadSize) {
         this(new BasicH2TransportMetrics(), maxFramePayloadSize);
     }
 
+    private ByteBuffer buffer() {
+        if (buffer == null) {
+            buffer = allocator.allocate(bufferLen);
+            buffer.flip();
+        }
+        return buffer;
+    }
+
     public void put(final ByteBuffer src) {
+        final ByteBuffer buffer = buffer();
         if (buffer.hasRemaining()) {
             buffer.compact();
         } else {
@@ -90,7 +120,13 @@ public void put(final ByteBuffer src) {
         buffer.flip();
     }
 
+    /**
+     * Reads the next frame. Frame payloads are views of the internal receive buffer
+     * and remain valid only until the next call to {@link #read(ReadableByteChannel)}
+     * or {@link #put(ByteBuffer)}. Payloads of DATA frames are read-only.
+     */
     public RawFrame read(final ReadableByteChannel channel) throws IOException {
+        final ByteBuffer buffer = buffer();
         for (;;) {
             switch (state) {
                 case HEAD_EXPECTED:
@@ -120,20 +156,40 @@ public RawFrame read(final ReadableByteChannel channel) throws IOException {
                             }
                             buffer.reset();
                         }
-                        final ByteBuffer payload = payloadLen > 0 ? ByteBuffer.wrap(bytes, buffer.position(), payloadLen) : null;
+                        final ByteBuffer payload;
+                        if (payloadLen > 0) {
+                            // DATA payloads get handed over to application consumers
+                            // and must not be able to modify the receive buffer
+                            payload = type == FrameType.DATA.getValue() ? buffer.asReadOnlyBuffer() : buffer.duplicate();
+                            payload.limit(buffer.position() + payloadLen);
+                        } else {
+                            payload = null;
+                        }
                         buffer.position(buffer.position() + payloadLen);
                         state = State.HEAD_EXPECTED;
                         metrics.incrementFramesTransferred();
                         return new RawFrame(type, flags, streamId, payload);
                     }
             }
-            if (buffer.hasRemaining()) {
-                buffer.compact();
-            } else {
+            final int bytesRead;
+            final int pos = buffer.position();
+            if (!buffer.hasRemaining()) {
                 buffer.clear();
+                bytesRead = channel.read(buffer);
+                buffer.flip();
+            } else if (state == State.PAYLOAD_EXPECTED && pos + payloadLen <= buffer.capacity()) {
+                // The rest of the frame fits in after the data already in the buffer:
+                // read into the free space at the end and avoid moving the partial payload
+                buffer.position(buffer.limit());
+                buffer.limit(buffer.capacity());
+                bytesRead = channel.read(buffer);
+                buffer.limit(buffer.position());
+                buffer.position(pos);
+            } else {
+                buffer.compact();
+                bytesRead = channel.read(buffer);
+                buffer.flip();
             }
-            final int bytesRead = channel.read(buffer);
-            buffer.flip();
             if (bytesRead > 0) {
                 metrics.incrementBytesTransferred(bytesRead);
             }
@@ -151,10 +207,37 @@ public RawFrame read(final ReadableByteChannel channel) throws IOException {
     }
 
     public void reset() {
-        buffer.compact();
+        if (buffer != null) {
+            buffer.compact();
+        }
         state = State.HEAD_EXPECTED;
     }
 
+    /**
+     * Determines whether the buffer contains data that have not been read yet.
+     *
+     * @since 5.1
+     */
+    public boolean hasData() {
+        return state != State.HEAD_EXPECTED || (buffer != null && buffer.hasRemaining());
+    }
+
+    /**
+     * Releases the underlying buffer back to the allocator. Any data that have not
+     * been read yet get discarded. A new buffer will be allocated when this buffer
+     * is used again.
+     *
+     * @since 5.1
+     */
+    public void release() {
+        if (buffer != null) {
+            final ByteBuffer oldBuffer = buffer;
+            buffer = null;
+            state = State.HEAD_EXPECTED;
+            allocator.release(oldBuffer);
+        }
+    }
+
     public H2TransportMetrics getMetrics() {
         return metrics;
     }
@@ -30,6 +30,7 @@
 import java.nio.ByteBuffer;
 import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.List;
 
 import org.apache.hc.core5.http2.H2ConnectionException;
 import org.apache.hc.core5.http2.H2Error;
@@ -38,6 +39,8 @@
 import org.apache.hc.core5.http2.frame.RawFrame;
 import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
 
 /**
  * Frame output buffer for HTTP/2 non-blocking connections.
@@ -48,14 +51,27 @@ public final class FrameOutputBuffer {
 
     private final BasicH2TransportMetrics metrics;
     private final int maxFramePayloadSize;
-    private final ByteBuffer buffer;
-
-    public FrameOutputBuffer(final BasicH2TransportMetrics metrics, final int maxFramePayloadSize) {
+    private final ByteBufferAllocator allocator;
+    private ByteBuffer buffer;
+    private ByteBuffer headBuffer;
+    private ByteBuffer[] srcs;
+
+    /**
+     * @since 5.1
+     */
+    public FrameOutputBuffer(
+            final BasicH2TransportMetrics metrics,
+            final int maxFramePayloadSize,
+            final ByteBufferAllocator allocator) {
         Args.notNull(metrics, "HTTP2 transport metrcis");
         Args.positive(maxFramePayloadSize, "Maximum payload size");
         this.metrics = metrics;
         this.maxFramePayloadSize = maxFramePayloadSize;
-        this.buffer = ByteBuffer.allocate(FrameConsts.HEAD_LEN + maxFramePayloadSize);
+        this.allocator = allocator != null ? allocator : HeapByteBufferAllocator.INSTANCE;
+    }
+
+    public FrameOutputBuffer(final BasicH2TransportMetrics metrics, final int maxFramePayloadSize) {
+        this(metrics, maxFramePayloadSize, null);
     }
 
     public FrameOutputBuffer(final int maxFramePayloadSize) {
@@ -70,9 +86,8 @@ public void write(final RawFrame frame, final WritableByteChannel channel) throw
             throw new H2ConnectionException(H2Error.FRAME_SIZE_ERROR, "Frame size exceeds maximum");
         }
 
-        buffer.putInt((payload != null ? payload.remaining() << 8 : 0) | (frame.getType() & 0xff));
-        buffer.put((byte) (frame.getFlags() & 0xff));
-        buffer.putInt(frame.getStreamId());
+        final ByteBuffer buffer = buffer();
+        putHead(buffer, frame, payload);
 
         if (payload != null) {
             if (channel instanceof GatheringByteChannel) {
@@ -92,8 +107,110 @@ public void write(final RawFrame frame, final WritableByteChannel channel) throw
         metrics.incrementFramesTransferred();
     }
 
+    /**
+     * Writes out a batch of frames. If the channel supports gathering writes, frame heads
+     * and payloads of all frames are written out with a single gathering write without
+     * copying payloads into the internal buffer. Otherwise the frames get assembled in
+     * the internal buffer and written out at once. Content that cannot be written out
+     * immediately is retained in the internal buffer.
+     * <p>
+     * Total length of the batch, frame heads included, may not exceed the maximum frame
+     * payload size plus {@link FrameConsts#HEAD_LEN}.
+     * </p>
+     *
+     * @since 5.1
+     */
+    public void write(final List<RawFrame> frames, final WritableByteChannel channel) throws IOException {
+        Args.notNull(frames, "Frames");
+        final int frameCount = frames.size();
+        if (frameCount == 1) {
+            write(frames.get(0), channel);
+            return;
+        }
+        if (frameCount == 0) {
+            return;
+        }
+        int total = 0;
+        for (int i = 0; i < frameCount; i++) {
+            final ByteBuffer payload = frames.get(i).getPayload();
+            final int payloadLen = payload != null ? payload.remaining() : 0;
+            if (payloadLen > maxFramePayloadSize) {
+                throw new H2ConnectionException(H2Error.FRAME_SIZE_ERROR, "Frame size exceeds maximum");
+            }
+            total += FrameConsts.HEAD_LEN + payloadLen;
+        }
+        final ByteBuffer buffer = buffer();
+        Args.check(total <= buffer.remaining(), "Frame batch exceeds buffer capacity");
+
+        if (channel instanceof GatheringByteChannel && buffer.position() == 0) {
+            final int headLen = FrameConsts.HEAD_LEN * frameCount;
+            if (headBuffer == null || headBuffer.capacity() < headLen) {
+                headBuffer = ByteBuffer.allocate(headLen);
+            }
+            if (srcs == null || srcs.length < frameCount * 2) {
+                srcs = new ByteBuffer[frameCount * 2];
+            }
+            headBuffer.clear();
+            int n = 0;
+            for (int i = 0; i < frameCount; i++) {
+                final RawFrame frame = frames.get(i);
+                final ByteBuffer payload = frame.getPayload();
+                final int start = headBuffer.position();
+                putHead(headBuffer, frame, payload);
+                final ByteBuffer head = headBuffer.duplicate();
+                head.position(start);
+                head.limit(headBuffer.position());
+                srcs[n++] = head;
+                if (payload != null && payload.hasRemaining()) {
+                    srcs[n++] = payload;
+                }
+            }
+            try {
+                final long bytesWritten = ((GatheringByteChannel) channel).write(srcs, 0, n);
+                if (bytesWritten > 0) {
+                    metrics.incrementBytesTransferred(bytesWritten);
+                }
+                for (int i = 0; i < n; i++) {
+                    if (srcs[i].hasRemaining()) {
+                        buffer.put(srcs[i]);
+                    }
+                }
+            } finally {
+                for (int i = 0; i < n; i++) {
+                    srcs[i] = null;
+                }
+            }
+        } else {
+            for (int i = 0; i < frameCount; i++) {
+                final RawFrame frame = frames.get(i);
+                final ByteBuffer payload = frame.getPayload();
+                putHead(buffer, frame, payload);
+                if (payload != null) {
+                    buffer.put(payload);
+                }
+            }
+            flush(channel);
+        }
+        for (int i = 0; i < frameCount; i++) {
+            metrics.incrementFramesTransferred();
+        }
+    }
+
+    private static void putHead(final ByteBuffer dst, final RawFrame frame, final ByteBuffer payload) {
+        dst.putInt((payload != null ? payload.remaining() << 8 : 0) | (frame.getType() & 0xff));
+        dst.put((byte) (frame.getFlags() & 0xff));
+        dst.putInt(frame.getStreamId());
+    }
+
+    private ByteBuffer buffer() {
+        if (buffer == null) {
+            buffer = allocator.allocate(FrameConsts.HEAD_LEN + maxFramePayloadSize);
+        }
+        return buffer;
+    }
+
     public void flush(final WritableByteChannel channel) throws IOException {
-        if (buffer.position() > 0) {
+        if (buffer != null && buffer.position() > 0) {
             buffer.flip();
             try {
                 final int bytesWritten = channel.write(buffer);
@@ -107,7 +224,22 @@ public void flush(final WritableByteChannel channel) throws IOException {
     }
 
     public boolean isEmpty() {
-        return buffer.position() == 0;
+        return buffer == null || buffer.position() == 0;
+    }
+
+    /**
+     * Releases the underlying buffer back to the allocator. Any data that have not
+     * been flushed yet get discarded. A new buffer will be allocated when this buffer
+     * is used again.
+     *
+     * @since 5.1
+     */
+    public void release() {
+        if (buffer != null) {
+            final ByteBuffer oldBuffer = buffer;
+            buffer = null;
+            allocator.release(oldBuffer);
+        }
     }
 
     public H2TransportMetrics getMetrics() {
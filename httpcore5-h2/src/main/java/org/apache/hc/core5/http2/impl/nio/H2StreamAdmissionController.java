@@ -0,0 +1,176 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Server wide admission control for HTTP/2 streams. A single instance is meant
+ * to be shared by all {@link ServerH2StreamMultiplexer}s of a server.
+ * <p>
+ * The controller keeps track of streams in flight across all connections and
+ * of the average time it takes to complete them. Once the number of streams
+ * in flight reaches the admission limit new streams get refused with
+ * {@code REFUSED_STREAM}, which tells the client the request has not been processed
+ * and can be safely retried, before any request handler gets created. If a target
+ * latency is given, the admission limit gets reduced proportionally while the
+ * average stream completion time exceeds the target.
+ * </p>
+ * <p>
+ * Multiplexers also lower the {@code MAX_CONCURRENT_STREAMS} setting advertised to
+ * their peers to the connection's share of the admission limit so that well-behaved
+ * clients back off before their streams get refused.
+ * </p>
+ *
+ * @since 5.1
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class H2StreamAdmissionController {
+
+    private final int maxStreams;
+    private final long targetLatencyNanos;
+    private final AtomicInteger activeStreams;
+    private final AtomicInteger connectionCount;
+    private final AtomicLong avgLatencyNanos;
+    private final AtomicLong refusedStreams;
+
+    /**
+     * @param maxStreams max number of streams in flight across all connections.
+     * @param targetLatency target stream completion time or {@code null} to disable
+     *                      latency based admission limit.
+     */
+    public H2StreamAdmissionController(final int maxStreams, final Timeout targetLatency) {
+        this.maxStreams = Args.positive(maxStreams, "Max streams");
+        this.targetLatencyNanos = targetLatency != null && !targetLatency.isDisabled()
+                ? targetLatency.toNanoseconds() : 0;
+        this.activeStreams = new AtomicInteger(0);
+        this.connectionCount = new AtomicInteger(0);
+        this.avgLatencyNanos = new AtomicLong(0);
+        this.refusedStreams = new AtomicLong(0);
+    }
+
+    public H2StreamAdmissionController(final int maxStreams) {
+        this(maxStreams, null);
+    }
+
+    /**
+     * Returns the current admission limit.
+     */
+    public int getAdmissionLimit() {
+        if (targetLatencyNanos > 0) {
+            final long avgLatency = avgLatencyNanos.get();
+            if (avgLatency > targetLatencyNanos) {
+                return (int) Math.max(1, maxStreams * targetLatencyNanos / avgLatency);
+            }
+        }
+        return maxStreams;
+    }
+
+    /**
+     * Returns the number of streams currently in flight across all connections.
+     */
+    public int getActiveStreams() {
+        return activeStreams.get();
+    }
+
+    /**
+     * Returns the total number of streams refused so far.
+     */
+    public long getRefusedStreams() {
+        return refusedStreams.get();
+    }
+
+    /**
+     * Returns the average stream completion time.
+     */
+    public long getAverageLatency(final TimeUnit timeUnit) {
+        return timeUnit.convert(avgLatencyNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    boolean admit() {
+        final int limit = getAdmissionLimit();
+        for (;;) {
+            final int current = activeStreams.get();
+            if (current >= limit) {
+                refusedStreams.incrementAndGet();
+                return false;
+            }
+            if (activeStreams.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(final long latencyNanos) {
+        activeStreams.decrementAndGet();
+        for (;;) {
+            final long current = avgLatencyNanos.get();
+            // Exponentially weighted moving average with alpha = 1/8
+            final long update = current == 0 ? latencyNanos : current + (latencyNanos - current) / 8;
+            if (avgLatencyNanos.compareAndSet(current, Math.max(1, update))) {
+                return;
+            }
+        }
+    }
+
+    void connectionOpened() {
+        connectionCount.incrementAndGet();
+    }
+
+    void connectionClosed() {
+        connectionCount.decrementAndGet();
+    }
+
+    /**
+     * Returns the {@code MAX_CONCURRENT_STREAMS} value a connection should advertise
+     * given the locally configured maximum: the connection's share of the admission
+     * limit, but at least one.
+     */
+    int getMaxConcurrentStreams(final int configuredMax) {
+        final int share = getAdmissionLimit() / Math.max(1, connectionCount.get());
+        return Math.max(1, Math.min(configuredMax, share));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buf = new StringBuilder();
+        buf.append("[activeStreams=").append(activeStreams.get())
+                .append(", admissionLimit=").append(getAdmissionLimit())
+                .append(", connections=").append(connectionCount.get())
+                .append(", refusedStreams=").append(refusedStreams.get())
+                .append("]");
+        return buf.toString();
+    }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Open addressing map of HTTP/2 streams keyed by stream id with linear probing.
+ * Stream id {@code 0} never denotes a stream and marks empty slots.
+ * <p>
+ * Streams initiated by the same endpoint share the parity of their ids, which
+ * usually get assigned in sequence. The parity bit therefore only selects the half
+ * of the table the probe sequence starts in, so that consecutive ids of either
+ * endpoint occupy adjacent slots without colliding with those of the opposite endpoint.
+ * </p>
+ * <p>
+ * This class is not thread safe and is expected to be confined to the I/O thread.
+ * </p>
+ *
+ * @since 5.1
+ */
+final class H2StreamMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private volatile int size;
+
+    H2StreamMap(final int initialCapacity) {
+        Args.notNegative(initialCapacity, "Initial capacity");
+        int capacity = MIN_CAPACITY;
+        while (capacity < initialCapacity * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    H2StreamMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    private void allocate(final int capacity) {
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    private int slot(final int streamId) {
+        final int offset = (streamId & 1) != 0 ? (mask + 1) >>> 1 : 0;
+        return ((streamId >>> 1) + offset) & mask;
+    }
+
+    private int find(final int streamId) {
+        int i = slot(streamId);
+        for (;;) {
+            final int key = keys[i];
+            if (key == streamId) {
+                return i;
+            }
+            if (key == 0) {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(final int streamId) {
+        if (streamId == 0) {
+            return null;
+        }
+        final int i = find(streamId);
+        return i >= 0 ? (V) values[i] : null;
+    }
+
+    /**
+     * Maps the stream id to the given value and returns the value previously
+     * mapped to it if any.
+     */
+    @SuppressWarnings("unchecked")
+    V put(final int streamId, final V value) {
+        Args.check(streamId != 0, "Illegal stream id: 0");
+        Args.notNull(value, "Value");
+        int i = slot(streamId);
+        for (;;) {
+            final int key = keys[i];
+            if (key == streamId) {
+                final V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+            if (key == 0) {
+                break;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = streamId;
+        values[i] = value;
+        size++;
+        // Keep the load factor at or below one half
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping of the stream id and returns the value it was mapped to if any.
+     */
+    @SuppressWarnings("unchecked")
+    V remove(final int streamId) {
+        if (streamId == 0) {
+            return null;
+        }
+        int i = find(streamId);
+        if (i < 0) {
+            return null;
+        }
+        final V previous = (V) values[i];
+        size--;
+        // Shift back entries following the removed one instead of leaving a tombstone
+        int j = i;
+        for (;;) {
+            j = (j + 1) & mask;
+            final int key = keys[j];
+            if (key == 0) {
+                break;
+            }
+            final int k = slot(key);
+            final boolean inPlace = i <= j ? (i < k && k <= j) : (i < k || k <= j);
+            if (!inPlace) {
+                keys[i] = key;
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = 0;
+        values[i] = null;
+        return previous;
+    }
+
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, 0);
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Returns a snapshot of all values. The map may be modified while the snapshot
+     * is being iterated over.
+     */
+    @SuppressWarnings("unchecked")
+    List<V> values() {
+        final List<V> list = new ArrayList<>(size);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                list.add((V) values[i]);
+            }
+        }
+        return list;
+    }
+
+    private void rehash(final int capacity) {
+        final int[] oldKeys = keys;
+        final Object[] oldValues = values;
+        allocate(capacity);
+        for (int n = 0; n < oldKeys.length; n++) {
+            final int key = oldKeys[n];
+            if (key != 0) {
+                int i = slot(key);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[n];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[size=" + size + ", capacity=" + keys.length + "]";
+    }
+
+}
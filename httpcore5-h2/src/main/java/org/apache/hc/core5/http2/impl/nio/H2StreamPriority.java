@@ -0,0 +1,126 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.util.List;
+
+import org.apache.hc.core5.http.Header;
+
+/**
+ * Stream priority as defined by the Extensible Prioritization Scheme for HTTP (RFC 9218).
+ *
+ * @since 5.1
+ */
+final class H2StreamPriority {
+
+    static final String HEADER_NAME = "priority";
+
+    static final int DEFAULT_URGENCY = 3;
+    static final int MAX_URGENCY = 7;
+
+    static final H2StreamPriority DEFAULT = new H2StreamPriority(DEFAULT_URGENCY, false);
+
+    private final int urgency;
+    private final boolean incremental;
+
+    H2StreamPriority(final int urgency, final boolean incremental) {
+        this.urgency = urgency;
+        this.incremental = incremental;
+    }
+
+    /**
+     * Urgency level from {@code 0} (most urgent) to {@code 7} (least urgent).
+     */
+    int getUrgency() {
+        return urgency;
+    }
+
+    boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Parses {@code priority} headers contained in the given header list.
+     *
+     * @return stream priority or {@code null} if the headers contain no {@code priority} header.
+     */
+    static H2StreamPriority parse(final List<? extends Header> headers) {
+        if (headers == null) {
+            return null;
+        }
+        int urgency = DEFAULT_URGENCY;
+        boolean incremental = false;
+        boolean found = false;
+        for (int i = 0; i < headers.size(); i++) {
+            final Header header = headers.get(i);
+            if (!HEADER_NAME.equalsIgnoreCase(header.getName())) {
+                continue;
+            }
+            found = true;
+            final String value = header.getValue();
+            if (value == null) {
+                continue;
+            }
+            // Structured field dictionary. Unknown members and parameters are ignored.
+            for (final String member : value.split(",")) {
+                final int paramIdx = member.indexOf(';');
+                final String s = (paramIdx >= 0 ? member.substring(0, paramIdx) : member).trim();
+                final int eqIdx = s.indexOf('=');
+                final String key = eqIdx >= 0 ? s.substring(0, eqIdx).trim() : s;
+                final String v = eqIdx >= 0 ? s.substring(eqIdx + 1).trim() : null;
+                if ("u".equals(key)) {
+                    if (v != null && v.length() == 1) {
+                        final int u = v.charAt(0) - '0';
+                        if (u >= 0 && u <= MAX_URGENCY) {
+                            urgency = u;
+                        }
+                    }
+                } else if ("i".equals(key)) {
+                    if (v == null || "?1".equals(v)) {
+                        incremental = true;
+                    } else if ("?0".equals(v)) {
+                        incremental = false;
+                    }
+                }
+            }
+        }
+        if (!found) {
+            return null;
+        }
+        if (urgency == DEFAULT_URGENCY && !incremental) {
+            return DEFAULT;
+        }
+        return new H2StreamPriority(urgency, incremental);
+    }
+
+    @Override
+    public String toString() {
+        return "u=" + urgency + (incremental ? ", i" : "");
+    }
+
+}
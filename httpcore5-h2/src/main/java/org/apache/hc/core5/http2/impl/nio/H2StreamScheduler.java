@@ -0,0 +1,307 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hc.core5.http2.config.H2StreamSchedulingPolicy;
+
+/**
+ * Determines the order in which HTTP/2 streams get to produce output and how much
+ * data each stream may write in its turn.
+ * <p>
+ * Streams ready to produce output are kept in intrusive linked lists, one per bucket,
+ * maintained incrementally as streams join and leave the ready list. Streams within
+ * a bucket keep the order they joined in or are ordered by stream id. Producing
+ * the output order for a pass does not involve sorting.
+ * </p>
+ *
+ * @since 5.1
+ */
+abstract class H2StreamScheduler {
+
+    /**
+     * Base amount of data a stream may write per turn.
+     */
+    static final int QUANTUM = 4 * 1024;
+
+    static H2StreamScheduler create(final H2StreamSchedulingPolicy policy) {
+        if (policy == H2StreamSchedulingPolicy.ROUND_ROBIN) {
+            return new RoundRobin();
+        } else if (policy == H2StreamSchedulingPolicy.PRIORITY) {
+            return new Priority();
+        }
+        return new Sequential();
+    }
+
+    private final AbstractH2StreamMultiplexer.H2Stream[] heads;
+    private final AbstractH2StreamMultiplexer.H2Stream[] tails;
+    private final List<AbstractH2StreamMultiplexer.H2Stream> schedule;
+
+    H2StreamScheduler(final int bucketCount) {
+        this.heads = new AbstractH2StreamMultiplexer.H2Stream[bucketCount];
+        this.tails = new AbstractH2StreamMultiplexer.H2Stream[bucketCount];
+        this.schedule = new ArrayList<>();
+    }
+
+    /**
+     * Returns the bucket the stream belongs to. Buckets are served in ascending order.
+     */
+    abstract int bucketOf(AbstractH2StreamMultiplexer.H2Stream stream);
+
+    /**
+     * Determines whether streams in the given bucket are kept in the order of their
+     * stream id rather than in the order they joined in.
+     */
+    boolean isOrderedById(final int bucket) {
+        return false;
+    }
+
+    /**
+     * Adds the stream that has become ready to produce output.
+     */
+    final void add(final AbstractH2StreamMultiplexer.H2Stream stream) {
+        if (stream.scheduled) {
+            return;
+        }
+        final int bucket = bucketOf(stream);
+        stream.scheduled = true;
+        stream.scheduledBucket = bucket;
+        AbstractH2StreamMultiplexer.H2Stream prev = tails[bucket];
+        if (isOrderedById(bucket)) {
+            // Stream ids usually increase, so the scan from the tail is short
+            while (prev != null && prev.getId() > stream.getId()) {
+                prev = prev.prevScheduled;
+            }
+        }
+        final AbstractH2StreamMultiplexer.H2Stream next = prev != null ? prev.nextScheduled : heads[bucket];
+        stream.prevScheduled = prev;
+        stream.nextScheduled = next;
+        if (prev != null) {
+            prev.nextScheduled = stream;
+        } else {
+            heads[bucket] = stream;
+        }
+        if (next != null) {
+            next.prevScheduled = stream;
+        } else {
+            tails[bucket] = stream;
+        }
+    }
+
+    /**
+     * Removes the stream that is no longer ready to produce output.
+     */
+    final void remove(final AbstractH2StreamMultiplexer.H2Stream stream) {
+        if (!stream.scheduled) {
+            return;
+        }
+        final int bucket = stream.scheduledBucket;
+        final AbstractH2StreamMultiplexer.H2Stream prev = stream.prevScheduled;
+        final AbstractH2StreamMultiplexer.H2Stream next = stream.nextScheduled;
+        if (prev != null) {
+            prev.nextScheduled = next;
+        } else {
+            heads[bucket] = next;
+        }
+        if (next != null) {
+            next.prevScheduled = prev;
+        } else {
+            tails[bucket] = prev;
+        }
+        stream.prevScheduled = null;
+        stream.nextScheduled = null;
+        stream.scheduled = false;
+    }
+
+    /**
+     * Moves the stream to the end of its bucket, behind the streams that are yet to take their turn.
+     */
+    final void requeue(final AbstractH2StreamMultiplexer.H2Stream stream) {
+        if (stream.scheduled && stream.nextScheduled != null) {
+            remove(stream);
+            add(stream);
+        }
+    }
+
+    /**
+     * Returns streams ready to produce output in the order they are to take their turn.
+     * The returned list remains valid until the next call.
+     */
+    final List<AbstractH2StreamMultiplexer.H2Stream> schedule() {
+        schedule.clear();
+        for (int bucket = 0; bucket < heads.length; bucket++) {
+            for (AbstractH2StreamMultiplexer.H2Stream stream = heads[bucket]; stream != null; stream = stream.nextScheduled) {
+                schedule.add(stream);
+            }
+        }
+        // Streams may have been re-prioritized from any thread since they joined
+        boolean moved = false;
+        for (int i = 0; i < schedule.size(); i++) {
+            final AbstractH2StreamMultiplexer.H2Stream stream = schedule.get(i);
+            if (bucketOf(stream) != stream.scheduledBucket) {
+                remove(stream);
+                add(stream);
+                moved = true;
+            }
+        }
+        if (moved) {
+            schedule.clear();
+            for (int bucket = 0; bucket < heads.length; bucket++) {
+                for (AbstractH2StreamMultiplexer.H2Stream stream = heads[bucket]; stream != null; stream = stream.nextScheduled) {
+                    schedule.add(stream);
+                }
+            }
+        }
+        return schedule;
+    }
+
+    /**
+     * Assigns the stream its output quota before it takes its turn.
+     */
+    void prepare(final AbstractH2StreamMultiplexer.H2Stream stream) {
+    }
+
+    /**
+     * Notifies the scheduler that the stream has had its turn.
+     */
+    void served(final AbstractH2StreamMultiplexer.H2Stream stream) {
+    }
+
+    /**
+     * Deficit round-robin step. Grants the stream its quantum plus whatever deficit has been
+     * carried over from the previous turn.
+     */
+    static void grant(final AbstractH2StreamMultiplexer.H2Stream stream, final int quantum) {
+        stream.setOutputQuota(stream.deficit + quantum);
+    }
+
+    /**
+     * Carries over unused quota (or the overshoot of the last frame) to the next turn.
+     * Streams that have nothing more to write start afresh.
+     */
+    static void carryOver(final AbstractH2StreamMultiplexer.H2Stream stream, final int quantum) {
+        final int remaining = stream.getOutputQuota();
+        stream.resetOutputQuota();
+        if (stream.isLocalClosed() || !stream.isOutputReady()) {
+            stream.deficit = 0;
+        } else {
+            stream.deficit = Math.min(remaining, quantum);
+        }
+    }
+
+    /**
+     * Streams write as much as they can in the order they have become ready.
+     */
+    static class Sequential extends H2StreamScheduler {
+
+        Sequential() {
+            super(1);
+        }
+
+        @Override
+        int bucketOf(final AbstractH2StreamMultiplexer.H2Stream stream) {
+            return 0;
+        }
+
+    }
+
+    /**
+     * Deficit round-robin with the quantum weighted by stream urgency.
+     */
+    static class RoundRobin extends H2StreamScheduler {
+
+        RoundRobin() {
+            super(1);
+        }
+
+        static int quantum(final AbstractH2StreamMultiplexer.H2Stream stream) {
+            return QUANTUM * (H2StreamPriority.MAX_URGENCY + 1 - stream.getPriority().getUrgency());
+        }
+
+        @Override
+        int bucketOf(final AbstractH2StreamMultiplexer.H2Stream stream) {
+            return 0;
+        }
+
+        @Override
+        void prepare(final AbstractH2StreamMultiplexer.H2Stream stream) {
+            grant(stream, quantum(stream));
+        }
+
+        @Override
+        void served(final AbstractH2StreamMultiplexer.H2Stream stream) {
+            carryOver(stream, quantum(stream));
+            requeue(stream);
+        }
+
+    }
+
+    /**
+     * RFC 9218 prioritization. Strict order by urgency; within the same urgency
+     * non-incremental streams go first in the order of their stream id with
+     * no quota, followed by incremental streams in round-robin.
+     */
+    static class Priority extends H2StreamScheduler {
+
+        Priority() {
+            super((H2StreamPriority.MAX_URGENCY + 1) * 2);
+        }
+
+        @Override
+        int bucketOf(final AbstractH2StreamMultiplexer.H2Stream stream) {
+            final H2StreamPriority priority = stream.getPriority();
+            return priority.getUrgency() * 2 + (priority.isIncremental() ? 1 : 0);
+        }
+
+        @Override
+        boolean isOrderedById(final int bucket) {
+            return (bucket & 1) == 0;
+        }
+
+        @Override
+        void prepare(final AbstractH2StreamMultiplexer.H2Stream stream) {
+            if (stream.getPriority().isIncremental()) {
+                grant(stream, QUANTUM);
+            }
+        }
+
+        @Override
+        void served(final AbstractH2StreamMultiplexer.H2Stream stream) {
+            if (stream.getPriority().isIncremental()) {
+                carryOver(stream, QUANTUM);
+                requeue(stream);
+            } else {
+                stream.resetOutputQuota();
+            }
+        }
+
+    }
+
+}
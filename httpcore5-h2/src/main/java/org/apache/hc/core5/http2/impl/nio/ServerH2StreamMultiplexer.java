@@ -51,6 +51,7 @@
 import org.apache.hc.core5.http2.hpack.HeaderListConstraintException;
 import org.apache.hc.core5.reactor.ProtocolIOSession;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 
 /**
  * I/O event handler for events fired by {@link ProtocolIOSession} that implements
@@ -64,6 +65,9 @@ public class ServerH2StreamMultiplexer extends AbstractH2StreamMultiplexer {
 
     private final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory;
 
+    /**
+     * @since 5.1
+     */
     public ServerH2StreamMultiplexer(
             final ProtocolIOSession ioSession,
             final FrameFactory frameFactory,
@@ -71,11 +75,41 @@ public ServerH2StreamMultiplexer(
             final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory,
             final CharCodingConfig charCodingConfig,
             final H2Config h2Config,
-            final H2StreamListener streamListener) {
-        super(ioSession, frameFactory, StreamIdGenerator.EVEN, httpProcessor, charCodingConfig, h2Config, streamListener);
+            final H2StreamListener streamListener,
+            final ByteBufferAllocator bufferAllocator,
+            final H2StreamAdmissionController admissionController) {
+        super(ioSession, frameFactory, StreamIdGenerator.EVEN, httpProcessor, charCodingConfig, h2Config, streamListener,
+                bufferAllocator, admissionController);
         this.exchangeHandlerFactory = Args.notNull(exchangeHandlerFactory, "Handler factory");
     }
 
+    /**
+     * @since 5.1
+     */
+    public ServerH2StreamMultiplexer(
+            final ProtocolIOSession ioSession,
+            final FrameFactory frameFactory,
+            final HttpProcessor httpProcessor,
+            final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory,
+            final CharCodingConfig charCodingConfig,
+            final H2Config h2Config,
+            final H2StreamListener streamListener,
+            final ByteBufferAllocator bufferAllocator) {
+        this(ioSession, frameFactory, httpProcessor, exchangeHandlerFactory, charCodingConfig, h2Config, streamListener,
+                bufferAllocator, null);
+    }
+
+    public ServerH2StreamMultiplexer(
+            final ProtocolIOSession ioSession,
+            final FrameFactory frameFactory,
+            final HttpProcessor httpProcessor,
+            final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory,
+            final CharCodingConfig charCodingConfig,
+            final H2Config h2Config,
+            final H2StreamListener streamListener) {
+        this(ioSession, frameFactory, httpProcessor, exchangeHandlerFactory, charCodingConfig, h2Config, streamListener, null);
+    }
+
     public ServerH2StreamMultiplexer(
             final ProtocolIOSession ioSession,
             final HttpProcessor httpProcessor,
@@ -38,6 +38,7 @@
 import org.apache.hc.core5.http2.frame.DefaultFrameFactory;
 import org.apache.hc.core5.reactor.ProtocolIOSession;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 
 /**
  * {@link ServerH2StreamMultiplexer} factory.
@@ -53,18 +54,49 @@ public final class ServerH2StreamMultiplexerFactory {
     private final H2Config h2Config;
     private final CharCodingConfig charCodingConfig;
     private final H2StreamListener streamListener;
+    private final ByteBufferAllocator bufferAllocator;
+    private final H2StreamAdmissionController admissionController;
 
+    /**
+     * @since 5.1
+     */
     public ServerH2StreamMultiplexerFactory(
             final HttpProcessor httpProcessor,
             final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory,
             final H2Config h2Config,
             final CharCodingConfig charCodingConfig,
-            final H2StreamListener streamListener) {
+            final H2StreamListener streamListener,
+            final ByteBufferAllocator bufferAllocator,
+            final H2StreamAdmissionController admissionController) {
         this.httpProcessor = Args.notNull(httpProcessor, "HTTP processor");
         this.exchangeHandlerFactory = Args.notNull(exchangeHandlerFactory, "Exchange handler factory");
         this.h2Config = h2Config != null ? h2Config : H2Config.DEFAULT;
         this.charCodingConfig = charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT;
         this.streamListener = streamListener;
+        this.bufferAllocator = bufferAllocator;
+        this.admissionController = admissionController;
+    }
+
+    /**
+     * @since 5.1
+     */
+    public ServerH2StreamMultiplexerFactory(
+            final HttpProcessor httpProcessor,
+            final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory,
+            final H2Config h2Config,
+            final CharCodingConfig charCodingConfig,
+            final H2StreamListener streamListener,
+            final ByteBufferAllocator bufferAllocator) {
+        this(httpProcessor, exchangeHandlerFactory, h2Config, charCodingConfig, streamListener, bufferAllocator, null);
+    }
+
+    public ServerH2StreamMultiplexerFactory(
+            final HttpProcessor httpProcessor,
+            final HandlerFactory<AsyncServerExchangeHandler> exchangeHandlerFactory,
+            final H2Config h2Config,
+            final CharCodingConfig charCodingConfig,
+            final H2StreamListener streamListener) {
+        this(httpProcessor, exchangeHandlerFactory, h2Config, charCodingConfig, streamListener, null);
     }
 
     public ServerH2StreamMultiplexer create(final ProtocolIOSession ioSession) {
@@ -75,7 +107,9 @@ public ServerH2StreamMultiplexer create(final ProtocolIOSession ioSession) {
                 exchangeHandlerFactory,
                 charCodingConfig,
                 h2Config,
-                streamListener);
+                streamListener,
+                bufferAllocator,
+                admissionController);
     }
 
 }
@@ -33,6 +33,7 @@
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hc.core5.annotation.Internal;
 import org.apache.hc.core5.concurrent.Cancellable;
@@ -119,6 +120,66 @@ public void setValidateAfterInactivity(final TimeValue timeValue) {
         connPool.setValidateAfterInactivity(timeValue);
     }
 
+    /**
+     * @since 5.1
+     */
+    public int getMaxConnectionsPerRoute() {
+        return connPool.getMaxConnectionsPerRoute();
+    }
+
+    /**
+     * @see H2ConnPool#setMaxConnectionsPerRoute(int)
+     * @since 5.1
+     */
+    public void setMaxConnectionsPerRoute(final int maxConnectionsPerRoute) {
+        connPool.setMaxConnectionsPerRoute(maxConnectionsPerRoute);
+    }
+
+    /**
+     * @since 5.1
+     */
+    public int getMaxStreamsPerConnection() {
+        return connPool.getMaxStreamsPerConnection();
+    }
+
+    /**
+     * @see H2ConnPool#setMaxStreamsPerConnection(int)
+     * @since 5.1
+     */
+    public void setMaxStreamsPerConnection(final int maxStreamsPerConnection) {
+        connPool.setMaxStreamsPerConnection(maxStreamsPerConnection);
+    }
+
+    /**
+     * @since 5.1
+     */
+    public long getConnectionThroughputThreshold() {
+        return connPool.getConnectionThroughputThreshold();
+    }
+
+    /**
+     * @see H2ConnPool#setConnectionThroughputThreshold(long)
+     * @since 5.1
+     */
+    public void setConnectionThroughputThreshold(final long connectionThroughputThreshold) {
+        connPool.setConnectionThroughputThreshold(connectionThroughputThreshold);
+    }
+
+    /**
+     * @since 5.1
+     */
+    public boolean isConnectionCoalescing() {
+        return connPool.isConnectionCoalescing();
+    }
+
+    /**
+     * @see H2ConnPool#setConnectionCoalescing(boolean)
+     * @since 5.1
+     */
+    public void setConnectionCoalescing(final boolean connectionCoalescing) {
+        connPool.setConnectionCoalescing(connectionCoalescing);
+    }
+
     public Cancellable execute(
             final AsyncClientExchangeHandler exchangeHandler,
             final HandlerFactory<AsyncPushConsumer> pushHandlerFactory,
@@ -165,10 +226,15 @@ public void sendRequest(
 
                         @Override
                         public void completed(final IOSession ioSession) {
+                            final AtomicBoolean released = new AtomicBoolean(false);
+                            connPool.exchangeStarted(ioSession);
                             ioSession.enqueue(new RequestExecutionCommand(new AsyncClientExchangeHandler() {
 
                                 @Override
                                 public void releaseResources() {
+                                    if (released.compareAndSet(false, true)) {
+                                        connPool.exchangeCompleted(ioSession);
+                                    }
                                     exchangeHandler.releaseResources();
                                 }
 
@@ -207,7 +207,8 @@ public H2MultiplexingRequester create() {
                 new DefaultAsyncPushConsumerFactory(registry),
                 h2Config != null ? h2Config : H2Config.DEFAULT,
                 charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT,
-                streamListener);
+                streamListener,
+                ioReactorConfig != null ? ioReactorConfig.getByteBufferAllocator() : null);
         return new H2MultiplexingRequester(
                 ioReactorConfig,
                 new IOEventHandlerFactory() {
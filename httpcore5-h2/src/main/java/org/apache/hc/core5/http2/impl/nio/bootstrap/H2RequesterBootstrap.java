@@ -59,11 +59,13 @@
 import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
 import org.apache.hc.core5.pool.PoolReusePolicy;
 import org.apache.hc.core5.pool.StrictConnPool;
+import org.apache.hc.core5.pool.StripedConnPool;
 import org.apache.hc.core5.reactor.IOEventHandlerFactory;
 import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.reactor.IOSessionListener;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 
@@ -294,6 +296,15 @@ public H2AsyncRequester create() {
                         new DefaultDisposalCallback<IOSession>(),
                         connPoolListener);
                 break;
+            case STRIPED:
+                connPool = new StripedConnPool<>(
+                        defaultMaxPerRoute > 0 ? defaultMaxPerRoute : 20,
+                        maxTotal > 0 ? maxTotal : 50,
+                        timeToLive,
+                        poolReusePolicy,
+                        new DefaultDisposalCallback<IOSession>(),
+                        connPoolListener);
+                break;
             case STRICT:
             default:
                 connPool = new StrictConnPool<>(
@@ -309,17 +320,25 @@ public H2AsyncRequester create() {
         for (final HandlerEntry<Supplier<AsyncPushConsumer>> entry: pushConsumerList) {
             registry.register(entry.hostname, entry.uriPattern, entry.handler);
         }
+        final ByteBufferAllocator bufferAllocator = ioReactorConfig != null ? ioReactorConfig.getByteBufferAllocator() : null;
         final ClientHttp1StreamDuplexerFactory http1StreamHandlerFactory = new ClientHttp1StreamDuplexerFactory(
                 httpProcessor != null ? httpProcessor : HttpProcessors.client(),
                 http1Config != null ? http1Config : Http1Config.DEFAULT,
                 charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT,
-                http1StreamListener);
+                null,
+                null,
+                null,
+                null,
+                null,
+                http1StreamListener,
+                bufferAllocator);
         final ClientH2StreamMultiplexerFactory http2StreamHandlerFactory = new ClientH2StreamMultiplexerFactory(
                 httpProcessor != null ? httpProcessor : H2Processors.client(),
                 new DefaultAsyncPushConsumerFactory(registry),
                 h2Config != null ? h2Config : H2Config.DEFAULT,
                 charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT,
-                streamListener);
+                streamListener,
+                bufferAllocator);
         final IOEventHandlerFactory ioEventHandlerFactory = new ClientHttpProtocolNegotiatorFactory(
                 http1StreamHandlerFactory,
                 http2StreamHandlerFactory,
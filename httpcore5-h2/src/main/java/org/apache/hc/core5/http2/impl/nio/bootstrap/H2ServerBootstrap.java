@@ -63,6 +63,7 @@
 import org.apache.hc.core5.http2.HttpVersionPolicy;
 import org.apache.hc.core5.http2.config.H2Config;
 import org.apache.hc.core5.http2.impl.H2Processors;
+import org.apache.hc.core5.http2.impl.nio.H2StreamAdmissionController;
 import org.apache.hc.core5.http2.impl.nio.H2StreamListener;
 import org.apache.hc.core5.http2.impl.nio.ServerH2StreamMultiplexerFactory;
 import org.apache.hc.core5.http2.impl.nio.ServerHttpProtocolNegotiatorFactory;
@@ -72,6 +73,7 @@
 import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.reactor.IOSessionListener;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.Timeout;
 
 /**
@@ -98,6 +100,7 @@ public class H2ServerBootstrap {
     private IOSessionListener sessionListener;
     private H2StreamListener h2StreamListener;
     private Http1StreamListener http1StreamListener;
+    private H2StreamAdmissionController admissionController;
 
     private H2ServerBootstrap() {
         this.handlerList = new ArrayList<>();
@@ -150,6 +153,17 @@ public final H2ServerBootstrap setH2Config(final H2Config h2Config) {
         return this;
     }
 
+    /**
+     * Assigns {@link H2StreamAdmissionController} shared by all HTTP/2 connections
+     * of the server.
+     *
+     * @since 5.1
+     */
+    public final H2ServerBootstrap setStreamAdmissionController(final H2StreamAdmissionController admissionController) {
+        this.admissionController = admissionController;
+        return this;
+    }
+
     /**
      * Sets HTTP/1.1 protocol parameters
      */
@@ -418,12 +432,15 @@ public AsyncServerExchangeHandler decorate(final AsyncServerExchangeHandler hand
             });
         }
 
+        final ByteBufferAllocator bufferAllocator = ioReactorConfig != null ? ioReactorConfig.getByteBufferAllocator() : null;
         final ServerH2StreamMultiplexerFactory http2StreamHandlerFactory = new ServerH2StreamMultiplexerFactory(
                 httpProcessor != null ? httpProcessor : H2Processors.server(),
                 handlerFactory,
                 h2Config != null ? h2Config : H2Config.DEFAULT,
                 charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT,
-                h2StreamListener);
+                h2StreamListener,
+                bufferAllocator,
+                admissionController);
         final ServerHttp1StreamDuplexerFactory http1StreamHandlerFactory = new ServerHttp1StreamDuplexerFactory(
                 httpProcessor != null ? httpProcessor : HttpProcessors.server(),
                 handlerFactory,
@@ -434,7 +451,8 @@ public AsyncServerExchangeHandler decorate(final AsyncServerExchangeHandler hand
                 DefaultHttpResponseWriterFactory.INSTANCE,
                 DefaultContentLengthStrategy.INSTANCE,
                 DefaultContentLengthStrategy.INSTANCE,
-                http1StreamListener);
+                http1StreamListener,
+                bufferAllocator);
         final IOEventHandlerFactory ioEventHandlerFactory = new ServerHttpProtocolNegotiatorFactory(
                 http1StreamHandlerFactory,
                 http2StreamHandlerFactory,
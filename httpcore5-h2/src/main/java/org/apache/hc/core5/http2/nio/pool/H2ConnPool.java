@@ -26,26 +26,52 @@
  */
 package org.apache.hc.core5.http2.nio.pool;
 
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateParsingException;
+import java.security.cert.X509Certificate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
 
 import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.Internal;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Callback;
 import org.apache.hc.core5.function.Resolver;
+import org.apache.hc.core5.http.EndpointDetails;
+import org.apache.hc.core5.http.HttpConnection;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.URIScheme;
 import org.apache.hc.core5.http.impl.DefaultAddressResolver;
 import org.apache.hc.core5.http.nio.command.ShutdownCommand;
 import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.http2.nio.H2ConnectionState;
 import org.apache.hc.core5.http2.nio.command.PingCommand;
 import org.apache.hc.core5.http2.nio.support.BasicPingHandler;
 import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.reactor.AbstractIOSessionPool;
 import org.apache.hc.core5.reactor.Command;
 import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.reactor.IOEventHandler;
 import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.ssl.TlsDetails;
 import org.apache.hc.core5.reactor.ssl.TransportSecurityLayer;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.TimeValue;
@@ -53,17 +79,38 @@
 
 /**
  * Pool of HTTP/2 message multiplexing capable connections.
+ * <p>
+ * By default the pool keeps a single connection per host. It can be configured
+ * to open additional connections to a host once the streams multiplexed over the existing
+ * ones approach the limit advertised by the peer or once the existing connections carry
+ * more than a given amount of traffic per second. Requests are then dispatched to the
+ * connection with the fewest active streams. Optionally, connections can be
+ * coalesced as described in RFC 7540, section 9.1.1: an existing HTTPS connection
+ * gets re-used for another host if the host resolves to the same address and
+ * is covered by the certificate presented by the server.
+ * </p>
  *
  * @since 5.0
  */
 @Contract(threading = ThreadingBehavior.SAFE)
 public final class H2ConnPool extends AbstractIOSessionPool<HttpHost> {
 
+    private static final int SUBJECT_ALT_DNS_NAME = 2;
+    private static final int SUBJECT_ALT_IP_ADDRESS = 7;
+    private static final long RESOLVED_ENDPOINT_TTL = 30000;
+
     private final ConnectionInitiator connectionInitiator;
     private final Resolver<HttpHost, InetSocketAddress> addressResolver;
     private final TlsStrategy tlsStrategy;
 
+    private final Map<IOSession, SessionStats> sessionStatsMap;
+    private final ConcurrentMap<HttpHost, ResolvedEndpoint> resolvedEndpoints;
+
     private volatile TimeValue validateAfterInactivity = TimeValue.NEG_ONE_MILLISECOND;
+    private volatile int maxConnectionsPerRoute = 1;
+    private volatile int maxStreamsPerConnection = Integer.MAX_VALUE;
+    private volatile long connectionThroughputThreshold;
+    private volatile boolean connectionCoalescing;
 
     public H2ConnPool(
             final ConnectionInitiator connectionInitiator,
@@ -73,6 +120,8 @@ public H2ConnPool(
         this.connectionInitiator = Args.notNull(connectionInitiator, "Connection initiator");
         this.addressResolver = addressResolver != null ? addressResolver : DefaultAddressResolver.INSTANCE;
         this.tlsStrategy = tlsStrategy;
+        this.sessionStatsMap = Collections.synchronizedMap(new WeakHashMap<IOSession, SessionStats>());
+        this.resolvedEndpoints = new ConcurrentHashMap<>();
     }
 
     public TimeValue getValidateAfterInactivity() {
@@ -83,6 +132,278 @@ public void setValidateAfterInactivity(final TimeValue timeValue) {
         this.validateAfterInactivity = timeValue;
     }
 
+    /**
+     * @since 5.1
+     */
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    /**
+     * Sets the maximum number of connections the pool may open to the same host.
+     * <p>
+     * Default: {@code 1}
+     * </p>
+     *
+     * @since 5.1
+     */
+    public void setMaxConnectionsPerRoute(final int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = Args.positive(maxConnectionsPerRoute, "Max connections per route");
+    }
+
+    /**
+     * @since 5.1
+     */
+    public int getMaxStreamsPerConnection() {
+        return maxStreamsPerConnection;
+    }
+
+    /**
+     * Sets the number of concurrent streams at which a connection is considered
+     * saturated if the peer allows more than that.
+     * <p>
+     * Default: unlimited
+     * </p>
+     *
+     * @since 5.1
+     */
+    public void setMaxStreamsPerConnection(final int maxStreamsPerConnection) {
+        this.maxStreamsPerConnection = Args.positive(maxStreamsPerConnection, "Max streams per connection");
+    }
+
+    /**
+     * @since 5.1
+     */
+    public long getConnectionThroughputThreshold() {
+        return connectionThroughputThreshold;
+    }
+
+    /**
+     * Sets the number of bytes per second sent and received over a connection at which
+     * the connection is considered saturated. Zero disables the threshold.
+     * <p>
+     * Default: {@code 0}
+     * </p>
+     *
+     * @since 5.1
+     */
+    public void setConnectionThroughputThreshold(final long connectionThroughputThreshold) {
+        this.connectionThroughputThreshold = Args.notNegative(connectionThroughputThreshold, "Connection throughput threshold");
+    }
+
+    /**
+     * @since 5.1
+     */
+    public boolean isConnectionCoalescing() {
+        return connectionCoalescing;
+    }
+
+    /**
+     * Enables re-use of HTTPS connections for requests to other hosts that resolve to
+     * the same address and are covered by the server certificate of the connection.
+     * <p>
+     * Default: {@code false}
+     * </p>
+     *
+     * @since 5.1
+     */
+    public void setConnectionCoalescing(final boolean connectionCoalescing) {
+        this.connectionCoalescing = connectionCoalescing;
+    }
+
+    /**
+     * Signals that a message exchange has been dispatched to the given session.
+     *
+     * @since 5.1
+     */
+    @Internal
+    public void exchangeStarted(final IOSession ioSession) {
+        getSessionStats(ioSession).exchangeCount.incrementAndGet();
+    }
+
+    /**
+     * Signals that a message exchange dispatched to the given session has been completed.
+     *
+     * @since 5.1
+     */
+    @Internal
+    public void exchangeCompleted(final IOSession ioSession) {
+        final SessionStats sessionStats = sessionStatsMap.get(ioSession);
+        if (sessionStats != null) {
+            sessionStats.exchangeCount.decrementAndGet();
+        }
+    }
+
+    private SessionStats getSessionStats(final IOSession ioSession) {
+        synchronized (sessionStatsMap) {
+            SessionStats sessionStats = sessionStatsMap.get(ioSession);
+            if (sessionStats == null) {
+                sessionStats = new SessionStats();
+                sessionStatsMap.put(ioSession, sessionStats);
+            }
+            return sessionStats;
+        }
+    }
+
+    @Override
+    protected int getMaxSessions(final HttpHost namedEndpoint) {
+        return maxConnectionsPerRoute;
+    }
+
+    @Override
+    protected int getSessionLoad(final IOSession ioSession) {
+        final SessionStats sessionStats = sessionStatsMap.get(ioSession);
+        final int exchangeCount = sessionStats != null ? sessionStats.exchangeCount.get() : 0;
+        final IOEventHandler handler = ioSession.getHandler();
+        if (handler instanceof H2ConnectionState) {
+            return Math.max(exchangeCount, ((H2ConnectionState) handler).getActiveStreamCount());
+        }
+        return exchangeCount;
+    }
+
+    @Override
+    protected boolean isSessionSaturated(final IOSession ioSession) {
+        final IOEventHandler handler = ioSession.getHandler();
+        int maxStreams = maxStreamsPerConnection;
+        if (handler instanceof H2ConnectionState) {
+            maxStreams = Math.min(maxStreams, ((H2ConnectionState) handler).getPeerMaxConcurrentStreams());
+        }
+        if (getSessionLoad(ioSession) >= maxStreams) {
+            return true;
+        }
+        final long threshold = connectionThroughputThreshold;
+        if (threshold > 0 && handler instanceof HttpConnection) {
+            final EndpointDetails endpointDetails = ((HttpConnection) handler).getEndpointDetails();
+            if (endpointDetails != null) {
+                final long throughput = getSessionStats(ioSession).updateThroughput(
+                        endpointDetails.getSentBytesCount() + endpointDetails.getReceivedBytesCount(),
+                        System.currentTimeMillis());
+                return throughput >= threshold;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void prepareSessionReuse(final HttpHost namedEndpoint) {
+        if (!connectionCoalescing || !URIScheme.HTTPS.same(namedEndpoint.getSchemeName())) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final ResolvedEndpoint resolvedEndpoint = resolvedEndpoints.get(namedEndpoint);
+        if (resolvedEndpoint != null && resolvedEndpoint.expiry > now) {
+            return;
+        }
+        final ResolvedEndpoint newResolvedEndpoint;
+        try {
+            newResolvedEndpoint = resolveEndpoint(namedEndpoint, now);
+        } catch (final RuntimeException ex) {
+            // Coalescing is an optimization only. The connect attempt reports
+            // resolution failures
+            resolvedEndpoints.remove(namedEndpoint);
+            return;
+        }
+        if (newResolvedEndpoint != null) {
+            resolvedEndpoints.put(namedEndpoint, newResolvedEndpoint);
+        } else {
+            resolvedEndpoints.remove(namedEndpoint);
+        }
+    }
+
+    private ResolvedEndpoint resolveEndpoint(final HttpHost namedEndpoint, final long now) {
+        final InetSocketAddress targetAddress = addressResolver.resolve(namedEndpoint);
+        if (targetAddress == null) {
+            return null;
+        }
+        final Set<InetAddress> addresses = new HashSet<>();
+        if (targetAddress.getAddress() != null) {
+            addresses.add(targetAddress.getAddress());
+        }
+        if (addressResolver == DefaultAddressResolver.INSTANCE) {
+            // The host may have several addresses and the session may be connected to any one of them
+            try {
+                Collections.addAll(addresses, InetAddress.getAllByName(namedEndpoint.getHostName()));
+            } catch (final UnknownHostException ignore) {
+            }
+        }
+        if (addresses.isEmpty()) {
+            return null;
+        }
+        return new ResolvedEndpoint(addresses, targetAddress.getPort(), now + RESOLVED_ENDPOINT_TTL);
+    }
+
+    @Override
+    protected boolean isSessionReusable(final HttpHost namedEndpoint, final IOSession ioSession) {
+        if (!connectionCoalescing
+                || !URIScheme.HTTPS.same(namedEndpoint.getSchemeName())
+                || !(ioSession.getHandler() instanceof H2ConnectionState)
+                || !(ioSession instanceof TransportSecurityLayer)) {
+            return false;
+        }
+        final TlsDetails tlsDetails = ((TransportSecurityLayer) ioSession).getTlsDetails();
+        final SSLSession sslSession = tlsDetails != null ? tlsDetails.getSSLSession() : null;
+        final SocketAddress remoteAddress = ioSession.getRemoteAddress();
+        if (sslSession == null || !(remoteAddress instanceof InetSocketAddress)) {
+            return false;
+        }
+        // Only use the addresses resolved in advance, as this method gets called under the pool lock
+        final ResolvedEndpoint resolvedEndpoint = resolvedEndpoints.get(namedEndpoint);
+        final InetAddress address = ((InetSocketAddress) remoteAddress).getAddress();
+        if (resolvedEndpoint == null
+                || address == null
+                || !resolvedEndpoint.addresses.contains(address)
+                || resolvedEndpoint.port != ((InetSocketAddress) remoteAddress).getPort()) {
+            return false;
+        }
+        final Certificate[] certificates;
+        try {
+            certificates = sslSession.getPeerCertificates();
+        } catch (final SSLPeerUnverifiedException ex) {
+            return false;
+        }
+        if (certificates == null || certificates.length == 0 || !(certificates[0] instanceof X509Certificate)) {
+            return false;
+        }
+        return matchSubjectAlt(namedEndpoint.getHostName(), (X509Certificate) certificates[0]);
+    }
+
+    static boolean matchSubjectAlt(final String host, final X509Certificate certificate) {
+        final Collection<List<?>> subjectAlts;
+        try {
+            subjectAlts = certificate.getSubjectAlternativeNames();
+        } catch (final CertificateParsingException ex) {
+            return false;
+        }
+        if (subjectAlts == null) {
+            return false;
+        }
+        for (final List<?> subjectAlt : subjectAlts) {
+            if (subjectAlt.size() < 2 || !(subjectAlt.get(0) instanceof Integer) || !(subjectAlt.get(1) instanceof String)) {
+                continue;
+            }
+            final int type = ((Integer) subjectAlt.get(0)).intValue();
+            final String value = (String) subjectAlt.get(1);
+            if (type == SUBJECT_ALT_DNS_NAME && matchDnsName(host, value)) {
+                return true;
+            }
+            if (type == SUBJECT_ALT_IP_ADDRESS && host.equalsIgnoreCase(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean matchDnsName(final String host, final String name) {
+        final String normalizedHost = host.toLowerCase(Locale.ROOT);
+        final String normalizedName = name.toLowerCase(Locale.ROOT);
+        if (normalizedName.startsWith("*.")) {
+            // Wildcard matches exactly one leftmost label
+            final int i = normalizedHost.indexOf('.');
+            return i > 0 && normalizedHost.substring(i).equals(normalizedName.substring(1));
+        }
+        return normalizedHost.equals(normalizedName);
+    }
+
     @Override
     protected void closeSession(
             final IOSession ioSession,
@@ -157,4 +478,46 @@ public void execute(final Boolean result) {
         callback.execute(true);
     }
 
+    static class ResolvedEndpoint {
+
+        final Set<InetAddress> addresses;
+        final int port;
+        final long expiry;
+
+        ResolvedEndpoint(final Set<InetAddress> addresses, final int port, final long expiry) {
+            this.addresses = addresses;
+            this.port = port;
+            this.expiry = expiry;
+        }
+
+    }
+
+    static class SessionStats {
+
+        final AtomicInteger exchangeCount;
+        private long sampleBytes;
+        private long sampleTime;
+        private long throughput;
+
+        SessionStats() {
+            this.exchangeCount = new AtomicInteger();
+        }
+
+        synchronized long updateThroughput(final long totalBytes, final long now) {
+            if (sampleTime == 0) {
+                sampleBytes = totalBytes;
+                sampleTime = now;
+            } else {
+                final long elapsed = now - sampleTime;
+                if (elapsed >= 1000) {
+                    throughput = (totalBytes - sampleBytes) * 1000 / elapsed;
+                    sampleBytes = totalBytes;
+                    sampleTime = now;
+                }
+            }
+            return throughput;
+        }
+
+    }
+
 }
@@ -204,6 +204,53 @@ public void testHuffmanEncoding() throws Exception {
         Assert.assertArrayEquals(toArray(expected), buffer.toByteArray());
     }
 
+    @Test
+    public void testHuffmanCodingAllOctets() throws Exception {
+        for (int len = 0; len < 300; len++) {
+            final byte[] data = new byte[len];
+            for (int i = 0; i < len; i++) {
+                data[i] = (byte) (i * 31 + len);
+            }
+            final ByteArrayBuffer encoded = new ByteArrayBuffer(16);
+            encoded.append(0x7f);
+            Huffman.ENCODER.encode(encoded, ByteBuffer.wrap(data));
+            Assert.assertEquals(Huffman.ENCODER.encodedLength(ByteBuffer.wrap(data)), encoded.length() - 1);
+
+            final ByteArrayBuffer decoded = new ByteArrayBuffer(16);
+            Huffman.DECODER.decode(decoded, ByteBuffer.wrap(encoded.array(), 1, encoded.length() - 1));
+            Assert.assertArrayEquals(data, decoded.toByteArray());
+        }
+    }
+
+    @Test
+    public void testHuffmanCharSequenceEncoding() throws Exception {
+        final ByteArrayBuffer buffer = new ByteArrayBuffer(16);
+        Huffman.ENCODER.encode(buffer, "--www.example.com--", 2, 15);
+        final ByteBuffer expected = createByteBuffer(
+                0xf1, 0xe3, 0xc2, 0xe5, 0xf2, 0x3a, 0x6b, 0xa0, 0xab, 0x90, 0xf4, 0xff);
+        Assert.assertArrayEquals(toArray(expected), buffer.toByteArray());
+    }
+
+    @Test(expected = HPackException.class)
+    public void testHuffmanDecodingPaddingTooLong() throws Exception {
+        // 'a' (00011) followed by 11 bits of padding
+        final ByteBuffer src = createByteBuffer(0x1f, 0xff);
+        Huffman.DECODER.decode(new ByteArrayBuffer(16), src);
+    }
+
+    @Test(expected = HPackException.class)
+    public void testHuffmanDecodingPaddingNotEOS() throws Exception {
+        // 'a' (00011) followed by padding with zero bits
+        final ByteBuffer src = createByteBuffer(0x18);
+        Huffman.DECODER.decode(new ByteArrayBuffer(16), src);
+    }
+
+    @Test(expected = HPackException.class)
+    public void testHuffmanDecodingEOS() throws Exception {
+        final ByteBuffer src = createByteBuffer(0xff, 0xff, 0xff, 0xff);
+        Huffman.DECODER.decode(new ByteArrayBuffer(16), src);
+    }
+
     @Test
     public void testBasicStringCoding() throws Exception {
 
@@ -1062,5 +1109,200 @@ public void testHeaderSizeLimit() throws Exception {
         decoder.decodeHeaders(wrap(buf));
     }
 
-}
+    @Test
+    public void testHuffmanSkippedIfNotShorter() throws Exception {
+
+        final HPackEncoder encoder = new HPackEncoder(StandardCharsets.US_ASCII);
+        final ByteArrayBuffer buffer = new ByteArrayBuffer(16);
+        // Characters with long Huffman codes
+        encoder.encodeString(buffer, "{}|~", true);
+        Assert.assertEquals(0x04, buffer.byteAt(0));
+        Assert.assertEquals(5, buffer.length());
+
+        final HPackDecoder decoder = new HPackDecoder(StandardCharsets.US_ASCII);
+        final StringBuilder strBuf = new StringBuilder();
+        decoder.decodeString(wrap(buffer), strBuf);
+        Assert.assertEquals("{}|~", strBuf.toString());
+    }
+
+    @Test
+    public void testAdaptiveIndexingPolicy() throws Exception {
+
+        final AdaptiveHPackIndexingPolicy policy = new AdaptiveHPackIndexingPolicy();
+        Assert.assertTrue(policy.isIndexable("x-request-id", "1"));
+        Assert.assertTrue(policy.isIndexable("accept", "*/*"));
+        for (int i = 2; i < 10; i++) {
+            policy.isIndexable("x-request-id", Integer.toString(i));
+            Assert.assertTrue(policy.isIndexable("accept", "*/*"));
+        }
+        Assert.assertFalse(policy.isIndexable("x-request-id", "10"));
+        Assert.assertTrue(policy.isIndexable("x-request-id", "10"));
+        Assert.assertTrue(policy.isIndexable("accept", "*/*"));
+    }
+
+    @Test
+    public void testAdaptiveIndexingPolicyNameLimit() throws Exception {
 
+        final AdaptiveHPackIndexingPolicy policy = new AdaptiveHPackIndexingPolicy(1);
+        for (int i = 0; i < 10; i++) {
+            policy.isIndexable("x-request-id", Integer.toString(i));
+            Assert.assertTrue(policy.isIndexable("x-trace-id", Integer.toString(i)));
+        }
+        Assert.assertFalse(policy.isIndexable("x-request-id", "10"));
+    }
+
+    @Test
+    public void testVolatileHeaderEncodingWithoutIndexing() throws Exception {
+
+        final OutboundDynamicTable dynamicTable = new OutboundDynamicTable();
+        final HPackEncoder encoder = new HPackEncoder(dynamicTable,
+                StandardCharsets.US_ASCII.newEncoder(), new AdaptiveHPackIndexingPolicy());
+        final HPackDecoder decoder = new HPackDecoder(StandardCharsets.US_ASCII);
+        final ByteArrayBuffer buf = new ByteArrayBuffer(128);
+
+        for (int i = 0; i < 20; i++) {
+            buf.clear();
+            final List<Header> headers = Arrays.<Header>asList(
+                    new BasicHeader("user-agent", "test"),
+                    new BasicHeader("x-request-id", "request-" + i));
+            encoder.encodeHeaders(buf, headers, true);
+            final List<Header> decoded = decoder.decodeHeaders(wrap(buf));
+            Assert.assertEquals("request-" + i, decoded.get(1).getValue());
+        }
+        // The user-agent and the first request id get indexed, subsequent request ids do not
+        Assert.assertEquals(2, dynamicTable.dynamicLength());
+        Assert.assertEquals("user-agent", dynamicTable.getDynamicEntry(1).getName());
+    }
+
+    @Test
+    public void testStatusCodeCache() throws Exception {
+
+        final StatusCodeCache cache = StatusCodeCache.INSTANCE;
+        Assert.assertNull(cache.getHeader("99"));
+        Assert.assertNull(cache.getHeader("600"));
+        Assert.assertNull(cache.getHeader("2x0"));
+        Assert.assertEquals(8, cache.getNameEntry().getIndex());
+
+        final HPackEncoder encoder = new HPackEncoder(StandardCharsets.US_ASCII);
+        for (int code = 100; code < 600; code++) {
+            final HPackHeader header = cache.getHeader(Integer.toString(code));
+            Assert.assertNotNull(header);
+            for (final boolean huffman : new boolean[] { true, false }) {
+                final ByteArrayBuffer expected = new ByteArrayBuffer(8);
+                encoder.encodeString(expected, header.getValue(), huffman);
+                final ByteArrayBuffer actual = new ByteArrayBuffer(8);
+                cache.encodeValue(actual, header, huffman);
+                Assert.assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+            }
+        }
+    }
+
+    @Test
+    public void testHeaderBlockReuse() throws Exception {
+
+        final OutboundDynamicTable dynamicTable = new OutboundDynamicTable();
+        final HPackEncoder encoder = new HPackEncoder(dynamicTable, StandardCharsets.US_ASCII);
+        final HPackDecoder decoder = new HPackDecoder(StandardCharsets.US_ASCII);
+
+        final List<Header> headers1 = Arrays.<Header>asList(
+                new BasicHeader(":status", "200"),
+                new BasicHeader("content-type", "text/plain"),
+                new BasicHeader("server", "test"));
+        final List<Header> headers2 = Arrays.<Header>asList(
+                new BasicHeader(":status", "200"),
+                new BasicHeader("content-type", "text/plain"),
+                new BasicHeader("server", "test"),
+                new BasicHeader("content-length", "1234"));
+
+        final ByteArrayBuffer buf = new ByteArrayBuffer(128);
+        encoder.encodeHeaders(buf, headers1, true);
+        assertHeadersEqual(headers1, decoder.decodeHeaders(wrap(buf)));
+        Assert.assertEquals(2, dynamicTable.dynamicLength());
+
+        // Fully indexed from now on
+        buf.clear();
+        encoder.encodeHeaders(buf, headers1, true);
+        final byte[] block1 = buf.toByteArray();
+        Assert.assertArrayEquals(new byte[] {(byte) 0x88, (byte) 0xbf, (byte) 0xbe}, block1);
+        assertHeadersEqual(headers1, decoder.decodeHeaders(wrap(buf)));
+
+        buf.clear();
+        encoder.encodeHeaders(buf, headers1, true);
+        Assert.assertArrayEquals(block1, buf.toByteArray());
+        assertHeadersEqual(headers1, decoder.decodeHeaders(wrap(buf)));
+
+        // Reused prefix followed by a new entry
+        buf.clear();
+        encoder.encodeHeaders(buf, headers2, true);
+        assertHeadersEqual(headers2, decoder.decodeHeaders(wrap(buf)));
+        Assert.assertEquals(3, dynamicTable.dynamicLength());
+
+        // Indexes have shifted, the memoized block must not be reused
+        buf.clear();
+        encoder.encodeHeaders(buf, headers1, true);
+        Assert.assertArrayEquals(new byte[] {(byte) 0x88, (byte) 0xc0, (byte) 0xbf}, buf.toByteArray());
+        assertHeadersEqual(headers1, decoder.decodeHeaders(wrap(buf)));
+
+        // Sensitive headers never match memoized ones
+        buf.clear();
+        encoder.encodeHeaders(buf, Arrays.<Header>asList(
+                new BasicHeader(":status", "200"),
+                new BasicHeader("content-type", "text/plain", true)), true);
+        Assert.assertEquals(0x88, buf.byteAt(0) & 0xff);
+        Assert.assertEquals(0x10 | 0x0f, buf.byteAt(1) & 0xff);
+    }
+
+    @Test
+    public void testHeaderBlockReuseDefaultIndexingPolicy() throws Exception {
+
+        final OutboundDynamicTable dynamicTable = new OutboundDynamicTable();
+        final HeaderBlockMemo memo = new HeaderBlockMemo();
+        final HPackEncoder encoder = new HPackEncoder(dynamicTable, null, HPackIndexingPolicy.ALWAYS, memo);
+        final HPackDecoder decoder = new HPackDecoder(StandardCharsets.US_ASCII);
+
+        final List<Header> headers = Arrays.<Header>asList(
+                new BasicHeader(":method", "GET"),
+                new BasicHeader(":scheme", "https"),
+                new BasicHeader(":authority", "www.example.com"),
+                new BasicHeader(":path", "/index.html"),
+                new BasicHeader("user-agent", "test/1.0"),
+                new BasicHeader("accept", "application/json"),
+                new BasicHeader("cache-control", "no-cache"));
+
+        final ByteArrayBuffer buf = new ByteArrayBuffer(128);
+        encoder.encodeHeaders(buf, headers, true);
+        assertHeadersEqual(headers, decoder.decodeHeaders(wrap(buf)));
+        final long version = dynamicTable.getVersion();
+
+        // The first block populates the dynamic table and cannot be memoized
+        Assert.assertEquals(0, memo.replay(new ByteArrayBuffer(128), headers,
+                new int[headers.size()], version, false, true));
+
+        buf.clear();
+        encoder.encodeHeaders(buf, headers, true);
+        final byte[] block = buf.toByteArray();
+        assertHeadersEqual(headers, decoder.decodeHeaders(wrap(buf)));
+        Assert.assertEquals(version, dynamicTable.getVersion());
+
+        // Fully indexed blocks get memoized and replayed from now on
+        for (int i = 0; i < 10; i++) {
+            final ByteArrayBuffer replayed = new ByteArrayBuffer(128);
+            Assert.assertEquals(headers.size(), memo.replay(replayed, headers,
+                    new int[headers.size()], version, false, true));
+            Assert.assertArrayEquals(block, replayed.toByteArray());
+
+            buf.clear();
+            encoder.encodeHeaders(buf, headers, true);
+            Assert.assertArrayEquals(block, buf.toByteArray());
+            assertHeadersEqual(headers, decoder.decodeHeaders(wrap(buf)));
+        }
+    }
+
+    private static void assertHeadersEqual(final List<Header> expected, final List<Header> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertHeaderEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+}
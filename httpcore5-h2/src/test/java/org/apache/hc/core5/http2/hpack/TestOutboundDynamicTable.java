@@ -66,5 +66,60 @@ public void testEviction() throws Exception {
         Assert.assertEquals(0, table.getCurrentSize());
     }
 
+    @Test
+    public void testLookup() throws Exception {
+
+        final OutboundDynamicTable table = new OutboundDynamicTable();
+        for (int i = 0; i < 100; i++) {
+            table.add(new HPackHeader("h" + (i % 10), Integer.toString(i)));
+        }
+        Assert.assertEquals(100, table.dynamicLength());
+
+        final HPackEntry entry1 = table.getFullMatch("h5", "45");
+        Assert.assertNotNull(entry1);
+        Assert.assertEquals(61 + 100 - 45, entry1.getIndex());
+        Assert.assertEquals("45", table.getHeader(entry1.getIndex()).getValue());
+        Assert.assertNull(table.getFullMatch("h5", "46"));
+        Assert.assertNull(table.getFullMatch("h10", "10"));
+
+        final HPackEntry entry2 = table.getNameMatch("h7");
+        Assert.assertNotNull(entry2);
+        Assert.assertEquals("97", entry2.getHeader().getValue());
+        Assert.assertEquals(61 + 3, entry2.getIndex());
+        Assert.assertNull(table.getNameMatch("h10"));
+
+        // Evict all but the last 10 entries
+        table.setMaxSize(10 * 36);
+        Assert.assertEquals(10, table.dynamicLength());
+        Assert.assertNull(table.getFullMatch("h5", "45"));
+        final HPackEntry entry3 = table.getFullMatch("h5", "95");
+        Assert.assertNotNull(entry3);
+        Assert.assertEquals(61 + 5, entry3.getIndex());
+        Assert.assertEquals("95", table.getHeader(entry3.getIndex()).getValue());
+
+        // Index changes as new entries get added
+        table.add(new HPackHeader("h0", "100"));
+        Assert.assertEquals(61 + 6, entry3.getIndex());
+        Assert.assertNull(table.getFullMatch("h0", "90"));
+    }
+
+    @Test
+    public void testStaticTableLookup() throws Exception {
+
+        final StaticTable table = StaticTable.INSTANCE;
+        for (int i = 1; i <= table.length(); i++) {
+            final HPackHeader header = table.get(i);
+            final HPackEntry entry = table.getFullMatch(header.getName(), header.getValue());
+            Assert.assertNotNull(entry);
+            Assert.assertEquals(i, entry.getIndex());
+        }
+        Assert.assertEquals(2, table.getFullMatch(":method", "GET").getIndex());
+        Assert.assertEquals(3, table.getFullMatch(":method", "POST").getIndex());
+        Assert.assertNull(table.getFullMatch(":method", "PUT"));
+        Assert.assertEquals(2, table.getNameMatch(":method").getIndex());
+        Assert.assertEquals(8, table.getNameMatch(":status").getIndex());
+        Assert.assertNull(table.getNameMatch("x-custom"));
+    }
+
 }
 
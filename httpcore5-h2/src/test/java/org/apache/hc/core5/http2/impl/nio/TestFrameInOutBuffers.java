@@ -27,7 +27,11 @@
 
 package org.apache.hc.core5.http2.impl.nio;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.hc.core5.http.ConnectionClosedException;
 import org.apache.hc.core5.http2.H2ConnectionException;
@@ -39,11 +43,105 @@
 import org.apache.hc.core5.http2.frame.FrameType;
 import org.apache.hc.core5.http2.frame.RawFrame;
 import org.apache.hc.core5.http2.impl.BasicH2TransportMetrics;
+import org.apache.hc.core5.util.PooledByteBufferAllocator;
 import org.junit.Assert;
 import org.junit.Test;
 
 public class TestFrameInOutBuffers {
 
+    static class GatheringByteChannelMock extends WritableByteChannelMock implements GatheringByteChannel {
+
+        int gatheringWrites;
+
+        GatheringByteChannelMock(final int initialSize, final int capacityLimit) {
+            super(initialSize, capacityLimit);
+        }
+
+        @Override
+        public long write(final ByteBuffer[] srcs, final int offset, final int length) throws IOException {
+            gatheringWrites++;
+            long total = 0;
+            for (int i = offset; i < offset + length; i++) {
+                total += write(srcs[i]);
+                if (srcs[i].hasRemaining()) {
+                    break;
+                }
+            }
+            return total;
+        }
+
+        @Override
+        public long write(final ByteBuffer[] srcs) throws IOException {
+            return write(srcs, 0, srcs.length);
+        }
+
+    }
+
+    private static List<RawFrame> createFrameBatch() {
+        return Arrays.asList(
+                new RawFrame(FrameType.DATA.getValue(), 0, 1, ByteBuffer.wrap(new byte[]{1,2,3})),
+                new RawFrame(FrameType.PING.getValue(), 0, 0, null),
+                new RawFrame(FrameType.DATA.getValue(), FrameFlag.END_STREAM.getValue(), 3, ByteBuffer.wrap(new byte[]{4,5})));
+    }
+
+    private static final byte[] FRAME_BATCH_BYTES = new byte[] {
+            0,0,3,0,0,0,0,0,1,1,2,3,
+            0,0,0,6,0,0,0,0,0,
+            0,0,2,0,1,0,0,0,3,4,5};
+
+    @Test
+    public void testWriteFrameBatchGathering() throws Exception {
+        final GatheringByteChannelMock writableChannel = new GatheringByteChannelMock(1024, 0);
+        final FrameOutputBuffer outbuffer = new FrameOutputBuffer(16 * 1024);
+
+        outbuffer.write(createFrameBatch(), writableChannel);
+        Assert.assertTrue(outbuffer.isEmpty());
+        Assert.assertEquals(1, writableChannel.gatheringWrites);
+        Assert.assertArrayEquals(FRAME_BATCH_BYTES, writableChannel.toByteArray());
+        Assert.assertEquals(3, outbuffer.getMetrics().getFramesTransferred());
+        Assert.assertEquals(FRAME_BATCH_BYTES.length, outbuffer.getMetrics().getBytesTransferred());
+    }
+
+    @Test
+    public void testWriteFrameBatchGatheringPartial() throws Exception {
+        final GatheringByteChannelMock writableChannel = new GatheringByteChannelMock(1024, 15);
+        final FrameOutputBuffer outbuffer = new FrameOutputBuffer(16 * 1024);
+
+        outbuffer.write(createFrameBatch(), writableChannel);
+        Assert.assertFalse(outbuffer.isEmpty());
+        Assert.assertArrayEquals(Arrays.copyOf(FRAME_BATCH_BYTES, 15), writableChannel.toByteArray());
+
+        writableChannel.flush();
+        outbuffer.flush(writableChannel);
+        Assert.assertFalse(outbuffer.isEmpty());
+        Assert.assertArrayEquals(Arrays.copyOf(FRAME_BATCH_BYTES, 30), writableChannel.toByteArray());
+
+        writableChannel.flush();
+        outbuffer.flush(writableChannel);
+        Assert.assertTrue(outbuffer.isEmpty());
+        Assert.assertArrayEquals(FRAME_BATCH_BYTES, writableChannel.toByteArray());
+    }
+
+    @Test
+    public void testWriteFrameBatchNonGathering() throws Exception {
+        final WritableByteChannelMock writableChannel = new WritableByteChannelMock(1024);
+        final FrameOutputBuffer outbuffer = new FrameOutputBuffer(16 * 1024);
+
+        outbuffer.write(createFrameBatch(), writableChannel);
+        Assert.assertTrue(outbuffer.isEmpty());
+        Assert.assertArrayEquals(FRAME_BATCH_BYTES, writableChannel.toByteArray());
+        Assert.assertEquals(3, outbuffer.getMetrics().getFramesTransferred());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWriteFrameBatchExceedsCapacity() throws Exception {
+        final WritableByteChannelMock writableChannel = new WritableByteChannelMock(1024);
+        final FrameOutputBuffer outbuffer = new FrameOutputBuffer(16);
+        outbuffer.write(Arrays.asList(
+                new RawFrame(FrameType.DATA.getValue(), 0, 1, ByteBuffer.wrap(new byte[16])),
+                new RawFrame(FrameType.DATA.getValue(), 0, 1, ByteBuffer.wrap(new byte[1]))), writableChannel);
+    }
+
     @Test
     public void testReadWriteFrame() throws Exception {
         final WritableByteChannelMock writableChannel = new WritableByteChannelMock(1024);
@@ -79,6 +177,40 @@ public void testReadWriteFrame() throws Exception {
         Assert.assertEquals(bytes.length, inBuffer.getMetrics().getBytesTransferred());
     }
 
+    @Test
+    public void testReadWriteFrameDirectBuffers() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator();
+        final WritableByteChannelMock writableChannel = new WritableByteChannelMock(1024);
+        final FrameOutputBuffer outbuffer = new FrameOutputBuffer(new BasicH2TransportMetrics(), 16 * 1024, allocator);
+
+        final RawFrame frame = new RawFrame(FrameType.DATA.getValue(), 0, 1,
+                ByteBuffer.wrap(new byte[]{1,2,3,4,5}));
+        outbuffer.write(frame, writableChannel);
+        Assert.assertTrue(outbuffer.isEmpty());
+        outbuffer.release();
+        Assert.assertEquals(1, allocator.getPooledCount());
+
+        final FrameInputBuffer inBuffer = new FrameInputBuffer(new BasicH2TransportMetrics(), 16 * 1024, allocator);
+        final ReadableByteChannelMock readableChannel = new ReadableByteChannelMock(writableChannel.toByteArray());
+        final RawFrame frame2 = inBuffer.read(readableChannel);
+        Assert.assertEquals(0, allocator.getPooledCount());
+        Assert.assertNotNull(frame2);
+        final ByteBuffer payload2 = frame2.getPayloadContent();
+        Assert.assertNotNull(payload2);
+        Assert.assertTrue(payload2.isDirect());
+        Assert.assertEquals(5, payload2.remaining());
+        Assert.assertEquals(1, payload2.get());
+        Assert.assertEquals(2, payload2.get());
+        Assert.assertEquals(3, payload2.get());
+        Assert.assertEquals(4, payload2.get());
+        Assert.assertEquals(5, payload2.get());
+        Assert.assertFalse(inBuffer.hasData());
+
+        inBuffer.release();
+        Assert.assertEquals(1, allocator.getPooledCount());
+        Assert.assertNull(inBuffer.read(new ReadableByteChannelMock(new byte[] {})));
+    }
+
     @Test
     public void testPartialFrameWrite() throws Exception {
         final WritableByteChannelMock writableChannel = new WritableByteChannelMock(1024, FrameConsts.HEAD_LEN + 10);
@@ -219,6 +351,40 @@ public void testReadFramePartialReads() throws Exception {
         Assert.assertEquals(-1, readableChannel.read(ByteBuffer.allocate(1024)));
     }
 
+    @Test
+    public void testReadFramePartialPayloadInPlace() throws Exception {
+        final FrameInputBuffer inBuffer = new FrameInputBuffer(new BasicH2TransportMetrics(), 40, 10);
+        final ReadableByteChannelMock readableChannel = new ReadableByteChannelMock(
+                new byte[] {0,0,2,0,0,0,0,0,1,1,1, 0,0,10,0,0,0,0,0,3,1,2,3},
+                new byte[] {4,5,6,7,8,9,10, 0,0,1,1,0,0,0,0,5},
+                new byte[] {1});
+
+        final RawFrame frame1 = inBuffer.read(readableChannel);
+        Assert.assertEquals(FrameType.DATA, FrameType.valueOf(frame1.getType()));
+        Assert.assertEquals(1, frame1.getStreamId());
+        final ByteBuffer payload1 = frame1.getPayloadContent();
+        Assert.assertTrue(payload1.isReadOnly());
+        Assert.assertEquals(2, payload1.remaining());
+
+        final RawFrame frame2 = inBuffer.read(readableChannel);
+        Assert.assertEquals(3, frame2.getStreamId());
+        final ByteBuffer payload2 = frame2.getPayloadContent();
+        Assert.assertTrue(payload2.isReadOnly());
+        Assert.assertEquals(10, payload2.remaining());
+        for (int i = 1; i <= 10; i++) {
+            Assert.assertEquals(i, payload2.get());
+        }
+
+        final RawFrame frame3 = inBuffer.read(readableChannel);
+        Assert.assertEquals(FrameType.HEADERS, FrameType.valueOf(frame3.getType()));
+        Assert.assertEquals(5, frame3.getStreamId());
+        final ByteBuffer payload3 = frame3.getPayloadContent();
+        Assert.assertFalse(payload3.isReadOnly());
+        Assert.assertEquals(1, payload3.get());
+
+        Assert.assertEquals(-1, readableChannel.read(ByteBuffer.allocate(1024)));
+    }
+
     @Test
     public void testReadEmptyFrame() throws Exception {
         final FrameInputBuffer inBuffer = new FrameInputBuffer(16 * 1024);
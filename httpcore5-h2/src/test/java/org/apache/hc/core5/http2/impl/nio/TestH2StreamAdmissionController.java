@@ -0,0 +1,90 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.core5.util.Timeout;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestH2StreamAdmissionController {
+
+    @Test
+    public void testAdmission() throws Exception {
+        final H2StreamAdmissionController admissionController = new H2StreamAdmissionController(2);
+        Assert.assertTrue(admissionController.admit());
+        Assert.assertTrue(admissionController.admit());
+        Assert.assertFalse(admissionController.admit());
+        Assert.assertEquals(2, admissionController.getActiveStreams());
+        Assert.assertEquals(1, admissionController.getRefusedStreams());
+
+        admissionController.release(TimeUnit.MILLISECONDS.toNanos(10));
+        Assert.assertEquals(1, admissionController.getActiveStreams());
+        Assert.assertTrue(admissionController.admit());
+    }
+
+    @Test
+    public void testLatencyReducesAdmissionLimit() throws Exception {
+        final H2StreamAdmissionController admissionController = new H2StreamAdmissionController(100, Timeout.ofMilliseconds(100));
+        Assert.assertEquals(100, admissionController.getAdmissionLimit());
+
+        Assert.assertTrue(admissionController.admit());
+        admissionController.release(TimeUnit.MILLISECONDS.toNanos(50));
+        Assert.assertEquals(100, admissionController.getAdmissionLimit());
+
+        for (int i = 0; i < 50; i++) {
+            Assert.assertTrue(admissionController.admit());
+            admissionController.release(TimeUnit.MILLISECONDS.toNanos(400));
+        }
+        Assert.assertTrue(admissionController.getAverageLatency(TimeUnit.MILLISECONDS) > 300);
+        Assert.assertTrue(admissionController.getAdmissionLimit() < 35);
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(admissionController.admit());
+            admissionController.release(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        Assert.assertEquals(100, admissionController.getAdmissionLimit());
+    }
+
+    @Test
+    public void testMaxConcurrentStreamsShare() throws Exception {
+        final H2StreamAdmissionController admissionController = new H2StreamAdmissionController(100);
+        Assert.assertEquals(50, admissionController.getMaxConcurrentStreams(50));
+        admissionController.connectionOpened();
+        Assert.assertEquals(100, admissionController.getMaxConcurrentStreams(250));
+        for (int i = 0; i < 3; i++) {
+            admissionController.connectionOpened();
+        }
+        Assert.assertEquals(25, admissionController.getMaxConcurrentStreams(250));
+        for (int i = 0; i < 1000; i++) {
+            admissionController.connectionOpened();
+        }
+        Assert.assertEquals(1, admissionController.getMaxConcurrentStreams(250));
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestH2StreamMap {
+
+    @Test
+    public void testBasics() throws Exception {
+        final H2StreamMap<String> map = new H2StreamMap<>();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.get(1));
+        Assert.assertNull(map.get(0));
+
+        Assert.assertNull(map.put(1, "one"));
+        Assert.assertNull(map.put(2, "two"));
+        Assert.assertNull(map.put(3, "three"));
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals("one", map.get(1));
+        Assert.assertEquals("two", map.get(2));
+        Assert.assertEquals("three", map.get(3));
+        Assert.assertNull(map.get(4));
+
+        Assert.assertEquals("one", map.put(1, "uno"));
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals("uno", map.get(1));
+
+        Assert.assertEquals("two", map.remove(2));
+        Assert.assertNull(map.remove(2));
+        Assert.assertNull(map.get(2));
+        Assert.assertEquals(2, map.size());
+
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.get(1));
+        Assert.assertNull(map.get(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalStreamId() throws Exception {
+        final H2StreamMap<String> map = new H2StreamMap<>();
+        map.put(0, "zero");
+    }
+
+    @Test
+    public void testGrowth() throws Exception {
+        final H2StreamMap<Integer> map = new H2StreamMap<>();
+        for (int i = 1; i <= 1000; i++) {
+            map.put(i, i);
+        }
+        Assert.assertEquals(1000, map.size());
+        for (int i = 1; i <= 1000; i++) {
+            Assert.assertEquals(Integer.valueOf(i), map.get(i));
+        }
+        final List<Integer> values = map.values();
+        Assert.assertEquals(1000, values.size());
+        for (final Integer value : values) {
+            Assert.assertEquals(value, map.remove(value));
+        }
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testRemoveKeepsCollidingEntriesReachable() throws Exception {
+        final H2StreamMap<Integer> map = new H2StreamMap<>(8);
+        // Ids far apart that map onto the same slots
+        final int[] ids = new int[] {1, 33, 65, 97, 2, 34, 66, 129, Integer.MAX_VALUE};
+        for (final int id : ids) {
+            map.put(id, id);
+        }
+        for (int i = 0; i < ids.length; i++) {
+            Assert.assertEquals(Integer.valueOf(ids[i]), map.remove(ids[i]));
+            for (int n = i + 1; n < ids.length; n++) {
+                Assert.assertEquals(Integer.valueOf(ids[n]), map.get(ids[n]));
+            }
+        }
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testRandomOperations() throws Exception {
+        final Random random = new Random(42);
+        final H2StreamMap<Integer> map = new H2StreamMap<>();
+        final Map<Integer, Integer> reference = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            final int id = 1 + random.nextInt(200);
+            if (random.nextBoolean()) {
+                Assert.assertEquals(reference.put(id, i), map.put(id, i));
+            } else {
+                Assert.assertEquals(reference.remove(id), map.remove(id));
+            }
+            Assert.assertEquals(reference.size(), map.size());
+        }
+        for (final Map.Entry<Integer, Integer> entry : reference.entrySet()) {
+            Assert.assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+
+}
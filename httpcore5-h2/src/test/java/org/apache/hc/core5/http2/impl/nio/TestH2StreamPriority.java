@@ -0,0 +1,89 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http2.impl.nio;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestH2StreamPriority {
+
+    private static H2StreamPriority parse(final String... values) {
+        final Header[] headers = new Header[values.length];
+        for (int i = 0; i < values.length; i++) {
+            headers[i] = new BasicHeader("priority", values[i]);
+        }
+        return H2StreamPriority.parse(Arrays.asList(headers));
+    }
+
+    @Test
+    public void testNoPriorityHeader() throws Exception {
+        Assert.assertNull(H2StreamPriority.parse(Collections.<Header>singletonList(new BasicHeader("accept", "*/*"))));
+        Assert.assertNull(H2StreamPriority.parse(null));
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        final H2StreamPriority p1 = parse("u=5, i");
+        Assert.assertEquals(5, p1.getUrgency());
+        Assert.assertTrue(p1.isIncremental());
+
+        final H2StreamPriority p2 = parse("u=0");
+        Assert.assertEquals(0, p2.getUrgency());
+        Assert.assertFalse(p2.isIncremental());
+
+        final H2StreamPriority p3 = parse("i=?1");
+        Assert.assertEquals(H2StreamPriority.DEFAULT_URGENCY, p3.getUrgency());
+        Assert.assertTrue(p3.isIncremental());
+
+        final H2StreamPriority p4 = parse("i=?0,u=1;foo=bar");
+        Assert.assertEquals(1, p4.getUrgency());
+        Assert.assertFalse(p4.isIncremental());
+
+        Assert.assertSame(H2StreamPriority.DEFAULT, parse(""));
+    }
+
+    @Test
+    public void testLastMemberWins() throws Exception {
+        final H2StreamPriority p = parse("u=1", "u=6, i");
+        Assert.assertEquals(6, p.getUrgency());
+        Assert.assertTrue(p.isIncremental());
+    }
+
+    @Test
+    public void testInvalidMembersIgnored() throws Exception {
+        final H2StreamPriority p = parse("u=8, i=maybe, x=1, u=abc");
+        Assert.assertEquals(H2StreamPriority.DEFAULT_URGENCY, p.getUrgency());
+        Assert.assertFalse(p.isIncremental());
+    }
+
+}
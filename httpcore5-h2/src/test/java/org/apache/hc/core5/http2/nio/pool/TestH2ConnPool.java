@@ -0,0 +1,225 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http2.nio.pool;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLSession;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.function.Resolver;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http2.nio.H2ConnectionState;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.reactor.IOEventHandler;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.ssl.TlsDetails;
+import org.apache.hc.core5.reactor.ssl.TransportSecurityLayer;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class TestH2ConnPool {
+
+    private static final HttpHost HOST1 = new HttpHost("https", "www.example.com", 443);
+    private static final HttpHost HOST2 = new HttpHost("https", "api.example.com", 443);
+
+    private static IOSession createTlsSession(final InetAddress address, final String subjectAlt) throws Exception {
+        final IOSession ioSession = Mockito.mock(IOSession.class, Mockito.withSettings()
+                .extraInterfaces(TransportSecurityLayer.class));
+        final IOEventHandler handler = Mockito.mock(IOEventHandler.class, Mockito.withSettings()
+                .extraInterfaces(H2ConnectionState.class));
+        Mockito.when(((H2ConnectionState) handler).getPeerMaxConcurrentStreams()).thenReturn(100);
+        final X509Certificate certificate = Mockito.mock(X509Certificate.class);
+        final Collection<List<?>> subjectAlts = Collections.<List<?>>singletonList(Arrays.<Object>asList(2, subjectAlt));
+        Mockito.when(certificate.getSubjectAlternativeNames()).thenReturn(subjectAlts);
+        final SSLSession sslSession = Mockito.mock(SSLSession.class);
+        Mockito.when(sslSession.getPeerCertificates()).thenReturn(new Certificate[] { certificate });
+        Mockito.when(ioSession.isOpen()).thenReturn(true);
+        Mockito.when(ioSession.getHandler()).thenReturn(handler);
+        Mockito.when(ioSession.getRemoteAddress()).thenReturn(new InetSocketAddress(address, 443));
+        Mockito.when(((TransportSecurityLayer) ioSession).getTlsDetails()).thenReturn(new TlsDetails(sslSession, "h2"));
+        return ioSession;
+    }
+
+    private static FutureCallback<IOSession> captureConnect(
+            final ConnectionInitiator connectionInitiator, final HttpHost host) {
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<FutureCallback<IOSession>> callbackCaptor = (ArgumentCaptor) ArgumentCaptor.forClass(FutureCallback.class);
+        Mockito.verify(connectionInitiator).connect(
+                ArgumentMatchers.eq(host),
+                ArgumentMatchers.<SocketAddress>any(),
+                ArgumentMatchers.<SocketAddress>any(),
+                ArgumentMatchers.<Timeout>any(),
+                ArgumentMatchers.any(),
+                callbackCaptor.capture());
+        return callbackCaptor.getValue();
+    }
+
+    private static H2ConnPool createCoalescingPool(
+            final ConnectionInitiator connectionInitiator,
+            final Resolver<HttpHost, InetSocketAddress> addressResolver,
+            final IOSession ioSession) throws Exception {
+        final H2ConnPool pool = new H2ConnPool(connectionInitiator, addressResolver, null);
+        pool.setConnectionCoalescing(true);
+        final Future<IOSession> future = pool.getSession(HOST1, Timeout.ofSeconds(5), null);
+        captureConnect(connectionInitiator, HOST1).completed(ioSession);
+        Assert.assertSame(ioSession, future.get(5, TimeUnit.SECONDS));
+        return pool;
+    }
+
+    @Test
+    public void testCoalescingMatchesAnyResolvedAddress() throws Exception {
+        final InetAddress[] addresses = InetAddress.getAllByName("localhost");
+        final IOSession ioSession = createTlsSession(addresses[addresses.length - 1], "localhost");
+        final ConnectionInitiator connectionInitiator = Mockito.mock(ConnectionInitiator.class);
+        final H2ConnPool pool = createCoalescingPool(connectionInitiator, null, ioSession);
+
+        final Future<IOSession> future = pool.getSession(
+                new HttpHost("https", "localhost", 443), Timeout.ofSeconds(5), null);
+        Assert.assertTrue(future.isDone());
+        Assert.assertSame(ioSession, future.get());
+    }
+
+    @Test
+    public void testCoalescingResolverFailure() throws Exception {
+        final InetAddress address = InetAddress.getByAddress(new byte[] { 10, 0, 0, 1 });
+        final IOSession ioSession = createTlsSession(address, "*.example.com");
+        final AtomicInteger count = new AtomicInteger();
+        final Resolver<HttpHost, InetSocketAddress> addressResolver = new Resolver<HttpHost, InetSocketAddress>() {
+
+            @Override
+            public InetSocketAddress resolve(final HttpHost host) {
+                if (HOST2.equals(host) && count.getAndIncrement() == 0) {
+                    throw new IllegalStateException("Resolver failure");
+                }
+                return new InetSocketAddress(address, host.getPort());
+            }
+
+        };
+        final ConnectionInitiator connectionInitiator = Mockito.mock(ConnectionInitiator.class);
+        final H2ConnPool pool = createCoalescingPool(connectionInitiator, addressResolver, ioSession);
+
+        final Future<IOSession> future = pool.getSession(HOST2, Timeout.ofSeconds(5), null);
+        Assert.assertFalse(future.isDone());
+        Assert.assertNotNull(captureConnect(connectionInitiator, HOST2));
+    }
+
+    @Test
+    public void testCoalescingSlowResolverDoesNotBlockPool() throws Exception {
+        final InetAddress address = InetAddress.getByAddress(new byte[] { 10, 0, 0, 1 });
+        final IOSession ioSession = createTlsSession(address, "*.example.com");
+        final CountDownLatch resolving = new CountDownLatch(1);
+        final CountDownLatch resolved = new CountDownLatch(1);
+        final Resolver<HttpHost, InetSocketAddress> addressResolver = new Resolver<HttpHost, InetSocketAddress>() {
+
+            @Override
+            public InetSocketAddress resolve(final HttpHost host) {
+                if (HOST2.equals(host)) {
+                    resolving.countDown();
+                    try {
+                        resolved.await();
+                    } catch (final InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return new InetSocketAddress(address, host.getPort());
+            }
+
+        };
+        final ConnectionInitiator connectionInitiator = Mockito.mock(ConnectionInitiator.class);
+        final H2ConnPool pool = createCoalescingPool(connectionInitiator, addressResolver, ioSession);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            final Future<Future<IOSession>> result = executorService.submit(new Callable<Future<IOSession>>() {
+
+                @Override
+                public Future<IOSession> call() throws Exception {
+                    return pool.getSession(HOST2, Timeout.ofSeconds(5), null);
+                }
+
+            });
+            Assert.assertTrue(resolving.await(5, TimeUnit.SECONDS));
+
+            // The pool must remain accessible while the resolver blocks
+            final Future<?> enumeration = executorService.submit(new Runnable() {
+
+                @Override
+                public void run() {
+                    pool.enumAvailable(new Callback<IOSession>() {
+
+                        @Override
+                        public void execute(final IOSession object) {
+                        }
+
+                    });
+                }
+
+            });
+            enumeration.get(5, TimeUnit.SECONDS);
+
+            resolved.countDown();
+            final Future<IOSession> future = result.get(5, TimeUnit.SECONDS);
+            Assert.assertSame(ioSession, future.get(5, TimeUnit.SECONDS));
+        } finally {
+            resolved.countDown();
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMatchDnsName() throws Exception {
+        Assert.assertTrue(H2ConnPool.matchDnsName("www.example.com", "www.example.com"));
+        Assert.assertTrue(H2ConnPool.matchDnsName("WWW.Example.com", "www.example.COM"));
+        Assert.assertFalse(H2ConnPool.matchDnsName("api.example.com", "www.example.com"));
+        Assert.assertTrue(H2ConnPool.matchDnsName("api.example.com", "*.example.com"));
+        Assert.assertFalse(H2ConnPool.matchDnsName("example.com", "*.example.com"));
+        Assert.assertFalse(H2ConnPool.matchDnsName("a.b.example.com", "*.example.com"));
+        Assert.assertFalse(H2ConnPool.matchDnsName(".example.com", "*.example.com"));
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.testing.classic;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.impl.bootstrap.HttpRequester;
+import org.apache.hc.core5.http.impl.bootstrap.HttpServer;
+import org.apache.hc.core5.http.impl.bootstrap.RequesterBootstrap;
+import org.apache.hc.core5.http.impl.bootstrap.ServerBootstrap;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.message.BasicClassicHttpRequest;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.hamcrest.CoreMatchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class ClassicServerWorkerThreadsTest {
+
+    private static final Timeout TIMEOUT = Timeout.ofSeconds(30);
+
+    private HttpServer server;
+    private HttpRequester requester;
+
+    @After
+    public void cleanup() {
+        if (requester != null) {
+            requester.close(CloseMode.IMMEDIATE);
+        }
+        if (server != null) {
+            server.close(CloseMode.IMMEDIATE);
+        }
+    }
+
+    private ServerBootstrap serverBootstrap() {
+        return ServerBootstrap.bootstrap()
+                .setSocketConfig(SocketConfig.custom()
+                        .setSoTimeout(TIMEOUT)
+                        .build())
+                .register("*", new EchoHandler())
+                .setExceptionListener(LoggingExceptionListener.INSTANCE);
+    }
+
+    private void executeRequests() throws Exception {
+        server.start();
+        requester = RequesterBootstrap.bootstrap()
+                .setSocketConfig(SocketConfig.custom()
+                        .setSoTimeout(TIMEOUT)
+                        .build())
+                .create();
+        final HttpHost target = new HttpHost("http", "localhost", server.getLocalPort());
+        for (int i = 0; i < 3; i++) {
+            final ClassicHttpRequest request = new BasicClassicHttpRequest(Method.POST, "/stuff");
+            request.setEntity(new StringEntity("some stuff " + i, ContentType.TEXT_PLAIN));
+            try (final ClassicHttpResponse response = requester.execute(target, request, TIMEOUT, HttpCoreContext.create())) {
+                Assert.assertThat(response.getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+                Assert.assertThat(EntityUtils.toString(response.getEntity()), CoreMatchers.equalTo("some stuff " + i));
+            }
+        }
+    }
+
+    @Test
+    public void testCustomWorkerThreadFactory() throws Exception {
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+        server = serverBootstrap()
+                .setWorkerThreadFactory(new ThreadFactory() {
+
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "test-worker-" + threads.size());
+                        thread.setDaemon(true);
+                        threads.add(thread);
+                        return thread;
+                    }
+
+                })
+                .create();
+        executeRequests();
+
+        // Listener and at least one connection worker
+        Assert.assertThat(threads.size() >= 2, CoreMatchers.equalTo(true));
+
+        requester.close(CloseMode.GRACEFUL);
+        server.initiateShutdown();
+        server.awaitTermination(TimeValue.ofSeconds(5));
+        for (final Thread thread : threads) {
+            thread.join(5000);
+            Assert.assertThat(thread.getName(), thread.isAlive(), CoreMatchers.equalTo(false));
+        }
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        try {
+            server = serverBootstrap()
+                    .setVirtualThreads(true)
+                    .create();
+        } catch (final UnsupportedOperationException ex) {
+            Assume.assumeNoException("Virtual threads not supported", ex);
+        }
+        executeRequests();
+
+        requester.close(CloseMode.GRACEFUL);
+        server.close(CloseMode.GRACEFUL);
+    }
+
+}
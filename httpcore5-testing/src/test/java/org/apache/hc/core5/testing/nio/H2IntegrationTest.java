@@ -112,6 +112,7 @@
 import org.apache.hc.core5.http2.H2Error;
 import org.apache.hc.core5.http2.H2StreamResetException;
 import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.config.H2StreamSchedulingPolicy;
 import org.apache.hc.core5.http2.nio.command.PingCommand;
 import org.apache.hc.core5.http2.nio.support.BasicPingHandler;
 import org.apache.hc.core5.http2.protocol.H2RequestConnControl;
@@ -300,6 +301,122 @@ public AsyncServerExchangeHandler get() {
         }
     }
 
+    @Test
+    public void testLargeGetInputWindowAutoTuning() throws Exception {
+        server.register("/", new Supplier<AsyncServerExchangeHandler>() {
+
+            @Override
+            public AsyncServerExchangeHandler get() {
+                return new MultiLineResponseHandler("0123456789abcdef", 20000);
+            }
+
+        });
+        final InetSocketAddress serverEndpoint = server.start();
+
+        client.start(H2Config.custom()
+                .setInitialWindowSize(1024)
+                .setInputWindowAutoTuning(true)
+                .setMaxInputWindowSize(256 * 1024)
+                .build());
+        final Future<ClientSessionEndpoint> connectFuture = client.connect(
+                "localhost", serverEndpoint.getPort(), TIMEOUT);
+        final ClientSessionEndpoint streamEndpoint = connectFuture.get();
+
+        final Queue<Future<Message<HttpResponse, String>>> queue = new LinkedList<>();
+        for (int i = 0; i < 4; i++) {
+            queue.add(streamEndpoint.execute(
+                    new BasicRequestProducer(Method.GET, createRequestURI(serverEndpoint, "/")),
+                    new BasicResponseConsumer<>(new StringAsyncEntityConsumer(i % 2 == 0 ? Integer.MAX_VALUE : 512)), null));
+        }
+        while (!queue.isEmpty()) {
+            final Future<Message<HttpResponse, String>> future = queue.remove();
+            final Message<HttpResponse, String> result = future.get(LONG_TIMEOUT.getDuration(), LONG_TIMEOUT.getTimeUnit());
+            Assert.assertNotNull(result);
+            final HttpResponse response = result.getHead();
+            Assert.assertNotNull(response);
+            Assert.assertEquals(200, response.getCode());
+            final String s = result.getBody();
+            Assert.assertNotNull(s);
+            Assert.assertEquals(20000 * 18, s.length());
+            final StringTokenizer t = new StringTokenizer(s, "\r\n");
+            while (t.hasMoreTokens()) {
+                Assert.assertEquals("0123456789abcdef", t.nextToken());
+            }
+        }
+    }
+
+    private void testMixedSmallAndLargeGets(final H2StreamSchedulingPolicy policy) throws Exception {
+        server.register("/large", new Supplier<AsyncServerExchangeHandler>() {
+
+            @Override
+            public AsyncServerExchangeHandler get() {
+                return new MultiLineResponseHandler("0123456789abcdef", 5000);
+            }
+
+        });
+        server.register("/small", new Supplier<AsyncServerExchangeHandler>() {
+
+            @Override
+            public AsyncServerExchangeHandler get() {
+                return new SingleLineResponseHandler("Hi there");
+            }
+
+        });
+        final InetSocketAddress serverEndpoint = server.start(H2Config.custom()
+                .setStreamSchedulingPolicy(policy)
+                .build());
+
+        client.start();
+        final Future<ClientSessionEndpoint> connectFuture = client.connect(
+                "localhost", serverEndpoint.getPort(), TIMEOUT);
+        final ClientSessionEndpoint streamEndpoint = connectFuture.get();
+
+        final String[] priorities = { null, "u=0", "u=5, i", "i", "u=7" };
+        final Queue<Future<Message<HttpResponse, String>>> largeQueue = new LinkedList<>();
+        final Queue<Future<Message<HttpResponse, String>>> smallQueue = new LinkedList<>();
+        for (int i = 0; i < 20; i++) {
+            final boolean large = i % 4 == 0;
+            final HttpRequest request = new BasicHttpRequest(Method.GET,
+                    createRequestURI(serverEndpoint, large ? "/large" : "/small"));
+            final String priority = priorities[i % priorities.length];
+            if (priority != null) {
+                request.addHeader("priority", priority);
+            }
+            final Future<Message<HttpResponse, String>> future = streamEndpoint.execute(
+                    new BasicRequestProducer(request, null),
+                    new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), null);
+            (large ? largeQueue : smallQueue).add(future);
+        }
+        while (!smallQueue.isEmpty()) {
+            final Message<HttpResponse, String> result = smallQueue.remove().get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.assertNotNull(result);
+            Assert.assertEquals(200, result.getHead().getCode());
+            Assert.assertEquals("Hi there", result.getBody());
+        }
+        while (!largeQueue.isEmpty()) {
+            final Message<HttpResponse, String> result = largeQueue.remove().get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.assertNotNull(result);
+            Assert.assertEquals(200, result.getHead().getCode());
+            final StringTokenizer t = new StringTokenizer(result.getBody(), "\r\n");
+            int count = 0;
+            while (t.hasMoreTokens()) {
+                Assert.assertEquals("0123456789abcdef", t.nextToken());
+                count++;
+            }
+            Assert.assertEquals(5000, count);
+        }
+    }
+
+    @Test
+    public void testMixedSmallAndLargeGetsRoundRobin() throws Exception {
+        testMixedSmallAndLargeGets(H2StreamSchedulingPolicy.ROUND_ROBIN);
+    }
+
+    @Test
+    public void testMixedSmallAndLargeGetsPriority() throws Exception {
+        testMixedSmallAndLargeGets(H2StreamSchedulingPolicy.PRIORITY);
+    }
+
     @Test
     public void testBasicPost() throws Exception {
         server.register("/hello", new Supplier<AsyncServerExchangeHandler>() {
@@ -572,6 +689,85 @@ protected void handle(
         }
     }
 
+    @Test
+    public void testChainedBufferResponseProducer() throws Exception {
+        server.register("*", new Supplier<AsyncServerExchangeHandler>() {
+
+            @Override
+            public AsyncServerExchangeHandler get() {
+                return new AbstractClassicServerExchangeHandler(2048, Executors.newSingleThreadExecutor(), true) {
+
+                    @Override
+                    protected void handle(
+                            final HttpRequest request,
+                            final InputStream requestStream,
+                            final HttpResponse response,
+                            final OutputStream responseStream,
+                            final HttpContext context) throws IOException, HttpException {
+
+                        if (!"/hello".equals(request.getPath())) {
+                            response.setCode(HttpStatus.SC_NOT_FOUND);
+                            return;
+                        }
+                        if (!Method.POST.name().equalsIgnoreCase(request.getMethod())) {
+                            response.setCode(HttpStatus.SC_NOT_IMPLEMENTED);
+                            return;
+                        }
+                        if (requestStream == null) {
+                            return;
+                        }
+                        final Header h1 = request.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+                        final ContentType contentType = h1 != null ? ContentType.parse(h1.getValue()) : null;
+                        Charset charset = contentType != null ? contentType.getCharset() : null;
+                        if (charset == null) {
+                            charset = StandardCharsets.US_ASCII;
+                        }
+                        response.setCode(HttpStatus.SC_OK);
+                        response.setHeader(h1);
+                        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(requestStream, charset));
+                            final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(responseStream, charset))) {
+                            String l;
+                            while ((l = reader.readLine()) != null) {
+                                writer.write(l);
+                                writer.write("\r\n");
+                            }
+                            writer.flush();
+                        }
+                    }
+                };
+            }
+
+        });
+        final InetSocketAddress serverEndpoint = server.start();
+
+        client.start(H2Config.custom()
+                .setInitialWindowSize(512)
+                .build());
+
+        final Future<ClientSessionEndpoint> connectFuture = client.connect(
+                "localhost", serverEndpoint.getPort(), TIMEOUT);
+        final ClientSessionEndpoint streamEndpoint = connectFuture.get();
+
+        final HttpRequest request1 = new BasicHttpRequest(Method.POST, createRequestURI(serverEndpoint, "/hello"));
+        final Future<Message<HttpResponse, String>> future1 = streamEndpoint.execute(
+                new BasicRequestProducer(request1, new MultiLineEntityProducer("0123456789abcd", 2000)),
+                new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), null);
+        final Message<HttpResponse, String> result1 = future1.get(LONG_TIMEOUT.getDuration(), LONG_TIMEOUT.getTimeUnit());
+        Assert.assertNotNull(result1);
+        final HttpResponse response1 = result1.getHead();
+        Assert.assertNotNull(response1);
+        Assert.assertEquals(200, response1.getCode());
+        final String s1 = result1.getBody();
+        Assert.assertNotNull(s1);
+        final StringTokenizer t1 = new StringTokenizer(s1, "\r\n");
+        int count = 0;
+        while (t1.hasMoreTokens()) {
+            Assert.assertEquals("0123456789abcd", t1.nextToken());
+            count++;
+        }
+        Assert.assertEquals(2000, count);
+    }
+
     @Test
     public void testPush() throws Exception {
         final InetSocketAddress serverEndpoint = server.start();
@@ -1266,6 +1266,83 @@ protected void handle(
         }
     }
 
+    @Test
+    public void testChainedBufferResponseProducer() throws Exception {
+        server.register("*", new Supplier<AsyncServerExchangeHandler>() {
+
+            @Override
+            public AsyncServerExchangeHandler get() {
+                return new AbstractClassicServerExchangeHandler(2048, Executors.newSingleThreadExecutor(), true) {
+
+                    @Override
+                    protected void handle(
+                            final HttpRequest request,
+                            final InputStream requestStream,
+                            final HttpResponse response,
+                            final OutputStream responseStream,
+                            final HttpContext context) throws IOException, HttpException {
+
+                        if (!"/hello".equals(request.getPath())) {
+                            response.setCode(HttpStatus.SC_NOT_FOUND);
+                            return;
+                        }
+                        if (!Method.POST.name().equalsIgnoreCase(request.getMethod())) {
+                            response.setCode(HttpStatus.SC_NOT_IMPLEMENTED);
+                            return;
+                        }
+                        if (requestStream == null) {
+                            return;
+                        }
+                        final Header h1 = request.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+                        final ContentType contentType = h1 != null ? ContentType.parse(h1.getValue()) : null;
+                        Charset charset = contentType != null ? contentType.getCharset() : null;
+                        if (charset == null) {
+                            charset = StandardCharsets.US_ASCII;
+                        }
+                        response.setCode(HttpStatus.SC_OK);
+                        response.setHeader(h1);
+                        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(requestStream, charset));
+                             final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(responseStream, charset))) {
+                            String l;
+                            while ((l = reader.readLine()) != null) {
+                                writer.write(l);
+                                writer.write("\r\n");
+                            }
+                            writer.flush();
+                        }
+                    }
+                };
+            }
+
+        });
+        final InetSocketAddress serverEndpoint = server.start();
+
+        client.start(Http1Config.custom().setBufferSize(256).build());
+
+        final Future<ClientSessionEndpoint> connectFuture = client.connect(
+                "localhost", serverEndpoint.getPort(), TIMEOUT);
+        final ClientSessionEndpoint streamEndpoint = connectFuture.get();
+
+        final HttpRequest request1 = new BasicHttpRequest(Method.POST, createRequestURI(serverEndpoint, "/hello"));
+        final Future<Message<HttpResponse, String>> future1 = streamEndpoint.execute(
+                new BasicRequestProducer(request1, new MultiLineEntityProducer("0123456789abcd", 2000)),
+                new BasicResponseConsumer<>(new StringAsyncEntityConsumer()), null);
+        final Message<HttpResponse, String> result1 = future1.get(LONG_TIMEOUT.getDuration(), LONG_TIMEOUT.getTimeUnit());
+        Assert.assertNotNull(result1);
+        final HttpResponse response1 = result1.getHead();
+        Assert.assertNotNull(response1);
+        Assert.assertEquals(200, response1.getCode());
+        final String s1 = result1.getBody();
+        Assert.assertNotNull(s1);
+        final StringTokenizer t1 = new StringTokenizer(s1, "\r\n");
+        int count = 0;
+        while (t1.hasMoreTokens()) {
+            Assert.assertEquals("0123456789abcd", t1.nextToken());
+            count++;
+        }
+        Assert.assertEquals(2000, count);
+    }
+
     @Test
     public void testPipelinedConnectionClose() throws Exception {
         server.register("/hello*", new Supplier<AsyncServerExchangeHandler>() {
@@ -27,12 +27,21 @@
 
 package org.apache.hc.core5.testing.nio;
 
+import java.net.ConnectException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
 import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.hc.core5.function.Callback;
 import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.reactor.DefaultListeningIOReactor;
 import org.apache.hc.core5.reactor.IOEventHandler;
@@ -46,6 +55,7 @@
 import org.apache.hc.core5.util.Timeout;
 import org.junit.After;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -58,8 +68,21 @@ public class TestDefaultListeningIOReactor {
 
     private static class NoopIOEventHandlerFactory implements IOEventHandlerFactory {
 
+        private final CountDownLatch latch;
+
+        NoopIOEventHandlerFactory(final CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        NoopIOEventHandlerFactory() {
+            this(null);
+        }
+
         @Override
         public IOEventHandler createHandler(final ProtocolIOSession ioSession, final Object attachment) {
+            if (latch != null) {
+                latch.countDown();
+            }
             return new IOEventHandler() {
 
                 @Override
@@ -158,4 +181,75 @@ public void testEndpointAlreadyBound() throws Exception {
         Assert.assertEquals(IOReactorStatus.SHUT_DOWN, ioReactor.getStatus());
     }
 
+    private static boolean isReusePortSupported() throws Exception {
+        final SocketOption<?> option;
+        try {
+            option = (SocketOption<?>) StandardSocketOptions.class.getField("SO_REUSEPORT").get(null);
+        } catch (final NoSuchFieldException ex) {
+            return false;
+        }
+        try (final ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            return serverChannel.supportedOptions().contains(option);
+        }
+    }
+
+    @Test
+    public void testReusePortEndpointUpAndDown() throws Exception {
+        Assume.assumeTrue(isReusePortSupported());
+
+        final int n = 20;
+        final CountDownLatch latch = new CountDownLatch(n);
+        final IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(4)
+                .setSoReusePort(true)
+                .build();
+        this.ioReactor.close(CloseMode.IMMEDIATE);
+        this.ioReactor = new DefaultListeningIOReactor(new NoopIOEventHandlerFactory(latch), reactorConfig,
+                new Callback<IOSession>() {
+
+                    @Override
+                    public void execute(final IOSession session) {
+                        session.close(CloseMode.IMMEDIATE);
+                    }
+
+                });
+        ioReactor.start();
+
+        final Future<ListenerEndpoint> future = ioReactor.listen(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        final ListenerEndpoint endpoint = future.get();
+        final int port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+        Assert.assertTrue(port > 0);
+        Assert.assertEquals(1, ioReactor.getEndpoints().size());
+
+        final Socket[] sockets = new Socket[n];
+        try {
+            for (int i = 0; i < n; i++) {
+                sockets[i] = new Socket(InetAddress.getLoopbackAddress(), port);
+            }
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            for (final Socket socket : sockets) {
+                if (socket != null) {
+                    socket.close();
+                }
+            }
+        }
+
+        endpoint.close();
+        Assert.assertEquals(0, ioReactor.getEndpoints().size());
+        // Server sockets get released by I/O dispatchers upon the next select
+        Thread.sleep(200);
+        try (final Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            Assert.fail("ConnectException expected");
+        } catch (final ConnectException expected) {
+        }
+
+        // Server sockets owned by I/O dispatchers must not hold up graceful shutdown
+        ioReactor.listen(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)).get();
+        final long startMillis = System.currentTimeMillis();
+        ioReactor.initiateShutdown();
+        ioReactor.awaitShutdown(TimeValue.ofSeconds(5));
+        Assert.assertTrue(System.currentTimeMillis() - startMillis < 4000);
+    }
+
 }
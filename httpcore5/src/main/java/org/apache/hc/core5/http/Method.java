@@ -48,6 +48,8 @@ public enum Method {
     OPTIONS(true, true),
     PATCH(false, false);
 
+    private static final Method[] VALUES = values();
+
     private final boolean safe;
     private final boolean idempotent;
 
@@ -93,14 +95,20 @@ public static boolean isIdempotent(final String value) {
      * @return the Method for the given method name.
      */
     public static Method normalizedValueOf(final String method) {
-        return valueOf(Args.notNull(method, "method").toUpperCase(Locale.ROOT));
+        Args.notNull(method, "method");
+        for (final Method m : VALUES) {
+            if (m.name() == method) {
+                return m;
+            }
+        }
+        return valueOf(method.toUpperCase(Locale.ROOT));
     }
 
     public boolean isSame(final String value) {
         if (value == null) {
             return false;
         }
-        return name().equalsIgnoreCase(value);
+        return name() == value || name().equalsIgnoreCase(value);
     }
 
 }
@@ -51,10 +51,13 @@ public class Http1Config {
     private final int maxHeaderCount;
     private final int maxEmptyLineCount;
     private final int initialWindowSize;
+    private final boolean releaseIdleBuffers;
+    private final Timeout idleBufferTimeout;
 
     Http1Config(final int bufferSize, final int chunkSizeHint, final Timeout waitForContinueTimeout,
                 final int maxLineLength, final int maxHeaderCount, final int maxEmptyLineCount,
-                final int initialWindowSize) {
+                final int initialWindowSize, final boolean releaseIdleBuffers,
+                final Timeout idleBufferTimeout) {
         super();
         this.bufferSize = bufferSize;
         this.chunkSizeHint = chunkSizeHint;
@@ -63,6 +66,8 @@ public class Http1Config {
         this.maxHeaderCount = maxHeaderCount;
         this.maxEmptyLineCount = maxEmptyLineCount;
         this.initialWindowSize = initialWindowSize;
+        this.releaseIdleBuffers = releaseIdleBuffers;
+        this.idleBufferTimeout = idleBufferTimeout;
     }
 
     public int getBufferSize() {
@@ -93,6 +98,20 @@ public int getInitialWindowSize() {
         return initialWindowSize;
     }
 
+    /**
+     * @since 5.1
+     */
+    public boolean isReleaseIdleBuffers() {
+        return releaseIdleBuffers;
+    }
+
+    /**
+     * @since 5.1
+     */
+    public Timeout getIdleBufferTimeout() {
+        return idleBufferTimeout;
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
@@ -103,6 +122,8 @@ public String toString() {
                 .append(", maxHeaderCount=").append(maxHeaderCount)
                 .append(", maxEmptyLineCount=").append(maxEmptyLineCount)
                 .append(", initialWindowSize=").append(initialWindowSize)
+                .append(", releaseIdleBuffers=").append(releaseIdleBuffers)
+                .append(", idleBufferTimeout=").append(idleBufferTimeout)
                 .append("]");
         return builder.toString();
     }
@@ -119,7 +140,10 @@ public static Http1Config.Builder copy(final Http1Config config) {
                 .setWaitForContinueTimeout(config.getWaitForContinueTimeout())
                 .setMaxHeaderCount(config.getMaxHeaderCount())
                 .setMaxLineLength(config.getMaxLineLength())
-                .setMaxEmptyLineCount(config.maxEmptyLineCount);
+                .setMaxEmptyLineCount(config.maxEmptyLineCount)
+                .setInitialWindowSize(config.getInitialWindowSize())
+                .setReleaseIdleBuffers(config.isReleaseIdleBuffers())
+                .setIdleBufferTimeout(config.getIdleBufferTimeout());
     }
 
     public static class Builder {
@@ -131,6 +155,8 @@ public static class Builder {
         private int maxHeaderCount;
         private int maxEmptyLineCount;
         private int initialWindowSize;
+        private boolean releaseIdleBuffers;
+        private Timeout idleBufferTimeout;
 
         Builder() {
             this.bufferSize = -1;
@@ -140,6 +166,8 @@ public static class Builder {
             this.maxHeaderCount = -1;
             this.maxEmptyLineCount = 10;
             this.initialWindowSize = -1;
+            this.releaseIdleBuffers = false;
+            this.idleBufferTimeout = Timeout.ofSeconds(1);
         }
 
         public Builder setBufferSize(final int bufferSize) {
@@ -177,6 +205,40 @@ public Builder setInitialWindowSize(final int initialWindowSize) {
             return this;
         }
 
+        /**
+         * Determines whether session buffers are to be released back to the buffer allocator
+         * when the connection becomes idle, that is, once all buffered data have been processed and
+         * no message is being transmitted in either direction. Released buffers are re-acquired
+         * on the next read or write. Buffers are released once the connection has stayed idle
+         * for the period set with {@link #setIdleBufferTimeout(Timeout)}.
+         * <p>
+         * This reduces the memory footprint of persistent connections kept alive between
+         * message exchanges, especially in combination with a pooling buffer allocator.
+         * </p>
+         *
+         * @since 5.1
+         */
+        public Builder setReleaseIdleBuffers(final boolean releaseIdleBuffers) {
+            this.releaseIdleBuffers = releaseIdleBuffers;
+            return this;
+        }
+
+        /**
+         * Sets the period of inactivity after which the buffers of an idle connection get
+         * released if {@link #setReleaseIdleBuffers(boolean)} is enabled. This avoids releasing
+         * and re-acquiring buffers between message exchanges that follow each other closely.
+         * A zero timeout releases buffers as soon as the connection becomes idle.
+         * <p>
+         * Default: {@code 1} second
+         * </p>
+         *
+         * @since 5.1
+         */
+        public Builder setIdleBufferTimeout(final Timeout idleBufferTimeout) {
+            this.idleBufferTimeout = idleBufferTimeout;
+            return this;
+        }
+
         public Http1Config build() {
             return new Http1Config(
                     bufferSize > 0 ? bufferSize : 8192,
@@ -185,7 +247,9 @@ public Http1Config build() {
                     maxLineLength,
                     maxHeaderCount,
                     maxEmptyLineCount,
-                    initialWindowSize > 0 ? initialWindowSize : 65535);
+                    initialWindowSize > 0 ? initialWindowSize : 65535,
+                    releaseIdleBuffers,
+                    idleBufferTimeout != null ? idleBufferTimeout : Timeout.ofSeconds(1));
         }
 
     }
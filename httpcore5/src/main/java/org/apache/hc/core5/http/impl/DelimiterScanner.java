@@ -0,0 +1,86 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.apache.hc.core5.annotation.Internal;
+
+/**
+ * Delimiter scanning routines that examine eight bytes at a time
+ * using SIMD-within-a-register arithmetic over {@code long} reads.
+ *
+ * @since 5.1
+ */
+@Internal
+public final class DelimiterScanner {
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+
+    private DelimiterScanner() {
+    }
+
+    /**
+     * Returns a word with the high bit set in each byte of the given word that is zero
+     * and all other bits cleared. Unlike the classic {@code (x - 0x01..) & ~x & 0x80..}
+     * formula this one never reports false positives as carries cannot cross byte borders.
+     */
+    static long zeroBytes(final long word) {
+        return ~(((word & LOW7) + LOW7) | word | LOW7);
+    }
+
+    /**
+     * Returns the absolute index of the first occurrence of the given byte within
+     * the range from {@code from} (inclusive) to {@code to} (exclusive) of the buffer
+     * or {@code -1} if there is no such byte. The position and the limit of
+     * the buffer remain unchanged.
+     */
+    public static int indexOf(final ByteBuffer buffer, final int from, final int to, final byte b) {
+        final long pattern = (b & 0xffL) * ONES;
+        final boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        int i = from;
+        final int wordLimit = to - 8;
+        while (i <= wordLimit) {
+            final long matches = zeroBytes(buffer.getLong(i) ^ pattern);
+            if (matches != 0) {
+                final int bits = bigEndian ? Long.numberOfLeadingZeros(matches) : Long.numberOfTrailingZeros(matches);
+                return i + (bits >>> 3);
+            }
+            i += 8;
+        }
+        while (i < to) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+}
@@ -47,6 +47,7 @@
 import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
 import org.apache.hc.core5.pool.PoolReusePolicy;
 import org.apache.hc.core5.pool.StrictConnPool;
+import org.apache.hc.core5.pool.StripedConnPool;
 import org.apache.hc.core5.reactor.IOEventHandlerFactory;
 import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.reactor.IOSession;
@@ -221,6 +222,15 @@ public HttpAsyncRequester create() {
                         new DefaultDisposalCallback<IOSession>(),
                         connPoolListener);
                 break;
+            case STRIPED:
+                connPool = new StripedConnPool<>(
+                        defaultMaxPerRoute > 0 ? defaultMaxPerRoute : 20,
+                        maxTotal > 0 ? maxTotal : 50,
+                        timeToLive,
+                        poolReusePolicy,
+                        new DefaultDisposalCallback<IOSession>(),
+                        connPoolListener);
+                break;
             case STRICT:
             default:
                 connPool = new StrictConnPool<>(
@@ -239,7 +249,10 @@ public HttpAsyncRequester create() {
                 connStrategy,
                 null,
                 null,
-                streamListener);
+                null,
+                null,
+                streamListener,
+                ioReactorConfig != null ? ioReactorConfig.getByteBufferAllocator() : null);
         final IOEventHandlerFactory ioEventHandlerFactory = new ClientHttp1IOEventHandlerFactory(
                 streamDuplexerFactory,
                 tlsStrategy != null ? tlsStrategy : new BasicClientTlsStrategy(),
@@ -31,6 +31,7 @@
 import java.net.ServerSocket;
 import java.util.Set;
 import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -83,6 +84,12 @@ enum Status { READY, ACTIVE, STOPPING }
     private volatile ServerSocket serverSocket;
     private volatile RequestListener requestListener;
 
+    /**
+     * @param workerThreadFactory factory of the request listener thread and connection
+     *                            worker threads or {@code null} to use a pool of platform threads.
+     *
+     * @since 5.1
+     */
     @Internal
     public HttpServer(
             final int port,
@@ -92,7 +99,8 @@ public HttpServer(
             final ServerSocketFactory serverSocketFactory,
             final HttpConnectionFactory<? extends DefaultBHttpServerConnection> connectionFactory,
             final Callback<SSLParameters> sslSetupHandler,
-            final ExceptionListener exceptionListener) {
+            final ExceptionListener exceptionListener,
+            final ThreadFactory workerThreadFactory) {
         this.port = Args.notNegative(port, "Port value is negative");
         this.httpService = Args.notNull(httpService, "HTTP service");
         this.ifAddress = ifAddress;
@@ -107,15 +115,29 @@ public HttpServer(
         this.listenerExecutorService = new ThreadPoolExecutor(
                 1, 1, 0L, TimeUnit.MILLISECONDS,
                 new SynchronousQueue<Runnable>(),
-                new DefaultThreadFactory("HTTP-listener-" + this.port));
-        this.workerThreads = new ThreadGroup("HTTP-workers");
+                workerThreadFactory != null ? workerThreadFactory : new DefaultThreadFactory("HTTP-listener-" + this.port));
+        this.workerThreads = workerThreadFactory == null ? new ThreadGroup("HTTP-workers") : null;
         this.workerExecutorService = new WorkerPoolExecutor(
                 0, Integer.MAX_VALUE, 1L, TimeUnit.SECONDS,
                 new SynchronousQueue<Runnable>(),
-                new DefaultThreadFactory("HTTP-worker", this.workerThreads, true));
+                workerThreadFactory != null ? workerThreadFactory : new DefaultThreadFactory("HTTP-worker", this.workerThreads, true));
         this.status = new AtomicReference<>(Status.READY);
     }
 
+    @Internal
+    public HttpServer(
+            final int port,
+            final HttpService httpService,
+            final InetAddress ifAddress,
+            final SocketConfig socketConfig,
+            final ServerSocketFactory serverSocketFactory,
+            final HttpConnectionFactory<? extends DefaultBHttpServerConnection> connectionFactory,
+            final Callback<SSLParameters> sslSetupHandler,
+            final ExceptionListener exceptionListener) {
+        this(port, httpService, ifAddress, socketConfig, serverSocketFactory, connectionFactory, sslSetupHandler,
+                exceptionListener, null);
+    }
+
     public InetAddress getInetAddress() {
         final ServerSocket localSocket = this.serverSocket;
         if (localSocket != null) {
@@ -169,7 +191,13 @@ public void stop() {
                     this.exceptionListener.onError(ex);
                 }
             }
-            this.workerThreads.interrupt();
+            if (this.workerThreads != null) {
+                this.workerThreads.interrupt();
+            } else {
+                // Threads created by a custom factory, virtual threads in particular,
+                // cannot be reached through a thread group
+                this.workerExecutorService.shutdownNow();
+            }
         }
     }
 
@@ -55,6 +55,7 @@
 import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
 import org.apache.hc.core5.pool.PoolReusePolicy;
 import org.apache.hc.core5.pool.StrictConnPool;
+import org.apache.hc.core5.pool.StripedConnPool;
 import org.apache.hc.core5.util.Timeout;
 
 /**
@@ -192,6 +193,15 @@ public HttpRequester create() {
                         new DefaultDisposalCallback<HttpClientConnection>(),
                         connPoolListener);
                 break;
+            case STRIPED:
+                connPool = new StripedConnPool<>(
+                        defaultMaxPerRoute > 0 ? defaultMaxPerRoute : 20,
+                        maxTotal > 0 ? maxTotal : 50,
+                        timeToLive,
+                        poolReusePolicy,
+                        new DefaultDisposalCallback<HttpClientConnection>(),
+                        connPoolListener);
+                break;
             case STRICT:
             default:
                 connPool = new StrictConnPool<>(
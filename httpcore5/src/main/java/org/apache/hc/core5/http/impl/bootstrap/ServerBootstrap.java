@@ -29,6 +29,7 @@
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ThreadFactory;
 
 import javax.net.ServerSocketFactory;
 import javax.net.ssl.SSLContext;
@@ -96,6 +97,8 @@ public class ServerBootstrap {
     private HttpConnectionFactory<? extends DefaultBHttpServerConnection> connectionFactory;
     private ExceptionListener exceptionListener;
     private Http1StreamListener streamListener;
+    private ThreadFactory workerThreadFactory;
+    private boolean virtualThreads;
 
     private ServerBootstrap() {
         this.handlerList = new ArrayList<>();
@@ -270,6 +273,33 @@ public final ServerBootstrap setStreamListener(final Http1StreamListener streamL
         return this;
     }
 
+    /**
+     * Assigns {@link ThreadFactory} used to create the request listener thread and
+     * the worker threads serving individual connections. By default the server
+     * uses a pool of platform threads.
+     *
+     * @since 5.1
+     */
+    public final ServerBootstrap setWorkerThreadFactory(final ThreadFactory workerThreadFactory) {
+        this.workerThreadFactory = workerThreadFactory;
+        return this;
+    }
+
+    /**
+     * Determines whether the request listener and each connection worker are to run
+     * on a virtual thread instead of a platform thread, so that idle persistent
+     * connections do not tie up a platform thread each. Requires Java 21 or newer;
+     * {@link #create()} fails with {@link UnsupportedOperationException} on older
+     * Java runtimes. Has no effect if {@link #setWorkerThreadFactory(ThreadFactory)
+     * a worker thread factory} has been set.
+     *
+     * @since 5.1
+     */
+    public final ServerBootstrap setVirtualThreads(final boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
     /**
      * Adds the filter before the filter with the given name.
      */
@@ -404,6 +434,11 @@ public LookupRegistry<HttpRequestHandler> get() {
             connectionFactoryCopy = new DefaultBHttpServerConnectionFactory(scheme, this.http1Config, this.charCodingConfig);
         }
 
+        ThreadFactory workerThreadFactoryCopy = this.workerThreadFactory;
+        if (workerThreadFactoryCopy == null && this.virtualThreads) {
+            workerThreadFactoryCopy = VirtualThreadFactory.create("HTTP-worker-");
+        }
+
         return new HttpServer(
                 this.listenerPort > 0 ? this.listenerPort : 0,
                 httpService,
@@ -412,7 +447,8 @@ public LookupRegistry<HttpRequestHandler> get() {
                 serverSocketFactoryCopy,
                 connectionFactoryCopy,
                 sslSetupHandler != null ? sslSetupHandler : new DefaultTlsSetupHandler(),
-                this.exceptionListener != null ? this.exceptionListener : ExceptionListener.NO_OP);
+                this.exceptionListener != null ? this.exceptionListener : ExceptionListener.NO_OP,
+                workerThreadFactoryCopy);
     }
 
 }
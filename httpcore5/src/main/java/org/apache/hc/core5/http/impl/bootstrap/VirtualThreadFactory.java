@@ -0,0 +1,67 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.impl.bootstrap;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates {@link ThreadFactory} instances that produce virtual threads. Virtual threads
+ * are available as of Java 21 and are looked up reflectively as this module
+ * targets older Java releases.
+ *
+ * @since 5.1
+ */
+final class VirtualThreadFactory {
+
+    private VirtualThreadFactory() {
+    }
+
+    /**
+     * Creates a {@link ThreadFactory} for virtual threads named with the given prefix
+     * followed by a sequence number.
+     *
+     * @throws UnsupportedOperationException if the Java runtime does not support
+     *   virtual threads.
+     */
+    static ThreadFactory create(final String namePrefix) {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            final Method name = builderClass.getMethod("name", String.class, long.class);
+            final Method factory = builderClass.getMethod("factory");
+            final Object builder = name.invoke(ofVirtual.invoke(null), namePrefix, 0L);
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (final ClassNotFoundException | NoSuchMethodException | IllegalAccessException ex) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by the Java runtime", ex);
+        } catch (final InvocationTargetException ex) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by the Java runtime", ex.getCause());
+        }
+    }
+
+}
@@ -30,6 +30,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.hc.core5.http.Header;
@@ -41,6 +42,7 @@
 import org.apache.hc.core5.http.io.SessionInputBuffer;
 import org.apache.hc.core5.http.message.LazyLineParser;
 import org.apache.hc.core5.http.message.LineParser;
+import org.apache.hc.core5.http.message.SharedBufferedHeader;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.CharArrayBuffer;
 
@@ -62,6 +64,9 @@
 
     private int state;
     private T message;
+    private CharArrayBuffer headerBlock;
+    private int[] headerStarts;
+    private int headerCount;
 
     /**
      * Creates new instance of AbstractMessageParser.
@@ -229,6 +234,72 @@ public static Header[] parseHeaders(
      */
     protected abstract IOException createConnectionClosedException();
 
+    /**
+     * Reads all header lines of the message into a single buffer shared by all
+     * its headers and represents them as {@link SharedBufferedHeader}s. Folded
+     * header lines get unfolded in place.
+     */
+    private Header[] parseHeaderBlock(
+            final SessionInputBuffer inBuffer,
+            final InputStream inputStream) throws HttpException, IOException {
+        final int maxHeaderCount = this.http1Config.getMaxHeaderCount();
+        final int maxLineLen = this.http1Config.getMaxLineLength();
+        if (this.headerBlock == null) {
+            this.headerBlock = new CharArrayBuffer(512);
+            this.headerStarts = new int[16];
+            this.headerCount = 0;
+        }
+        final CharArrayBuffer block = this.headerBlock;
+        for (;;) {
+            final int lineStart = block.length();
+            final int readLen = inBuffer.readLine(block, inputStream);
+            if (readLen == -1 || block.length() == lineStart) {
+                block.setLength(lineStart);
+                break;
+            }
+            final char[] array = block.array();
+            final char first = array[lineStart];
+            if ((first == ' ' || first == '\t') && this.headerCount > 0) {
+                // we have continuation folded header
+                // so collapse leading whitespace into a single space
+                int i = lineStart;
+                while (i < block.length()) {
+                    final char ch = array[i];
+                    if (ch != ' ' && ch != '\t') {
+                        break;
+                    }
+                    i++;
+                }
+                final int remaining = block.length() - i;
+                final int previousStart = this.headerStarts[this.headerCount - 1];
+                if (maxLineLen > 0 && lineStart - previousStart + 1 + remaining > maxLineLen) {
+                    throw new MessageConstraintException("Maximum line length limit exceeded");
+                }
+                array[lineStart] = ' ';
+                System.arraycopy(array, i, array, lineStart + 1, remaining);
+                block.setLength(lineStart + 1 + remaining);
+            } else {
+                if (this.headerCount == this.headerStarts.length) {
+                    this.headerStarts = Arrays.copyOf(this.headerStarts, this.headerCount << 1);
+                }
+                this.headerStarts[this.headerCount++] = lineStart;
+            }
+            if (maxHeaderCount > 0 && this.headerCount >= maxHeaderCount) {
+                throw new MessageConstraintException("Maximum header count exceeded");
+            }
+        }
+        final Header[] headers = new Header[this.headerCount];
+        for (int i = 0; i < this.headerCount; i++) {
+            final int end = i + 1 < this.headerCount ? this.headerStarts[i + 1] : block.length();
+            headers[i] = SharedBufferedHeader.create(block, this.headerStarts[i], end);
+        }
+        // The buffer is now referenced by the headers and cannot be re-used
+        this.headerBlock = null;
+        this.headerStarts = null;
+        this.headerCount = 0;
+        return headers;
+    }
+
     @Override
     public T parse(final SessionInputBuffer buffer, final InputStream inputStream) throws IOException, HttpException {
         Args.notNull(buffer, "Session input buffer");
@@ -255,13 +326,18 @@ public T parse(final SessionInputBuffer buffer, final InputStream inputStream) t
             this.state = HEADERS;
             //$FALL-THROUGH$
         case HEADERS:
-            final Header[] headers = AbstractMessageParser.parseHeaders(
-                    buffer,
-                    inputStream,
-                    this.http1Config.getMaxHeaderCount(),
-                    this.http1Config.getMaxLineLength(),
-                    this.lineParser,
-                    this.headerLines);
+            final Header[] headers;
+            if (this.lineParser == LazyLineParser.INSTANCE) {
+                headers = parseHeaderBlock(buffer, inputStream);
+            } else {
+                headers = AbstractMessageParser.parseHeaders(
+                        buffer,
+                        inputStream,
+                        this.http1Config.getMaxHeaderCount(),
+                        this.http1Config.getMaxLineLength(),
+                        this.lineParser,
+                        this.headerLines);
+            }
             this.message.setHeaders(headers);
             final T result = this.message;
             this.message = null;
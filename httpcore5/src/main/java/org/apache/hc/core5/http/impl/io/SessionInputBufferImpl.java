@@ -37,6 +37,7 @@
 import org.apache.hc.core5.http.Chars;
 import org.apache.hc.core5.http.MessageConstraintException;
 import org.apache.hc.core5.http.impl.BasicHttpTransportMetrics;
+import org.apache.hc.core5.http.impl.DelimiterScanner;
 import org.apache.hc.core5.http.io.HttpTransportMetrics;
 import org.apache.hc.core5.http.io.SessionInputBuffer;
 import org.apache.hc.core5.util.Args;
@@ -58,6 +59,7 @@ public class SessionInputBufferImpl implements SessionInputBuffer {
 
     private final BasicHttpTransportMetrics metrics;
     private final byte[] buffer;
+    private final ByteBuffer bufferView;
     private final ByteArrayBuffer lineBuffer;
     private final int minChunkLimit;
     private final int maxLineLen;
@@ -91,6 +93,7 @@ public SessionInputBufferImpl(
         Args.positive(bufferSize, "Buffer size");
         this.metrics = metrics;
         this.buffer = new byte[bufferSize];
+        this.bufferView = ByteBuffer.wrap(this.buffer);
         this.bufferPos = 0;
         this.bufferLen = 0;
         this.minChunkLimit = minChunkLimit >= 0 ? minChunkLimit : 512;
@@ -244,13 +247,7 @@ public int readLine(final CharArrayBuffer charBuffer, final InputStream inputStr
         boolean retry = true;
         while (retry) {
             // attempt to find end of line (LF)
-            int pos = -1;
-            for (int i = this.bufferPos; i < this.bufferLen; i++) {
-                if (this.buffer[i] == Chars.LF) {
-                    pos = i;
-                    break;
-                }
-            }
+            final int pos = DelimiterScanner.indexOf(this.bufferView, this.bufferPos, this.bufferLen, (byte) Chars.LF);
 
             if (this.maxLineLen > 0) {
                 final int currentLen = this.lineBuffer.length()
@@ -75,6 +75,7 @@
 import org.apache.hc.core5.reactor.ProtocolIOSession;
 import org.apache.hc.core5.reactor.ssl.TlsDetails;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.Identifiable;
 import org.apache.hc.core5.util.Timeout;
 
@@ -105,6 +106,11 @@ private enum ConnectionState { READY, ACTIVE, GRACEFUL_SHUTDOWN, SHUTDOWN}
     private volatile ProtocolVersion version;
     private volatile EndpointDetails endpointDetails;
 
+    // Socket timeout replaced by the idle buffer timeout while buffer release is pending
+    private Timeout suspendedTimeout;
+    // Remainder of the suspended socket timeout once idle buffers have been released
+    private Timeout remainingTimeout;
+
     AbstractHttp1StreamDuplexer(
             final ProtocolIOSession ioSession,
             final Http1Config http1Config,
@@ -112,15 +118,16 @@ private enum ConnectionState { READY, ACTIVE, GRACEFUL_SHUTDOWN, SHUTDOWN}
             final NHttpMessageParser<IncomingMessage> incomingMessageParser,
             final NHttpMessageWriter<OutgoingMessage> outgoingMessageWriter,
             final ContentLengthStrategy incomingContentStrategy,
-            final ContentLengthStrategy outgoingContentStrategy) {
+            final ContentLengthStrategy outgoingContentStrategy,
+            final ByteBufferAllocator bufferAllocator) {
         this.ioSession = Args.notNull(ioSession, "I/O session");
         this.http1Config = http1Config != null ? http1Config : Http1Config.DEFAULT;
         final int bufferSize = this.http1Config.getBufferSize();
         this.inbuf = new SessionInputBufferImpl(bufferSize, bufferSize < 512 ? bufferSize : 512,
                 this.http1Config.getMaxLineLength(),
-                CharCodingSupport.createDecoder(charCodingConfig));
+                CharCodingSupport.createDecoder(charCodingConfig), bufferAllocator);
         this.outbuf = new SessionOutputBufferImpl(bufferSize, bufferSize < 512 ? bufferSize : 512,
-                CharCodingSupport.createEncoder(charCodingConfig));
+                CharCodingSupport.createEncoder(charCodingConfig), bufferAllocator);
         this.inTransportMetrics = new BasicHttpTransportMetrics();
         this.outTransportMetrics = new BasicHttpTransportMetrics();
         this.connMetrics = new BasicHttpConnectionMetrics(inTransportMetrics, outTransportMetrics);
@@ -324,6 +331,10 @@ public final void onInput(final ByteBuffer src) throws HttpException, IOExceptio
             }
         } while (inbuf.hasData());
 
+        if (http1Config.isReleaseIdleBuffers() && incomingMessage == null && !inbuf.hasData()) {
+            scheduleBufferRelease();
+        }
+
         if (endOfStream && !inbuf.hasData()) {
             if (outputIdle() && inputIdle()) {
                 requestShutdown(CloseMode.GRACEFUL);
@@ -358,6 +369,9 @@ public final void onOutput() throws IOException, HttpException {
                     outputRequests.addAndGet(-pendingOutputRequests);
                 }
                 outputEnd = outgoingMessage == null && !outbuf.hasData();
+                if (outputEnd && !outputPending && http1Config.isReleaseIdleBuffers()) {
+                    scheduleBufferRelease();
+                }
             } finally {
                 ioSession.getLock().unlock();
             }
@@ -375,7 +389,79 @@ public final void onOutput() throws IOException, HttpException {
         }
     }
 
+    /**
+     * Releases idle session buffers once the connection has seen no I/O activity for
+     * the idle buffer timeout. The socket timeout of the session gets temporarily
+     * replaced with the idle buffer timeout, so that the I/O reactor signals the end
+     * of the idle period. Any I/O activity in the meantime postpones it.
+     */
+    private void scheduleBufferRelease() {
+        final Timeout idleBufferTimeout = http1Config.getIdleBufferTimeout();
+        if (idleBufferTimeout.isDisabled()) {
+            releaseIdleBuffers();
+            return;
+        }
+        ioSession.getLock().lock();
+        try {
+            final Timeout socketTimeout = ioSession.getSocketTimeout();
+            if (suspendedTimeout != null) {
+                if (remainingTimeout == null && idleBufferTimeout.equals(socketTimeout)) {
+                    return;
+                }
+                if (remainingTimeout != null && remainingTimeout.equals(socketTimeout)) {
+                    remainingTimeout = null;
+                    ioSession.setSocketTimeout(idleBufferTimeout);
+                    return;
+                }
+                // The socket timeout has been reset since
+                suspendedTimeout = null;
+                remainingTimeout = null;
+            }
+            if (socketTimeout.isDisabled() || socketTimeout.compareTo(idleBufferTimeout) > 0) {
+                suspendedTimeout = socketTimeout;
+                ioSession.setSocketTimeout(idleBufferTimeout);
+            }
+        } finally {
+            ioSession.getLock().unlock();
+        }
+    }
+
+    private boolean expireBufferRelease(final Timeout timeout) {
+        ioSession.getLock().lock();
+        try {
+            if (suspendedTimeout == null || remainingTimeout != null
+                    || !timeout.equals(http1Config.getIdleBufferTimeout())) {
+                return false;
+            }
+            // Restore the remainder of the original socket timeout
+            remainingTimeout = suspendedTimeout.isDisabled() ? suspendedTimeout :
+                    Timeout.ofMilliseconds(suspendedTimeout.toMilliseconds() - timeout.toMilliseconds());
+            ioSession.setSocketTimeout(remainingTimeout);
+        } finally {
+            ioSession.getLock().unlock();
+        }
+        releaseIdleBuffers();
+        return true;
+    }
+
+    private void releaseIdleBuffers() {
+        if (incomingMessage == null && !inbuf.hasData()) {
+            inbuf.release();
+        }
+        ioSession.getLock().lock();
+        try {
+            if (outgoingMessage == null && !outbuf.hasData()) {
+                outbuf.release();
+            }
+        } finally {
+            ioSession.getLock().unlock();
+        }
+    }
+
     public final void onTimeout(final Timeout timeout) throws IOException, HttpException {
+        if (expireBufferRelease(timeout)) {
+            return;
+        }
         if (!handleTimeout()) {
             onException(SocketTimeoutExceptionFactory.create(timeout));
         }
@@ -387,8 +473,13 @@ public final void onException(final Exception ex) {
     }
 
     public final void onDisconnect() {
-        disconnected();
-        CommandSupport.cancelCommands(ioSession);
+        try {
+            disconnected();
+            CommandSupport.cancelCommands(ioSession);
+        } finally {
+            inbuf.release();
+            outbuf.release();
+        }
     }
 
     void requestShutdown(final CloseMode closeMode) {
@@ -445,11 +536,29 @@ void requestSessionOutput() {
     }
 
     Timeout getSessionTimeout() {
-        return ioSession.getSocketTimeout();
+        ioSession.getLock().lock();
+        try {
+            final Timeout socketTimeout = ioSession.getSocketTimeout();
+            if (suspendedTimeout != null && (remainingTimeout != null
+                    ? remainingTimeout.equals(socketTimeout)
+                    : http1Config.getIdleBufferTimeout().equals(socketTimeout))) {
+                return suspendedTimeout;
+            }
+            return socketTimeout;
+        } finally {
+            ioSession.getLock().unlock();
+        }
     }
 
     void setSessionTimeout(final Timeout timeout) {
-        ioSession.setSocketTimeout(timeout);
+        ioSession.getLock().lock();
+        try {
+            suspendedTimeout = null;
+            remainingTimeout = null;
+            ioSession.setSocketTimeout(timeout);
+        } finally {
+            ioSession.getLock().unlock();
+        }
     }
 
     void suspendSessionInput() {
@@ -536,12 +645,12 @@ public boolean isOpen() {
 
     @Override
     public Timeout getSocketTimeout() {
-        return ioSession.getSocketTimeout();
+        return getSessionTimeout();
     }
 
     @Override
     public void setSocketTimeout(final Timeout timeout) {
-        ioSession.setSocketTimeout(timeout);
+        setSessionTimeout(timeout);
     }
 
     @Override
@@ -551,7 +660,7 @@ public EndpointDetails getEndpointDetails() {
                     ioSession.getRemoteAddress(),
                     ioSession.getLocalAddress(),
                     connMetrics,
-                    ioSession.getSocketTimeout());
+                    getSessionTimeout());
         }
         return endpointDetails;
     }
@@ -29,6 +29,7 @@
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.hc.core5.http.HttpException;
@@ -37,6 +38,7 @@
 import org.apache.hc.core5.http.config.Http1Config;
 import org.apache.hc.core5.http.message.LazyLineParser;
 import org.apache.hc.core5.http.message.LineParser;
+import org.apache.hc.core5.http.message.SharedBufferedHeader;
 import org.apache.hc.core5.http.nio.SessionInputBuffer;
 import org.apache.hc.core5.http.nio.NHttpMessageParser;
 import org.apache.hc.core5.util.Args;
@@ -59,6 +61,9 @@ private enum State {
     private T message;
     private CharArrayBuffer lineBuf;
     private final List<CharArrayBuffer> headerBufs;
+    private CharArrayBuffer headerBlock;
+    private int[] headerStarts;
+    private int headerCount;
     private int emptyLineCount;
 
     private final LineParser lineParser;
@@ -90,6 +95,9 @@ LineParser getLineParser() {
     public void reset() {
         this.state = State.READ_HEAD_LINE;
         this.headerBufs.clear();
+        this.headerBlock = null;
+        this.headerStarts = null;
+        this.headerCount = 0;
         this.emptyLineCount = 0;
         this.message = null;
     }
@@ -141,20 +149,71 @@ private void parseHeader() throws IOException {
         }
     }
 
+    /**
+     * Handles a header line read into the buffer shared by all headers of the message
+     * starting at {@code lineStart}. Folded header lines get unfolded in place.
+     */
+    private void parseHeaderBlockLine(final int lineStart) throws IOException {
+        final CharArrayBuffer block = this.headerBlock;
+        final char[] array = block.array();
+        final char first = array[lineStart];
+        if ((first == ' ' || first == '\t') && this.headerCount > 0) {
+            // Handle folded header line
+            int i = lineStart;
+            while (i < block.length()) {
+                final char ch = array[i];
+                if (ch != ' ' && ch != '\t') {
+                    break;
+                }
+                i++;
+            }
+            final int remaining = block.length() - i;
+            final int previousStart = this.headerStarts[this.headerCount - 1];
+            final int maxLineLen = this.messageConstraints.getMaxLineLength();
+            if (maxLineLen > 0 && lineStart - previousStart + 1 + remaining > maxLineLen) {
+                throw new MessageConstraintException("Maximum line length limit exceeded");
+            }
+            array[lineStart] = ' ';
+            System.arraycopy(array, i, array, lineStart + 1, remaining);
+            block.setLength(lineStart + 1 + remaining);
+        } else {
+            if (this.headerCount == this.headerStarts.length) {
+                this.headerStarts = Arrays.copyOf(this.headerStarts, this.headerCount << 1);
+            }
+            this.headerStarts[this.headerCount++] = lineStart;
+        }
+    }
+
     @Override
     public T parse(
             final SessionInputBuffer sessionBuffer, final boolean endOfStream) throws IOException, HttpException {
         Args.notNull(sessionBuffer, "Session input buffer");
         while (this.state !=State.COMPLETED) {
-            if (this.lineBuf == null) {
-                this.lineBuf = new CharArrayBuffer(64);
+            // With the default line parser header lines are read into a buffer
+            // shared by all headers of the message
+            final boolean shared = this.state == State.READ_HEADERS && this.lineParser == LazyLineParser.INSTANCE;
+            final CharArrayBuffer target;
+            if (shared) {
+                if (this.headerBlock == null) {
+                    this.headerBlock = new CharArrayBuffer(512);
+                    this.headerStarts = new int[16];
+                    this.headerCount = 0;
+                }
+                target = this.headerBlock;
             } else {
-                this.lineBuf.clear();
+                if (this.lineBuf == null) {
+                    this.lineBuf = new CharArrayBuffer(64);
+                } else {
+                    this.lineBuf.clear();
+                }
+                target = this.lineBuf;
             }
-            final boolean lineComplete = sessionBuffer.readLine(this.lineBuf, endOfStream);
+            final int lineStart = target.length();
+            final boolean lineComplete = sessionBuffer.readLine(target, endOfStream);
+            final int lineLen = target.length() - lineStart;
             final int maxLineLen = this.messageConstraints.getMaxLineLength();
             if (maxLineLen > 0 &&
-                    (this.lineBuf.length() > maxLineLen ||
+                    (lineLen > maxLineLen ||
                             (!lineComplete && sessionBuffer.length() > maxLineLen))) {
                 throw new MessageConstraintException("Maximum line length limit exceeded");
             }
@@ -170,13 +229,16 @@ public T parse(
                 }
                 break;
             case READ_HEADERS:
-                if (this.lineBuf.length() > 0) {
+                if (lineLen > 0) {
                     final int maxHeaderCount = this.messageConstraints.getMaxHeaderCount();
-                    if (maxHeaderCount > 0 && headerBufs.size() >= maxHeaderCount) {
+                    if (maxHeaderCount > 0 && (shared ? this.headerCount : this.headerBufs.size()) >= maxHeaderCount) {
                         throw new MessageConstraintException("Maximum header count exceeded");
                     }
-
-                    parseHeader();
+                    if (shared) {
+                        parseHeaderBlockLine(lineStart);
+                    } else {
+                        parseHeader();
+                    }
                 } else {
                     this.state = State.COMPLETED;
                 }
@@ -190,6 +252,13 @@ public T parse(
             for (final CharArrayBuffer buffer : this.headerBufs) {
                 this.message.addHeader(this.lineParser.parseHeader(buffer));
             }
+            if (this.headerBlock != null) {
+                final CharArrayBuffer block = this.headerBlock;
+                for (int i = 0; i < this.headerCount; i++) {
+                    final int end = i + 1 < this.headerCount ? this.headerStarts[i + 1] : block.length();
+                    this.message.addHeader(SharedBufferedHeader.create(block, this.headerStarts[i], end));
+                }
+            }
             return this.message;
         }
         return null;
@@ -68,6 +68,7 @@
 import org.apache.hc.core5.reactor.ProtocolIOSession;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.Asserts;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.Timeout;
 
 /**
@@ -101,7 +102,28 @@ public ClientHttp1StreamDuplexer(
             final ContentLengthStrategy incomingContentStrategy,
             final ContentLengthStrategy outgoingContentStrategy,
             final Http1StreamListener streamListener) {
-        super(ioSession, http1Config, charCodingConfig, incomingMessageParser, outgoingMessageWriter, incomingContentStrategy, outgoingContentStrategy);
+        this(ioSession, httpProcessor, http1Config, charCodingConfig, connectionReuseStrategy,
+                incomingMessageParser, outgoingMessageWriter, incomingContentStrategy,
+                outgoingContentStrategy, streamListener, null);
+    }
+
+    /**
+     * @since 5.1
+     */
+    public ClientHttp1StreamDuplexer(
+            final ProtocolIOSession ioSession,
+            final HttpProcessor httpProcessor,
+            final Http1Config http1Config,
+            final CharCodingConfig charCodingConfig,
+            final ConnectionReuseStrategy connectionReuseStrategy,
+            final NHttpMessageParser<HttpResponse> incomingMessageParser,
+            final NHttpMessageWriter<HttpRequest> outgoingMessageWriter,
+            final ContentLengthStrategy incomingContentStrategy,
+            final ContentLengthStrategy outgoingContentStrategy,
+            final Http1StreamListener streamListener,
+            final ByteBufferAllocator bufferAllocator) {
+        super(ioSession, http1Config, charCodingConfig, incomingMessageParser, outgoingMessageWriter,
+                incomingContentStrategy, outgoingContentStrategy, bufferAllocator);
         this.httpProcessor = Args.notNull(httpProcessor, "HTTP processor");
         this.http1Config = http1Config != null ? http1Config : Http1Config.DEFAULT;
         this.connectionReuseStrategy = connectionReuseStrategy != null ? connectionReuseStrategy :
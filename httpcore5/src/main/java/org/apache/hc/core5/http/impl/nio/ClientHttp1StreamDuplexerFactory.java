@@ -44,6 +44,7 @@
 import org.apache.hc.core5.http.protocol.HttpProcessor;
 import org.apache.hc.core5.reactor.ProtocolIOSession;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 
 /**
  * {@link ClientHttp1StreamDuplexer} factory.
@@ -63,7 +64,11 @@ public final class ClientHttp1StreamDuplexerFactory {
     private final ContentLengthStrategy incomingContentStrategy;
     private final ContentLengthStrategy outgoingContentStrategy;
     private final Http1StreamListener streamListener;
+    private final ByteBufferAllocator bufferAllocator;
 
+    /**
+     * @since 5.1
+     */
     public ClientHttp1StreamDuplexerFactory(
             final HttpProcessor httpProcessor,
             final Http1Config http1Config,
@@ -73,7 +78,8 @@ public ClientHttp1StreamDuplexerFactory(
             final NHttpMessageWriterFactory<HttpRequest> requestWriterFactory,
             final ContentLengthStrategy incomingContentStrategy,
             final ContentLengthStrategy outgoingContentStrategy,
-            final Http1StreamListener streamListener) {
+            final Http1StreamListener streamListener,
+            final ByteBufferAllocator bufferAllocator) {
         this.httpProcessor = Args.notNull(httpProcessor, "HTTP processor");
         this.http1Config = http1Config != null ? http1Config : Http1Config.DEFAULT;
         this.charCodingConfig = charCodingConfig !=  null ? charCodingConfig : CharCodingConfig.DEFAULT;
@@ -88,6 +94,22 @@ public ClientHttp1StreamDuplexerFactory(
         this.outgoingContentStrategy = outgoingContentStrategy != null ? outgoingContentStrategy :
                 DefaultContentLengthStrategy.INSTANCE;
         this.streamListener = streamListener;
+        this.bufferAllocator = bufferAllocator;
+    }
+
+    public ClientHttp1StreamDuplexerFactory(
+            final HttpProcessor httpProcessor,
+            final Http1Config http1Config,
+            final CharCodingConfig charCodingConfig,
+            final ConnectionReuseStrategy connectionReuseStrategy,
+            final NHttpMessageParserFactory<HttpResponse> responseParserFactory,
+            final NHttpMessageWriterFactory<HttpRequest> requestWriterFactory,
+            final ContentLengthStrategy incomingContentStrategy,
+            final ContentLengthStrategy outgoingContentStrategy,
+            final Http1StreamListener streamListener) {
+        this(httpProcessor, http1Config, charCodingConfig, connectionReuseStrategy,
+                responseParserFactory, requestWriterFactory, incomingContentStrategy,
+                outgoingContentStrategy, streamListener, null);
     }
 
     public ClientHttp1StreamDuplexerFactory(
@@ -128,7 +150,8 @@ public ClientHttp1StreamDuplexer create(final ProtocolIOSession ioSession) {
                 requestWriterFactory.create(),
                 incomingContentStrategy,
                 outgoingContentStrategy,
-                streamListener);
+                streamListener,
+                bufferAllocator);
     }
 
 }
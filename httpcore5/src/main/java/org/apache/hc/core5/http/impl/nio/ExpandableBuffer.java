@@ -31,6 +31,9 @@
 import java.nio.ByteBuffer;
 
 import org.apache.hc.core5.annotation.Internal;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
 
 /**
  * A buffer that expand its capacity on demand. Internally, this class is backed
@@ -47,6 +50,8 @@ public enum Mode {
         INPUT, OUTPUT
     }
 
+    private final ByteBufferAllocator allocator;
+    private final int initialSize;
     private Mode mode;
     private ByteBuffer buffer;
 
@@ -57,13 +62,30 @@ public enum Mode {
      * </p>
      *
      * @param bufferSize the buffer size.
+     * @param allocator the buffer allocator. If {@code null} heap buffers will be used.
+     *
+     * @since 5.1
      */
-    protected ExpandableBuffer(final int bufferSize) {
+    protected ExpandableBuffer(final int bufferSize, final ByteBufferAllocator allocator) {
         super();
-        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.allocator = allocator != null ? allocator : HeapByteBufferAllocator.INSTANCE;
+        this.initialSize = Args.notNegative(bufferSize, "Buffer size");
+        this.buffer = this.allocator.allocate(bufferSize);
         this.mode = Mode.INPUT;
     }
 
+    /**
+     * Allocates buffer of the given size.
+     * <p>
+     * Sets the mode to input.
+     * </p>
+     *
+     * @param bufferSize the buffer size.
+     */
+    protected ExpandableBuffer(final int bufferSize) {
+        this(bufferSize, null);
+    }
+
     /**
      * Returns the current mode:
      * <p>
@@ -78,15 +100,46 @@ protected Mode mode() {
     }
 
     protected ByteBuffer buffer() {
+        if (this.buffer == null) {
+            this.buffer = this.allocator.allocate(this.initialSize);
+            this.mode = Mode.INPUT;
+        }
         return this.buffer;
     }
 
+    /**
+     * Releases the underlying buffer back to the allocator, discarding its content.
+     * A new buffer of the initial size will be allocated when this buffer is used again.
+     * <p>
+     * Sets the mode to input.
+     * </p>
+     *
+     * @since 5.1
+     */
+    protected void release() {
+        if (this.buffer != null) {
+            final ByteBuffer oldBuffer = this.buffer;
+            this.buffer = null;
+            this.mode = Mode.INPUT;
+            this.allocator.release(oldBuffer);
+        }
+    }
+
+    /**
+     * Determines if the underlying buffer is currently allocated.
+     *
+     * @since 5.1
+     */
+    protected boolean isAllocated() {
+        return this.buffer != null;
+    }
+
     /**
      * Sets the mode to output. The buffer can now be read from.
      */
     protected void setOutputMode() {
         if (this.mode != Mode.OUTPUT) {
-            this.buffer.flip();
+            buffer().flip();
             this.mode = Mode.OUTPUT;
         }
     }
@@ -95,6 +148,7 @@ protected void setOutputMode() {
      * Sets the mode to input. The buffer can now be written into.
      */
     protected void setInputMode() {
+        buffer();
         if (this.mode != Mode.INPUT) {
             if (this.buffer.hasRemaining()) {
                 this.buffer.compact();
@@ -106,10 +160,11 @@ protected void setInputMode() {
     }
 
     private void expandCapacity(final int capacity) {
-        final ByteBuffer oldBuffer = this.buffer;
-        this.buffer = ByteBuffer.allocate(capacity);
+        final ByteBuffer oldBuffer = buffer();
+        this.buffer = this.allocator.allocate(capacity);
         oldBuffer.flip();
         this.buffer.put(oldBuffer);
+        this.allocator.release(oldBuffer);
     }
 
     /**
@@ -118,7 +173,7 @@ private void expandCapacity(final int capacity) {
      * @throws BufferOverflowException in case we get over the maximum allowed value
      */
     protected void expand() throws BufferOverflowException {
-        int newcapacity = (this.buffer.capacity() + 1) << 1;
+        int newcapacity = (buffer().capacity() + 1) << 1;
         if (newcapacity < 0) {
             final int vmBytes = Long.SIZE >> 3;
             final int javaBytes = 8; // this is to be checked when the JVM version changes
@@ -147,7 +202,7 @@ protected void expand() throws BufferOverflowException {
      * @param requiredCapacity the required capacity.
      */
     protected void ensureCapacity(final int requiredCapacity) {
-        if (requiredCapacity > this.buffer.capacity()) {
+        if (requiredCapacity > buffer().capacity()) {
             expandCapacity(requiredCapacity);
         }
     }
@@ -158,7 +213,7 @@ protected void ensureCapacity(final int requiredCapacity) {
      * @param requiredCapacity the required capacity.
      */
     protected void ensureAdjustedCapacity(final int requiredCapacity) {
-        if (requiredCapacity > this.buffer.capacity()) {
+        if (requiredCapacity > buffer().capacity()) {
             final int adjustedCapacity = ((requiredCapacity >> 10) + 1) << 10;
             expandCapacity(adjustedCapacity);
         }
@@ -174,6 +229,9 @@ protected void ensureAdjustedCapacity(final int requiredCapacity) {
      *   {@code false} otherwise.
      */
     protected boolean hasData() {
+        if (this.buffer == null) {
+            return false;
+        }
         setOutputMode();
         return this.buffer.hasRemaining();
     }
@@ -187,6 +245,9 @@ protected boolean hasData() {
      * @return buffer length.
      */
     protected int length() {
+        if (this.buffer == null) {
+            return 0;
+        }
         setOutputMode();
         return this.buffer.remaining();
     }
@@ -208,13 +269,18 @@ protected int capacity() {
      * </p>
      */
     protected void clear() {
-        this.buffer.clear();
+        if (this.buffer != null) {
+            this.buffer.clear();
+        }
         this.mode = Mode.INPUT;
     }
 
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
+        if (this.buffer == null) {
+            return sb.append("[released]").toString();
+        }
         sb.append("[mode=");
         sb.append(this.mode);
         sb.append(" pos=");
@@ -38,8 +38,10 @@
 
 import org.apache.hc.core5.http.Chars;
 import org.apache.hc.core5.http.MessageConstraintException;
+import org.apache.hc.core5.http.impl.DelimiterScanner;
 import org.apache.hc.core5.http.nio.SessionInputBuffer;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.CharArrayBuffer;
 
 class SessionInputBufferImpl extends ExpandableBuffer implements SessionInputBuffer {
@@ -59,20 +61,42 @@ class SessionInputBufferImpl extends ExpandableBuffer implements SessionInputBuf
      * @param charDecoder charDecoder to be used for decoding HTTP protocol elements.
      *   If {@code null} simple type cast will be used for byte to char conversion.
      * @param maxLineLen maximum line length.
+     * @param allocator buffer allocator. If {@code null} heap buffers will be used.
      *
-     * @since 4.4
+     * @since 5.1
      */
     public SessionInputBufferImpl(
             final int bufferSize,
             final int lineBuffersize,
             final int maxLineLen,
-            final CharsetDecoder charDecoder) {
-        super(bufferSize);
+            final CharsetDecoder charDecoder,
+            final ByteBufferAllocator allocator) {
+        super(bufferSize, allocator);
         this.lineBuffersize = Args.positive(lineBuffersize, "Line buffer size");
         this.maxLineLen = maxLineLen > 0 ? maxLineLen : 0;
         this.charDecoder = charDecoder;
     }
 
+    /**
+     *  Creates SessionInputBufferImpl instance.
+     *
+     * @param bufferSize input buffer size
+     * @param lineBuffersize buffer size for line operations. Has effect only if
+     *   {@code charDecoder} is not {@code null}.
+     * @param charDecoder charDecoder to be used for decoding HTTP protocol elements.
+     *   If {@code null} simple type cast will be used for byte to char conversion.
+     * @param maxLineLen maximum line length.
+     *
+     * @since 4.4
+     */
+    public SessionInputBufferImpl(
+            final int bufferSize,
+            final int lineBuffersize,
+            final int maxLineLen,
+            final CharsetDecoder charDecoder) {
+        this(bufferSize, lineBuffersize, maxLineLen, charDecoder, null);
+    }
+
     /**
      * @since 4.3
      */
@@ -212,14 +236,8 @@ public boolean readLine(
 
         setOutputMode();
         // See if there is LF char present in the buffer
-        int pos = -1;
-        for (int i = buffer().position(); i < buffer().limit(); i++) {
-            final int b = buffer().get(i);
-            if (b == Chars.LF) {
-                pos = i + 1;
-                break;
-            }
-        }
+        final int lf = DelimiterScanner.indexOf(buffer(), buffer().position(), buffer().limit(), (byte) Chars.LF);
+        int pos = lf != -1 ? lf + 1 : -1;
 
         if (this.maxLineLen > 0) {
             final int currentLen = (pos > 0 ? pos : buffer().limit()) - buffer().position();
@@ -40,6 +40,7 @@
 import org.apache.hc.core5.http.Chars;
 import org.apache.hc.core5.http.nio.SessionOutputBuffer;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.CharArrayBuffer;
 
 class SessionOutputBufferImpl extends ExpandableBuffer implements SessionOutputBuffer {
@@ -59,18 +60,38 @@ class SessionOutputBufferImpl extends ExpandableBuffer implements SessionOutputB
      *   {@code charEncoder} is not {@code null}.
      * @param charEncoder charEncoder to be used for encoding HTTP protocol elements.
      *   If {@code null} simple type cast will be used for char to byte conversion.
+     * @param allocator buffer allocator. If {@code null} heap buffers will be used.
      *
-     * @since 4.3
+     * @since 5.1
      */
     public SessionOutputBufferImpl(
             final int bufferSize,
             final int lineBuffersize,
-            final CharsetEncoder charEncoder) {
-        super(bufferSize);
+            final CharsetEncoder charEncoder,
+            final ByteBufferAllocator allocator) {
+        super(bufferSize, allocator);
         this.lineBuffersize = Args.positive(lineBuffersize, "Line buffer size");
         this.charEncoder = charEncoder;
     }
 
+    /**
+     *  Creates SessionOutputBufferImpl instance.
+     *
+     * @param bufferSize input buffer size
+     * @param lineBuffersize buffer size for line operations. Has effect only if
+     *   {@code charEncoder} is not {@code null}.
+     * @param charEncoder charEncoder to be used for encoding HTTP protocol elements.
+     *   If {@code null} simple type cast will be used for char to byte conversion.
+     *
+     * @since 4.3
+     */
+    public SessionOutputBufferImpl(
+            final int bufferSize,
+            final int lineBuffersize,
+            final CharsetEncoder charEncoder) {
+        this(bufferSize, lineBuffersize, charEncoder, null);
+    }
+
     /**
      * @since 4.3
      */
@@ -33,6 +33,7 @@
 import org.apache.hc.core5.annotation.ThreadingBehavior;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http.Method;
 import org.apache.hc.core5.http.ParseException;
 import org.apache.hc.core5.http.ProtocolVersion;
 import org.apache.hc.core5.util.Args;
@@ -55,6 +56,7 @@ public class BasicLineParser implements LineParser {
     private static final BitSet FULL_STOP = Tokenizer.INIT_BITSET('.');
     private static final BitSet BLANKS = Tokenizer.INIT_BITSET(' ', '\t');
     private static final BitSet COLON = Tokenizer.INIT_BITSET(':');
+    private static final Method[] METHODS = Method.values();
 
     /**
      * A version of the protocol to parse.
@@ -137,6 +139,19 @@ ProtocolVersion parseProtocolVersion(
         return HttpVersion.get(major, minor);
     }
 
+    /**
+     * Returns the name of the standard method spelled exactly as the given method
+     * or the method itself if there is none.
+     */
+    private static String internMethod(final String method) {
+        for (final Method m : METHODS) {
+            if (m.name().equals(method)) {
+                return m.name();
+            }
+        }
+        return method;
+    }
+
     /**
      * Parses a request line.
      *
@@ -169,7 +184,7 @@ public RequestLine parseRequestLine(final CharArrayBuffer buffer) throws ParseEx
             throw new ParseException("Invalid request line",
                     buffer, cursor.getLowerBound(), cursor.getUpperBound(), cursor.getPos());
         }
-        return new RequestLine(method, uri, ver);
+        return new RequestLine(internMethod(method), uri, ver);
     }
 
     @Override
@@ -204,6 +219,22 @@ public Header parseHeader(final CharArrayBuffer buffer) throws ParseException {
 
         final ParserCursor cursor = new ParserCursor(0, buffer.length());
         this.tokenizer.skipWhiteSpace(buffer, cursor);
+        // Fast path: header name with no whitespace followed by a colon
+        final char[] array = buffer.array();
+        final int nameStart = cursor.getPos();
+        final int len = buffer.length();
+        for (int i = nameStart; i < len; i++) {
+            final char ch = array[i];
+            if (ch == ':') {
+                if (i > nameStart) {
+                    return new BasicHeader(HeaderNameRegistry.intern(array, nameStart, i - nameStart), buffer.substringTrimmed(i + 1, len));
+                }
+                break;
+            }
+            if (Tokenizer.isWhitespace(ch)) {
+                break;
+            }
+        }
         final String name = this.tokenizer.parseToken(buffer, cursor, COLON);
         if (cursor.getPos() == cursor.getLowerBound() || cursor.getPos() == cursor.getUpperBound() ||
                 buffer.charAt(cursor.getPos()) != ':' ||
@@ -121,7 +121,7 @@ private boolean filterHeader(final int index) {
         // non-header elements, including null, will trigger exceptions
         final String name = (this.allHeaders.get(index)).getName();
 
-        return this.headerName.equalsIgnoreCase(name);
+        return this.headerName == name || this.headerName.equalsIgnoreCase(name);
     }
 
     @Override
@@ -27,8 +27,11 @@
 
 package org.apache.hc.core5.http.message;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -52,9 +55,21 @@ public class HeaderGroup implements MessageHeaders, Serializable {
 
     private static final Header[] EMPTY = new Header[] {};
 
+    /**
+     * Number of headers above which header lookups by name are served from a hash index.
+     */
+    private static final int INDEX_THRESHOLD = 16;
+
     /** The list of headers for this group, in the order in which they were added */
     private final List<Header> headers;
 
+    /**
+     * Hash index of header names, present once the group grows past {@link #INDEX_THRESHOLD}.
+     * The index is only ever updated by mutating methods so that concurrent readers never
+     * write shared state.
+     */
+    private transient NameIndex index;
+
     /**
      * Constructor for HeaderGroup.
      */
@@ -67,6 +82,7 @@ public HeaderGroup() {
      */
     public void clear() {
         headers.clear();
+        index = null;
     }
 
     /**
@@ -80,6 +96,9 @@ public void addHeader(final Header header) {
             return;
         }
         headers.add(header);
+        if (index == null || !index.append(header.getName(), headers.size() - 1)) {
+            rebuildIndex();
+        }
     }
 
     /**
@@ -96,6 +115,7 @@ public boolean removeHeader(final Header header) {
             final Header current = this.headers.get(i);
             if (headerEquals(header, current)) {
                 this.headers.remove(current);
+                rebuildIndex();
                 return true;
             }
         }
@@ -103,10 +123,16 @@ public boolean removeHeader(final Header header) {
     }
 
     private boolean headerEquals(final Header header1, final Header header2) {
-        return header2 == header1 || header2.getName().equalsIgnoreCase(header1.getName())
+        return header2 == header1 || nameEquals(header2, header1.getName())
                 && LangUtils.equals(header1.getValue(), header2.getValue());
     }
 
+    private static boolean nameEquals(final Header header, final String name) {
+        final String s = header.getName();
+        // Names of parsed headers and header name constants are usually the same instance
+        return s == name || s.equalsIgnoreCase(name);
+    }
+
     /**
      * Removes all headers that match the given header.
      *
@@ -127,6 +153,9 @@ public boolean removeHeaders(final Header header) {
                 removed = true;
             }
         }
+        if (removed) {
+            rebuildIndex();
+        }
         return removed;
     }
 
@@ -143,14 +172,12 @@ public void setHeader(final Header header) {
         if (header == null) {
             return;
         }
-        for (int i = 0; i < this.headers.size(); i++) {
-            final Header current = this.headers.get(i);
-            if (current.getName().equalsIgnoreCase(header.getName())) {
-                this.headers.set(i, header);
-                return;
-            }
+        final int i = firstPosition(header.getName());
+        if (i >= 0) {
+            this.headers.set(i, header);
+            return;
         }
-        this.headers.add(header);
+        addHeader(header);
     }
 
     /**
@@ -166,6 +193,7 @@ public void setHeaders(final Header... headers) {
             return;
         }
         Collections.addAll(this.headers, headers);
+        rebuildIndex();
     }
 
     /**
@@ -211,14 +239,11 @@ public Header getCondensedHeader(final String name) {
     @Override
     public Header[] getHeaders(final String name) {
         List<Header> headersFound = null;
-        for (int i = 0; i < this.headers.size(); i++) {
-            final Header header = this.headers.get(i);
-            if (header.getName().equalsIgnoreCase(name)) {
-                if (headersFound == null) {
-                    headersFound = new ArrayList<>();
-                }
-                headersFound.add(header);
+        for (int i = firstPosition(name); i >= 0; i = nextPosition(name, i)) {
+            if (headersFound == null) {
+                headersFound = new ArrayList<>();
             }
+            headersFound.add(this.headers.get(i));
         }
         return headersFound != null ? headersFound.toArray(new Header[headersFound.size()]) : EMPTY;
     }
@@ -233,13 +258,8 @@ public Header[] getHeaders(final String name) {
      */
     @Override
     public Header getFirstHeader(final String name) {
-        for (int i = 0; i < this.headers.size(); i++) {
-            final Header header = this.headers.get(i);
-            if (header.getName().equalsIgnoreCase(name)) {
-                return header;
-            }
-        }
-        return null;
+        final int i = firstPosition(name);
+        return i >= 0 ? this.headers.get(i) : null;
     }
 
     /**
@@ -253,19 +273,14 @@ public Header getFirstHeader(final String name) {
      */
     @Override
     public Header getHeader(final String name) throws ProtocolException {
-        int count = 0;
-        Header singleHeader = null;
-        for (int i = 0; i < this.headers.size(); i++) {
-            final Header header = this.headers.get(i);
-            if (header.getName().equalsIgnoreCase(name)) {
-                singleHeader = header;
-                count++;
-            }
+        final int i = firstPosition(name);
+        if (i < 0) {
+            return null;
         }
-        if (count > 1) {
+        if (nextPosition(name, i) >= 0) {
             throw new ProtocolException("multiple '%s' headers found", name);
         }
-        return singleHeader;
+        return this.headers.get(i);
     }
 
     /**
@@ -278,6 +293,14 @@ public Header getHeader(final String name) throws ProtocolException {
      */
     @Override
     public Header getLastHeader(final String name) {
+        final NameIndex nameIndex = name != null ? this.index : null;
+        if (nameIndex != null) {
+            int last = -1;
+            for (int i = nameIndex.first(this.headers, name); i >= 0; i = nameIndex.next(this.headers, name, i)) {
+                last = i;
+            }
+            return last >= 0 ? this.headers.get(last) : null;
+        }
         // start at the end of the list and work backwards
         for (int i = headers.size() - 1; i >= 0; i--) {
             final Header header = headers.get(i);
@@ -310,14 +333,7 @@ public Header[] getHeaders() {
      */
     @Override
     public boolean containsHeader(final String name) {
-        for (int i = 0; i < this.headers.size(); i++) {
-            final Header header = this.headers.get(i);
-            if (header.getName().equalsIgnoreCase(name)) {
-                return true;
-            }
-        }
-
-        return false;
+        return firstPosition(name) >= 0;
     }
 
     /**
@@ -330,11 +346,8 @@ public boolean containsHeader(final String name) {
     @Override
     public int countHeaders(final String name) {
         int count = 0;
-        for (int i = 0; i < this.headers.size(); i++) {
-            final Header header = this.headers.get(i);
-            if (header.getName().equalsIgnoreCase(name)) {
-                count++;
-            }
+        for (int i = firstPosition(name); i >= 0; i = nextPosition(name, i)) {
+            count++;
         }
         return count;
     }
@@ -348,7 +361,7 @@ public int countHeaders(final String name) {
      */
     @Override
     public Iterator<Header> headerIterator() {
-        return new BasicListHeaderIterator(this.headers, null);
+        return new GroupHeaderIterator(null);
     }
 
     /**
@@ -363,7 +376,7 @@ public Iterator<Header> headerIterator() {
      */
     @Override
     public Iterator<Header> headerIterator(final String name) {
-        return new BasicListHeaderIterator(this.headers, name);
+        return new GroupHeaderIterator(name);
     }
 
     /**
@@ -381,17 +394,159 @@ public boolean removeHeaders(final String name) {
         boolean removed = false;
         for (final Iterator<Header> iterator = headerIterator(); iterator.hasNext(); ) {
             final Header header = iterator.next();
-            if (header.getName().equalsIgnoreCase(name)) {
+            if (nameEquals(header, name)) {
                 iterator.remove();
                 removed = true;
             }
         }
+        if (removed) {
+            rebuildIndex();
+        }
         return removed;
     }
 
+    private void rebuildIndex() {
+        this.index = this.headers.size() > INDEX_THRESHOLD ? NameIndex.build(this.headers) : null;
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        rebuildIndex();
+    }
+
+    /**
+     * Returns position of the first header with the given name or {@code -1}.
+     */
+    private int firstPosition(final String name) {
+        if (name == null) {
+            return -1;
+        }
+        final NameIndex nameIndex = this.index;
+        if (nameIndex != null) {
+            return nameIndex.first(this.headers, name);
+        }
+        for (int i = 0; i < this.headers.size(); i++) {
+            if (nameEquals(this.headers.get(i), name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns position of the next header with the given name after the header
+     * at the given position or {@code -1}.
+     */
+    private int nextPosition(final String name, final int pos) {
+        final NameIndex nameIndex = this.index;
+        if (nameIndex != null) {
+            return nameIndex.next(this.headers, name, pos);
+        }
+        for (int i = pos + 1; i < this.headers.size(); i++) {
+            if (nameEquals(this.headers.get(i), name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     @Override
     public String toString() {
         return this.headers.toString();
     }
 
+    private class GroupHeaderIterator extends BasicListHeaderIterator {
+
+        GroupHeaderIterator(final String name) {
+            super(headers, name);
+        }
+
+        @Override
+        public void remove() throws UnsupportedOperationException {
+            super.remove();
+            // Lookups fall back to linear scans until the next mutation re-indexes the group
+            index = null;
+        }
+
+    }
+
+    /**
+     * Chained hash index of header positions keyed by case-insensitive
+     * hash of header names. Positions with the same key are chained in
+     * ascending order.
+     */
+    private static final class NameIndex {
+
+        private final int mask;
+        private final int[] buckets;
+        private final int[] tails;
+        private int[] hashes;
+        private int[] chain;
+        private int size;
+
+        private NameIndex(final int bucketCount, final int capacity) {
+            this.mask = bucketCount - 1;
+            this.buckets = new int[bucketCount];
+            this.tails = new int[bucketCount];
+            this.hashes = new int[capacity];
+            this.chain = new int[capacity];
+        }
+
+        static NameIndex build(final List<Header> headers) {
+            final int n = headers.size();
+            final NameIndex nameIndex = new NameIndex(Integer.highestOneBit(n) << 2, n << 1);
+            for (int i = 0; i < n; i++) {
+                final Header header = headers.get(i);
+                nameIndex.append(header != null ? header.getName() : null, i);
+            }
+            return nameIndex;
+        }
+
+        /**
+         * Appends the header at the given position. Returns {@code false} if the index
+         * has grown too dense and needs to be rebuilt.
+         */
+        boolean append(final String name, final int pos) {
+            if (pos != this.size || pos > this.buckets.length) {
+                return false;
+            }
+            if (pos == this.chain.length) {
+                this.chain = Arrays.copyOf(this.chain, pos << 1);
+                this.hashes = Arrays.copyOf(this.hashes, pos << 1);
+            }
+            final int h = name != null ? HeaderNameRegistry.hash(name) : 0;
+            final int b = h & this.mask;
+            this.hashes[pos] = h;
+            this.chain[pos] = -1;
+            final int tail = this.tails[b];
+            if (tail > 0) {
+                this.chain[tail - 1] = pos;
+            } else {
+                this.buckets[b] = pos + 1;
+            }
+            this.tails[b] = pos + 1;
+            this.size++;
+            return true;
+        }
+
+        int first(final List<Header> headers, final String name) {
+            final int h = HeaderNameRegistry.hash(name);
+            return find(headers, name, h, this.buckets[h & this.mask] - 1);
+        }
+
+        int next(final List<Header> headers, final String name, final int pos) {
+            return find(headers, name, this.hashes[pos], this.chain[pos]);
+        }
+
+        private int find(final List<Header> headers, final String name, final int h, final int start) {
+            for (int i = start; i >= 0; i = this.chain[i]) {
+                if (this.hashes[i] == h && nameEquals(headers.get(i), name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+    }
+
 }
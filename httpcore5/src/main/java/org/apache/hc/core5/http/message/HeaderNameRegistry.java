@@ -0,0 +1,192 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.message;
+
+import java.util.Locale;
+
+import org.apache.hc.core5.annotation.Internal;
+import org.apache.hc.core5.http.HttpHeaders;
+
+/**
+ * Registry of well-known header names. Header names parsed off the wire that exactly
+ * match a well-known name, either in its canonical or in its all lower case spelling,
+ * are represented by the same {@link String} instance.
+ *
+ * @since 5.1
+ */
+@Internal
+public final class HeaderNameRegistry {
+
+    private static final String[] WELL_KNOWN_NAMES = {
+            HttpHeaders.ACCEPT,
+            HttpHeaders.ACCEPT_CHARSET,
+            HttpHeaders.ACCEPT_ENCODING,
+            HttpHeaders.ACCEPT_LANGUAGE,
+            HttpHeaders.ACCEPT_RANGES,
+            HttpHeaders.AGE,
+            HttpHeaders.ALLOW,
+            HttpHeaders.AUTHORIZATION,
+            HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.CONNECTION,
+            HttpHeaders.CONTENT_ENCODING,
+            HttpHeaders.CONTENT_LANGUAGE,
+            HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.CONTENT_LOCATION,
+            HttpHeaders.CONTENT_MD5,
+            HttpHeaders.CONTENT_RANGE,
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.DATE,
+            HttpHeaders.DAV,
+            HttpHeaders.DEPTH,
+            HttpHeaders.DESTINATION,
+            HttpHeaders.ETAG,
+            HttpHeaders.EXPECT,
+            HttpHeaders.EXPIRES,
+            HttpHeaders.FROM,
+            HttpHeaders.HOST,
+            HttpHeaders.IF,
+            HttpHeaders.IF_MATCH,
+            HttpHeaders.IF_MODIFIED_SINCE,
+            HttpHeaders.IF_NONE_MATCH,
+            HttpHeaders.IF_RANGE,
+            HttpHeaders.IF_UNMODIFIED_SINCE,
+            HttpHeaders.KEEP_ALIVE,
+            HttpHeaders.LAST_MODIFIED,
+            HttpHeaders.LOCATION,
+            HttpHeaders.LOCK_TOKEN,
+            HttpHeaders.MAX_FORWARDS,
+            HttpHeaders.OVERWRITE,
+            HttpHeaders.PRAGMA,
+            HttpHeaders.PROXY_AUTHENTICATE,
+            HttpHeaders.PROXY_AUTHORIZATION,
+            HttpHeaders.RANGE,
+            HttpHeaders.REFERER,
+            HttpHeaders.RETRY_AFTER,
+            HttpHeaders.SERVER,
+            HttpHeaders.STATUS_URI,
+            HttpHeaders.TE,
+            HttpHeaders.TIMEOUT,
+            HttpHeaders.TRAILER,
+            HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.UPGRADE,
+            HttpHeaders.USER_AGENT,
+            HttpHeaders.VARY,
+            HttpHeaders.VIA,
+            HttpHeaders.WARNING,
+            HttpHeaders.WWW_AUTHENTICATE,
+            "Cookie",
+            "Set-Cookie",
+            "Origin",
+            "X-Forwarded-For",
+            "X-Forwarded-Proto",
+            "X-Requested-With"
+    };
+
+    private static final int MASK = 0xff;
+    private static final String[] TABLE = new String[MASK + 1];
+    private static final int[] HASHES = new int[MASK + 1];
+
+    static {
+        for (final String name : WELL_KNOWN_NAMES) {
+            register(name);
+            register(name.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private HeaderNameRegistry() {
+    }
+
+    private static void register(final String name) {
+        final int h = hash(name);
+        int i = h & MASK;
+        while (TABLE[i] != null) {
+            if (TABLE[i].equals(name)) {
+                return;
+            }
+            i = (i + 1) & MASK;
+        }
+        TABLE[i] = name;
+        HASHES[i] = h;
+    }
+
+    /**
+     * Case-insensitive hash code of an ASCII header name.
+     */
+    static int hash(final CharSequence s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); i++) {
+            h = 31 * h + (s.charAt(i) | 0x20);
+        }
+        return h;
+    }
+
+    static int hash(final char[] b, final int off, final int len) {
+        int h = 0;
+        for (int i = off; i < off + len; i++) {
+            h = 31 * h + (b[i] | 0x20);
+        }
+        return h;
+    }
+
+    /**
+     * Returns the well-known header name spelled exactly as the given sequence of chars
+     * or {@code null} if there is none.
+     */
+    public static String lookup(final char[] b, final int off, final int len) {
+        final int h = hash(b, off, len);
+        int i = h & MASK;
+        for (;;) {
+            final String name = TABLE[i];
+            if (name == null) {
+                return null;
+            }
+            if (HASHES[i] == h && name.length() == len && regionMatches(name, b, off)) {
+                return name;
+            }
+            i = (i + 1) & MASK;
+        }
+    }
+
+    private static boolean regionMatches(final String name, final char[] b, final int off) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != b[off + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the well-known header name spelled exactly as the given sequence of chars
+     * or a new {@link String} with the same content if there is none.
+     */
+    public static String intern(final char[] b, final int off, final int len) {
+        final String name = lookup(b, off, len);
+        return name != null ? name : new String(b, off, len);
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.message;
+
+import java.io.Serializable;
+
+import org.apache.hc.core5.http.FormattedHeader;
+import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.CharArrayBuffer;
+import org.apache.hc.core5.util.Tokenizer;
+
+/**
+ * This class represents a raw HTTP header backed by a region of a buffer shared
+ * by all header lines of a message. Well-known header names are not copied
+ * (see {@link HeaderNameRegistry}). The header value is parsed 'on demand' only
+ * when it needs to be consumed.
+ *
+ * @since 5.1
+ */
+public final class SharedBufferedHeader implements FormattedHeader, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final CharArrayBuffer buffer;
+    private final int start;
+    private final int colon;
+    private final int end;
+
+    private transient String value;
+    private transient CharArrayBuffer lineBuffer;
+
+    private SharedBufferedHeader(
+            final String name, final CharArrayBuffer buffer, final int start, final int colon, final int end) {
+        this.name = name;
+        this.buffer = buffer;
+        this.start = start;
+        this.colon = colon;
+        this.end = end;
+    }
+
+    /**
+     * Creates a new header from the region of the buffer starting at {@code start}
+     * and ending at {@code end} (exclusive) containing one complete header line.
+     *
+     * @throws ParseException in case of a parse error
+     */
+    public static SharedBufferedHeader create(
+            final CharArrayBuffer buffer, final int start, final int end) throws ParseException {
+        Args.notNull(buffer, "Char array buffer");
+        final int colon = buffer.indexOf(':', start, end);
+        if (colon <= start) {
+            throw new ParseException("Invalid header", buffer, start, end - start);
+        }
+        final char[] array = buffer.array();
+        if (Tokenizer.isWhitespace(array[colon - 1])) {
+            throw new ParseException("Invalid header", buffer, start, end - start, colon - 1 - start);
+        }
+        int nameStart = start;
+        while (nameStart < colon && Tokenizer.isWhitespace(array[nameStart])) {
+            nameStart++;
+        }
+        if (nameStart == colon) {
+            throw new ParseException("Invalid header", buffer, start, end - start, colon - start);
+        }
+        final String name = HeaderNameRegistry.intern(array, nameStart, colon - nameStart);
+        return new SharedBufferedHeader(name, buffer, start, colon, end);
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public String getValue() {
+        if (this.value == null) {
+            this.value = this.buffer.substringTrimmed(this.colon + 1, this.end);
+        }
+        return this.value;
+    }
+
+    @Override
+    public boolean isSensitive() {
+        return false;
+    }
+
+    /**
+     * Returns position of the header value in the buffer returned
+     * by {@link #getBuffer()}.
+     */
+    @Override
+    public int getValuePos() {
+        return this.colon + 1 - this.start;
+    }
+
+    /**
+     * Returns a buffer containing this header line only.
+     */
+    @Override
+    public CharArrayBuffer getBuffer() {
+        if (this.lineBuffer == null) {
+            final CharArrayBuffer b = new CharArrayBuffer(this.end - this.start);
+            b.append(this.buffer, this.start, this.end - this.start);
+            this.lineBuffer = b;
+        }
+        return this.lineBuffer;
+    }
+
+    @Override
+    public String toString() {
+        return this.buffer.substring(this.start, this.end);
+    }
+
+}
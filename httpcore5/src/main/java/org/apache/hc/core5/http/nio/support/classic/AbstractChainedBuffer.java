@@ -0,0 +1,130 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.support.classic;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Base class for buffers that hand data over between an I/O reactor thread and
+ * a single worker thread through a {@link BufferChain}. The worker thread gets parked
+ * instead of waiting on a condition and is unparked by the other side once
+ * the state of the buffer changes, which makes it well suited to virtual threads.
+ *
+ * @since 5.1
+ */
+@Contract(threading = ThreadingBehavior.SAFE_CONDITIONAL)
+abstract class AbstractChainedBuffer {
+
+    private static final int MAX_CHUNK_SIZE = 8192;
+
+    final BufferChain chain;
+    final int capacity;
+
+    volatile boolean endStream;
+    volatile boolean aborted;
+
+    private volatile Thread waiter;
+
+    AbstractChainedBuffer(final int capacity) {
+        this.capacity = Args.positive(capacity, "Buffer capacity");
+        this.chain = new BufferChain(Math.min(capacity, MAX_CHUNK_SIZE));
+    }
+
+    public int capacity() {
+        return Math.max(capacity - chain.length(), 0);
+    }
+
+    public int length() {
+        return chain.length();
+    }
+
+    public boolean hasData() {
+        return chain.length() > 0;
+    }
+
+    public boolean isEndStream() {
+        return endStream && chain.length() == 0;
+    }
+
+    public void abort() {
+        endStream = true;
+        aborted = true;
+        signal();
+    }
+
+    /**
+     * Discards stored content. This method may only be called by the worker thread
+     * while the buffer is not in use by the I/O reactor.
+     */
+    public void reset() {
+        if (aborted) {
+            return;
+        }
+        chain.discard();
+        endStream = false;
+    }
+
+    /**
+     * Determines whether or not the worker thread needs to keep waiting.
+     */
+    abstract boolean mustWait();
+
+    /**
+     * Parks the calling thread for as long as {@link #mustWait()} holds.
+     */
+    final void await() throws InterruptedIOException {
+        final Thread currentThread = Thread.currentThread();
+        waiter = currentThread;
+        try {
+            while (mustWait()) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    currentThread.interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting");
+                }
+            }
+        } finally {
+            waiter = null;
+        }
+    }
+
+    /**
+     * Unparks the waiting thread, if any.
+     */
+    final void signal() {
+        final Thread thread = waiter;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+}
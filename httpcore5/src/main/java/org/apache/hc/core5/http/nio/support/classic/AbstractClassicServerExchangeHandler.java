@@ -60,6 +60,14 @@
  * {@link AsyncServerExchangeHandler} implementation that acts as a compatibility
  * layer for classic {@link InputStream} / {@link OutputStream} based interfaces.
  * Blocking input / output processing is executed through an {@link Executor}.
+ * <p>
+ * Optionally data can be handed over between the I/O reactor and the worker thread
+ * through lock-free {@link ChainedInputBuffer} / {@link ChainedOutputBuffer} instead of
+ * lock based {@link SharedInputBuffer} / {@link SharedOutputBuffer}. Chained buffers park
+ * the worker thread rather than having it wait on a condition, which makes them a good fit
+ * for executors running each exchange on its own virtual thread
+ * ({@code Executors.newVirtualThreadPerTaskExecutor()} on Java 21 and newer).
+ * </p>
  *
  * @since 5.0
  */
@@ -69,19 +77,34 @@ private enum State { IDLE, ACTIVE, COMPLETED }
 
     private final int initialBufferSize;
     private final Executor executor;
+    private final boolean chainedBuffers;
     private final AtomicReference<State> state;
     private final AtomicReference<Exception> exception;
 
-    private volatile SharedInputBuffer inputBuffer;
-    private volatile SharedOutputBuffer outputBuffer;
+    private volatile BridgeInputBuffer inputBuffer;
+    private volatile BridgeOutputBuffer outputBuffer;
 
-    public AbstractClassicServerExchangeHandler(final int initialBufferSize, final Executor executor) {
+    /**
+     * @param initialBufferSize the initial size of data buffers.
+     * @param executor the executor used to run blocking exchange handling.
+     * @param chainedBuffers if {@code true} data get handed over through
+     *                       {@link ChainedInputBuffer} / {@link ChainedOutputBuffer}.
+     *
+     * @since 5.1
+     */
+    public AbstractClassicServerExchangeHandler(
+            final int initialBufferSize, final Executor executor, final boolean chainedBuffers) {
         this.initialBufferSize = Args.positive(initialBufferSize, "Initial buffer size");
         this.executor = Args.notNull(executor, "Executor");
+        this.chainedBuffers = chainedBuffers;
         this.exception = new AtomicReference<>(null);
         this.state = new AtomicReference<>(State.IDLE);
     }
 
+    public AbstractClassicServerExchangeHandler(final int initialBufferSize, final Executor executor) {
+        this(initialBufferSize, executor, false);
+    }
+
     /**
      * Handles an incoming request optionally reading its entity content form the given input stream
      * and generates a response optionally writing out its entity content into the given output stream.
@@ -157,12 +180,16 @@ public void setLocale(final Locale locale) {
 
         final InputStream inputStream;
         if (entityDetails != null) {
-            inputBuffer = new SharedInputBuffer(initialBufferSize);
+            inputBuffer = chainedBuffers
+                    ? new ChainedInputBuffer(initialBufferSize)
+                    : new SharedInputBuffer(initialBufferSize);
             inputStream = new ContentInputStream(inputBuffer);
         } else {
             inputStream = null;
         }
-        outputBuffer = new SharedOutputBuffer(initialBufferSize);
+        outputBuffer = chainedBuffers
+                ? new ChainedOutputBuffer(initialBufferSize)
+                : new SharedOutputBuffer(initialBufferSize);
 
         final OutputStream outputStream = new ContentOutputStream(outputBuffer) {
 
@@ -289,6 +316,14 @@ public final void produce(final DataStreamChannel channel) throws IOException {
     @Override
     public final void failed(final Exception cause) {
         exception.compareAndSet(null, cause);
+        final BridgeInputBuffer localInputBuffer = inputBuffer;
+        if (localInputBuffer != null) {
+            localInputBuffer.abort();
+        }
+        final BridgeOutputBuffer localOutputBuffer = outputBuffer;
+        if (localOutputBuffer != null) {
+            localOutputBuffer.abort();
+        }
         releaseResources();
     }
 
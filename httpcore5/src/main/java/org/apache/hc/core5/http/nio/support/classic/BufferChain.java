@@ -0,0 +1,265 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.support.classic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.nio.StreamChannel;
+
+/**
+ * Unbounded chain of fixed size byte chunks with one producer thread appending data
+ * and one consumer thread taking it out without any locking. The producer publishes
+ * data by advancing the volatile write index of the tail chunk and then adds it to
+ * the length of the chain; the consumer owns the read index of the head chunk and
+ * never takes out more than the length accounts for, so the length never goes negative
+ * and never overstates the content of the chain. Fully consumed chunks are unlinked
+ * by the consumer and one of them is kept for re-use by the producer.
+ *
+ * @since 5.1
+ */
+@Contract(threading = ThreadingBehavior.SAFE_CONDITIONAL)
+final class BufferChain {
+
+    static final class Chunk {
+
+        final byte[] data;
+        volatile int writeIndex;
+        volatile Chunk next;
+        int readIndex;
+        ByteBuffer view;
+
+        Chunk(final int size) {
+            this.data = new byte[size];
+        }
+
+    }
+
+    private final int chunkSize;
+    private final AtomicInteger length;
+    private final AtomicReference<Chunk> spare;
+
+    // Consumer side
+    private Chunk head;
+    // Producer side
+    private Chunk tail;
+
+    BufferChain(final int chunkSize) {
+        this.chunkSize = chunkSize;
+        this.length = new AtomicInteger(0);
+        this.spare = new AtomicReference<>(null);
+        this.head = new Chunk(chunkSize);
+        this.tail = this.head;
+    }
+
+    /**
+     * Returns the number of bytes appended by the producer and not yet taken out by the consumer.
+     * Bytes being appended concurrently may not be accounted for yet.
+     */
+    int length() {
+        return length.get();
+    }
+
+    private Chunk nextChunk() {
+        Chunk chunk = spare.getAndSet(null);
+        if (chunk == null) {
+            chunk = new Chunk(chunkSize);
+        } else {
+            chunk.writeIndex = 0;
+            chunk.readIndex = 0;
+            chunk.next = null;
+        }
+        tail.next = chunk;
+        tail = chunk;
+        return chunk;
+    }
+
+    // Producer methods
+
+    /**
+     * Appends content of the given buffer.
+     *
+     * @return the number of bytes in the chain prior to this operation.
+     */
+    int append(final ByteBuffer src) {
+        final int len = src.remaining();
+        while (src.hasRemaining()) {
+            Chunk chunk = tail;
+            int writeIndex = chunk.writeIndex;
+            if (writeIndex == chunk.data.length) {
+                chunk = nextChunk();
+                writeIndex = 0;
+            }
+            final int n = Math.min(chunk.data.length - writeIndex, src.remaining());
+            src.get(chunk.data, writeIndex, n);
+            chunk.writeIndex = writeIndex + n;
+        }
+        return length.getAndAdd(len);
+    }
+
+    /**
+     * Appends the given bytes.
+     *
+     * @return the number of bytes in the chain prior to this operation.
+     */
+    int append(final byte[] b, final int off, final int len) {
+        int pos = off;
+        final int end = off + len;
+        while (pos < end) {
+            Chunk chunk = tail;
+            int writeIndex = chunk.writeIndex;
+            if (writeIndex == chunk.data.length) {
+                chunk = nextChunk();
+                writeIndex = 0;
+            }
+            final int n = Math.min(chunk.data.length - writeIndex, end - pos);
+            System.arraycopy(b, pos, chunk.data, writeIndex, n);
+            chunk.writeIndex = writeIndex + n;
+            pos += n;
+        }
+        return length.getAndAdd(len);
+    }
+
+    // Consumer methods
+
+    private Chunk readableChunk() {
+        Chunk chunk = head;
+        while (chunk.readIndex == chunk.writeIndex) {
+            final Chunk next = chunk.next;
+            // The producer moves on to the next chunk only once the current one is full
+            if (next == null || chunk.readIndex < chunk.data.length) {
+                return null;
+            }
+            head = next;
+            spare.set(chunk);
+            chunk = next;
+        }
+        return chunk;
+    }
+
+    /**
+     * Takes out one byte.
+     *
+     * @return the byte or {@code -1} if the chain is empty.
+     */
+    int read() {
+        if (length.get() == 0) {
+            return -1;
+        }
+        final Chunk chunk = readableChunk();
+        if (chunk == null) {
+            return -1;
+        }
+        final int b = chunk.data[chunk.readIndex++] & 0xff;
+        length.decrementAndGet();
+        return b;
+    }
+
+    /**
+     * Takes out up to {@code len} bytes.
+     *
+     * @return the number of bytes taken out, zero if the chain is empty.
+     */
+    int read(final byte[] b, final int off, final int len) {
+        final int limit = Math.min(len, length.get());
+        int total = 0;
+        while (total < limit) {
+            final Chunk chunk = readableChunk();
+            if (chunk == null) {
+                break;
+            }
+            final int n = Math.min(chunk.writeIndex - chunk.readIndex, limit - total);
+            System.arraycopy(chunk.data, chunk.readIndex, b, off + total, n);
+            chunk.readIndex += n;
+            total += n;
+        }
+        if (total > 0) {
+            length.addAndGet(-total);
+        }
+        return total;
+    }
+
+    /**
+     * Writes out as much content as the channel accepts straight from the chunks.
+     *
+     * @return the number of bytes written out.
+     */
+    int writeTo(final StreamChannel<ByteBuffer> channel) throws IOException {
+        final int limit = length.get();
+        int total = 0;
+        while (total < limit) {
+            final Chunk chunk = readableChunk();
+            if (chunk == null) {
+                break;
+            }
+            if (chunk.view == null) {
+                chunk.view = ByteBuffer.wrap(chunk.data);
+            }
+            final ByteBuffer view = chunk.view;
+            view.limit(Math.min(chunk.writeIndex, chunk.readIndex + limit - total));
+            view.position(chunk.readIndex);
+            final int n = channel.write(view);
+            if (n <= 0) {
+                break;
+            }
+            chunk.readIndex += n;
+            total += n;
+        }
+        if (total > 0) {
+            length.addAndGet(-total);
+        }
+        return total;
+    }
+
+    /**
+     * Discards all content accounted for so far.
+     *
+     * @return the number of bytes discarded.
+     */
+    int discard() {
+        final int limit = length.get();
+        int total = 0;
+        while (total < limit) {
+            final Chunk chunk = readableChunk();
+            if (chunk == null) {
+                break;
+            }
+            final int n = Math.min(chunk.writeIndex - chunk.readIndex, limit - total);
+            chunk.readIndex += n;
+            total += n;
+        }
+        if (total > 0) {
+            length.addAndGet(-total);
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.support.classic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+
+/**
+ * Lock-free input buffer filled by a single I/O reactor thread and drained by a single
+ * worker thread. Incoming data are appended to a chain of fixed size chunks and
+ * taken out of it by the worker thread without locking. Input capacity consumed by
+ * the worker thread is granted back in batches of at least half of the buffer capacity.
+ *
+ * @since 5.1
+ */
+@Contract(threading = ThreadingBehavior.SAFE_CONDITIONAL)
+public final class ChainedInputBuffer extends AbstractChainedBuffer implements BridgeInputBuffer {
+
+    private final AtomicInteger window;
+
+    private volatile CapacityChannel capacityChannel;
+
+    public ChainedInputBuffer(final int capacity) {
+        super(capacity);
+        this.window = new AtomicInteger(0);
+    }
+
+    /**
+     * Appends content of the given buffer. This method is expected to be called
+     * by the I/O reactor thread only.
+     *
+     * @return the input capacity still available.
+     */
+    @Override
+    public int fill(final ByteBuffer src) {
+        final int len = src.remaining();
+        chain.append(src);
+        window.addAndGet(-len);
+        signal();
+        return Math.max(capacity - chain.length(), 0);
+    }
+
+    /**
+     * Grants input capacity available in the buffer to the given channel. This method
+     * is expected to be called by the I/O reactor thread only.
+     */
+    @Override
+    public void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
+        this.capacityChannel = capacityChannel;
+        grantCapacity(capacityChannel, 1);
+    }
+
+    private void grantCapacity(final CapacityChannel capacityChannel, final int threshold) throws IOException {
+        // Content being filled in is still accounted for by the window until the chain
+        // length includes it and the chain length never overstates the stored content,
+        // so the increment can only ever fall short of the actual free space
+        for (;;) {
+            final int current = window.get();
+            final int increment = capacity - chain.length() - current;
+            if (increment < threshold) {
+                return;
+            }
+            if (window.compareAndSet(current, current + increment)) {
+                capacityChannel.update(increment);
+                return;
+            }
+        }
+    }
+
+    private void releaseCapacity() throws IOException {
+        final CapacityChannel channel = capacityChannel;
+        if (channel != null && !endStream) {
+            grantCapacity(channel, chain.length() == 0 ? 1 : capacity / 2);
+        }
+    }
+
+    @Override
+    boolean mustWait() {
+        return chain.length() == 0 && !endStream && !aborted;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (chain.length() == 0) {
+            await();
+        }
+        if (aborted) {
+            return -1;
+        }
+        final int b = chain.read();
+        if (b != -1) {
+            releaseCapacity();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (chain.length() == 0) {
+            await();
+        }
+        if (aborted) {
+            return -1;
+        }
+        final int bytesRead = chain.read(b, off, len);
+        if (bytesRead == 0) {
+            return -1;
+        }
+        releaseCapacity();
+        return bytesRead;
+    }
+
+    /**
+     * Marks the end of the content stream. This method is expected to be called
+     * by the I/O reactor thread only.
+     */
+    @Override
+    public void markEndStream() {
+        if (!endStream) {
+            endStream = true;
+            capacityChannel = null;
+            signal();
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.support.classic;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+
+/**
+ * Lock-free output buffer filled by a single worker thread and flushed by a single
+ * I/O reactor thread. Outgoing data are appended to a chain of fixed size chunks
+ * and written out to the data channel straight from those chunks. The worker thread
+ * gets parked once the buffer holds more than its capacity and is resumed when
+ * the I/O reactor has drained it down to half of its capacity.
+ *
+ * @since 5.1
+ */
+@Contract(threading = ThreadingBehavior.SAFE_CONDITIONAL)
+public final class ChainedOutputBuffer extends AbstractChainedBuffer implements BridgeOutputBuffer {
+
+    private final AtomicBoolean endStreamPropagated;
+    private final byte[] single;
+
+    private volatile DataStreamChannel dataStreamChannel;
+
+    public ChainedOutputBuffer(final int capacity) {
+        super(capacity);
+        this.endStreamPropagated = new AtomicBoolean(false);
+        this.single = new byte[1];
+    }
+
+    /**
+     * Writes out buffered content to the given channel. This method is expected
+     * to be called by the I/O reactor thread only.
+     */
+    @Override
+    public void flush(final DataStreamChannel channel) throws IOException {
+        dataStreamChannel = channel;
+        chain.writeTo(channel);
+        if (endStream && chain.length() == 0 && endStreamPropagated.compareAndSet(false, true)) {
+            channel.endStream();
+        }
+        signal();
+    }
+
+    private void ensureNotAborted() throws InterruptedIOException {
+        if (aborted) {
+            throw new InterruptedIOException("Operation aborted");
+        }
+    }
+
+    @Override
+    boolean mustWait() {
+        return chain.length() > capacity / 2 && !aborted;
+    }
+
+    private void append(final byte[] b, final int off, final int len) throws IOException {
+        final int previous = chain.append(b, off, len);
+        final DataStreamChannel channel = dataStreamChannel;
+        if (channel != null && previous == 0) {
+            channel.requestOutput();
+        }
+        if (chain.length() >= capacity) {
+            if (channel != null && previous > 0) {
+                channel.requestOutput();
+            }
+            await();
+            ensureNotAborted();
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        ensureNotAborted();
+        int pos = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final int chunk = Math.min(remaining, capacity);
+            append(b, pos, chunk);
+            pos += chunk;
+            remaining -= chunk;
+        }
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        ensureNotAborted();
+        single[0] = (byte) b;
+        append(single, 0, 1);
+    }
+
+    /**
+     * Marks the end of the content stream. The end of stream is signaled to the data
+     * channel by the I/O reactor thread once all buffered content has been written out.
+     */
+    @Override
+    public void writeCompleted() throws IOException {
+        if (endStream) {
+            return;
+        }
+        endStream = true;
+        final DataStreamChannel channel = dataStreamChannel;
+        if (channel != null) {
+            channel.requestOutput();
+        }
+    }
+
+}
@@ -39,7 +39,7 @@
  * @since 5.0
  */
 @Contract(threading = ThreadingBehavior.SAFE)
-public final class SharedInputBuffer extends AbstractSharedBuffer implements ContentInputBuffer {
+public final class SharedInputBuffer extends AbstractSharedBuffer implements BridgeInputBuffer {
 
     private volatile CapacityChannel capacityChannel;
 
@@ -51,6 +51,7 @@ public SharedInputBuffer(final int bufferSize) {
         super(new ReentrantLock(), bufferSize);
     }
 
+    @Override
     public int fill(final ByteBuffer src) {
         lock.lock();
         try {
@@ -65,6 +66,7 @@ public int fill(final ByteBuffer src) {
         }
     }
 
+    @Override
     public void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
         lock.lock();
         try {
@@ -144,6 +146,7 @@ public int read(final byte[] b, final int off, final int len) throws IOException
         }
     }
 
+    @Override
     public void markEndStream() {
         if (endStream) {
             return;
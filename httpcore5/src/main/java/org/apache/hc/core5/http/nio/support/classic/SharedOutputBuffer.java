@@ -39,7 +39,7 @@
  * @since 5.0
  */
 @Contract(threading = ThreadingBehavior.SAFE)
-public final class SharedOutputBuffer extends AbstractSharedBuffer implements ContentOutputBuffer {
+public final class SharedOutputBuffer extends AbstractSharedBuffer implements BridgeOutputBuffer {
 
     private volatile DataStreamChannel dataStreamChannel;
     private volatile boolean hasCapacity;
@@ -55,6 +55,7 @@ public SharedOutputBuffer(final int bufferSize) {
         this(new ReentrantLock(), bufferSize);
     }
 
+    @Override
     public void flush(final DataStreamChannel channel) throws IOException {
         lock.lock();
         try {
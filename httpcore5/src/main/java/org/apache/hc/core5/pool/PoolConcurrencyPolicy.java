@@ -41,6 +41,14 @@ public enum PoolConcurrencyPolicy {
     /**
      * Strict connection max limit guarantees.
      */
-    STRICT
+    STRICT,
+
+    /**
+     * Strict connection max limit guarantees with higher concurrency
+     * due to per-route locking.
+     *
+     * @since 5.1
+     */
+    STRIPED
 
 }
@@ -0,0 +1,758 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.pool;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.Experimental;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.io.ModalCloseable;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.Asserts;
+import org.apache.hc.core5.util.Deadline;
+import org.apache.hc.core5.util.DeadlineTimeoutException;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Connection pool with strict connection limit guarantees and per-route locking.
+ * <p>
+ * Unlike {@link StrictConnPool} this pool does not serialize all lease and release
+ * operations on a single lock. Each route is guarded by its own lock while the total
+ * number of allocated connections is bounded by an atomic counter of permits. Lease
+ * requests that cannot be served for lack of permits put their route into a queue of
+ * pending routes. Capacity freed up by other routes is handed over to pending routes
+ * one connection at a time in the order they have been queued.
+ * </p>
+ *
+ * @param <T> route
+ * @param <C> connection object
+ *
+ * @since 5.1
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+@Experimental
+public class StripedConnPool<T, C extends ModalCloseable> implements ManagedConnPool<T, C> {
+
+    private enum Outcome { DONE, PENDING, NO_PERMIT, ROUTE_LIMIT }
+
+    private final TimeValue timeToLive;
+    private final PoolReusePolicy policy;
+    private final DisposalCallback<C> disposalCallback;
+    private final ConnPoolListener<T> connPoolListener;
+    private final ConcurrentMap<T, PerRoutePool<T, C>> routeToPool;
+    private final ConcurrentMap<T, Integer> maxPerRoute;
+    private final ConcurrentLinkedDeque<PerRoutePool<T, C>> pendingRoutes;
+    private final ConcurrentLinkedQueue<StrictConnPool.LeaseRequest<T, C>> completedRequests;
+    private final AtomicInteger allocatedTotal;
+    private final AtomicBoolean isShutDown;
+
+    private volatile int defaultMaxPerRoute;
+    private volatile int maxTotal;
+
+    public StripedConnPool(
+            final int defaultMaxPerRoute,
+            final int maxTotal,
+            final TimeValue timeToLive,
+            final PoolReusePolicy policy,
+            final DisposalCallback<C> disposalCallback,
+            final ConnPoolListener<T> connPoolListener) {
+        super();
+        Args.positive(defaultMaxPerRoute, "Max per route value");
+        Args.positive(maxTotal, "Max total value");
+        this.timeToLive = TimeValue.defaultsToNegativeOneMillisecond(timeToLive);
+        this.policy = policy != null ? policy : PoolReusePolicy.LIFO;
+        this.disposalCallback = disposalCallback;
+        this.connPoolListener = connPoolListener;
+        this.routeToPool = new ConcurrentHashMap<>();
+        this.maxPerRoute = new ConcurrentHashMap<>();
+        this.pendingRoutes = new ConcurrentLinkedDeque<>();
+        this.completedRequests = new ConcurrentLinkedQueue<>();
+        this.allocatedTotal = new AtomicInteger(0);
+        this.isShutDown = new AtomicBoolean(false);
+        this.defaultMaxPerRoute = defaultMaxPerRoute;
+        this.maxTotal = maxTotal;
+    }
+
+    public StripedConnPool(
+            final int defaultMaxPerRoute,
+            final int maxTotal,
+            final TimeValue timeToLive,
+            final PoolReusePolicy policy,
+            final ConnPoolListener<T> connPoolListener) {
+        this(defaultMaxPerRoute, maxTotal, timeToLive, policy, null, connPoolListener);
+    }
+
+    public StripedConnPool(final int defaultMaxPerRoute, final int maxTotal) {
+        this(defaultMaxPerRoute, maxTotal, TimeValue.NEG_ONE_MILLISECOND, PoolReusePolicy.LIFO, null);
+    }
+
+    public boolean isShutdown() {
+        return this.isShutDown.get();
+    }
+
+    @Override
+    public void close(final CloseMode closeMode) {
+        if (this.isShutDown.compareAndSet(false, true)) {
+            fireCallbacks();
+            for (final PerRoutePool<T, C> pool: this.routeToPool.values()) {
+                pool.lock.lock();
+                try {
+                    pool.shutdown(closeMode);
+                } finally {
+                    pool.lock.unlock();
+                }
+            }
+            this.routeToPool.clear();
+            this.pendingRoutes.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        close(CloseMode.GRACEFUL);
+    }
+
+    private PerRoutePool<T, C> getPool(final T route) {
+        PerRoutePool<T, C> pool = this.routeToPool.get(route);
+        if (pool == null) {
+            final PerRoutePool<T, C> newPool = new PerRoutePool<>(route, this.disposalCallback);
+            pool = this.routeToPool.putIfAbsent(route, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Returns the pool of the given route locked by the calling thread.
+     */
+    private PerRoutePool<T, C> lockPool(final T route) {
+        for (;;) {
+            final PerRoutePool<T, C> pool = getPool(route);
+            pool.lock.lock();
+            if (!pool.removed) {
+                return pool;
+            }
+            pool.lock.unlock();
+        }
+    }
+
+    @Override
+    public Future<PoolEntry<T, C>> lease(
+            final T route, final Object state,
+            final Timeout requestTimeout,
+            final FutureCallback<PoolEntry<T, C>> callback) {
+        Args.notNull(route, "Route");
+        Args.notNull(requestTimeout, "Request timeout");
+        Asserts.check(!this.isShutDown.get(), "Connection pool shut down");
+        final BasicFuture<PoolEntry<T, C>> future = new BasicFuture<>(callback);
+        final StrictConnPool.LeaseRequest<T, C> request = new StrictConnPool.LeaseRequest<>(
+                route, state, requestTimeout, future);
+        final PerRoutePool<T, C> pool = lockPool(route);
+        try {
+            pool.pending.add(request);
+            if (processPendingRequests(pool, false) == Outcome.NO_PERMIT) {
+                enqueue(pool);
+            }
+        } finally {
+            pool.lock.unlock();
+        }
+        servicePendingRoutes();
+        fireCallbacks();
+        return future;
+    }
+
+    public Future<PoolEntry<T, C>> lease(final T route, final Object state) {
+        return lease(route, state, Timeout.DISABLED, null);
+    }
+
+    @Override
+    public void release(final PoolEntry<T, C> entry, final boolean reusable) {
+        if (entry == null) {
+            return;
+        }
+        if (this.isShutDown.get()) {
+            return;
+        }
+        if (!reusable) {
+            entry.discardConnection(CloseMode.GRACEFUL);
+        }
+        final PerRoutePool<T, C> pool = lockPool(entry.getRoute());
+        try {
+            if (!pool.leased.remove(entry)) {
+                throw new IllegalStateException("Pool entry is not present in the set of leased entries");
+            }
+            if (this.connPoolListener != null) {
+                this.connPoolListener.onRelease(entry.getRoute(), this);
+            }
+            boolean keepAlive = entry.hasConnection() && reusable;
+            if (keepAlive && pool.pending.isEmpty() && !this.pendingRoutes.isEmpty()
+                    && this.allocatedTotal.get() >= this.maxTotal) {
+                // Hand over the capacity to another route waiting for a connection
+                keepAlive = false;
+            }
+            if (keepAlive) {
+                switch (policy) {
+                    case LIFO:
+                        pool.available.addFirst(entry);
+                        break;
+                    case FIFO:
+                        pool.available.addLast(entry);
+                        break;
+                    default:
+                        throw new IllegalStateException("Unexpected ConnPoolPolicy value: " + policy);
+                }
+            } else {
+                entry.discardConnection(CloseMode.GRACEFUL);
+                this.allocatedTotal.decrementAndGet();
+            }
+            if (processPendingRequests(pool, false) == Outcome.NO_PERMIT) {
+                enqueue(pool);
+            }
+        } finally {
+            pool.lock.unlock();
+        }
+        servicePendingRoutes();
+        fireCallbacks();
+    }
+
+    private void enqueue(final PerRoutePool<T, C> pool) {
+        if (pool.queued.compareAndSet(false, true)) {
+            this.pendingRoutes.addLast(pool);
+        }
+    }
+
+    private boolean acquirePermit() {
+        for (;;) {
+            final int current = this.allocatedTotal.get();
+            if (current >= this.maxTotal) {
+                return false;
+            }
+            if (this.allocatedTotal.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void discard(final PerRoutePool<T, C> pool, final PoolEntry<T, C> entry) {
+        entry.discardConnection(CloseMode.GRACEFUL);
+        pool.available.remove(entry);
+        this.allocatedTotal.decrementAndGet();
+    }
+
+    /**
+     * Processes pending requests of the given route in the order of their arrival.
+     * Must be called with the route lock held. If {@code once} is {@code true} processing
+     * stops after the first request served with a new connection.
+     */
+    private Outcome processPendingRequests(final PerRoutePool<T, C> pool, final boolean once) {
+        final ListIterator<StrictConnPool.LeaseRequest<T, C>> it = pool.pending.listIterator();
+        while (it.hasNext()) {
+            final StrictConnPool.LeaseRequest<T, C> request = it.next();
+            if (request.getFuture().isCancelled()) {
+                it.remove();
+                continue;
+            }
+            final Outcome outcome = processPendingRequest(pool, request);
+            if (request.isDone()) {
+                it.remove();
+                this.completedRequests.add(request);
+            }
+            if (outcome == Outcome.PENDING) {
+                if (once) {
+                    return it.hasNext() ? Outcome.PENDING : Outcome.DONE;
+                }
+            } else if (outcome != Outcome.DONE) {
+                return outcome;
+            }
+        }
+        return Outcome.DONE;
+    }
+
+    /**
+     * Attempts to serve the given lease request. Returns {@link Outcome#DONE} if the request
+     * has been completed with an available connection or has expired, {@link Outcome#PENDING}
+     * if it has been completed with a new connection.
+     */
+    private Outcome processPendingRequest(
+            final PerRoutePool<T, C> pool, final StrictConnPool.LeaseRequest<T, C> request) {
+        final Object state = request.getState();
+        final Deadline deadline = request.getDeadline();
+
+        if (deadline.isExpired()) {
+            request.failed(DeadlineTimeoutException.from(deadline));
+            return Outcome.DONE;
+        }
+
+        PoolEntry<T, C> entry;
+        for (;;) {
+            entry = pool.getFree(state);
+            if (entry == null) {
+                break;
+            }
+            if (entry.getExpiryDeadline().isExpired()) {
+                entry.discardConnection(CloseMode.GRACEFUL);
+                pool.leased.remove(entry);
+                this.allocatedTotal.decrementAndGet();
+            } else {
+                break;
+            }
+        }
+        if (entry != null) {
+            request.completed(entry);
+            if (this.connPoolListener != null) {
+                this.connPoolListener.onLease(entry.getRoute(), this);
+            }
+            return Outcome.DONE;
+        }
+
+        // New connection is needed
+        final int max = getMax(pool.route);
+        // Shrink the pool prior to allocating a new connection
+        final int excess = Math.max(0, pool.getAllocatedCount() + 1 - max);
+        for (int i = 0; i < excess; i++) {
+            final PoolEntry<T, C> lastUsed = pool.available.peekLast();
+            if (lastUsed == null) {
+                break;
+            }
+            discard(pool, lastUsed);
+        }
+        if (pool.getAllocatedCount() >= max) {
+            return Outcome.ROUTE_LIMIT;
+        }
+        if (!acquirePermit()) {
+            return Outcome.NO_PERMIT;
+        }
+        entry = new PoolEntry<>(pool.route, this.timeToLive, this.disposalCallback);
+        pool.leased.add(entry);
+        request.completed(entry);
+        if (this.connPoolListener != null) {
+            this.connPoolListener.onLease(entry.getRoute(), this);
+        }
+        return Outcome.PENDING;
+    }
+
+    /**
+     * Hands over free capacity to routes waiting for a connection, one connection per route
+     * at a time. Must be called without any route lock held.
+     */
+    private void servicePendingRoutes() {
+        PerRoutePool<T, C> pool;
+        while ((pool = this.pendingRoutes.pollFirst()) != null) {
+            pool.queued.set(false);
+            final Outcome outcome;
+            pool.lock.lock();
+            try {
+                if (pool.removed) {
+                    continue;
+                }
+                outcome = processPendingRequests(pool, true);
+                if (outcome == Outcome.PENDING) {
+                    // Move on to the next route in line
+                    enqueue(pool);
+                } else if (outcome == Outcome.NO_PERMIT && pool.queued.compareAndSet(false, true)) {
+                    // Keep the route at the head of the line
+                    this.pendingRoutes.addFirst(pool);
+                }
+            } finally {
+                pool.lock.unlock();
+            }
+            // Unless an idle connection can be evicted or some other thread has freed up
+            // capacity in the meantime there is no point in going on
+            if (outcome == Outcome.NO_PERMIT && !evictIdle() && this.allocatedTotal.get() >= this.maxTotal) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Closes the least recently used idle connection of the first route that has any.
+     * Must be called without any route lock held.
+     */
+    private boolean evictIdle() {
+        for (final PerRoutePool<T, C> pool: this.routeToPool.values()) {
+            pool.lock.lock();
+            try {
+                final PoolEntry<T, C> lastUsed = pool.available.peekLast();
+                if (lastUsed != null) {
+                    discard(pool, lastUsed);
+                    return true;
+                }
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+        return false;
+    }
+
+    private void fireCallbacks() {
+        StrictConnPool.LeaseRequest<T, C> request;
+        while ((request = this.completedRequests.poll()) != null) {
+            final BasicFuture<PoolEntry<T, C>> future = request.getFuture();
+            final Exception ex = request.getException();
+            final PoolEntry<T, C> result = request.getResult();
+            boolean successfullyCompleted = false;
+            if (ex != null) {
+                future.failed(ex);
+            } else if (result != null) {
+                if (future.completed(result)) {
+                    successfullyCompleted = true;
+                }
+            } else {
+                future.cancel();
+            }
+            if (!successfullyCompleted) {
+                release(result, true);
+            }
+        }
+    }
+
+    public void validatePendingRequests() {
+        for (final PerRoutePool<T, C> pool: this.routeToPool.values()) {
+            pool.lock.lock();
+            try {
+                final Iterator<StrictConnPool.LeaseRequest<T, C>> it = pool.pending.iterator();
+                while (it.hasNext()) {
+                    final StrictConnPool.LeaseRequest<T, C> request = it.next();
+                    final BasicFuture<PoolEntry<T, C>> future = request.getFuture();
+                    if (future.isCancelled() && !request.isDone()) {
+                        it.remove();
+                    } else {
+                        final Deadline deadline = request.getDeadline();
+                        if (deadline.isExpired()) {
+                            request.failed(DeadlineTimeoutException.from(deadline));
+                        }
+                        if (request.isDone()) {
+                            it.remove();
+                            this.completedRequests.add(request);
+                        }
+                    }
+                }
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+        fireCallbacks();
+    }
+
+    private int getMax(final T route) {
+        final Integer v = this.maxPerRoute.get(route);
+        if (v != null) {
+            return v.intValue();
+        }
+        return this.defaultMaxPerRoute;
+    }
+
+    @Override
+    public void setMaxTotal(final int max) {
+        Args.positive(max, "Max value");
+        this.maxTotal = max;
+        servicePendingRoutes();
+        fireCallbacks();
+    }
+
+    @Override
+    public int getMaxTotal() {
+        return this.maxTotal;
+    }
+
+    @Override
+    public void setDefaultMaxPerRoute(final int max) {
+        Args.positive(max, "Max value");
+        this.defaultMaxPerRoute = max;
+    }
+
+    @Override
+    public int getDefaultMaxPerRoute() {
+        return this.defaultMaxPerRoute;
+    }
+
+    @Override
+    public void setMaxPerRoute(final T route, final int max) {
+        Args.notNull(route, "Route");
+        if (max > -1) {
+            this.maxPerRoute.put(route, Integer.valueOf(max));
+        } else {
+            this.maxPerRoute.remove(route);
+        }
+    }
+
+    @Override
+    public int getMaxPerRoute(final T route) {
+        Args.notNull(route, "Route");
+        return getMax(route);
+    }
+
+    @Override
+    public PoolStats getTotalStats() {
+        int leasedTotal = 0;
+        int pendingTotal = 0;
+        int availableTotal = 0;
+        for (final PerRoutePool<T, C> pool: this.routeToPool.values()) {
+            pool.lock.lock();
+            try {
+                leasedTotal += pool.leased.size();
+                pendingTotal += pool.pending.size();
+                availableTotal += pool.available.size();
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+        return new PoolStats(leasedTotal, pendingTotal, availableTotal, this.maxTotal);
+    }
+
+    @Override
+    public PoolStats getStats(final T route) {
+        Args.notNull(route, "Route");
+        final PerRoutePool<T, C> pool = this.routeToPool.get(route);
+        if (pool == null) {
+            return new PoolStats(0, 0, 0, getMax(route));
+        }
+        pool.lock.lock();
+        try {
+            return new PoolStats(
+                    pool.leased.size(),
+                    pool.pending.size(),
+                    pool.available.size(),
+                    getMax(route));
+        } finally {
+            pool.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns snapshot of all knows routes
+     */
+    @Override
+    public Set<T> getRoutes() {
+        return new HashSet<>(this.routeToPool.keySet());
+    }
+
+    /**
+     * Enumerates all available connections.
+     */
+    public void enumAvailable(final Callback<PoolEntry<T, C>> callback) {
+        for (final PerRoutePool<T, C> pool: this.routeToPool.values()) {
+            pool.lock.lock();
+            try {
+                final Iterator<PoolEntry<T, C>> it = pool.available.iterator();
+                while (it.hasNext()) {
+                    final PoolEntry<T, C> entry = it.next();
+                    callback.execute(entry);
+                    if (!entry.hasConnection()) {
+                        it.remove();
+                        this.allocatedTotal.decrementAndGet();
+                    }
+                }
+                if (processPendingRequests(pool, false) == Outcome.NO_PERMIT) {
+                    enqueue(pool);
+                }
+                if (pool.getAllocatedCount() == 0 && pool.pending.isEmpty()) {
+                    pool.removed = true;
+                    this.routeToPool.remove(pool.route, pool);
+                }
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+        servicePendingRoutes();
+        fireCallbacks();
+    }
+
+    /**
+     * Enumerates all leased connections.
+     */
+    public void enumLeased(final Callback<PoolEntry<T, C>> callback) {
+        for (final PerRoutePool<T, C> pool: this.routeToPool.values()) {
+            pool.lock.lock();
+            try {
+                for (final PoolEntry<T, C> entry: pool.leased) {
+                    callback.execute(entry);
+                }
+                if (processPendingRequests(pool, false) == Outcome.NO_PERMIT) {
+                    enqueue(pool);
+                }
+            } finally {
+                pool.lock.unlock();
+            }
+        }
+        servicePendingRoutes();
+        fireCallbacks();
+    }
+
+    @Override
+    public void closeIdle(final TimeValue idleTime) {
+        final long deadline = System.currentTimeMillis() - (TimeValue.isPositive(idleTime) ? idleTime.toMilliseconds() : 0);
+        enumAvailable(new Callback<PoolEntry<T, C>>() {
+
+            @Override
+            public void execute(final PoolEntry<T, C> entry) {
+                if (entry.getUpdated() <= deadline) {
+                    entry.discardConnection(CloseMode.GRACEFUL);
+                }
+            }
+
+        });
+    }
+
+    @Override
+    public void closeExpired() {
+        final long now = System.currentTimeMillis();
+        enumAvailable(new Callback<PoolEntry<T, C>>() {
+
+            @Override
+            public void execute(final PoolEntry<T, C> entry) {
+                if (entry.getExpiryDeadline().isBefore(now)) {
+                    entry.discardConnection(CloseMode.GRACEFUL);
+                }
+            }
+
+        });
+    }
+
+    @Override
+    public String toString() {
+        final PoolStats totalStats = getTotalStats();
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append("[leased: ");
+        buffer.append(totalStats.getLeased());
+        buffer.append("][available: ");
+        buffer.append(totalStats.getAvailable());
+        buffer.append("][pending: ");
+        buffer.append(totalStats.getPending());
+        buffer.append("]");
+        return buffer.toString();
+    }
+
+    static class PerRoutePool<T, C extends ModalCloseable> {
+
+        private final T route;
+        private final Lock lock;
+        private final Set<PoolEntry<T, C>> leased;
+        private final LinkedList<PoolEntry<T, C>> available;
+        private final LinkedList<StrictConnPool.LeaseRequest<T, C>> pending;
+        private final AtomicBoolean queued;
+        private final DisposalCallback<C> disposalCallback;
+
+        private boolean removed;
+
+        PerRoutePool(final T route, final DisposalCallback<C> disposalCallback) {
+            super();
+            this.route = route;
+            this.disposalCallback = disposalCallback;
+            this.lock = new ReentrantLock();
+            this.leased = new HashSet<>();
+            this.available = new LinkedList<>();
+            this.pending = new LinkedList<>();
+            this.queued = new AtomicBoolean(false);
+        }
+
+        int getAllocatedCount() {
+            return this.available.size() + this.leased.size();
+        }
+
+        PoolEntry<T, C> getFree(final Object state) {
+            if (!this.available.isEmpty()) {
+                if (state != null) {
+                    final Iterator<PoolEntry<T, C>> it = this.available.iterator();
+                    while (it.hasNext()) {
+                        final PoolEntry<T, C> entry = it.next();
+                        if (state.equals(entry.getState())) {
+                            it.remove();
+                            this.leased.add(entry);
+                            return entry;
+                        }
+                    }
+                }
+                final Iterator<PoolEntry<T, C>> it = this.available.iterator();
+                while (it.hasNext()) {
+                    final PoolEntry<T, C> entry = it.next();
+                    if (entry.getState() == null) {
+                        it.remove();
+                        this.leased.add(entry);
+                        return entry;
+                    }
+                }
+            }
+            return null;
+        }
+
+        void shutdown(final CloseMode closeMode) {
+            PoolEntry<T, C> availableEntry;
+            while ((availableEntry = this.available.poll()) != null) {
+                availableEntry.discardConnection(closeMode);
+            }
+            for (final PoolEntry<T, C> entry: this.leased) {
+                entry.discardConnection(closeMode);
+            }
+            this.leased.clear();
+            StrictConnPool.LeaseRequest<T, C> request;
+            while ((request = this.pending.poll()) != null) {
+                request.getFuture().cancel();
+            }
+            this.removed = true;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder buffer = new StringBuilder();
+            buffer.append("[route: ");
+            buffer.append(this.route);
+            buffer.append("][leased: ");
+            buffer.append(this.leased.size());
+            buffer.append("][available: ");
+            buffer.append(this.available.size());
+            buffer.append("][pending: ");
+            buffer.append(this.pending.size());
+            buffer.append("]");
+            return buffer.toString();
+        }
+
+    }
+
+}
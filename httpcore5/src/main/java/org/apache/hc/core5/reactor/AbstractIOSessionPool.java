@@ -27,7 +27,10 @@
 package org.apache.hc.core5.reactor;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -76,6 +79,71 @@ protected abstract void closeSession(
             IOSession ioSession,
             CloseMode closeMode);
 
+    /**
+     * Returns the maximum number of sessions the pool may keep open to the given endpoint.
+     * Additional sessions are only opened when all existing sessions to the endpoint
+     * are {@link #isSessionSaturated(IOSession) saturated}.
+     * <p>
+     * Default: {@code 1}
+     * </p>
+     *
+     * @since 5.1
+     */
+    protected int getMaxSessions(final T namedEndpoint) {
+        return 1;
+    }
+
+    /**
+     * Returns the current load of the given session. Requests are handed the least loaded
+     * session to their endpoint.
+     * <p>
+     * Default: {@code 0}
+     * </p>
+     *
+     * @since 5.1
+     */
+    protected int getSessionLoad(final IOSession ioSession) {
+        return 0;
+    }
+
+    /**
+     * Determines whether the given session cannot take on more requests without
+     * degrading them, in which case the pool may open another session to the endpoint.
+     * <p>
+     * Default: {@code false}
+     * </p>
+     *
+     * @since 5.1
+     */
+    protected boolean isSessionSaturated(final IOSession ioSession) {
+        return false;
+    }
+
+    /**
+     * Determines whether the given session established for another endpoint may also
+     * be used to execute requests to the given endpoint. This method gets called before
+     * a new session is opened to an endpoint that has none.
+     * <p>
+     * Default: {@code false}
+     * </p>
+     *
+     * @since 5.1
+     */
+    protected boolean isSessionReusable(final T namedEndpoint, final IOSession ioSession) {
+        return false;
+    }
+
+    /**
+     * Gives the pool a chance to gather information required by
+     * {@link #isSessionReusable(Object, IOSession)}, such as resolving the endpoint
+     * address. This method gets called without holding any pool lock before a session
+     * is requested for an endpoint that has none and may block.
+     *
+     * @since 5.1
+     */
+    protected void prepareSessionReuse(final T namedEndpoint) {
+    }
+
     @Override
     public final void close(final CloseMode closeMode) {
         if (closed.compareAndSet(false, true)) {
@@ -85,6 +153,10 @@ public final void close(final CloseMode closeMode) {
                         closeSession(poolEntry.session, closeMode);
                         poolEntry.session = null;
                     }
+                    for (final IOSession session : poolEntry.additionalSessions) {
+                        closeSession(session, closeMode);
+                    }
+                    poolEntry.additionalSessions.clear();
                     if (poolEntry.sessionFuture != null) {
                         poolEntry.sessionFuture.cancel(true);
                         poolEntry.sessionFuture = null;
@@ -128,7 +200,10 @@ public final Future<IOSession> getSession(
         Asserts.check(!closed.get(), "Connection pool shut down");
         final ComplexFuture<IOSession> future = new ComplexFuture<>(callback);
         final PoolEntry poolEntry = getPoolEntry(endpoint);
-        getSessionInternal(poolEntry, false, endpoint, connectTimeout, new FutureCallback<IOSession>() {
+        if (poolEntry.session == null && poolEntry.sessionFuture == null) {
+            prepareSessionReuse(endpoint);
+        }
+        getSessionInternal(poolEntry, null, endpoint, connectTimeout, new FutureCallback<IOSession>() {
 
             @Override
             public void completed(final IOSession ioSession) {
@@ -139,7 +214,7 @@ public void execute(final Boolean result) {
                         if (result) {
                             future.completed(ioSession);
                         } else {
-                            getSessionInternal(poolEntry, true, endpoint, connectTimeout,
+                            getSessionInternal(poolEntry, ioSession, endpoint, connectTimeout,
                                 new FutureCallback<IOSession>() {
 
                                 @Override
@@ -180,69 +255,139 @@ public void cancelled() {
 
     private void getSessionInternal(
             final PoolEntry poolEntry,
-            final boolean requestNew,
+            final IOSession staleSession,
             final T namedEndpoint,
             final Timeout connectTimeout,
             final FutureCallback<IOSession> callback) {
         synchronized (poolEntry) {
-            if (poolEntry.session != null && requestNew) {
-                closeSession(poolEntry.session, CloseMode.GRACEFUL);
-                poolEntry.session = null;
+            if (staleSession != null) {
+                if (poolEntry.session == staleSession) {
+                    closeSession(staleSession, CloseMode.GRACEFUL);
+                    poolEntry.session = null;
+                } else if (poolEntry.additionalSessions.remove(staleSession)) {
+                    closeSession(staleSession, CloseMode.GRACEFUL);
+                }
             }
-            if (poolEntry.session != null && !poolEntry.session.isOpen()) {
-                poolEntry.session = null;
+            purgeClosedSessions(poolEntry);
+            final IOSession session = selectSession(poolEntry);
+            if (session != null) {
+                if (!isSessionSaturated(session)
+                        || poolEntry.sessionFuture == null && poolEntry.getSessionCount() >= getMaxSessions(namedEndpoint)) {
+                    callback.completed(session);
+                    return;
+                }
+            } else if (poolEntry.sessionFuture == null) {
+                final IOSession reusableSession = findReusableSession(poolEntry, namedEndpoint);
+                if (reusableSession != null) {
+                    callback.completed(reusableSession);
+                    return;
+                }
             }
-            if (poolEntry.session != null) {
-                callback.completed(poolEntry.session);
-            } else {
-                poolEntry.requestQueue.add(callback);
-                if (poolEntry.sessionFuture == null) {
-                    poolEntry.sessionFuture = connectSession(
-                            namedEndpoint,
-                            connectTimeout,
-                            new FutureCallback<IOSession>() {
-
-                                @Override
-                                public void completed(final IOSession result) {
-                                    synchronized (poolEntry) {
+            poolEntry.requestQueue.add(callback);
+            if (poolEntry.sessionFuture == null) {
+                poolEntry.sessionFuture = connectSession(
+                        namedEndpoint,
+                        connectTimeout,
+                        new FutureCallback<IOSession>() {
+
+                            @Override
+                            public void completed(final IOSession result) {
+                                synchronized (poolEntry) {
+                                    if (poolEntry.session == null) {
                                         poolEntry.session = result;
-                                        poolEntry.sessionFuture = null;
-                                        for (;;) {
-                                            final FutureCallback<IOSession> callback = poolEntry.requestQueue.poll();
-                                            if (callback != null) {
-                                                callback.completed(result);
-                                            } else {
-                                                break;
-                                            }
+                                    } else {
+                                        poolEntry.additionalSessions.add(result);
+                                    }
+                                    poolEntry.sessionFuture = null;
+                                    for (;;) {
+                                        final FutureCallback<IOSession> callback = poolEntry.requestQueue.poll();
+                                        if (callback != null) {
+                                            callback.completed(result);
+                                        } else {
+                                            break;
                                         }
                                     }
                                 }
-
-                                @Override
-                                public void failed(final Exception ex) {
-                                    synchronized (poolEntry) {
-                                        poolEntry.session = null;
-                                        poolEntry.sessionFuture = null;
-                                        for (;;) {
-                                            final FutureCallback<IOSession> callback = poolEntry.requestQueue.poll();
-                                            if (callback != null) {
-                                                callback.failed(ex);
+                            }
+
+                            @Override
+                            public void failed(final Exception ex) {
+                                synchronized (poolEntry) {
+                                    poolEntry.sessionFuture = null;
+                                    // Requests waiting for an additional session can still
+                                    // be executed over the existing ones
+                                    purgeClosedSessions(poolEntry);
+                                    final IOSession session = selectSession(poolEntry);
+                                    for (;;) {
+                                        final FutureCallback<IOSession> callback = poolEntry.requestQueue.poll();
+                                        if (callback != null) {
+                                            if (session != null) {
+                                                callback.completed(session);
                                             } else {
-                                                break;
+                                                callback.failed(ex);
                                             }
+                                        } else {
+                                            break;
                                         }
                                     }
                                 }
+                            }
 
-                                @Override
-                                public void cancelled() {
-                                    failed(new ConnectionClosedException("Connection request cancelled"));
-                                }
+                            @Override
+                            public void cancelled() {
+                                failed(new ConnectionClosedException("Connection request cancelled"));
+                            }
 
-                            });
+                        });
+            }
+        }
+    }
+
+    private static void purgeClosedSessions(final PoolEntry poolEntry) {
+        if (poolEntry.session != null && !poolEntry.session.isOpen()) {
+            poolEntry.session = null;
+        }
+        if (!poolEntry.additionalSessions.isEmpty()) {
+            for (final Iterator<IOSession> it = poolEntry.additionalSessions.iterator(); it.hasNext(); ) {
+                if (!it.next().isOpen()) {
+                    it.remove();
+                }
+            }
+            if (poolEntry.session == null && !poolEntry.additionalSessions.isEmpty()) {
+                poolEntry.session = poolEntry.additionalSessions.remove(0);
+            }
+        }
+    }
+
+    private IOSession selectSession(final PoolEntry poolEntry) {
+        IOSession selected = poolEntry.session;
+        if (selected == null || poolEntry.additionalSessions.isEmpty()) {
+            return selected;
+        }
+        int minLoad = getSessionLoad(selected);
+        for (final IOSession session : poolEntry.additionalSessions) {
+            final int load = getSessionLoad(session);
+            if (load < minLoad) {
+                selected = session;
+                minLoad = load;
+            }
+        }
+        return selected;
+    }
+
+    private IOSession findReusableSession(final PoolEntry poolEntry, final T namedEndpoint) {
+        // Other pool entries are deliberately not locked here in order to avoid
+        // lock ordering issues. Their primary sessions are volatile.
+        for (final PoolEntry otherEntry : sessionPool.values()) {
+            if (otherEntry != poolEntry) {
+                final IOSession session = otherEntry.session;
+                if (session != null && session.isOpen()
+                        && isSessionReusable(namedEndpoint, session) && !isSessionSaturated(session)) {
+                    return session;
                 }
             }
         }
+        return null;
     }
 
     public final void enumAvailable(final Callback<IOSession> callback) {
@@ -255,6 +400,10 @@ public final void enumAvailable(final Callback<IOSession> callback) {
                             poolEntry.session = null;
                         }
                     }
+                    for (final IOSession session : poolEntry.getAdditionalSessions()) {
+                        callback.execute(session);
+                    }
+                    purgeClosedSessions(poolEntry);
                 }
             }
         }
@@ -269,6 +418,14 @@ public final void closeIdle(final TimeValue idleTime) {
                         closeSession(poolEntry.session, CloseMode.GRACEFUL);
                         poolEntry.session = null;
                     }
+                    for (final Iterator<IOSession> it = poolEntry.additionalSessions.iterator(); it.hasNext(); ) {
+                        final IOSession session = it.next();
+                        if (session.getLastReadTime() <= deadline) {
+                            closeSession(session, CloseMode.GRACEFUL);
+                            it.remove();
+                        }
+                    }
+                    purgeClosedSessions(poolEntry);
                 }
             }
         }
@@ -289,11 +446,21 @@ public String toString() {
     static class PoolEntry {
 
         final Queue<FutureCallback<IOSession>> requestQueue;
+        final List<IOSession> additionalSessions;
         volatile Future<IOSession> sessionFuture;
         volatile IOSession session;
 
         PoolEntry() {
             this.requestQueue = new ArrayDeque<>();
+            this.additionalSessions = new ArrayList<>();
+        }
+
+        int getSessionCount() {
+            return (session != null ? 1 : 0) + additionalSessions.size();
+        }
+
+        List<IOSession> getAdditionalSessions() {
+            return additionalSessions.isEmpty() ? additionalSessions : new ArrayList<>(additionalSessions);
         }
 
     }
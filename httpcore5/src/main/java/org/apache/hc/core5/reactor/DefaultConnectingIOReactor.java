@@ -79,7 +79,8 @@ public DefaultConnectingIOReactor(
             threads[i] = (threadFactory != null ? threadFactory : THREAD_FACTORY).newThread(new IOReactorWorker(dispatcher));
         }
         this.ioReactor = new MultiCoreIOReactor(this.workers, threads);
-        this.workerSelector =  IOWorkers.newSelector(workers);
+        this.workerSelector = IOWorkers.newSelector(workers,
+                ioReactorConfig != null ? ioReactorConfig.getWorkerSelectionPolicy() : null);
     }
 
     public DefaultConnectingIOReactor(
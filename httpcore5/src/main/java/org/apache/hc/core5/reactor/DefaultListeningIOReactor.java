@@ -104,13 +104,14 @@ public void execute(final ChannelEntry entry) {
                 enqueueChannel(entry);
             }
 
-        });
+        }, this.workers);
         ioReactors[0] = this.listener;
         threads[0] = (listenerThreadFactory != null ? listenerThreadFactory : LISTENER_THREAD_FACTORY).newThread(new IOReactorWorker(listener));
 
         this.ioReactor = new MultiCoreIOReactor(ioReactors, threads);
 
-        workerSelector = IOWorkers.newSelector(workers);
+        workerSelector = IOWorkers.newSelector(workers,
+                ioReactorConfig != null ? ioReactorConfig.getWorkerSelectionPolicy() : null);
     }
 
     /**
@@ -187,7 +188,7 @@ IOWorkers.Selector getWorkerSelector() {
 
     private void enqueueChannel(final ChannelEntry entry) {
         try {
-            workerSelector.next().enqueueChannel(entry);
+            workerSelector.next(entry.channel.socket().getInetAddress()).enqueueChannel(entry);
         } catch (final IOReactorShutdownException ex) {
             initiateShutdown();
         }
@@ -0,0 +1,91 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import java.nio.channels.Selector;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects event mask (interest ops) updates made to sessions of a {@link SingleCoreIOReactor}
+ * by threads other than the I/O reactor thread and applies them from the I/O reactor thread
+ * in a batch, waking up the selector at most once per batch.
+ * <p>
+ * Updates made by the I/O reactor thread itself are applied immediately as the selector
+ * cannot be blocked at that point.
+ *
+ * @since 5.1
+ */
+final class EventMaskCoalescer {
+
+    private final Selector selector;
+    private final Queue<IOSessionImpl> pendingSessions;
+    private final AtomicBoolean wakeupPending;
+
+    private volatile Thread reactorThread;
+
+    EventMaskCoalescer(final Selector selector) {
+        this.selector = selector;
+        this.pendingSessions = new ConcurrentLinkedQueue<>();
+        this.wakeupPending = new AtomicBoolean(false);
+    }
+
+    void bind(final Thread thread) {
+        this.reactorThread = thread;
+    }
+
+    boolean isReactorThread() {
+        return Thread.currentThread() == this.reactorThread;
+    }
+
+    /**
+     * Schedules the pending event mask of the given session to be applied by the I/O reactor thread.
+     */
+    void schedule(final IOSessionImpl session) {
+        this.pendingSessions.add(session);
+        // getAndSet (as opposed to compareAndSet) always writes and therefore
+        // synchronizes with #applyPending on the I/O reactor thread
+        if (!this.wakeupPending.getAndSet(true)) {
+            this.selector.wakeup();
+        }
+    }
+
+    /**
+     * Applies all pending event mask updates. Must be called from the I/O reactor thread.
+     */
+    void applyPending() {
+        if (this.wakeupPending.getAndSet(false)) {
+            IOSessionImpl session;
+            while ((session = this.pendingSessions.poll()) != null) {
+                session.applyEventMask();
+            }
+        }
+    }
+
+}
@@ -33,6 +33,8 @@
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
 import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 
@@ -59,6 +61,11 @@ public final class IOReactorConfig {
     private final SocketAddress socksProxyAddress;
     private final String socksProxyUsername;
     private final String socksProxyPassword;
+    private final boolean timingWheelEnabled;
+    private final boolean eventMaskCoalescingEnabled;
+    private final ByteBufferAllocator byteBufferAllocator;
+    private final IOWorkerSelectionPolicy workerSelectionPolicy;
+    private final boolean soReusePort;
 
     IOReactorConfig(
             final TimeValue selectInterval,
@@ -73,7 +80,12 @@ public final class IOReactorConfig {
             final int backlogSize,
             final SocketAddress socksProxyAddress,
             final String socksProxyUsername,
-            final String socksProxyPassword) {
+            final String socksProxyPassword,
+            final boolean timingWheelEnabled,
+            final boolean eventMaskCoalescingEnabled,
+            final ByteBufferAllocator byteBufferAllocator,
+            final IOWorkerSelectionPolicy workerSelectionPolicy,
+            final boolean soReusePort) {
         super();
         this.selectInterval = selectInterval;
         this.ioThreadCount = ioThreadCount;
@@ -88,6 +100,11 @@ public final class IOReactorConfig {
         this.socksProxyAddress = socksProxyAddress;
         this.socksProxyUsername = socksProxyUsername;
         this.socksProxyPassword = socksProxyPassword;
+        this.timingWheelEnabled = timingWheelEnabled;
+        this.eventMaskCoalescingEnabled = eventMaskCoalescingEnabled;
+        this.byteBufferAllocator = byteBufferAllocator;
+        this.workerSelectionPolicy = workerSelectionPolicy;
+        this.soReusePort = soReusePort;
     }
 
     /**
@@ -181,6 +198,51 @@ public String getSocksProxyPassword() {
         return this.socksProxyPassword;
     }
 
+    /**
+     * @see Builder#setTimingWheelEnabled(boolean)
+     *
+     * @since 5.1
+     */
+    public boolean isTimingWheelEnabled() {
+        return this.timingWheelEnabled;
+    }
+
+    /**
+     * @see Builder#setEventMaskCoalescingEnabled(boolean)
+     *
+     * @since 5.1
+     */
+    public boolean isEventMaskCoalescingEnabled() {
+        return this.eventMaskCoalescingEnabled;
+    }
+
+    /**
+     * @see Builder#setByteBufferAllocator(ByteBufferAllocator)
+     *
+     * @since 5.1
+     */
+    public ByteBufferAllocator getByteBufferAllocator() {
+        return this.byteBufferAllocator;
+    }
+
+    /**
+     * @see Builder#setWorkerSelectionPolicy(IOWorkerSelectionPolicy)
+     *
+     * @since 5.1
+     */
+    public IOWorkerSelectionPolicy getWorkerSelectionPolicy() {
+        return this.workerSelectionPolicy;
+    }
+
+    /**
+     * @see Builder#setSoReusePort(boolean)
+     *
+     * @since 5.1
+     */
+    public boolean isSoReusePort() {
+        return this.soReusePort;
+    }
+
     public static Builder custom() {
         return new Builder();
     }
@@ -200,7 +262,12 @@ public static Builder copy(final IOReactorConfig config) {
             .setBacklogSize(config.getBacklogSize())
             .setSocksProxyAddress(config.getSocksProxyAddress())
             .setSocksProxyUsername(config.getSocksProxyUsername())
-            .setSocksProxyPassword(config.getSocksProxyPassword());
+            .setSocksProxyPassword(config.getSocksProxyPassword())
+            .setTimingWheelEnabled(config.isTimingWheelEnabled())
+            .setEventMaskCoalescingEnabled(config.isEventMaskCoalescingEnabled())
+            .setByteBufferAllocator(config.getByteBufferAllocator())
+            .setWorkerSelectionPolicy(config.getWorkerSelectionPolicy())
+            .setSoReusePort(config.isSoReusePort());
     }
 
     public static class Builder {
@@ -245,6 +312,11 @@ public static void setDefaultMaxIOThreadCount(final int defaultMaxIOThreadCount)
         private SocketAddress socksProxyAddress;
         private String socksProxyUsername;
         private String socksProxyPassword;
+        private boolean timingWheelEnabled;
+        private boolean eventMaskCoalescingEnabled;
+        private ByteBufferAllocator byteBufferAllocator;
+        private IOWorkerSelectionPolicy workerSelectionPolicy;
+        private boolean soReusePort;
 
         Builder() {
             this.selectInterval = TimeValue.ofSeconds(1);
@@ -260,6 +332,11 @@ public static void setDefaultMaxIOThreadCount(final int defaultMaxIOThreadCount)
             this.socksProxyAddress = null;
             this.socksProxyUsername = null;
             this.socksProxyPassword = null;
+            this.timingWheelEnabled = false;
+            this.eventMaskCoalescingEnabled = false;
+            this.byteBufferAllocator = HeapByteBufferAllocator.INSTANCE;
+            this.workerSelectionPolicy = IOWorkerSelectionPolicy.ROUND_ROBIN;
+            this.soReusePort = false;
         }
 
         /**
@@ -446,6 +523,105 @@ public Builder setSocksProxyPassword(final String socksProxyPassword) {
             return this;
         }
 
+        /**
+         * Determines whether or not session timeouts are to be tracked with a hashed timing wheel.
+         * <p>
+         * By default the I/O reactor checks every registered channel for timeout once per
+         * select interval, which costs time proportional to the total number of sessions.
+         * With the timing wheel enabled, each select interval only needs to visit those
+         * sessions whose timeout deadline has elapsed, which is preferable for reactors
+         * with a large number of mostly idle (for instance, persistent) sessions.
+         * </p>
+         * <p>
+         * Default: {@code false}
+         * </p>
+         *
+         * @since 5.1
+         */
+        public Builder setTimingWheelEnabled(final boolean timingWheelEnabled) {
+            this.timingWheelEnabled = timingWheelEnabled;
+            return this;
+        }
+
+        /**
+         * Determines whether or not event mask (interest ops) updates of I/O sessions are to be
+         * coalesced.
+         * <p>
+         * By default every event mask update acquires the session lock and wakes up the selector.
+         * With coalescing enabled, updates made by the I/O reactor thread are applied immediately
+         * without locking or waking up the selector, while updates made by other threads are
+         * recorded and applied by the I/O reactor thread in a batch, with a single selector wake-up
+         * per batch.
+         * </p>
+         * <p>
+         * Default: {@code false}
+         * </p>
+         *
+         * @since 5.1
+         */
+        public Builder setEventMaskCoalescingEnabled(final boolean eventMaskCoalescingEnabled) {
+            this.eventMaskCoalescingEnabled = eventMaskCoalescingEnabled;
+            return this;
+        }
+
+        /**
+         * Sets the allocator used for I/O session buffers such as TLS/SSL network and application
+         * buffers as well as HTTP/1.1 and HTTP/2 protocol buffers.
+         * <p>
+         * A {@link org.apache.hc.core5.util.PooledByteBufferAllocator} can be used to have socket
+         * reads and writes performed directly to and from native memory without an intermediate
+         * copy and to recycle buffers of closed sessions.
+         * </p>
+         * <p>
+         * Default: {@link HeapByteBufferAllocator#INSTANCE}
+         * </p>
+         *
+         * @since 5.1
+         */
+        public Builder setByteBufferAllocator(final ByteBufferAllocator byteBufferAllocator) {
+            this.byteBufferAllocator = byteBufferAllocator;
+            return this;
+        }
+
+        /**
+         * Sets the policy for assigning new I/O sessions to I/O reactor worker threads.
+         * <p>
+         * By default new sessions are assigned to workers in turn, which can leave workers
+         * unevenly loaded when sessions differ in lifetime. Load aware policies take the number
+         * of active sessions and queued connection requests of each worker into account.
+         * </p>
+         * <p>
+         * Default: {@link IOWorkerSelectionPolicy#ROUND_ROBIN}
+         * </p>
+         *
+         * @since 5.1
+         */
+        public Builder setWorkerSelectionPolicy(final IOWorkerSelectionPolicy workerSelectionPolicy) {
+            this.workerSelectionPolicy = workerSelectionPolicy;
+            return this;
+        }
+
+        /**
+         * Determines whether listening I/O reactors should bind a separate server socket
+         * per I/O worker thread using the {@code SO_REUSEPORT} socket option. Each worker
+         * then accepts incoming connections directly into its own selector, letting the
+         * kernel spread connections across workers instead of having them handed over
+         * by a single listener thread.
+         * <p>
+         * This option has effect only on platforms that support {@code SO_REUSEPORT}
+         * (Java 9 or newer). Otherwise a single server socket is used.
+         * </p>
+         * <p>
+         * Default: {@code false}
+         * </p>
+         *
+         * @since 5.1
+         */
+        public Builder setSoReusePort(final boolean soReusePort) {
+            this.soReusePort = soReusePort;
+            return this;
+        }
+
         public IOReactorConfig build() {
             return new IOReactorConfig(
                     selectInterval != null ? selectInterval : TimeValue.ofSeconds(1),
@@ -456,7 +632,11 @@ public IOReactorConfig build() {
                     soKeepAlive,
                     tcpNoDelay,
                     sndBufSize, rcvBufSize, backlogSize,
-                    socksProxyAddress, socksProxyUsername, socksProxyPassword);
+                    socksProxyAddress, socksProxyUsername, socksProxyPassword,
+                    timingWheelEnabled, eventMaskCoalescingEnabled,
+                    byteBufferAllocator != null ? byteBufferAllocator : HeapByteBufferAllocator.INSTANCE,
+                    workerSelectionPolicy != null ? workerSelectionPolicy : IOWorkerSelectionPolicy.ROUND_ROBIN,
+                    soReusePort);
         }
 
     }
@@ -475,6 +655,11 @@ public String toString() {
                 .append(", rcvBufSize=").append(this.rcvBufSize)
                 .append(", backlogSize=").append(this.backlogSize)
                 .append(", socksProxyAddress=").append(this.socksProxyAddress)
+                .append(", timingWheelEnabled=").append(this.timingWheelEnabled)
+                .append(", eventMaskCoalescingEnabled=").append(this.eventMaskCoalescingEnabled)
+                .append(", byteBufferAllocator=").append(this.byteBufferAllocator)
+                .append(", workerSelectionPolicy=").append(this.workerSelectionPolicy)
+                .append(", soReusePort=").append(this.soReusePort)
                 .append("]");
         return builder.toString();
     }
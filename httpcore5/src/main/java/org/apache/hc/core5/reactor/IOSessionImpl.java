@@ -32,10 +32,14 @@
 import java.net.SocketException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ByteChannel;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
 import java.util.Deque;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
@@ -46,7 +50,7 @@
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.Timeout;
 
-class IOSessionImpl implements IOSession {
+class IOSessionImpl implements IOSession, GatheringByteChannel {
 
     /** Counts instances created. */
     private final static AtomicLong COUNT = new AtomicLong(0);
@@ -58,13 +62,22 @@ class IOSessionImpl implements IOSession {
     private final String id;
     private final AtomicReference<IOEventHandler> handlerRef;
     private final AtomicReference<IOSession.Status> status;
+    private final TimeoutWheel timeoutWheel;
+    private final EventMaskCoalescer eventMaskCoalescer;
+    private final AtomicInteger eventMask;
+    private final AtomicBoolean eventMaskPending;
 
     private volatile Timeout socketTimeout;
     private volatile long lastReadTime;
     private volatile long lastWriteTime;
     private volatile long lastEventTime;
 
-    public IOSessionImpl(final String type, final SelectionKey key, final SocketChannel socketChannel) {
+    public IOSessionImpl(
+            final String type,
+            final SelectionKey key,
+            final SocketChannel socketChannel,
+            final TimeoutWheel timeoutWheel,
+            final EventMaskCoalescer eventMaskCoalescer) {
         super();
         this.key = Args.notNull(key, "Selection key");
         this.channel = Args.notNull(socketChannel, "Socket channel");
@@ -74,12 +87,20 @@ public IOSessionImpl(final String type, final SelectionKey key, final SocketChan
         this.id = String.format(type + "-%010d", COUNT.getAndIncrement());
         this.handlerRef = new AtomicReference<>();
         this.status = new AtomicReference<>(Status.ACTIVE);
+        this.timeoutWheel = timeoutWheel;
+        this.eventMaskCoalescer = eventMaskCoalescer;
+        this.eventMask = new AtomicInteger(key.interestOps());
+        this.eventMaskPending = new AtomicBoolean(false);
         final long currentTimeMillis = System.currentTimeMillis();
         this.lastReadTime = currentTimeMillis;
         this.lastWriteTime = currentTimeMillis;
         this.lastEventTime = currentTimeMillis;
     }
 
+    public IOSessionImpl(final String type, final SelectionKey key, final SocketChannel socketChannel) {
+        this(type, key, socketChannel, null, null);
+    }
+
     @Override
     public String getId() {
         return id;
@@ -137,6 +158,9 @@ public SocketAddress getRemoteAddress() {
 
     @Override
     public int getEventMask() {
+        if (this.eventMaskCoalescer != null) {
+            return this.eventMask.get();
+        }
         return this.key.interestOps();
     }
 
@@ -145,6 +169,12 @@ public void setEventMask(final int newValue) {
         if (isStatusClosed()) {
             return;
         }
+        if (this.eventMaskCoalescer != null) {
+            if (this.eventMask.getAndSet(newValue) != newValue) {
+                updateEventMask();
+            }
+            return;
+        }
         this.key.interestOps(newValue);
         this.key.selector().wakeup();
     }
@@ -154,6 +184,20 @@ public void setEvent(final int op) {
         if (isStatusClosed()) {
             return;
         }
+        if (this.eventMaskCoalescer != null) {
+            for (;;) {
+                final int current = this.eventMask.get();
+                final int update = current | op;
+                if (current == update) {
+                    return;
+                }
+                if (this.eventMask.compareAndSet(current, update)) {
+                    break;
+                }
+            }
+            updateEventMask();
+            return;
+        }
         lock.lock();
         try {
             this.key.interestOps(this.key.interestOps() | op);
@@ -168,6 +212,20 @@ public void clearEvent(final int op) {
         if (isStatusClosed()) {
             return;
         }
+        if (this.eventMaskCoalescer != null) {
+            for (;;) {
+                final int current = this.eventMask.get();
+                final int update = current & ~op;
+                if (current == update) {
+                    return;
+                }
+                if (this.eventMask.compareAndSet(current, update)) {
+                    break;
+                }
+            }
+            updateEventMask();
+            return;
+        }
         lock.lock();
         try {
             this.key.interestOps(this.key.interestOps() & ~op);
@@ -177,6 +235,29 @@ public void clearEvent(final int op) {
         this.key.selector().wakeup();
     }
 
+    private void updateEventMask() {
+        if (this.eventMaskCoalescer.isReactorThread()) {
+            applyEventMask();
+        } else if (this.eventMaskPending.compareAndSet(false, true)) {
+            this.eventMaskCoalescer.schedule(this);
+        }
+    }
+
+    /**
+     * Applies the current event mask to the selection key. Must be called from the I/O reactor thread.
+     */
+    void applyEventMask() {
+        this.eventMaskPending.set(false);
+        if (isStatusClosed() || !this.key.isValid()) {
+            return;
+        }
+        try {
+            this.key.interestOps(this.eventMask.get());
+        } catch (final CancelledKeyException ignore) {
+            // session closed concurrently
+        }
+    }
+
     @Override
     public Timeout getSocketTimeout() {
         return this.socketTimeout;
@@ -186,6 +267,12 @@ public Timeout getSocketTimeout() {
     public void setSocketTimeout(final Timeout timeout) {
         this.socketTimeout = Timeout.defaultsToDisabled(timeout);
         this.lastEventTime = System.currentTimeMillis();
+        if (this.timeoutWheel != null) {
+            final Object attachment = this.key.attachment();
+            if (attachment instanceof InternalChannel) {
+                this.timeoutWheel.rearm((InternalChannel) attachment);
+            }
+        }
     }
 
     @Override
@@ -198,6 +285,16 @@ public int write(final ByteBuffer src) throws IOException {
         return this.channel.write(src);
     }
 
+    @Override
+    public long write(final ByteBuffer[] srcs, final int offset, final int length) throws IOException {
+        return this.channel.write(srcs, offset, length);
+    }
+
+    @Override
+    public long write(final ByteBuffer[] srcs) throws IOException {
+        return this.channel.write(srcs);
+    }
+
     @Override
     public void updateReadTime() {
         lastReadTime = System.currentTimeMillis();
@@ -0,0 +1,59 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+/**
+ * Enumeration of policies for assigning new I/O sessions to I/O reactor worker threads.
+ *
+ * @since 5.1
+ */
+public enum IOWorkerSelectionPolicy {
+
+    /**
+     * Workers are selected in turn regardless of their load.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * The worker with the fewest active sessions and queued connection requests is selected.
+     */
+    LEAST_ACTIVE_SESSIONS,
+
+    /**
+     * Two workers are picked at random and the less loaded one of the two is selected.
+     * Cheaper than {@link #LEAST_ACTIVE_SESSIONS} with a large number of workers.
+     */
+    POWER_OF_TWO_CHOICES,
+
+    /**
+     * Sessions with the same remote endpoint (for outgoing connections) or the same
+     * remote address (for incoming connections) are assigned to the same worker.
+     */
+    ADDRESS_AFFINITY
+
+}
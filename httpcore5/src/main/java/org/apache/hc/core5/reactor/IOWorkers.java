@@ -26,20 +26,49 @@
  */
 package org.apache.hc.core5.reactor;
 
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 
 final class IOWorkers {
 
     interface Selector {
 
-        SingleCoreIOReactor next();
+        /**
+         * Selects the next worker.
+         *
+         * @param key the remote endpoint or remote address of the session to be assigned
+         *            to the worker. May be {@code null}.
+         */
+        SingleCoreIOReactor next(Object key);
 
     }
 
     static Selector newSelector(final SingleCoreIOReactor[] dispatchers) {
-        return isPowerOfTwo(dispatchers.length)
+        return newSelector(dispatchers, IOWorkerSelectionPolicy.ROUND_ROBIN);
+    }
+
+    static Selector newSelector(final SingleCoreIOReactor[] dispatchers, final IOWorkerSelectionPolicy policy) {
+        final Selector roundRobin = isPowerOfTwo(dispatchers.length)
                         ? new PowerOfTwoSelector(dispatchers)
                         : new GenericSelector(dispatchers);
+        if (dispatchers.length == 1 || policy == null) {
+            return roundRobin;
+        }
+        switch (policy) {
+            case LEAST_ACTIVE_SESSIONS:
+                return new LeastLoadedSelector(dispatchers);
+            case POWER_OF_TWO_CHOICES:
+                return new TwoChoicesSelector(dispatchers);
+            case ADDRESS_AFFINITY:
+                return new AffinitySelector(dispatchers, roundRobin);
+            case ROUND_ROBIN:
+            default:
+                return roundRobin;
+        }
+    }
+
+    static int getLoad(final SingleCoreIOReactor dispatcher) {
+        return dispatcher.getSessionCount() + dispatcher.getPendingRequestCount();
     }
 
     private static boolean isPowerOfTwo(final int val) {
@@ -62,7 +91,7 @@ private static final class PowerOfTwoSelector implements Selector {
         }
 
         @Override
-        public SingleCoreIOReactor next() {
+        public SingleCoreIOReactor next(final Object key) {
             final SingleCoreIOReactor dispatcher = dispatchers[idx.getAndIncrement() & (dispatchers.length - 1)];
             validate(dispatcher);
             return dispatcher;
@@ -79,11 +108,87 @@ private static final class GenericSelector implements Selector {
         }
 
         @Override
-        public SingleCoreIOReactor next() {
+        public SingleCoreIOReactor next(final Object key) {
             final SingleCoreIOReactor dispatcher = dispatchers[(idx.getAndIncrement() & Integer.MAX_VALUE) % dispatchers.length];
             validate(dispatcher);
             return dispatcher;
         }
     }
 
+    private static final class LeastLoadedSelector implements Selector {
+
+        private final AtomicInteger idx = new AtomicInteger(0);
+        private final SingleCoreIOReactor[] dispatchers;
+
+        LeastLoadedSelector(final SingleCoreIOReactor[] dispatchers) {
+            this.dispatchers = dispatchers;
+        }
+
+        @Override
+        public SingleCoreIOReactor next(final Object key) {
+            // Start at a different worker every time so that workers with equal load
+            // get selected in turn
+            final int start = (idx.getAndIncrement() & Integer.MAX_VALUE) % dispatchers.length;
+            SingleCoreIOReactor dispatcher = dispatchers[start];
+            int minLoad = getLoad(dispatcher);
+            for (int i = 1; i < dispatchers.length && minLoad > 0; i++) {
+                final SingleCoreIOReactor candidate = dispatchers[(start + i) % dispatchers.length];
+                final int load = getLoad(candidate);
+                if (load < minLoad) {
+                    dispatcher = candidate;
+                    minLoad = load;
+                }
+            }
+            validate(dispatcher);
+            return dispatcher;
+        }
+    }
+
+    private static final class TwoChoicesSelector implements Selector {
+
+        private final SingleCoreIOReactor[] dispatchers;
+
+        TwoChoicesSelector(final SingleCoreIOReactor[] dispatchers) {
+            this.dispatchers = dispatchers;
+        }
+
+        @Override
+        public SingleCoreIOReactor next(final Object key) {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            final int i1 = random.nextInt(dispatchers.length);
+            final int i2 = (i1 + 1 + random.nextInt(dispatchers.length - 1)) % dispatchers.length;
+            final SingleCoreIOReactor dispatcher1 = dispatchers[i1];
+            final SingleCoreIOReactor dispatcher2 = dispatchers[i2];
+            final SingleCoreIOReactor dispatcher = getLoad(dispatcher2) < getLoad(dispatcher1) ? dispatcher2 : dispatcher1;
+            validate(dispatcher);
+            return dispatcher;
+        }
+    }
+
+    private static final class AffinitySelector implements Selector {
+
+        private final SingleCoreIOReactor[] dispatchers;
+        private final Selector fallback;
+
+        AffinitySelector(final SingleCoreIOReactor[] dispatchers, final Selector fallback) {
+            this.dispatchers = dispatchers;
+            this.fallback = fallback;
+        }
+
+        @Override
+        public SingleCoreIOReactor next(final Object key) {
+            if (key == null) {
+                return fallback.next(null);
+            }
+            int h = key.hashCode();
+            // Spread the bits as hash codes of addresses often differ in low bits only
+            h ^= (h >>> 16);
+            h *= 0x85ebca6b;
+            h ^= (h >>> 13);
+            final SingleCoreIOReactor dispatcher = dispatchers[(h & Integer.MAX_VALUE) % dispatchers.length];
+            validate(dispatcher);
+            return dispatcher;
+        }
+    }
+
 }
@@ -36,6 +36,8 @@
 
 abstract class InternalChannel implements ModalCloseable {
 
+    volatile TimeoutWheel.Entry timeoutEntry;
+
     abstract void onIOEvent(final int ops) throws IOException;
 
     abstract void onTimeout(Timeout timeout) throws IOException;
@@ -46,6 +48,8 @@ abstract class InternalChannel implements ModalCloseable {
 
     abstract long getLastEventTime();
 
+    abstract boolean isClosed();
+
     final void handleIOEvent(final int ops) {
         try {
             onIOEvent(ops);
@@ -88,6 +88,11 @@ long getLastEventTime() {
         return creationTimeMillis;
     }
 
+    @Override
+    boolean isClosed() {
+        return !key.isValid();
+    }
+
     @Override
     void onTimeout(final Timeout timeout) throws IOException {
         sessionRequest.failed(SocketTimeoutExceptionFactory.create(timeout));
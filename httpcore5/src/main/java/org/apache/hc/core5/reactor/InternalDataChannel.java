@@ -31,9 +31,11 @@
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.ByteChannel;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.SelectionKey;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 
@@ -49,15 +51,18 @@
 import org.apache.hc.core5.reactor.ssl.SSLSessionVerifier;
 import org.apache.hc.core5.reactor.ssl.TlsDetails;
 import org.apache.hc.core5.util.Asserts;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.Timeout;
 
-final class InternalDataChannel extends InternalChannel implements ProtocolIOSession {
+final class InternalDataChannel extends InternalChannel implements ProtocolIOSession, GatheringByteChannel {
 
     private final IOSession ioSession;
     private final NamedEndpoint initialEndpoint;
     private final IOSessionListener sessionListener;
     private final AtomicReference<SSLIOSession> tlsSessionRef;
     private final Queue<InternalDataChannel> closedSessions;
+    private final ByteBufferAllocator bufferAllocator;
+    private final AtomicInteger sessionCount;
     private final AtomicBoolean connected;
     private final AtomicBoolean closed;
 
@@ -65,14 +70,27 @@ final class InternalDataChannel extends InternalChannel implements ProtocolIOSes
             final IOSession ioSession,
             final NamedEndpoint initialEndpoint,
             final IOSessionListener sessionListener,
-            final Queue<InternalDataChannel> closedSessions) {
+            final Queue<InternalDataChannel> closedSessions,
+            final ByteBufferAllocator bufferAllocator,
+            final AtomicInteger sessionCount) {
         this.ioSession = ioSession;
         this.initialEndpoint = initialEndpoint;
         this.closedSessions = closedSessions;
         this.sessionListener = sessionListener;
+        this.bufferAllocator = bufferAllocator;
+        this.sessionCount = sessionCount;
         this.tlsSessionRef = new AtomicReference<>(null);
         this.connected = new AtomicBoolean(false);
         this.closed = new AtomicBoolean(false);
+        if (this.sessionCount != null) {
+            this.sessionCount.incrementAndGet();
+        }
+    }
+
+    private void onClosed() {
+        if (this.sessionCount != null) {
+            this.sessionCount.decrementAndGet();
+        }
     }
 
     @Override
@@ -139,6 +157,11 @@ Timeout getTimeout() {
         return ioSession.getSocketTimeout();
     }
 
+    @Override
+    boolean isClosed() {
+        return ioSession.getStatus() == IOSession.Status.CLOSED;
+    }
+
     @Override
     void onTimeout(final Timeout timeout) throws IOException {
         if (sessionListener != null) {
@@ -217,12 +240,14 @@ public void execute(final SSLIOSession sslSession) {
                     @Override
                     public void execute(final SSLIOSession sslSession) {
                         if (closed.compareAndSet(false, true)) {
+                            onClosed();
                             closedSessions.add(InternalDataChannel.this);
                         }
                     }
 
                 },
-                handshakeTimeout))) {
+                handshakeTimeout,
+                bufferAllocator))) {
             if (sessionListener != null) {
                 sessionListener.startTls(this);
             }
@@ -256,10 +281,13 @@ public void close() {
     @Override
     public void close(final CloseMode closeMode) {
         if (closeMode == CloseMode.IMMEDIATE) {
-            closed.set(true);
+            if (!closed.getAndSet(true)) {
+                onClosed();
+            }
             getSessionImpl().close(closeMode);
         } else {
             if (closed.compareAndSet(false, true)) {
+                onClosed();
                 try {
                     getSessionImpl().close(closeMode);
                 } finally {
@@ -349,6 +377,30 @@ public int write(final ByteBuffer src) throws IOException {
         return getSessionImpl().write(src);
     }
 
+    @Override
+    public long write(final ByteBuffer[] srcs, final int offset, final int length) throws IOException {
+        final IOSession sessionImpl = getSessionImpl();
+        if (sessionImpl instanceof GatheringByteChannel) {
+            return ((GatheringByteChannel) sessionImpl).write(srcs, offset, length);
+        }
+        long total = 0;
+        for (int i = offset; i < offset + length; i++) {
+            final ByteBuffer src = srcs[i];
+            if (src.hasRemaining()) {
+                total += sessionImpl.write(src);
+                if (src.hasRemaining()) {
+                    break;
+                }
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public long write(final ByteBuffer[] srcs) throws IOException {
+        return write(srcs, 0, srcs.length);
+    }
+
     @Override
     public void updateReadTime() {
         ioSession.updateReadTime();
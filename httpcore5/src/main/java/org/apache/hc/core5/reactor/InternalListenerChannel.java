@@ -0,0 +1,139 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.io.Closer;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Server socket channel owned by an individual I/O dispatcher. Connections accepted
+ * by this channel are registered with the selector of the same dispatcher.
+ */
+final class InternalListenerChannel extends InternalChannel {
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final Object attachment;
+    private final Callback<ChannelEntry> acceptCallback;
+    private final Callback<Exception> exceptionCallback;
+
+    InternalListenerChannel(
+            final ServerSocketChannel serverChannel,
+            final Selector selector,
+            final Object attachment,
+            final Callback<ChannelEntry> acceptCallback,
+            final Callback<Exception> exceptionCallback) {
+        super();
+        this.serverChannel = serverChannel;
+        this.selector = selector;
+        this.attachment = attachment;
+        this.acceptCallback = acceptCallback;
+        this.exceptionCallback = exceptionCallback;
+    }
+
+    ServerSocketChannel getServerChannel() {
+        return serverChannel;
+    }
+
+    @Override
+    void onIOEvent(final int readyOps) throws IOException {
+        if ((readyOps & SelectionKey.OP_ACCEPT) != 0) {
+            for (;;) {
+                final SocketChannel socketChannel;
+                try {
+                    socketChannel = serverChannel.accept();
+                } catch (final IOException ex) {
+                    if (!serverChannel.isOpen()) {
+                        throw ex;
+                    }
+                    // Failures such as running out of file descriptors are recoverable.
+                    // The channel remains registered and the pending connections get
+                    // accepted upon the next select
+                    onException(ex);
+                    break;
+                }
+                if (socketChannel == null) {
+                    break;
+                }
+                acceptCallback.execute(new ChannelEntry(socketChannel, attachment));
+            }
+        }
+    }
+
+    @Override
+    Timeout getTimeout() {
+        return Timeout.DISABLED;
+    }
+
+    @Override
+    void onTimeout(final Timeout timeout) throws IOException {
+    }
+
+    @Override
+    void onException(final Exception cause) {
+        if (exceptionCallback != null) {
+            exceptionCallback.execute(cause);
+        }
+    }
+
+    @Override
+    long getLastEventTime() {
+        return 0;
+    }
+
+    @Override
+    boolean isClosed() {
+        return !serverChannel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Closing a registered channel completes upon the next select
+        serverChannel.close();
+        selector.wakeup();
+    }
+
+    @Override
+    public void close(final CloseMode closeMode) {
+        Closer.closeQuietly(this);
+    }
+
+    @Override
+    public String toString() {
+        return serverChannel.toString();
+    }
+
+}
@@ -27,9 +27,11 @@
 
 package org.apache.hc.core5.reactor;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.nio.channels.SelectionKey;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hc.core5.io.CloseMode;
@@ -38,6 +40,7 @@
 class ListenerEndpointImpl implements ListenerEndpoint {
 
     private final SelectionKey key;
+    private final List<? extends Closeable> channels;
     final SocketAddress address;
     final Object attachment;
     private final AtomicBoolean closed;
@@ -45,6 +48,21 @@ class ListenerEndpointImpl implements ListenerEndpoint {
     public ListenerEndpointImpl(final SelectionKey key, final Object attachment, final SocketAddress address) {
         super();
         this.key = key;
+        this.channels = null;
+        this.address = address;
+        this.attachment = attachment;
+        this.closed = new AtomicBoolean(false);
+    }
+
+    /**
+     * Creates an endpoint backed by multiple server socket channels bound to the same address.
+     *
+     * @since 5.1
+     */
+    ListenerEndpointImpl(final List<? extends Closeable> channels, final Object attachment, final SocketAddress address) {
+        super();
+        this.key = null;
+        this.channels = channels;
         this.address = address;
         this.attachment = attachment;
         this.closed = new AtomicBoolean(false);
@@ -68,8 +86,15 @@ public boolean isClosed() {
     @Override
     public void close() throws IOException {
         if (closed.compareAndSet(false, true)) {
-            key.cancel();
-            key.channel().close();
+            if (key != null) {
+                key.cancel();
+                key.channel().close();
+            }
+            if (channels != null) {
+                for (final Closeable channel : channels) {
+                    Closer.closeQuietly(channel);
+                }
+            }
         }
     }
 
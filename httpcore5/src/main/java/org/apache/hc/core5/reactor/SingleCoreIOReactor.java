@@ -35,6 +35,7 @@
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
@@ -44,6 +45,7 @@
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Callback;
@@ -58,6 +60,7 @@
 class SingleCoreIOReactor extends AbstractSingleCoreIOReactor implements ConnectionInitiator {
 
     private static final int MAX_CHANNEL_REQUESTS = 10000;
+    private static final int TIMING_WHEEL_SIZE = 512;
 
     private final IOEventHandlerFactory eventHandlerFactory;
     private final IOReactorConfig reactorConfig;
@@ -67,8 +70,15 @@ class SingleCoreIOReactor extends AbstractSingleCoreIOReactor implements Connect
     private final Queue<InternalDataChannel> closedSessions;
     private final Queue<ChannelEntry> channelQueue;
     private final Queue<IOSessionRequest> requestQueue;
+    private final Queue<InternalListenerChannel> listenerQueue;
+    private final Callback<ChannelEntry> acceptCallback;
+    private final Callback<Exception> listenerExceptionCallback;
     private final AtomicBoolean shutdownInitiated;
     private final long selectTimeoutMillis;
+    private final TimeoutWheel timeoutWheel;
+    private final EventMaskCoalescer eventMaskCoalescer;
+    private final AtomicInteger sessionCount;
+    private final AtomicInteger pendingRequestCount;
     private volatile long lastTimeoutCheckMillis;
 
     SingleCoreIOReactor(
@@ -88,17 +98,79 @@ class SingleCoreIOReactor extends AbstractSingleCoreIOReactor implements Connect
         this.closedSessions = new ConcurrentLinkedQueue<>();
         this.channelQueue = new ConcurrentLinkedQueue<>();
         this.requestQueue = new ConcurrentLinkedQueue<>();
+        this.listenerQueue = new ConcurrentLinkedQueue<>();
+        this.acceptCallback = new Callback<ChannelEntry>() {
+
+            @Override
+            public void execute(final ChannelEntry entry) {
+                try {
+                    registerChannel(entry.channel, entry.attachment);
+                } catch (final IOException ex) {
+                    logException(ex);
+                }
+            }
+
+        };
+        this.listenerExceptionCallback = new Callback<Exception>() {
+
+            @Override
+            public void execute(final Exception ex) {
+                logException(ex);
+            }
+
+        };
         this.selectTimeoutMillis = this.reactorConfig.getSelectInterval().toMilliseconds();
+        this.timeoutWheel = this.reactorConfig.isTimingWheelEnabled() ? new TimeoutWheel(
+                Math.max(this.selectTimeoutMillis, 1), TIMING_WHEEL_SIZE, System.currentTimeMillis()) : null;
+        this.eventMaskCoalescer = this.reactorConfig.isEventMaskCoalescingEnabled() ?
+                new EventMaskCoalescer(this.selector) : null;
+        this.sessionCount = new AtomicInteger(0);
+        this.pendingRequestCount = new AtomicInteger(0);
+    }
+
+    /**
+     * Returns the number of open sessions managed by this I/O reactor.
+     */
+    int getSessionCount() {
+        return this.sessionCount.get();
+    }
+
+    /**
+     * Returns the number of accepted channels and connection requests queued up
+     * for processing by this I/O reactor.
+     */
+    int getPendingRequestCount() {
+        return this.pendingRequestCount.get();
     }
 
     void enqueueChannel(final ChannelEntry entry) throws IOReactorShutdownException {
         if (getStatus().compareTo(IOReactorStatus.ACTIVE) > 0) {
             throw new IOReactorShutdownException("I/O reactor has been shut down");
         }
+        this.pendingRequestCount.incrementAndGet();
         this.channelQueue.add(entry);
         this.selector.wakeup();
     }
 
+    /**
+     * Hands over a bound server socket channel to this I/O reactor. Connections accepted
+     * by the channel get registered with this I/O reactor directly.
+     *
+     * @return the listener channel that closes the server socket channel
+     *  and wakes up this I/O reactor upon closure.
+     */
+    InternalListenerChannel enqueueListener(
+            final ServerSocketChannel serverChannel, final Object attachment) throws IOReactorShutdownException {
+        if (getStatus().compareTo(IOReactorStatus.ACTIVE) > 0) {
+            throw new IOReactorShutdownException("I/O reactor has been shut down");
+        }
+        final InternalListenerChannel listenerChannel = new InternalListenerChannel(
+                serverChannel, this.selector, attachment, this.acceptCallback, this.listenerExceptionCallback);
+        this.listenerQueue.add(listenerChannel);
+        this.selector.wakeup();
+        return listenerChannel;
+    }
+
     @Override
     void doTerminate() {
         closePendingChannels();
@@ -108,10 +180,18 @@ void doTerminate() {
 
     @Override
     void doExecute() throws IOException {
+        if (this.eventMaskCoalescer != null) {
+            this.eventMaskCoalescer.bind(Thread.currentThread());
+        }
         while (!Thread.currentThread().isInterrupted()) {
 
             final int readyCount = this.selector.select(this.selectTimeoutMillis);
 
+            // Apply event mask updates made by other threads
+            if (this.eventMaskCoalescer != null) {
+                this.eventMaskCoalescer.applyPending();
+            }
+
             if (getStatus().compareTo(IOReactorStatus.SHUTTING_DOWN) >= 0) {
                 if (this.shutdownInitiated.compareAndSet(false, true)) {
                     initiateSessionShutdown();
@@ -134,6 +214,7 @@ void doExecute() throws IOException {
 
             // If active process new channels
             if (getStatus() == IOReactorStatus.ACTIVE) {
+                processPendingListeners();
                 processPendingChannels();
                 processPendingConnectionRequests();
             }
@@ -149,13 +230,13 @@ void doExecute() throws IOException {
     }
 
     private void initiateSessionShutdown() {
-        if (this.sessionShutdownCallback != null) {
-            final Set<SelectionKey> keys = this.selector.keys();
-            for (final SelectionKey key : keys) {
-                final InternalChannel channel = (InternalChannel) key.attachment();
-                if (channel instanceof InternalDataChannel) {
-                    this.sessionShutdownCallback.execute((InternalDataChannel) channel);
-                }
+        final Set<SelectionKey> keys = this.selector.keys();
+        for (final SelectionKey key : keys) {
+            final InternalChannel channel = (InternalChannel) key.attachment();
+            if (channel instanceof InternalListenerChannel) {
+                channel.close(CloseMode.IMMEDIATE);
+            } else if (this.sessionShutdownCallback != null && channel instanceof InternalDataChannel) {
+                this.sessionShutdownCallback.execute((InternalDataChannel) channel);
             }
         }
     }
@@ -164,8 +245,12 @@ private void validateActiveChannels() {
         final long currentTimeMillis = System.currentTimeMillis();
         if ((currentTimeMillis - this.lastTimeoutCheckMillis) >= this.selectTimeoutMillis) {
             this.lastTimeoutCheckMillis = currentTimeMillis;
-            for (final SelectionKey key : this.selector.keys()) {
-                checkTimeout(key, currentTimeMillis);
+            if (this.timeoutWheel != null) {
+                this.timeoutWheel.expire(currentTimeMillis);
+            } else {
+                for (final SelectionKey key : this.selector.keys()) {
+                    checkTimeout(key, currentTimeMillis);
+                }
             }
         }
     }
@@ -187,37 +272,60 @@ private void processEvents(final Set<SelectionKey> selectedKeys) {
     private void processPendingChannels() throws IOException {
         ChannelEntry entry;
         for (int i = 0; i < MAX_CHANNEL_REQUESTS && (entry = this.channelQueue.poll()) != null; i++) {
-            final SocketChannel socketChannel = entry.channel;
-            final Object attachment = entry.attachment;
+            this.pendingRequestCount.decrementAndGet();
             try {
-                prepareSocket(socketChannel.socket());
-                socketChannel.configureBlocking(false);
+                registerChannel(entry.channel, entry.attachment);
             } catch (final IOException ex) {
                 logException(ex);
-                try {
-                    socketChannel.close();
-                } catch (final IOException ex2) {
-                    logException(ex2);
-                }
                 throw ex;
             }
-            final SelectionKey key;
+        }
+    }
+
+    private void processPendingListeners() {
+        InternalListenerChannel listenerChannel;
+        while ((listenerChannel = this.listenerQueue.poll()) != null) {
+            try {
+                listenerChannel.getServerChannel().register(this.selector, SelectionKey.OP_ACCEPT, listenerChannel);
+            } catch (final ClosedChannelException ignore) {
+                // the listener endpoint has been closed in the meantime
+            }
+        }
+    }
+
+    private void registerChannel(final SocketChannel socketChannel, final Object attachment) throws IOException {
+        try {
+            prepareSocket(socketChannel.socket());
+            socketChannel.configureBlocking(false);
+        } catch (final IOException ex) {
             try {
-                key = socketChannel.register(this.selector, SelectionKey.OP_READ);
-            } catch (final ClosedChannelException ex) {
-                return;
+                socketChannel.close();
+            } catch (final IOException ex2) {
+                logException(ex2);
             }
-            final IOSession ioSession = new IOSessionImpl("a", key, socketChannel);
-            final InternalDataChannel dataChannel = new InternalDataChannel(
-                    ioSessionDecorator != null ? ioSessionDecorator.decorate(ioSession) : ioSession,
-                    null,
-                    sessionListener,
-                    closedSessions);
-            dataChannel.upgrade(this.eventHandlerFactory.createHandler(dataChannel, attachment));
-            dataChannel.setSocketTimeout(this.reactorConfig.getSoTimeout());
-            key.attach(dataChannel);
-            dataChannel.handleIOEvent(SelectionKey.OP_CONNECT);
+            throw ex;
+        }
+        final SelectionKey key;
+        try {
+            key = socketChannel.register(this.selector, SelectionKey.OP_READ);
+        } catch (final ClosedChannelException ex) {
+            return;
+        }
+        final IOSession ioSession = new IOSessionImpl("a", key, socketChannel, timeoutWheel, eventMaskCoalescer);
+        final InternalDataChannel dataChannel = new InternalDataChannel(
+                ioSessionDecorator != null ? ioSessionDecorator.decorate(ioSession) : ioSession,
+                null,
+                sessionListener,
+                closedSessions,
+                reactorConfig.getByteBufferAllocator(),
+                sessionCount);
+        dataChannel.upgrade(this.eventHandlerFactory.createHandler(dataChannel, attachment));
+        dataChannel.setSocketTimeout(this.reactorConfig.getSoTimeout());
+        key.attach(dataChannel);
+        if (this.timeoutWheel != null) {
+            this.timeoutWheel.register(dataChannel);
         }
+        dataChannel.handleIOEvent(SelectionKey.OP_CONNECT);
     }
 
     private void processClosedSessions() {
@@ -226,6 +334,11 @@ private void processClosedSessions() {
             if (dataChannel == null) {
                 break;
             }
+            // A session may still be shutting down gracefully (TLS close) and remain subject
+            // to timeout until its channel is closed. Stale entries get discarded upon expiry.
+            if (this.timeoutWheel != null && dataChannel.isClosed()) {
+                this.timeoutWheel.unregister(dataChannel);
+            }
             try {
                 dataChannel.disconnected();
             } catch (final CancelledKeyException ex) {
@@ -258,6 +371,7 @@ public Future<IOSession> connect(
                 attachment,
                 callback);
 
+        this.pendingRequestCount.incrementAndGet();
         this.requestQueue.add(sessionRequest);
         this.selector.wakeup();
 
@@ -291,6 +405,7 @@ private void validateAddress(final SocketAddress address) throws UnknownHostExce
     private void processPendingConnectionRequests() {
         IOSessionRequest sessionRequest;
         for (int i = 0; i < MAX_CHANNEL_REQUESTS && (sessionRequest = this.requestQueue.poll()) != null; i++) {
+            this.pendingRequestCount.decrementAndGet();
             if (!sessionRequest.isCancelled()) {
                 final SocketChannel socketChannel;
                 try {
@@ -364,14 +479,24 @@ public InternalDataChannel create(
                     final SocketChannel socketChannel,
                     final NamedEndpoint namedEndpoint,
                     final Object attachment) {
-                final IOSession ioSession = new IOSessionImpl("c", key, socketChannel);
+                final IOSession ioSession = new IOSessionImpl("c", key, socketChannel, timeoutWheel, eventMaskCoalescer);
                 final InternalDataChannel dataChannel = new InternalDataChannel(
                         ioSessionDecorator != null ? ioSessionDecorator.decorate(ioSession) : ioSession,
                         namedEndpoint,
                         sessionListener,
-                        closedSessions);
+                        closedSessions,
+                        reactorConfig.getByteBufferAllocator(),
+                        sessionCount);
                 dataChannel.upgrade(eventHandlerFactory.createHandler(dataChannel, attachment));
                 dataChannel.setSocketTimeout(reactorConfig.getSoTimeout());
+                if (timeoutWheel != null) {
+                    // The data channel supersedes the connect channel currently attached to the key
+                    final Object connectChannel = key.attachment();
+                    if (connectChannel instanceof InternalChannel) {
+                        timeoutWheel.unregister((InternalChannel) connectChannel);
+                    }
+                    timeoutWheel.register(dataChannel);
+                }
                 return dataChannel;
             }
 
@@ -380,13 +505,21 @@ public InternalDataChannel create(
             channel.handleIOEvent(SelectionKey.OP_CONNECT);
         } else {
             key.attach(channel);
+            if (this.timeoutWheel != null) {
+                this.timeoutWheel.register(channel);
+            }
             sessionRequest.assign(channel);
         }
     }
 
     private void closePendingChannels() {
+        InternalListenerChannel listenerChannel;
+        while ((listenerChannel = this.listenerQueue.poll()) != null) {
+            listenerChannel.close(CloseMode.IMMEDIATE);
+        }
         ChannelEntry entry;
         while ((entry = this.channelQueue.poll()) != null) {
+            this.pendingRequestCount.decrementAndGet();
             final SocketChannel socketChannel = entry.channel;
             try {
                 socketChannel.close();
@@ -399,6 +532,7 @@ private void closePendingChannels() {
     private void closePendingConnectionRequests() {
         IOSessionRequest sessionRequest;
         while ((sessionRequest = this.requestQueue.poll()) != null) {
+            this.pendingRequestCount.decrementAndGet();
             sessionRequest.cancel();
         }
     }
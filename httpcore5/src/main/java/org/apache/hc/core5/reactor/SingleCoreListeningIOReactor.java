@@ -28,15 +28,20 @@
 package org.apache.hc.core5.reactor;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.net.BindException;
 import java.net.ServerSocket;
 import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -48,12 +53,29 @@
 import org.apache.hc.core5.concurrent.BasicFuture;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.io.Closer;
 
 class SingleCoreListeningIOReactor extends AbstractSingleCoreIOReactor implements ConnectionListener, ConnectionAcceptor {
 
+    /**
+     * {@code StandardSocketOptions.SO_REUSEPORT} if available (Java 9 or newer), {@code null} otherwise.
+     */
+    private static final SocketOption<Boolean> SO_REUSEPORT = lookupReusePortOption();
+
+    @SuppressWarnings("unchecked")
+    private static SocketOption<Boolean> lookupReusePortOption() {
+        try {
+            final Field field = StandardSocketOptions.class.getField("SO_REUSEPORT");
+            return (SocketOption<Boolean>) field.get(null);
+        } catch (final NoSuchFieldException | IllegalAccessException | SecurityException ex) {
+            return null;
+        }
+    }
+
     private final IOReactorConfig reactorConfig;
     private final Callback<ChannelEntry> callback;
+    private final SingleCoreIOReactor[] dispatchers;
     private final Queue<ListenerEndpointRequest> requestQueue;
     private final ConcurrentMap<ListenerEndpointImpl, Boolean> endpoints;
     private final AtomicBoolean paused;
@@ -63,9 +85,24 @@ class SingleCoreListeningIOReactor extends AbstractSingleCoreIOReactor implement
             final Callback<Exception> exceptionCallback,
             final IOReactorConfig ioReactorConfig,
             final Callback<ChannelEntry> callback) {
+        this(exceptionCallback, ioReactorConfig, callback, null);
+    }
+
+    /**
+     * @param dispatchers I/O dispatchers that accept connections on their own server sockets
+     *   if {@link IOReactorConfig#isSoReusePort()} is set. Can be {@code null}.
+     *
+     * @since 5.1
+     */
+    SingleCoreListeningIOReactor(
+            final Callback<Exception> exceptionCallback,
+            final IOReactorConfig ioReactorConfig,
+            final Callback<ChannelEntry> callback,
+            final SingleCoreIOReactor[] dispatchers) {
         super(exceptionCallback);
         this.reactorConfig = ioReactorConfig != null ? ioReactorConfig : IOReactorConfig.DEFAULT;
         this.callback = callback;
+        this.dispatchers = dispatchers;
         this.requestQueue = new ConcurrentLinkedQueue<>();
         this.endpoints = new ConcurrentHashMap<>();
         this.paused = new AtomicBoolean(false);
@@ -78,6 +115,10 @@ void doTerminate() {
         while ((request = this.requestQueue.poll()) != null) {
             request.cancel();
         }
+        // Server sockets owned by I/O dispatchers are not registered with this selector
+        for (final ListenerEndpointImpl endpoint : this.endpoints.keySet()) {
+            endpoint.close(CloseMode.IMMEDIATE);
+        }
     }
 
     @Override
@@ -162,26 +203,19 @@ private void processSessionRequests() throws IOException {
             final SocketAddress address = request.address;
             final ServerSocketChannel serverChannel = ServerSocketChannel.open();
             try {
-                final ServerSocket socket = serverChannel.socket();
-                socket.setReuseAddress(this.reactorConfig.isSoReuseAddress());
-                if (this.reactorConfig.getRcvBufSize() > 0) {
-                    socket.setReceiveBufferSize(this.reactorConfig.getRcvBufSize());
-                }
-                serverChannel.configureBlocking(false);
-
-                try {
-                    socket.bind(address, this.reactorConfig.getBacklogSize());
-                } catch (final BindException ex) {
-                    final BindException detailedEx = new BindException(
-                            String.format("Socket bind failure for socket %s, address=%s, BacklogSize=%d: %s", socket,
-                                    address, this.reactorConfig.getBacklogSize(), ex));
-                    detailedEx.setStackTrace(ex.getStackTrace());
-                    throw detailedEx;
-                }
+                final boolean reusePort = this.dispatchers != null && this.dispatchers.length > 0
+                        && this.reactorConfig.isSoReusePort()
+                        && SO_REUSEPORT != null && serverChannel.supportedOptions().contains(SO_REUSEPORT);
+                bind(serverChannel, address, reusePort);
 
-                final SelectionKey key = serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
-                key.attach(request);
-                final ListenerEndpointImpl endpoint = new ListenerEndpointImpl(key, request.attachment, socket.getLocalSocketAddress());
+                final ListenerEndpointImpl endpoint;
+                if (reusePort) {
+                    endpoint = bindPerDispatcher(serverChannel, request);
+                } else {
+                    final SelectionKey key = serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+                    key.attach(request);
+                    endpoint = new ListenerEndpointImpl(key, request.attachment, serverChannel.socket().getLocalSocketAddress());
+                }
                 this.endpoints.put(endpoint, Boolean.TRUE);
                 request.completed(endpoint);
             } catch (final IOException ex) {
@@ -191,6 +225,65 @@ private void processSessionRequests() throws IOException {
         }
     }
 
+    private void bind(
+            final ServerSocketChannel serverChannel, final SocketAddress address, final boolean reusePort) throws IOException {
+        final ServerSocket socket = serverChannel.socket();
+        socket.setReuseAddress(this.reactorConfig.isSoReuseAddress());
+        if (reusePort) {
+            serverChannel.setOption(SO_REUSEPORT, Boolean.TRUE);
+        }
+        if (this.reactorConfig.getRcvBufSize() > 0) {
+            socket.setReceiveBufferSize(this.reactorConfig.getRcvBufSize());
+        }
+        serverChannel.configureBlocking(false);
+
+        try {
+            socket.bind(address, this.reactorConfig.getBacklogSize());
+        } catch (final BindException ex) {
+            final BindException detailedEx = new BindException(
+                    String.format("Socket bind failure for socket %s, address=%s, BacklogSize=%d: %s", socket,
+                            address, this.reactorConfig.getBacklogSize(), ex));
+            detailedEx.setStackTrace(ex.getStackTrace());
+            throw detailedEx;
+        }
+    }
+
+    /**
+     * Binds one server socket per I/O dispatcher to the local address of the given
+     * server socket and hands them over to the dispatchers, the given one included.
+     */
+    private ListenerEndpointImpl bindPerDispatcher(
+            final ServerSocketChannel serverChannel, final ListenerEndpointRequest request) throws IOException {
+        // Resolves an ephemeral port if one was requested
+        final SocketAddress localAddress = serverChannel.socket().getLocalSocketAddress();
+        final List<ServerSocketChannel> serverChannels = new ArrayList<>(this.dispatchers.length);
+        final List<InternalListenerChannel> listenerChannels = new ArrayList<>(this.dispatchers.length);
+        serverChannels.add(serverChannel);
+        try {
+            for (int i = 1; i < this.dispatchers.length; i++) {
+                final ServerSocketChannel channel = ServerSocketChannel.open();
+                serverChannels.add(channel);
+                bind(channel, localAddress, true);
+            }
+            for (int i = 0; i < this.dispatchers.length; i++) {
+                listenerChannels.add(this.dispatchers[i].enqueueListener(serverChannels.get(i), request.attachment));
+            }
+        } catch (final IOException ex) {
+            closeAll(serverChannels);
+            throw ex;
+        } catch (final IOReactorShutdownException ex) {
+            closeAll(serverChannels);
+            throw new IOException(ex.getMessage(), ex);
+        }
+        return new ListenerEndpointImpl(listenerChannels, request.attachment, localAddress);
+    }
+
+    private static void closeAll(final List<ServerSocketChannel> serverChannels) {
+        for (final ServerSocketChannel serverChannel : serverChannels) {
+            Closer.closeQuietly(serverChannel);
+        }
+    }
+
     @Override
     public Set<ListenerEndpoint> getEndpoints() {
         final Set<ListenerEndpoint> set = new HashSet<>();
@@ -0,0 +1,256 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Hashed timing wheel used by {@link SingleCoreIOReactor} to keep track of channel
+ * timeouts without having to visit every registered channel on each select interval.
+ * <p>
+ * Each channel is placed into the slot of the tick following its current deadline
+ * ({@link InternalChannel#getLastEventTime()} plus {@link InternalChannel#getTimeout()}).
+ * I/O activity only ever pushes the deadline back, so the wheel does not need to be
+ * updated on every read or write: when a slot expires the actual deadline of each
+ * channel is re-evaluated and the channel is either timed out or re-armed to its
+ * new deadline. Timeout changes that may bring the deadline forward must be signalled
+ * with {@link #rearm(InternalChannel)}, which may be called from any thread.
+ * <p>
+ * With the exception of {@link #rearm(InternalChannel)} all methods of this class must
+ * be called from the I/O reactor thread.
+ *
+ * @since 5.1
+ */
+final class TimeoutWheel {
+
+    static final class Entry {
+
+        final InternalChannel channel;
+        final AtomicBoolean rearmPending;
+
+        Entry prev;
+        Entry next;
+        int slot;
+        long deadline;
+        boolean cancelled;
+
+        Entry(final InternalChannel channel) {
+            this.channel = channel;
+            this.rearmPending = new AtomicBoolean(false);
+            this.slot = -1;
+        }
+
+    }
+
+    private final long tickMillis;
+    private final Entry[] slots;
+    private final int mask;
+    private final Queue<Entry> rearmQueue;
+    private final List<Entry> expired;
+
+    private long currentTick;
+    private int size;
+
+    TimeoutWheel(final long tickMillis, final int wheelSize, final long currentTimeMillis) {
+        Args.positive(tickMillis, "Tick duration");
+        Args.positive(wheelSize, "Wheel size");
+        this.tickMillis = tickMillis;
+        int n = 1;
+        while (n < wheelSize) {
+            n <<= 1;
+        }
+        this.slots = new Entry[n];
+        this.mask = n - 1;
+        this.rearmQueue = new ConcurrentLinkedQueue<>();
+        this.expired = new ArrayList<>();
+        this.currentTick = currentTimeMillis / tickMillis;
+    }
+
+    /**
+     * Returns the number of channels currently scheduled in the wheel.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Starts tracking timeout of the given channel.
+     */
+    void register(final InternalChannel channel) {
+        if (channel.timeoutEntry != null) {
+            return;
+        }
+        final Entry entry = new Entry(channel);
+        channel.timeoutEntry = entry;
+        schedule(entry);
+    }
+
+    /**
+     * Stops tracking timeout of the given channel.
+     */
+    void unregister(final InternalChannel channel) {
+        final Entry entry = channel.timeoutEntry;
+        if (entry != null) {
+            channel.timeoutEntry = null;
+            entry.cancelled = true;
+            unlink(entry);
+        }
+    }
+
+    /**
+     * Signals that the timeout of the given channel has been changed and its deadline
+     * needs to be re-calculated. This method may be called from any thread.
+     */
+    void rearm(final InternalChannel channel) {
+        final Entry entry = channel.timeoutEntry;
+        if (entry != null && entry.rearmPending.compareAndSet(false, true)) {
+            rearmQueue.add(entry);
+        }
+    }
+
+    /**
+     * Processes pending re-arm requests and checks timeout of all channels scheduled
+     * in the slots that have elapsed since the last call.
+     */
+    void expire(final long currentTimeMillis) {
+        Entry pending;
+        while ((pending = rearmQueue.poll()) != null) {
+            pending.rearmPending.set(false);
+            if (!pending.cancelled) {
+                unlink(pending);
+                schedule(pending);
+            }
+        }
+        final long nowTick = currentTimeMillis / tickMillis;
+        long tick = Math.max(currentTick, nowTick - mask);
+        while (tick <= nowTick) {
+            currentTick = tick + 1;
+            final int idx = (int) (tick & mask);
+            Entry entry = slots[idx];
+            slots[idx] = null;
+            while (entry != null) {
+                final Entry next = entry.next;
+                entry.prev = null;
+                entry.next = null;
+                entry.slot = -1;
+                size--;
+                expired.add(entry);
+                entry = next;
+            }
+            for (int i = 0; i < expired.size(); i++) {
+                process(expired.get(i), currentTimeMillis);
+            }
+            expired.clear();
+            tick++;
+        }
+    }
+
+    private void process(final Entry entry, final long currentTimeMillis) {
+        if (entry.cancelled) {
+            return;
+        }
+        final InternalChannel channel = entry.channel;
+        if (channel.isClosed()) {
+            discard(entry);
+            return;
+        }
+        if (entry.deadline > currentTimeMillis) {
+            // Deadline is more than one revolution of the wheel away
+            insert(entry, entry.deadline);
+            return;
+        }
+        if (channel.checkTimeout(currentTimeMillis)) {
+            // Channel has been active since it got scheduled
+            schedule(entry);
+        } else if (!entry.cancelled) {
+            if (channel.isClosed()) {
+                discard(entry);
+            } else {
+                // Channel has timed out but has not been closed; check it again on the next tick
+                // the same way it would be checked on every select interval
+                insert(entry, currentTimeMillis);
+            }
+        }
+    }
+
+    private void discard(final Entry entry) {
+        if (entry.channel.timeoutEntry == entry) {
+            entry.channel.timeoutEntry = null;
+        }
+        entry.cancelled = true;
+    }
+
+    private void schedule(final Entry entry) {
+        final Timeout timeout = entry.channel.getTimeout();
+        if (timeout == null || timeout.isDisabled()) {
+            return;
+        }
+        insert(entry, entry.channel.getLastEventTime() + timeout.toMilliseconds());
+    }
+
+    private void insert(final Entry entry, final long deadline) {
+        entry.deadline = deadline;
+        final long tick = Math.max(deadline / tickMillis + 1, currentTick);
+        final int idx = (int) (tick & mask);
+        final Entry head = slots[idx];
+        entry.slot = idx;
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        slots[idx] = entry;
+        size++;
+    }
+
+    private void unlink(final Entry entry) {
+        if (entry.slot < 0) {
+            return;
+        }
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            slots[entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.slot = -1;
+        size--;
+    }
+
+}
@@ -33,6 +33,7 @@
 import java.nio.channels.ByteChannel;
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.SelectionKey;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
@@ -56,6 +57,7 @@
 import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.Asserts;
+import org.apache.hc.core5.util.ByteBufferAllocator;
 import org.apache.hc.core5.util.ReflectionUtils;
 import org.apache.hc.core5.util.Timeout;
 
@@ -68,7 +70,7 @@
  */
 @Contract(threading = ThreadingBehavior.SAFE_CONDITIONAL)
 @Internal
-public class SSLIOSession implements IOSession {
+public class SSLIOSession implements IOSession, GatheringByteChannel {
 
     private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
 
@@ -118,6 +120,38 @@ public SSLIOSession(
             final Callback<SSLIOSession> connectedCallback,
             final Callback<SSLIOSession> disconnectedCallback,
             final Timeout connectTimeout) {
+        this(targetEndpoint, session, sslMode, sslContext, sslBufferMode, initializer, verifier,
+                connectedCallback, disconnectedCallback, connectTimeout, null);
+    }
+
+    /**
+     * Creates new instance of {@code SSLIOSession} class.
+     *
+     * @param session I/O session to be decorated with the TLS/SSL capabilities.
+     * @param sslMode SSL mode (client or server)
+     * @param targetEndpoint target endpoint (applicable in client mode only). May be {@code null}.
+     * @param sslContext SSL context to use for this I/O session.
+     * @param sslBufferMode buffer management mode
+     * @param initializer optional SSL session initializer. May be {@code null}.
+     * @param verifier optional SSL session verifier. May be {@code null}.
+     * @param connectTimeout timeout to apply for the TLS/SSL handshake. May be {@code null}.
+     * @param bufferAllocator allocator of network and application buffers. If {@code null}
+     *   heap buffers will be used.
+     *
+     * @since 5.1
+     */
+    public SSLIOSession(
+            final NamedEndpoint targetEndpoint,
+            final IOSession session,
+            final SSLMode sslMode,
+            final SSLContext sslContext,
+            final SSLBufferMode sslBufferMode,
+            final SSLSessionInitializer initializer,
+            final SSLSessionVerifier verifier,
+            final Callback<SSLIOSession> connectedCallback,
+            final Callback<SSLIOSession> disconnectedCallback,
+            final Timeout connectTimeout,
+            final ByteBufferAllocator bufferAllocator) {
         super();
         Args.notNull(session, "IO session");
         Args.notNull(sslContext, "SSL context");
@@ -139,12 +173,12 @@ public SSLIOSession(
         final SSLSession sslSession = this.sslEngine.getSession();
         // Allocate buffers for network (encrypted) data
         final int netBufferSize = sslSession.getPacketBufferSize();
-        this.inEncrypted = SSLManagedBuffer.create(sslBufferMode, netBufferSize);
-        this.outEncrypted = SSLManagedBuffer.create(sslBufferMode, netBufferSize);
+        this.inEncrypted = SSLManagedBuffer.create(sslBufferMode, netBufferSize, bufferAllocator);
+        this.outEncrypted = SSLManagedBuffer.create(sslBufferMode, netBufferSize, bufferAllocator);
 
         // Allocate buffers for application (unencrypted) data
         final int appBufferSize = sslSession.getApplicationBufferSize();
-        this.inPlain = SSLManagedBuffer.create(sslBufferMode, appBufferSize);
+        this.inPlain = SSLManagedBuffer.create(sslBufferMode, appBufferSize, bufferAllocator);
         this.outboundClosedCount = new AtomicInteger(0);
         this.connectTimeout = connectTimeout;
     }
@@ -175,6 +209,9 @@ public void inputReady(final IOSession protocolSession, final ByteBuffer src) th
                 doHandshake();
                 decryptData();
                 updateEventMask();
+                if (status == Status.CLOSED) {
+                    disposeBuffers();
+                }
             }
 
             @Override
@@ -186,6 +223,9 @@ public void outputReady(final IOSession protocolSession) throws IOException {
                 sendEncryptedData();
                 doHandshake();
                 updateEventMask();
+                if (status == Status.CLOSED) {
+                    disposeBuffers();
+                }
             }
 
             @Override
@@ -207,15 +247,32 @@ public void exception(final IOSession protocolSession, final Exception cause) {
 
             @Override
             public void disconnected(final IOSession protocolSession) {
-                final IOEventHandler handler = session.getHandler();
-                if (handler != null) {
-                    handler.disconnected(SSLIOSession.this);
+                try {
+                    final IOEventHandler handler = session.getHandler();
+                    if (handler != null) {
+                        handler.disconnected(SSLIOSession.this);
+                    }
+                } finally {
+                    if (status == Status.CLOSED) {
+                        disposeBuffers();
+                    }
                 }
             }
 
         };
     }
 
+    private void disposeBuffers() {
+        this.session.getLock().lock();
+        try {
+            this.inEncrypted.dispose();
+            this.outEncrypted.dispose();
+            this.inPlain.dispose();
+        } finally {
+            this.session.getLock().unlock();
+        }
+    }
+
     private void initialize() throws SSLException {
         Asserts.check(!this.initialized, "SSL I/O session already initialized");
 
@@ -273,6 +330,14 @@ private SSLEngineResult doWrap(final ByteBuffer src, final ByteBuffer dst) throw
         }
     }
 
+    private SSLEngineResult doWrap(final ByteBuffer[] srcs, final int offset, final int length, final ByteBuffer dst) throws SSLException {
+        try {
+            return this.sslEngine.wrap(srcs, offset, length, dst);
+        } catch (final RuntimeException ex) {
+            throw convert(ex);
+        }
+    }
+
     private SSLEngineResult doUnwrap(final ByteBuffer src, final ByteBuffer dst) throws SSLException {
         try {
             return this.sslEngine.unwrap(src, dst);
@@ -592,6 +657,40 @@ public int write(final ByteBuffer src) throws IOException {
         }
     }
 
+    /**
+     * Encrypts content of multiple buffers at once, which lets the SSL engine
+     * combine small chunks of data into a single TLS record.
+     *
+     * @since 5.1
+     */
+    @Override
+    public long write(final ByteBuffer[] srcs, final int offset, final int length) throws IOException {
+        Args.notNull(srcs, "Byte buffers");
+        this.session.getLock().lock();
+        try {
+            if (this.status != Status.ACTIVE) {
+                throw new ClosedChannelException();
+            }
+            if (!this.initialized) {
+                return 0;
+            }
+            final ByteBuffer outEncryptedBuf = this.outEncrypted.acquire();
+            final SSLEngineResult result = doWrap(srcs, offset, length, outEncryptedBuf);
+            return result.bytesConsumed();
+        } finally {
+            this.session.getLock().unlock();
+        }
+    }
+
+    /**
+     * @since 5.1
+     */
+    @Override
+    public long write(final ByteBuffer[] srcs) throws IOException {
+        Args.notNull(srcs, "Byte buffers");
+        return write(srcs, 0, srcs.length);
+    }
+
     @Override
     public int read(final ByteBuffer dst) {
         return endOfStream ? -1 : 0;
@@ -653,10 +752,9 @@ public void close(final CloseMode closeMode) {
                 if (this.status == Status.CLOSED) {
                     return;
                 }
-                this.inEncrypted.release();
-                this.outEncrypted.release();
-                this.inPlain.release();
-
+                // Buffers may still be in use further up the call stack at this point.
+                // They get returned to the allocator at the end of the current I/O event
+                // or once the session has been disconnected.
                 this.status = Status.CLOSED;
                 this.session.close(closeMode);
             }
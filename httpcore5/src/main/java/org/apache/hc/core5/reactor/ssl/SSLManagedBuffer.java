@@ -30,6 +30,8 @@
 import java.nio.ByteBuffer;
 
 import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.ByteBufferAllocator;
+import org.apache.hc.core5.util.HeapByteBufferAllocator;
 
 abstract class SSLManagedBuffer {
 
@@ -57,21 +59,43 @@ abstract class SSLManagedBuffer {
      */
     abstract boolean hasData();
 
+    /**
+     * Releases the resources for this buffer back to the allocator regardless of the buffer mode.
+     * Subsequent invocations of {@link #acquire()} will allocate a new buffer.
+     */
+    abstract void dispose();
+
+    static SSLManagedBuffer create(final SSLBufferMode mode, final int size, final ByteBufferAllocator allocator) {
+        final ByteBufferAllocator bufferAllocator = allocator != null ? allocator : HeapByteBufferAllocator.INSTANCE;
+        return mode == SSLBufferMode.DYNAMIC ? new DynamicBuffer(size, bufferAllocator) : new StaticBuffer(size, bufferAllocator);
+    }
+
     static SSLManagedBuffer create(final SSLBufferMode mode, final int size) {
-        return mode == SSLBufferMode.DYNAMIC ? new DynamicBuffer(size) : new StaticBuffer(size);
+        return create(mode, size, null);
     }
 
     static final class StaticBuffer extends SSLManagedBuffer {
 
-        private final ByteBuffer buffer;
+        private final ByteBufferAllocator allocator;
+        private final int length;
+        private ByteBuffer buffer;
 
-        public StaticBuffer(final int size) {
+        public StaticBuffer(final int size, final ByteBufferAllocator allocator) {
             Args.positive(size, "size");
-            buffer = ByteBuffer.allocate(size);
+            this.allocator = allocator;
+            this.length = size;
+            this.buffer = allocator.allocate(size);
+        }
+
+        public StaticBuffer(final int size) {
+            this(size, HeapByteBufferAllocator.INSTANCE);
         }
 
         @Override
         public ByteBuffer acquire() {
+            if (buffer == null) {
+                buffer = allocator.allocate(length);
+            }
             return buffer;
         }
 
@@ -80,6 +104,15 @@ public void release() {
             // do nothing
         }
 
+        @Override
+        void dispose() {
+            if (buffer != null) {
+                final ByteBuffer oldBuffer = buffer;
+                buffer = null;
+                allocator.release(oldBuffer);
+            }
+        }
+
         @Override
         public boolean isAcquired() {
             return true;
@@ -87,33 +120,48 @@ public boolean isAcquired() {
 
         @Override
         public boolean hasData() {
-            return buffer.position() > 0;
+            return buffer != null && buffer.position() > 0;
         }
 
     }
 
     static final class DynamicBuffer extends SSLManagedBuffer {
 
-        private ByteBuffer wrapped;
+        private final ByteBufferAllocator allocator;
         private final int length;
+        private ByteBuffer wrapped;
 
-        public DynamicBuffer(final int size) {
+        public DynamicBuffer(final int size, final ByteBufferAllocator allocator) {
             Args.positive(size, "size");
+            this.allocator = allocator;
             this.length = size;
         }
 
+        public DynamicBuffer(final int size) {
+            this(size, HeapByteBufferAllocator.INSTANCE);
+        }
+
         @Override
         public ByteBuffer acquire() {
             if (wrapped != null) {
                 return wrapped;
             }
-            wrapped = ByteBuffer.allocate(length);
+            wrapped = allocator.allocate(length);
             return wrapped;
         }
 
         @Override
         public void release() {
-            wrapped = null;
+            if (wrapped != null) {
+                final ByteBuffer oldBuffer = wrapped;
+                wrapped = null;
+                allocator.release(oldBuffer);
+            }
+        }
+
+        @Override
+        void dispose() {
+            release();
         }
 
         @Override
@@ -0,0 +1,58 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Abstract {@link ByteBuffer} allocator. Buffers obtained from an allocator should be
+ * returned to the same allocator by calling {@link #release(ByteBuffer)} once no longer
+ * in use, which may enable the allocator to recycle them.
+ *
+ * @since 5.1
+ */
+public interface ByteBufferAllocator {
+
+    /**
+     * Allocates a buffer with a capacity of at least the given number of bytes.
+     * The buffer is cleared (position is zero and limit equals capacity).
+     *
+     * @param capacity the required capacity.
+     * @return the buffer.
+     */
+    ByteBuffer allocate(int capacity);
+
+    /**
+     * Returns the buffer previously obtained by calling {@link #allocate(int)} to
+     * this allocator. The buffer must not be used by the caller after it has been released.
+     *
+     * @param buffer the buffer. May be {@code null}.
+     */
+    void release(ByteBuffer buffer);
+
+}
@@ -0,0 +1,218 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * {@link ByteBufferAllocator} that allocates direct buffers and recycles released buffers
+ * through pools local to the calling thread backed by a pool shared by all threads.
+ * <p>
+ * Buffers are allocated in sizes rounded up to a multiple of 1 KiB. Each thread keeps at most
+ * {@code maxBuffersPerSize} released buffers of any given size. Buffers released in excess
+ * of that limit are handed over to the shared pool, which keeps at most
+ * {@code maxSharedBuffersPerSize} buffers of any given size. Requests for buffers larger
+ * than {@code maxPooledCapacity} are served with non-pooled direct buffers.
+ * </p>
+ * <p>
+ * Since each I/O reactor runs on its own thread, buffers of I/O sessions that are allocated and
+ * released on the I/O reactor thread are recycled without any synchronization. The shared pool
+ * lets buffers released by one thread be re-used by another one, for instance when idle
+ * connections release their buffers.
+ * </p>
+ *
+ * @since 5.1
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class PooledByteBufferAllocator implements ByteBufferAllocator {
+
+    public static final int DEFAULT_MAX_POOLED_CAPACITY = 256 * 1024;
+    public static final int DEFAULT_MAX_BUFFERS_PER_SIZE = 64;
+    public static final int DEFAULT_MAX_SHARED_BUFFERS_PER_SIZE = 256;
+
+    private static final int SIZE_SHIFT = 10;
+
+    private final int maxPooledCapacity;
+    private final int maxBuffersPerSize;
+    private final int maxSharedBuffersPerSize;
+    private final ThreadLocal<Map<Integer, ArrayDeque<ByteBuffer>>> pools;
+    private final ConcurrentMap<Integer, SharedPool> sharedPools;
+
+    /**
+     * @since 5.1
+     */
+    public PooledByteBufferAllocator(
+            final int maxPooledCapacity,
+            final int maxBuffersPerSize,
+            final int maxSharedBuffersPerSize) {
+        this.maxPooledCapacity = Args.positive(maxPooledCapacity, "Max pooled capacity");
+        this.maxBuffersPerSize = Args.notNegative(maxBuffersPerSize, "Max buffers per size");
+        this.maxSharedBuffersPerSize = Args.notNegative(maxSharedBuffersPerSize, "Max shared buffers per size");
+        this.sharedPools = new ConcurrentHashMap<>();
+        this.pools = new ThreadLocal<Map<Integer, ArrayDeque<ByteBuffer>>>() {
+
+            @Override
+            protected Map<Integer, ArrayDeque<ByteBuffer>> initialValue() {
+                return new HashMap<>();
+            }
+
+        };
+    }
+
+    public PooledByteBufferAllocator(final int maxPooledCapacity, final int maxBuffersPerSize) {
+        this(maxPooledCapacity, maxBuffersPerSize, DEFAULT_MAX_SHARED_BUFFERS_PER_SIZE);
+    }
+
+    public PooledByteBufferAllocator() {
+        this(DEFAULT_MAX_POOLED_CAPACITY, DEFAULT_MAX_BUFFERS_PER_SIZE, DEFAULT_MAX_SHARED_BUFFERS_PER_SIZE);
+    }
+
+    static int roundCapacity(final int capacity) {
+        return ((capacity + (1 << SIZE_SHIFT) - 1) >>> SIZE_SHIFT) << SIZE_SHIFT;
+    }
+
+    @Override
+    public ByteBuffer allocate(final int capacity) {
+        Args.notNegative(capacity, "Capacity");
+        final int size = roundCapacity(capacity);
+        if (size <= 0 || size > maxPooledCapacity) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        final ArrayDeque<ByteBuffer> pool = pools.get().get(size);
+        if (pool != null) {
+            final ByteBuffer buffer = pool.pollLast();
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        final SharedPool sharedPool = sharedPools.get(size);
+        if (sharedPool != null) {
+            final ByteBuffer buffer = sharedPool.poll();
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        return ByteBuffer.allocateDirect(size);
+    }
+
+    @Override
+    public void release(final ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.isReadOnly()) {
+            return;
+        }
+        final int size = buffer.capacity();
+        if (size == 0 || size > maxPooledCapacity || roundCapacity(size) != size) {
+            return;
+        }
+        final Map<Integer, ArrayDeque<ByteBuffer>> poolMap = pools.get();
+        ArrayDeque<ByteBuffer> pool = poolMap.get(size);
+        if (pool == null) {
+            pool = new ArrayDeque<>();
+            poolMap.put(size, pool);
+        }
+        buffer.clear();
+        if (pool.size() < maxBuffersPerSize) {
+            pool.addLast(buffer);
+        } else if (maxSharedBuffersPerSize > 0) {
+            SharedPool sharedPool = sharedPools.get(size);
+            if (sharedPool == null) {
+                final SharedPool newPool = new SharedPool();
+                sharedPool = sharedPools.putIfAbsent(size, newPool);
+                if (sharedPool == null) {
+                    sharedPool = newPool;
+                }
+            }
+            sharedPool.offer(buffer, maxSharedBuffersPerSize);
+        }
+    }
+
+    /**
+     * Returns the total number of buffers held by the pool of the calling thread.
+     */
+    public int getPooledCount() {
+        int count = 0;
+        for (final ArrayDeque<ByteBuffer> pool: pools.get().values()) {
+            count += pool.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total number of buffers held by the shared pool.
+     *
+     * @since 5.1
+     */
+    public int getSharedCount() {
+        int count = 0;
+        for (final SharedPool sharedPool: sharedPools.values()) {
+            count += sharedPool.count.get();
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "pooled-direct[maxPooledCapacity=" + maxPooledCapacity +
+                ", maxBuffersPerSize=" + maxBuffersPerSize +
+                ", maxSharedBuffersPerSize=" + maxSharedBuffersPerSize + "]";
+    }
+
+    static final class SharedPool {
+
+        final ConcurrentLinkedQueue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger count = new AtomicInteger(0);
+
+        ByteBuffer poll() {
+            final ByteBuffer buffer = queue.poll();
+            if (buffer != null) {
+                count.decrementAndGet();
+            }
+            return buffer;
+        }
+
+        void offer(final ByteBuffer buffer, final int max) {
+            if (count.incrementAndGet() <= max) {
+                queue.add(buffer);
+            } else {
+                count.decrementAndGet();
+            }
+        }
+
+    }
+
+}
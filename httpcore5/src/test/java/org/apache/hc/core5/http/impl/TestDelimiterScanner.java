@@ -0,0 +1,95 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestDelimiterScanner {
+
+    private static int naiveIndexOf(final ByteBuffer buffer, final int from, final int to, final byte b) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void testIndexOf() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.wrap(
+                "GET /stuff HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        Assert.assertEquals(20, DelimiterScanner.indexOf(buffer, 0, buffer.limit(), (byte) '\n'));
+        Assert.assertEquals(19, DelimiterScanner.indexOf(buffer, 0, buffer.limit(), (byte) '\r'));
+        Assert.assertEquals(37, DelimiterScanner.indexOf(buffer, 21, buffer.limit(), (byte) '\n'));
+        Assert.assertEquals(25, DelimiterScanner.indexOf(buffer, 21, buffer.limit(), (byte) ':'));
+        Assert.assertEquals(-1, DelimiterScanner.indexOf(buffer, 21, 25, (byte) ':'));
+        Assert.assertEquals(-1, DelimiterScanner.indexOf(buffer, 0, buffer.limit(), (byte) '#'));
+        Assert.assertEquals(-1, DelimiterScanner.indexOf(buffer, 5, 5, (byte) 's'));
+        Assert.assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void testIndexOfAllPositions() throws Exception {
+        for (final ByteOrder order : new ByteOrder[] {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            for (final boolean direct : new boolean[] {false, true}) {
+                final ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(40) : ByteBuffer.allocate(40);
+                buffer.order(order);
+                for (int n = 0; n < 40; n++) {
+                    // Bytes that differ from the delimiter by a single bit or
+                    // sit right next to it are prone to false positives
+                    for (int i = 0; i < 40; i++) {
+                        buffer.put(i, (byte) ((i & 1) == 0 ? 0x0b : 0x8a));
+                    }
+                    buffer.put(n, (byte) 0x0a);
+                    if (n + 1 < 40) {
+                        buffer.put(n + 1, (byte) 0x0a);
+                    }
+                    for (int from = 0; from < 40; from += 3) {
+                        Assert.assertEquals(
+                                naiveIndexOf(buffer, from, 40, (byte) 0x0a),
+                                DelimiterScanner.indexOf(buffer, from, 40, (byte) 0x0a));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testZeroBytes() throws Exception {
+        Assert.assertEquals(0L, DelimiterScanner.zeroBytes(0x0101010101010101L));
+        Assert.assertEquals(0L, DelimiterScanner.zeroBytes(0x8080808080808080L));
+        Assert.assertEquals(0x8000000000000080L, DelimiterScanner.zeroBytes(0x0001010101010100L));
+        Assert.assertEquals(0x0000000000008000L, DelimiterScanner.zeroBytes(0xffffffffffff00ffL));
+    }
+
+}
@@ -27,6 +27,9 @@
 
 package org.apache.hc.core5.http.impl.nio;
 
+import java.nio.ByteBuffer;
+
+import org.apache.hc.core5.util.PooledByteBufferAllocator;
 import org.hamcrest.CoreMatchers;
 import org.junit.Assert;
 import org.junit.Test;
@@ -79,4 +82,27 @@ public void testAdjustCapacity() throws Exception {
         buffer.ensureAdjustedCapacity(1025);
         Assert.assertThat(buffer.capacity(), CoreMatchers.equalTo(2048));
     }
+
+    @Test
+    public void testReleaseAndReacquire() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator();
+        final ExpandableBuffer buffer = new ExpandableBuffer(1024, allocator);
+        buffer.setInputMode();
+        buffer.buffer().put(new byte[] { 0, 1, 2, 3 });
+        final ByteBuffer b1 = buffer.buffer();
+        Assert.assertThat(buffer.isAllocated(), CoreMatchers.equalTo(true));
+
+        buffer.release();
+        Assert.assertThat(buffer.isAllocated(), CoreMatchers.equalTo(false));
+        Assert.assertThat(buffer.hasData(), CoreMatchers.equalTo(false));
+        Assert.assertThat(buffer.length(), CoreMatchers.equalTo(0));
+        Assert.assertThat(allocator.getPooledCount(), CoreMatchers.equalTo(1));
+
+        buffer.setInputMode();
+        final ByteBuffer b2 = buffer.buffer();
+        Assert.assertThat(buffer.isAllocated(), CoreMatchers.equalTo(true));
+        Assert.assertSame(b1, b2);
+        Assert.assertThat(b2.position(), CoreMatchers.equalTo(0));
+        Assert.assertThat(allocator.getPooledCount(), CoreMatchers.equalTo(0));
+    }
 }
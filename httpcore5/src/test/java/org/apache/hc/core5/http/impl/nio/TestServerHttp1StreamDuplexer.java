@@ -0,0 +1,211 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.http.impl.nio;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.config.Http1Config;
+import org.apache.hc.core5.http.impl.HttpProcessors;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.HandlerFactory;
+import org.apache.hc.core5.http.nio.support.ImmediateResponseExchangeHandler;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.reactor.ProtocolIOSession;
+import org.apache.hc.core5.util.PooledByteBufferAllocator;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class TestServerHttp1StreamDuplexer {
+
+    private static final Timeout SOCKET_TIMEOUT = Timeout.ofSeconds(30);
+    private static final Timeout IDLE_BUFFER_TIMEOUT = Timeout.ofSeconds(1);
+
+    private ProtocolIOSession ioSession;
+    private AtomicReference<Timeout> socketTimeout;
+    private AtomicReference<ByteBuffer> pendingInput;
+    private PooledByteBufferAllocator allocator;
+
+    @Before
+    public void setup() throws Exception {
+        ioSession = Mockito.mock(ProtocolIOSession.class);
+        socketTimeout = new AtomicReference<>(SOCKET_TIMEOUT);
+        pendingInput = new AtomicReference<>();
+        allocator = new PooledByteBufferAllocator();
+        Mockito.when(ioSession.getLock()).thenReturn(new ReentrantLock());
+        Mockito.when(ioSession.getSocketTimeout()).thenAnswer(new Answer<Timeout>() {
+
+            @Override
+            public Timeout answer(final InvocationOnMock invocation) {
+                return socketTimeout.get();
+            }
+
+        });
+        Mockito.doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation) {
+                socketTimeout.set(invocation.<Timeout>getArgument(0));
+                return null;
+            }
+
+        }).when(ioSession).setSocketTimeout(ArgumentMatchers.<Timeout>any());
+        Mockito.when(ioSession.read(ArgumentMatchers.<ByteBuffer>any())).thenAnswer(new Answer<Integer>() {
+
+            @Override
+            public Integer answer(final InvocationOnMock invocation) {
+                final ByteBuffer dst = invocation.getArgument(0);
+                final ByteBuffer src = pendingInput.getAndSet(null);
+                if (src == null) {
+                    return 0;
+                }
+                final int n = src.remaining();
+                dst.put(src);
+                return n;
+            }
+
+        });
+        Mockito.when(ioSession.write(ArgumentMatchers.<ByteBuffer>any())).thenAnswer(new Answer<Integer>() {
+
+            @Override
+            public Integer answer(final InvocationOnMock invocation) {
+                final ByteBuffer src = invocation.getArgument(0);
+                final int n = src.remaining();
+                src.position(src.limit());
+                return n;
+            }
+
+        });
+    }
+
+    private ServerHttp1StreamDuplexer createDuplexer(final Timeout idleBufferTimeout) throws Exception {
+        final Http1Config http1Config = Http1Config.custom()
+                .setReleaseIdleBuffers(true)
+                .setIdleBufferTimeout(idleBufferTimeout)
+                .build();
+        final ServerHttp1StreamDuplexer duplexer = new ServerHttp1StreamDuplexer(
+                ioSession,
+                HttpProcessors.server(),
+                new HandlerFactory<AsyncServerExchangeHandler>() {
+
+                    @Override
+                    public AsyncServerExchangeHandler create(
+                            final HttpRequest request, final HttpContext context) {
+                        return new ImmediateResponseExchangeHandler(HttpStatus.SC_OK, "ok");
+                    }
+
+                },
+                "http",
+                http1Config,
+                null,
+                null,
+                new DefaultHttpRequestParser<>(DefaultHttpRequestFactory.INSTANCE, http1Config),
+                new DefaultHttpResponseWriter<>(),
+                null,
+                null,
+                null,
+                allocator);
+        duplexer.onConnect();
+        return duplexer;
+    }
+
+    private void exchange(final ServerHttp1StreamDuplexer duplexer) throws Exception {
+        pendingInput.set(ByteBuffer.wrap("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII)));
+        duplexer.onInput(null);
+        duplexer.onOutput();
+        duplexer.onOutput();
+    }
+
+    @Test
+    public void testBuffersReleasedAfterIdleTimeout() throws Exception {
+        final ServerHttp1StreamDuplexer duplexer = createDuplexer(IDLE_BUFFER_TIMEOUT);
+
+        exchange(duplexer);
+        // Buffers survive a quick request / response cycle
+        Assert.assertEquals(0, allocator.getPooledCount());
+        Assert.assertEquals(IDLE_BUFFER_TIMEOUT, socketTimeout.get());
+        Assert.assertEquals(SOCKET_TIMEOUT, duplexer.getSocketTimeout());
+
+        exchange(duplexer);
+        Assert.assertEquals(0, allocator.getPooledCount());
+
+        // The I/O reactor signals the end of the idle period
+        duplexer.onTimeout(IDLE_BUFFER_TIMEOUT);
+        Assert.assertEquals(2, allocator.getPooledCount());
+        Assert.assertEquals(Timeout.ofSeconds(29), socketTimeout.get());
+        Assert.assertTrue(duplexer.isOpen());
+        Mockito.verify(ioSession, Mockito.never()).close();
+
+        // Buffers get re-acquired by the next exchange
+        exchange(duplexer);
+        Assert.assertEquals(0, allocator.getPooledCount());
+        Assert.assertEquals(IDLE_BUFFER_TIMEOUT, socketTimeout.get());
+        Assert.assertEquals(SOCKET_TIMEOUT, duplexer.getSocketTimeout());
+
+        duplexer.onTimeout(IDLE_BUFFER_TIMEOUT);
+        Assert.assertEquals(2, allocator.getPooledCount());
+        Assert.assertEquals(Timeout.ofSeconds(29), socketTimeout.get());
+
+        // The remainder of the socket timeout expires
+        duplexer.onTimeout(Timeout.ofSeconds(29));
+        Mockito.verify(ioSession).close();
+    }
+
+    @Test
+    public void testBuffersReleasedImmediately() throws Exception {
+        final ServerHttp1StreamDuplexer duplexer = createDuplexer(Timeout.DISABLED);
+
+        exchange(duplexer);
+        Assert.assertEquals(2, allocator.getPooledCount());
+        Assert.assertEquals(SOCKET_TIMEOUT, socketTimeout.get());
+    }
+
+    @Test
+    public void testSocketTimeoutResetWhileIdle() throws Exception {
+        final ServerHttp1StreamDuplexer duplexer = createDuplexer(IDLE_BUFFER_TIMEOUT);
+
+        exchange(duplexer);
+        duplexer.setSocketTimeout(Timeout.ofSeconds(10));
+        Assert.assertEquals(Timeout.ofSeconds(10), socketTimeout.get());
+
+        exchange(duplexer);
+        Assert.assertEquals(IDLE_BUFFER_TIMEOUT, socketTimeout.get());
+        Assert.assertEquals(Timeout.ofSeconds(10), duplexer.getSocketTimeout());
+    }
+
+}
@@ -31,9 +31,17 @@
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.ProtocolException;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -217,4 +225,100 @@ public void testSerialization() throws Exception {
         }
     }
 
+    @Test
+    public void testIndexedLookups() throws Exception {
+        final HeaderGroup headergroup = new HeaderGroup();
+        for (int i = 0; i < 40; i++) {
+            headergroup.addHeader(new BasicHeader("header" + (i % 10), "value" + i));
+        }
+        headergroup.addHeader(new BasicHeader("Content-Length", "0"));
+        Assert.assertEquals(4, headergroup.countHeaders("HEADER3"));
+        Assert.assertEquals("value3", headergroup.getFirstHeader("Header3").getValue());
+        Assert.assertEquals("value33", headergroup.getLastHeader("header3").getValue());
+        Assert.assertEquals("0", headergroup.getHeader("content-length").getValue());
+        Assert.assertTrue(headergroup.containsHeader("Content-Length"));
+        Assert.assertFalse(headergroup.containsHeader("header10"));
+        Assert.assertNull(headergroup.getFirstHeader(null));
+        Assert.assertNull(headergroup.getLastHeader(null));
+        try {
+            headergroup.getHeader("header5");
+            Assert.fail("ProtocolException should have been thrown");
+        } catch (final ProtocolException ex) {
+            // expected
+        }
+
+        headergroup.addHeader(new BasicHeader("header3", "value40"));
+        Assert.assertEquals(5, headergroup.countHeaders("header3"));
+        Assert.assertEquals("value40", headergroup.getLastHeader("header3").getValue());
+
+        headergroup.setHeader(new BasicHeader("HEADER3", "new"));
+        Assert.assertEquals("new", headergroup.getFirstHeader("header3").getValue());
+
+        Assert.assertTrue(headergroup.removeHeaders("header3"));
+        Assert.assertEquals(0, headergroup.countHeaders("header3"));
+        Assert.assertEquals(4, headergroup.getHeaders("header4").length);
+
+        final Iterator<Header> it = headergroup.headerIterator("header4");
+        it.next();
+        it.remove();
+        Assert.assertEquals("value14", headergroup.getFirstHeader("header4").getValue());
+        Assert.assertEquals("0", headergroup.getFirstHeader("Content-Length").getValue());
+    }
+
+    @Test
+    public void testConcurrentIndexedLookups() throws Exception {
+        final Header[] headers = new Header[64];
+        for (int i = 0; i < headers.length; i++) {
+            headers[i] = new BasicHeader("header" + (i % 16), "value" + i);
+        }
+        final HeaderGroup headergroup = new HeaderGroup();
+        headergroup.setHeaders(headers);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int n = 0; n < 4; n++) {
+                results.add(executorService.submit(new Callable<Boolean>() {
+
+                    @Override
+                    public Boolean call() throws Exception {
+                        for (int i = 0; i < 1000; i++) {
+                            final String name = "HEADER" + (i % 16);
+                            if (headergroup.countHeaders(name) != 4
+                                    || !("value" + (i % 16)).equals(headergroup.getFirstHeader(name).getValue())
+                                    || !("value" + (48 + i % 16)).equals(headergroup.getLastHeader(name).getValue())) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+
+                }));
+            }
+            for (final Future<Boolean> result : results) {
+                Assert.assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testIndexedLookupsAfterSerialization() throws Exception {
+        final HeaderGroup orig = new HeaderGroup();
+        for (int i = 0; i < 40; i++) {
+            orig.addHeader(new BasicHeader("header" + (i % 10), "value" + i));
+        }
+        final ByteArrayOutputStream outbuffer = new ByteArrayOutputStream();
+        final ObjectOutputStream outStream = new ObjectOutputStream(outbuffer);
+        outStream.writeObject(orig);
+        outStream.close();
+        final ObjectInputStream inStream = new ObjectInputStream(new ByteArrayInputStream(outbuffer.toByteArray()));
+        final HeaderGroup clone = (HeaderGroup) inStream.readObject();
+        Assert.assertEquals(4, clone.countHeaders("HEADER3"));
+        Assert.assertEquals("value33", clone.getLastHeader("header3").getValue());
+        clone.addHeader(new BasicHeader("header3", "value40"));
+        Assert.assertEquals("value40", clone.getLastHeader("header3").getValue());
+    }
+
 }
@@ -0,0 +1,111 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.util.CharArrayBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SharedBufferedHeader}.
+ *
+ */
+public class TestSharedBufferedHeader {
+
+    @Test
+    public void testSharedBuffer() throws Exception {
+        final CharArrayBuffer buf = new CharArrayBuffer(64);
+        buf.append("Content-Type: text/plain");
+        buf.append("content-length:  10 ");
+        buf.append("X-Custom: stuff");
+        final SharedBufferedHeader h1 = SharedBufferedHeader.create(buf, 0, 24);
+        final SharedBufferedHeader h2 = SharedBufferedHeader.create(buf, 24, 44);
+        final SharedBufferedHeader h3 = SharedBufferedHeader.create(buf, 44, buf.length());
+        Assert.assertSame(HttpHeaders.CONTENT_TYPE, h1.getName());
+        Assert.assertEquals("text/plain", h1.getValue());
+        Assert.assertSame(h1.getValue(), h1.getValue());
+        Assert.assertEquals("content-length", h2.getName());
+        Assert.assertEquals("10", h2.getValue());
+        Assert.assertEquals("X-Custom", h3.getName());
+        Assert.assertEquals("stuff", h3.getValue());
+        Assert.assertEquals("content-length:  10 ", h2.toString());
+        Assert.assertEquals("content-length:  10 ", h2.getBuffer().toString());
+        Assert.assertEquals(15, h2.getValuePos());
+    }
+
+    @Test
+    public void testWellKnownNameInterning() throws Exception {
+        final char[] name = "Transfer-Encoding".toCharArray();
+        Assert.assertSame(HttpHeaders.TRANSFER_ENCODING, HeaderNameRegistry.lookup(name, 0, name.length));
+        final char[] lowerCase = "transfer-encoding".toCharArray();
+        Assert.assertEquals("transfer-encoding", HeaderNameRegistry.lookup(lowerCase, 0, lowerCase.length));
+        final char[] mixedCase = "TRANSFER-Encoding".toCharArray();
+        Assert.assertNull(HeaderNameRegistry.lookup(mixedCase, 0, mixedCase.length));
+        Assert.assertEquals("TRANSFER-Encoding", HeaderNameRegistry.intern(mixedCase, 0, mixedCase.length));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        final CharArrayBuffer buf = new CharArrayBuffer(32);
+        buf.append("Host: localhostname: value");
+        final SharedBufferedHeader orig = SharedBufferedHeader.create(buf, 15, buf.length());
+        final ByteArrayOutputStream outbuffer = new ByteArrayOutputStream();
+        final ObjectOutputStream outStream = new ObjectOutputStream(outbuffer);
+        outStream.writeObject(orig);
+        outStream.close();
+        final byte[] raw = outbuffer.toByteArray();
+        final ByteArrayInputStream inBuffer = new ByteArrayInputStream(raw);
+        final ObjectInputStream inStream = new ObjectInputStream(inBuffer);
+        final SharedBufferedHeader clone = (SharedBufferedHeader) inStream.readObject();
+        Assert.assertEquals("name", clone.getName());
+        Assert.assertEquals("value", clone.getValue());
+    }
+
+    @Test
+    public void testInvalidHeaderParsing() throws Exception {
+        final String[] invalid = { "blah", ":", "   :", ": blah", " : blah", "header : blah" };
+        for (final String s : invalid) {
+            final CharArrayBuffer buf = new CharArrayBuffer(16);
+            buf.append("Host: a");
+            buf.append(s);
+            try {
+                SharedBufferedHeader.create(buf, 7, buf.length());
+                Assert.fail("ParseException should have been thrown: " + s);
+            } catch (final ParseException e) {
+                //expected
+            }
+        }
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.support.classic;
+
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestChainedInputBuffer {
+
+    private static final Timeout TIMEOUT = Timeout.ofSeconds(30);
+
+    @Test
+    public void testBasis() throws Exception {
+
+        final Charset charset = StandardCharsets.US_ASCII;
+        final ChainedInputBuffer inputBuffer = new ChainedInputBuffer(20);
+
+        final CapacityChannel capacityChannel = Mockito.mock(CapacityChannel.class);
+        inputBuffer.updateCapacity(capacityChannel);
+        Mockito.verify(capacityChannel).update(20);
+        Mockito.reset(capacityChannel);
+
+        Assert.assertEquals(10, inputBuffer.fill(charset.encode("1234567890")));
+        Assert.assertEquals(0, inputBuffer.fill(charset.encode("1234567890")));
+        Assert.assertEquals(0, inputBuffer.fill(charset.encode("1234567890")));
+        Assert.assertEquals(30, inputBuffer.length());
+
+        final byte[] tmp = new byte[5];
+        Assert.assertEquals(5, inputBuffer.read(tmp, 0, tmp.length));
+        Mockito.verifyZeroInteractions(capacityChannel);
+
+        final byte[] tmp2 = new byte[15];
+        Assert.assertEquals(15, inputBuffer.read(tmp2, 0, tmp2.length));
+        // 10 bytes over the granted capacity have been filled in, 10 bytes left
+        Mockito.verify(capacityChannel).update(20);
+        Mockito.reset(capacityChannel);
+
+        inputBuffer.markEndStream();
+
+        Assert.assertEquals('1', inputBuffer.read());
+        Assert.assertEquals('2', inputBuffer.read());
+        final byte[] tmp3 = new byte[20];
+        Assert.assertEquals(8, inputBuffer.read(tmp3, 0, tmp3.length));
+        Assert.assertEquals("34567890", new String(tmp3, 0, 8, charset));
+        Mockito.verifyZeroInteractions(capacityChannel);
+        Assert.assertEquals(-1, inputBuffer.read(tmp3, 0, tmp3.length));
+        Assert.assertEquals(-1, inputBuffer.read());
+        Assert.assertTrue(inputBuffer.isEndStream());
+    }
+
+    @Test
+    public void testContentSpanningChunks() throws Exception {
+
+        final ChainedInputBuffer inputBuffer = new ChainedInputBuffer(32 * 1024);
+        final byte[] content = new byte[30000];
+        new Random(1).nextBytes(content);
+        inputBuffer.fill(ByteBuffer.wrap(content, 0, 10000));
+        inputBuffer.fill(ByteBuffer.wrap(content, 10000, 20000));
+        inputBuffer.markEndStream();
+
+        final byte[] result = new byte[content.length];
+        int total = 0;
+        int l;
+        while ((l = inputBuffer.read(result, total, Math.min(7000, result.length - total))) > 0) {
+            total += l;
+        }
+        Assert.assertEquals(content.length, total);
+        Assert.assertArrayEquals(content, result);
+    }
+
+    @Test
+    public void testMultithreadingReadStream() throws Exception {
+
+        final ChainedInputBuffer inputBuffer = new ChainedInputBuffer(10);
+
+        final CapacityChannel capacityChannel = Mockito.mock(CapacityChannel.class);
+        inputBuffer.updateCapacity(capacityChannel);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        final Future<Boolean> task1 = executorService.submit(new Callable<Boolean>() {
+
+            @Override
+            public Boolean call() throws Exception {
+                final Charset charset = StandardCharsets.US_ASCII;
+                final Random rnd = new Random(System.currentTimeMillis());
+                for (int i = 0; i < 5; i++) {
+                    inputBuffer.fill(charset.encode("1234567890"));
+                    Thread.sleep(rnd.nextInt(100));
+                }
+                inputBuffer.markEndStream();
+                return Boolean.TRUE;
+            }
+
+        });
+        final Future<String> task2 = executorService.submit(new Callable<String>() {
+
+            @Override
+            public String call() throws Exception {
+                final Charset charset = StandardCharsets.US_ASCII;
+                final StringBuilder buf = new StringBuilder();
+                final byte[] tmp = new byte[10];
+                int l;
+                while ((l = inputBuffer.read(tmp, 0, tmp.length)) != -1) {
+                    buf.append(charset.decode(ByteBuffer.wrap(tmp, 0, l)));
+                }
+                return buf.toString();
+            }
+
+        });
+
+        Assert.assertEquals(Boolean.TRUE, task1.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+        Assert.assertEquals("12345678901234567890123456789012345678901234567890",
+                task2.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testMultithreadingReadAbort() throws Exception {
+
+        final ChainedInputBuffer inputBuffer = new ChainedInputBuffer(10);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(1);
+        final Future<Integer> task = executorService.submit(new Callable<Integer>() {
+
+            @Override
+            public Integer call() throws Exception {
+                return inputBuffer.read();
+            }
+
+        });
+        Thread.sleep(100);
+        inputBuffer.abort();
+
+        Assert.assertEquals(Integer.valueOf(-1), task.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testReadInterrupted() throws Exception {
+
+        final ChainedInputBuffer inputBuffer = new ChainedInputBuffer(10);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(1);
+        final Future<Integer> task = executorService.submit(new Callable<Integer>() {
+
+            @Override
+            public Integer call() throws Exception {
+                return inputBuffer.read();
+            }
+
+        });
+        Thread.sleep(100);
+        executorService.shutdownNow();
+
+        try {
+            task.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.fail("ExecutionException expected");
+        } catch (final ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof InterruptedIOException);
+        }
+    }
+
+}
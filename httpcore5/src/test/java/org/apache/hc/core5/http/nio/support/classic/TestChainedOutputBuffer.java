@@ -0,0 +1,332 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.http.nio.support.classic;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.WritableByteChannelMock;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestChainedOutputBuffer {
+
+    private static final Timeout TIMEOUT = Timeout.ofSeconds(30);
+
+    static class DataStreamChannelMock implements DataStreamChannel {
+
+        private final WritableByteChannelMock channel;
+        private boolean outputRequested;
+        private boolean endStream;
+        private long totalWritten;
+
+        DataStreamChannelMock(final WritableByteChannelMock channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public synchronized int write(final ByteBuffer src) throws IOException {
+            final int bytesWritten = channel.write(src);
+            totalWritten += bytesWritten;
+            notifyAll();
+            return bytesWritten;
+        }
+
+        @Override
+        public synchronized void requestOutput() {
+            outputRequested = true;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void endStream(final List<? extends Header> trailers) throws IOException {
+            endStream = true;
+            channel.close();
+            notifyAll();
+        }
+
+        @Override
+        public void endStream() throws IOException {
+            endStream(null);
+        }
+
+        public synchronized boolean isEndStream() {
+            return endStream;
+        }
+
+        public synchronized void awaitOutputRequest() throws InterruptedException {
+            while (!outputRequested) {
+                wait();
+            }
+            outputRequested = false;
+        }
+
+        public synchronized boolean awaitWritten(final long count, final long timeoutMillis) throws InterruptedException {
+            final long deadline = System.currentTimeMillis() + timeoutMillis;
+            while (totalWritten < count) {
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(remaining);
+            }
+            return true;
+        }
+
+    }
+
+    @Test
+    public void testBasis() throws Exception {
+
+        final Charset charset = StandardCharsets.US_ASCII;
+        final ChainedOutputBuffer outputBuffer = new ChainedOutputBuffer(30);
+
+        final WritableByteChannelMock channel = new WritableByteChannelMock(1024);
+        final DataStreamChannel dataStreamChannel = Mockito.spy(new DataStreamChannelMock(channel));
+
+        Assert.assertEquals(0, outputBuffer.length());
+        Assert.assertEquals(30, outputBuffer.capacity());
+
+        final byte[] tmp = "1234567890".getBytes(charset);
+        outputBuffer.write(tmp, 0, tmp.length);
+        outputBuffer.write(tmp, 0, tmp.length);
+        outputBuffer.write('1');
+        outputBuffer.write('2');
+
+        Assert.assertEquals(22, outputBuffer.length());
+        Assert.assertEquals(8, outputBuffer.capacity());
+        Mockito.verifyZeroInteractions(dataStreamChannel);
+
+        outputBuffer.flush(dataStreamChannel);
+
+        Assert.assertEquals(0, outputBuffer.length());
+        Assert.assertEquals(30, outputBuffer.capacity());
+        Assert.assertEquals("1234567890123456789012", new String(channel.toByteArray(), charset));
+
+        outputBuffer.write(tmp, 0, tmp.length);
+        Mockito.verify(dataStreamChannel).requestOutput();
+        outputBuffer.writeCompleted();
+        Mockito.verify(dataStreamChannel, Mockito.times(2)).requestOutput();
+        Mockito.verify(dataStreamChannel, Mockito.never()).endStream();
+
+        outputBuffer.flush(dataStreamChannel);
+        Mockito.verify(dataStreamChannel).endStream();
+        Assert.assertEquals("12345678901234567890121234567890", new String(channel.toByteArray(), charset));
+    }
+
+    @Test
+    public void testMultithreadingWriteStream() throws Exception {
+
+        final Charset charset = StandardCharsets.US_ASCII;
+        final ChainedOutputBuffer outputBuffer = new ChainedOutputBuffer(20);
+
+        final WritableByteChannelMock channel = new WritableByteChannelMock(1024);
+        final DataStreamChannelMock dataStreamChannel = new DataStreamChannelMock(channel);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        final Future<Boolean> task1 = executorService.submit(new Callable<Boolean>() {
+
+            @Override
+            public Boolean call() throws Exception {
+                final byte[] tmp = "1234567890".getBytes(charset);
+                for (int i = 0; i < 100; i++) {
+                    outputBuffer.write(tmp, 0, tmp.length);
+                    outputBuffer.write('1');
+                    outputBuffer.write('2');
+                }
+                outputBuffer.writeCompleted();
+                outputBuffer.writeCompleted();
+                return Boolean.TRUE;
+            }
+
+        });
+        final Future<Boolean> task2 = executorService.submit(new Callable<Boolean>() {
+
+            @Override
+            public Boolean call() throws Exception {
+                for (;;) {
+                    outputBuffer.flush(dataStreamChannel);
+                    if (dataStreamChannel.isEndStream()) {
+                        break;
+                    }
+                    if (!outputBuffer.hasData()) {
+                        dataStreamChannel.awaitOutputRequest();
+                    }
+                }
+                return Boolean.TRUE;
+            }
+
+        });
+
+        Assert.assertEquals(Boolean.TRUE, task1.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+        Assert.assertEquals(Boolean.TRUE, task2.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            expected.append("123456789012");
+        }
+        Assert.assertEquals(expected.toString(), new String(channel.toByteArray(), charset));
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testMultithreadingWriteFlushNoStall() throws Exception {
+
+        final int blockSize = 32 * 1024;
+        final int blockCount = 500;
+        final ChainedOutputBuffer outputBuffer = new ChainedOutputBuffer(64 * 1024);
+
+        final WritableByteChannelMock channel = new WritableByteChannelMock(blockSize * blockCount);
+        final DataStreamChannelMock dataStreamChannel = new DataStreamChannelMock(channel);
+        // Let the buffer know the channel before the writer starts
+        outputBuffer.flush(dataStreamChannel);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        final Future<Boolean> task1 = executorService.submit(new Callable<Boolean>() {
+
+            @Override
+            public Boolean call() throws Exception {
+                final byte[] block = new byte[blockSize];
+                // Each block must get written out without any further writes
+                for (int i = 0; i < blockCount; i++) {
+                    outputBuffer.write(block, 0, block.length);
+                    if (!dataStreamChannel.awaitWritten((long) (i + 1) * blockSize, 5000)) {
+                        return Boolean.FALSE;
+                    }
+                }
+                outputBuffer.writeCompleted();
+                return Boolean.TRUE;
+            }
+
+        });
+        final Future<Boolean> task2 = executorService.submit(new Callable<Boolean>() {
+
+            @Override
+            public Boolean call() throws Exception {
+                for (;;) {
+                    outputBuffer.flush(dataStreamChannel);
+                    if (outputBuffer.length() < 0) {
+                        return Boolean.FALSE;
+                    }
+                    if (dataStreamChannel.isEndStream()) {
+                        break;
+                    }
+                    // Keep on flushing for a while as if on spurious output events
+                    for (int i = 0; i < 100 && !outputBuffer.hasData(); i++) {
+                        outputBuffer.flush(dataStreamChannel);
+                        if (outputBuffer.length() < 0) {
+                            return Boolean.FALSE;
+                        }
+                    }
+                    if (!outputBuffer.hasData()) {
+                        dataStreamChannel.awaitOutputRequest();
+                    }
+                }
+                return Boolean.TRUE;
+            }
+
+        });
+
+        try {
+            Assert.assertEquals("Output stalled", Boolean.TRUE, task1.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+            Assert.assertEquals(Boolean.TRUE, task2.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+            Assert.assertEquals(blockSize * blockCount, channel.toByteArray().length);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMultithreadingWriteStreamAbort() throws Exception {
+
+        final Charset charset = StandardCharsets.US_ASCII;
+        final ChainedOutputBuffer outputBuffer = new ChainedOutputBuffer(20);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        final Future<Boolean> task1 = executorService.submit(new Callable<Boolean>() {
+
+            @Override
+            public Boolean call() throws Exception {
+                final byte[] tmp = "1234567890".getBytes(charset);
+                for (int i = 0; i < 20; i++) {
+                    outputBuffer.write(tmp, 0, tmp.length);
+                }
+                outputBuffer.writeCompleted();
+                return Boolean.TRUE;
+            }
+
+        });
+        final Future<Boolean> task2 = executorService.submit(new Callable<Boolean>() {
+
+            @Override
+            public Boolean call() throws Exception {
+                Thread.sleep(200);
+                outputBuffer.abort();
+                return Boolean.TRUE;
+            }
+
+        });
+
+        Assert.assertEquals(Boolean.TRUE, task2.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+        try {
+            task1.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            Assert.fail("ExecutionException expected");
+        } catch (final ExecutionException ex) {
+            Assert.assertTrue(ex.getCause() instanceof InterruptedIOException);
+        }
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testEndStreamOnlyCalledOnce() throws IOException {
+
+        final DataStreamChannel channel = Mockito.mock(DataStreamChannel.class);
+        final ChainedOutputBuffer outputBuffer = new ChainedOutputBuffer(20);
+
+        outputBuffer.flush(channel);
+
+        outputBuffer.writeCompleted();
+        outputBuffer.flush(channel);
+        outputBuffer.flush(channel);
+
+        Mockito.verify(channel, Mockito.times(1)).endStream();
+    }
+
+}
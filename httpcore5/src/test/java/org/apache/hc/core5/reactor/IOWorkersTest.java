@@ -26,19 +26,98 @@
  */
 package org.apache.hc.core5.reactor;
 
+import java.net.InetSocketAddress;
+
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.After;
+import org.junit.Assert;
 import org.junit.Test;
 
 import static org.mockito.Mockito.mock;
 
 public class IOWorkersTest {
 
+    private SingleCoreIOReactor[] reactors;
+
+    private SingleCoreIOReactor[] createReactors(final int n) {
+        reactors = new SingleCoreIOReactor[n];
+        for (int i = 0; i < n; i++) {
+            reactors[i] = new SingleCoreIOReactor(null, mock(IOEventHandlerFactory.class), IOReactorConfig.DEFAULT, null, null, null);
+        }
+        return reactors;
+    }
+
+    private static void addPendingRequests(final SingleCoreIOReactor reactor, final int n) throws Exception {
+        final HttpHost host = new HttpHost("somehost", 80);
+        for (int i = 0; i < n; i++) {
+            reactor.connect(host, InetSocketAddress.createUnresolved("somehost", 80), null, Timeout.DISABLED, null, null);
+        }
+    }
+
+    @After
+    public void cleanup() {
+        if (reactors != null) {
+            for (final SingleCoreIOReactor reactor: reactors) {
+                reactor.close(CloseMode.IMMEDIATE);
+            }
+        }
+    }
+
     @Test
     public void testIndexOverflow() {
         final SingleCoreIOReactor reactor = new SingleCoreIOReactor(null, mock(IOEventHandlerFactory.class), IOReactorConfig.DEFAULT, null, null, null);
         final IOWorkers.Selector selector = IOWorkers.newSelector(new SingleCoreIOReactor[]{reactor, reactor, reactor});
         for (long i = 0; i < (long) Integer.MAX_VALUE + 10; i++) {
-            selector.next();
+            selector.next(null);
+        }
+    }
+
+    @Test
+    public void testLeastActiveSessions() throws Exception {
+        final SingleCoreIOReactor[] dispatchers = createReactors(3);
+        addPendingRequests(dispatchers[0], 2);
+        addPendingRequests(dispatchers[1], 1);
+        addPendingRequests(dispatchers[2], 3);
+        Assert.assertEquals(2, dispatchers[0].getPendingRequestCount());
+        final IOWorkers.Selector selector = IOWorkers.newSelector(dispatchers, IOWorkerSelectionPolicy.LEAST_ACTIVE_SESSIONS);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertSame(dispatchers[1], selector.next(null));
+        }
+        addPendingRequests(dispatchers[1], 2);
+        Assert.assertSame(dispatchers[0], selector.next(null));
+    }
+
+    @Test
+    public void testPowerOfTwoChoices() throws Exception {
+        final SingleCoreIOReactor[] dispatchers = createReactors(2);
+        addPendingRequests(dispatchers[0], 1);
+        final IOWorkers.Selector selector = IOWorkers.newSelector(dispatchers, IOWorkerSelectionPolicy.POWER_OF_TWO_CHOICES);
+        for (int i = 0; i < 20; i++) {
+            Assert.assertSame(dispatchers[1], selector.next(null));
+        }
+    }
+
+    @Test
+    public void testAddressAffinity() throws Exception {
+        final SingleCoreIOReactor[] dispatchers = createReactors(4);
+        final IOWorkers.Selector selector = IOWorkers.newSelector(dispatchers, IOWorkerSelectionPolicy.ADDRESS_AFFINITY);
+        final boolean[] selected = new boolean[dispatchers.length];
+        for (int i = 0; i < 64; i++) {
+            final HttpHost host = new HttpHost("host" + i, 80);
+            final SingleCoreIOReactor dispatcher = selector.next(host);
+            Assert.assertSame(dispatcher, selector.next(new HttpHost("host" + i, 80)));
+            for (int n = 0; n < dispatchers.length; n++) {
+                if (dispatchers[n] == dispatcher) {
+                    selected[n] = true;
+                }
+            }
+        }
+        for (final boolean b: selected) {
+            Assert.assertTrue(b);
         }
+        Assert.assertNotNull(selector.next(null));
     }
 
 }
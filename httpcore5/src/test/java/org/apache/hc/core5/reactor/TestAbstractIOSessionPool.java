@@ -288,4 +288,127 @@ public void testGetSessionReconnectIfClosed() throws Exception {
                 ArgumentMatchers.<FutureCallback<IOSession>>any());
     }
 
+    @Test
+    public void testGetAdditionalSessionIfSaturated() throws Exception {
+        final AbstractIOSessionPool.PoolEntry entry1 = impl.getPoolEntry("somehost");
+        Assert.assertThat(entry1, CoreMatchers.notNullValue());
+        entry1.session = ioSession1;
+
+        Mockito.when(ioSession1.isOpen()).thenReturn(true);
+        Mockito.when(ioSession2.isOpen()).thenReturn(true);
+        Mockito.when(impl.getMaxSessions("somehost")).thenReturn(2);
+        Mockito.when(impl.isSessionSaturated(ioSession1)).thenReturn(true);
+        Mockito.when(impl.getSessionLoad(ioSession1)).thenReturn(10);
+        Mockito.when(impl.getSessionLoad(ioSession2)).thenReturn(1);
+        Mockito.doAnswer(new Answer() {
+
+            @Override
+            public Object answer(final InvocationOnMock invocation) throws Throwable {
+                final Callback<Boolean> callback = invocation.getArgument(1);
+                callback.execute(true);
+                return null;
+            }
+
+        }).when(impl).validateSession(ArgumentMatchers.<IOSession>any(), ArgumentMatchers.<Callback<Boolean>>any());
+
+        final Future<IOSession> future1 = impl.getSession("somehost", Timeout.ofSeconds(123L), null);
+        Assert.assertThat(future1.isDone(), CoreMatchers.equalTo(false));
+
+        Mockito.verify(impl, Mockito.times(1)).connectSession(
+                ArgumentMatchers.eq("somehost"),
+                ArgumentMatchers.<Timeout>any(),
+                ArgumentMatchers.argThat(new ArgumentMatcher<FutureCallback<IOSession>>() {
+
+                    @Override
+                    public boolean matches(final FutureCallback<IOSession> callback) {
+                        callback.completed(ioSession2);
+                        return true;
+                    }
+
+                }));
+
+        Assert.assertThat(future1.isDone(), CoreMatchers.equalTo(true));
+        Assert.assertThat(future1.get(), CoreMatchers.sameInstance(ioSession2));
+        Assert.assertThat(entry1.session, CoreMatchers.sameInstance(ioSession1));
+        Assert.assertThat(entry1.additionalSessions, CoreMatchers.hasItem(ioSession2));
+
+        final Future<IOSession> future2 = impl.getSession("somehost", Timeout.ofSeconds(123L), null);
+        Assert.assertThat(future2.isDone(), CoreMatchers.equalTo(true));
+        Assert.assertThat(future2.get(), CoreMatchers.sameInstance(ioSession2));
+
+        Mockito.verify(impl, Mockito.times(1)).connectSession(
+                ArgumentMatchers.eq("somehost"),
+                ArgumentMatchers.<Timeout>any(),
+                ArgumentMatchers.<FutureCallback<IOSession>>any());
+    }
+
+    @Test
+    public void testGetSaturatedSessionIfAdditionalSessionFails() throws Exception {
+        final AbstractIOSessionPool.PoolEntry entry1 = impl.getPoolEntry("somehost");
+        Assert.assertThat(entry1, CoreMatchers.notNullValue());
+        entry1.session = ioSession1;
+
+        Mockito.when(ioSession1.isOpen()).thenReturn(true);
+        Mockito.when(impl.getMaxSessions("somehost")).thenReturn(2);
+        Mockito.when(impl.isSessionSaturated(ioSession1)).thenReturn(true);
+        Mockito.doAnswer(new Answer() {
+
+            @Override
+            public Object answer(final InvocationOnMock invocation) throws Throwable {
+                final Callback<Boolean> callback = invocation.getArgument(1);
+                callback.execute(true);
+                return null;
+            }
+
+        }).when(impl).validateSession(ArgumentMatchers.<IOSession>any(), ArgumentMatchers.<Callback<Boolean>>any());
+
+        final Future<IOSession> future1 = impl.getSession("somehost", Timeout.ofSeconds(123L), null);
+        Assert.assertThat(future1.isDone(), CoreMatchers.equalTo(false));
+
+        Mockito.verify(impl, Mockito.times(1)).connectSession(
+                ArgumentMatchers.eq("somehost"),
+                ArgumentMatchers.<Timeout>any(),
+                ArgumentMatchers.argThat(new ArgumentMatcher<FutureCallback<IOSession>>() {
+
+                    @Override
+                    public boolean matches(final FutureCallback<IOSession> callback) {
+                        callback.failed(new Exception("Boom"));
+                        return true;
+                    }
+
+                }));
+
+        Assert.assertThat(future1.isDone(), CoreMatchers.equalTo(true));
+        Assert.assertThat(future1.get(), CoreMatchers.sameInstance(ioSession1));
+    }
+
+    @Test
+    public void testGetReusableSession() throws Exception {
+        final AbstractIOSessionPool.PoolEntry entry1 = impl.getPoolEntry("host1");
+        Assert.assertThat(entry1, CoreMatchers.notNullValue());
+        entry1.session = ioSession1;
+
+        Mockito.when(ioSession1.isOpen()).thenReturn(true);
+        Mockito.when(impl.isSessionReusable("host2", ioSession1)).thenReturn(true);
+        Mockito.doAnswer(new Answer() {
+
+            @Override
+            public Object answer(final InvocationOnMock invocation) throws Throwable {
+                final Callback<Boolean> callback = invocation.getArgument(1);
+                callback.execute(true);
+                return null;
+            }
+
+        }).when(impl).validateSession(ArgumentMatchers.<IOSession>any(), ArgumentMatchers.<Callback<Boolean>>any());
+
+        final Future<IOSession> future1 = impl.getSession("host2", Timeout.ofSeconds(123L), null);
+        Assert.assertThat(future1.isDone(), CoreMatchers.equalTo(true));
+        Assert.assertThat(future1.get(), CoreMatchers.sameInstance(ioSession1));
+
+        Mockito.verify(impl, Mockito.never()).connectSession(
+                ArgumentMatchers.anyString(),
+                ArgumentMatchers.<Timeout>any(),
+                ArgumentMatchers.<FutureCallback<IOSession>>any());
+    }
+
 }
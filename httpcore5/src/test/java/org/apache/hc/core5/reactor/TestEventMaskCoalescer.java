@@ -0,0 +1,125 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestEventMaskCoalescer {
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private SocketChannel clientChannel;
+    private SocketChannel acceptedChannel;
+    private SelectionKey key;
+    private EventMaskCoalescer coalescer;
+    private IOSessionImpl session;
+
+    @Before
+    public void setup() throws Exception {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        clientChannel = SocketChannel.open(serverChannel.getLocalAddress());
+        acceptedChannel = serverChannel.accept();
+        clientChannel.configureBlocking(false);
+        key = clientChannel.register(selector, SelectionKey.OP_READ);
+        coalescer = new EventMaskCoalescer(selector);
+        session = new IOSessionImpl("t", key, clientChannel, null, coalescer);
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        acceptedChannel.close();
+        clientChannel.close();
+        serverChannel.close();
+        selector.close();
+    }
+
+    @Test
+    public void testUpdateFromReactorThreadAppliedImmediately() throws Exception {
+        coalescer.bind(Thread.currentThread());
+        session.setEvent(SelectionKey.OP_WRITE);
+        Assert.assertEquals(SelectionKey.OP_READ | SelectionKey.OP_WRITE, key.interestOps());
+        session.clearEvent(SelectionKey.OP_READ);
+        Assert.assertEquals(SelectionKey.OP_WRITE, key.interestOps());
+        session.setEventMask(0);
+        Assert.assertEquals(0, key.interestOps());
+        // No wake-up has been requested
+        Assert.assertEquals(0, selector.selectNow());
+    }
+
+    @Test
+    public void testUpdatesFromOtherThreadsCoalesced() throws Exception {
+        final Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                session.setEvent(SelectionKey.OP_WRITE);
+                session.clearEvent(SelectionKey.OP_READ);
+                session.setEvent(SelectionKey.OP_READ);
+            }
+
+        });
+        thread.start();
+        thread.join();
+
+        Assert.assertEquals(SelectionKey.OP_READ | SelectionKey.OP_WRITE, session.getEventMask());
+        Assert.assertEquals(SelectionKey.OP_READ, key.interestOps());
+
+        coalescer.applyPending();
+        Assert.assertEquals(SelectionKey.OP_READ | SelectionKey.OP_WRITE, key.interestOps());
+    }
+
+    @Test
+    public void testRedundantUpdateNotScheduled() throws Exception {
+        session.setEvent(SelectionKey.OP_READ);
+        session.clearEvent(SelectionKey.OP_WRITE);
+        session.setEventMask(SelectionKey.OP_READ);
+        // Nothing scheduled means no pending wake-up either
+        Assert.assertEquals(0, selector.selectNow());
+    }
+
+    @Test
+    public void testPendingUpdateOfClosedSessionIgnored() throws Exception {
+        session.setEvent(SelectionKey.OP_WRITE);
+        session.close();
+        coalescer.applyPending();
+        Assert.assertFalse(key.isValid());
+    }
+
+}
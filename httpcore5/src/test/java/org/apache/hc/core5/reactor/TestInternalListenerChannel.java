@@ -0,0 +1,179 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.core5.reactor;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hc.core5.function.Callback;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestInternalListenerChannel {
+
+    static class ServerSocketChannelStub extends ServerSocketChannel {
+
+        IOException acceptFailure;
+        SocketChannel pending;
+
+        ServerSocketChannelStub() {
+            super(SelectorProvider.provider());
+        }
+
+        @Override
+        public SocketChannel accept() throws IOException {
+            if (acceptFailure != null) {
+                throw acceptFailure;
+            }
+            final SocketChannel socketChannel = pending;
+            pending = null;
+            return socketChannel;
+        }
+
+        @Override
+        public ServerSocketChannel bind(final SocketAddress local, final int backlog) {
+            return this;
+        }
+
+        @Override
+        public <T> ServerSocketChannel setOption(final SocketOption<T> name, final T value) {
+            return this;
+        }
+
+        @Override
+        public <T> T getOption(final SocketOption<T> name) {
+            return null;
+        }
+
+        @Override
+        public Set<SocketOption<?>> supportedOptions() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public ServerSocket socket() {
+            return null;
+        }
+
+        @Override
+        public SocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        protected void implCloseSelectableChannel() {
+        }
+
+        @Override
+        protected void implConfigureBlocking(final boolean block) {
+        }
+
+    }
+
+    private Selector selector;
+    private ServerSocketChannelStub serverChannel;
+    private List<ChannelEntry> accepted;
+    private List<Exception> exceptions;
+    private InternalListenerChannel listenerChannel;
+
+    @Before
+    public void setup() throws Exception {
+        selector = Selector.open();
+        serverChannel = new ServerSocketChannelStub();
+        accepted = new ArrayList<>();
+        exceptions = new ArrayList<>();
+        listenerChannel = new InternalListenerChannel(serverChannel, selector, null,
+                new Callback<ChannelEntry>() {
+
+                    @Override
+                    public void execute(final ChannelEntry entry) {
+                        accepted.add(entry);
+                    }
+
+                },
+                new Callback<Exception>() {
+
+                    @Override
+                    public void execute(final Exception ex) {
+                        exceptions.add(ex);
+                    }
+
+                });
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        serverChannel.close();
+        selector.close();
+    }
+
+    @Test
+    public void testAcceptFailureKeepsListenerOpen() throws Exception {
+        final IOException failure = new IOException("Too many open files");
+        serverChannel.acceptFailure = failure;
+        listenerChannel.handleIOEvent(SelectionKey.OP_ACCEPT);
+
+        Assert.assertEquals(Collections.singletonList(failure), exceptions);
+        Assert.assertFalse(listenerChannel.isClosed());
+
+        serverChannel.acceptFailure = null;
+        final SocketChannel socketChannel = SocketChannel.open();
+        try {
+            serverChannel.pending = socketChannel;
+            listenerChannel.handleIOEvent(SelectionKey.OP_ACCEPT);
+            Assert.assertEquals(1, accepted.size());
+            Assert.assertSame(socketChannel, accepted.get(0).channel);
+        } finally {
+            socketChannel.close();
+        }
+    }
+
+    @Test
+    public void testAcceptFailureOnClosedChannel() throws Exception {
+        serverChannel.close();
+        serverChannel.acceptFailure = new IOException("Closed");
+        listenerChannel.handleIOEvent(SelectionKey.OP_ACCEPT);
+
+        Assert.assertEquals(1, exceptions.size());
+        Assert.assertTrue(listenerChannel.isClosed());
+        Assert.assertTrue(accepted.isEmpty());
+    }
+
+}
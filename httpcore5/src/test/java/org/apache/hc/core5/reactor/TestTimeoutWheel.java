@@ -0,0 +1,206 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.reactor;
+
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTimeoutWheel {
+
+    static class TestChannel extends InternalChannel {
+
+        Timeout timeout;
+        long lastEventTime;
+        boolean closed;
+        int timeoutCount;
+        boolean closeOnTimeout = true;
+
+        TestChannel(final Timeout timeout, final long lastEventTime) {
+            this.timeout = timeout;
+            this.lastEventTime = lastEventTime;
+        }
+
+        @Override
+        void onIOEvent(final int ops) {
+        }
+
+        @Override
+        void onTimeout(final Timeout timeout) {
+            timeoutCount++;
+            if (closeOnTimeout) {
+                closed = true;
+            }
+        }
+
+        @Override
+        void onException(final Exception cause) {
+        }
+
+        @Override
+        Timeout getTimeout() {
+            return timeout;
+        }
+
+        @Override
+        long getLastEventTime() {
+            return lastEventTime;
+        }
+
+        @Override
+        boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public void close(final CloseMode closeMode) {
+            closed = true;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+    }
+
+    private TimeoutWheel wheel;
+
+    @Before
+    public void setup() {
+        wheel = new TimeoutWheel(100, 16, 10000);
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        final TestChannel channel = new TestChannel(Timeout.ofMilliseconds(1000), 10000);
+        wheel.register(channel);
+        Assert.assertEquals(1, wheel.size());
+
+        wheel.expire(10500);
+        Assert.assertEquals(0, channel.timeoutCount);
+        wheel.expire(11000);
+        Assert.assertEquals(0, channel.timeoutCount);
+        wheel.expire(11100);
+        Assert.assertEquals(1, channel.timeoutCount);
+        Assert.assertEquals(0, wheel.size());
+        Assert.assertNull(channel.timeoutEntry);
+    }
+
+    @Test
+    public void testActivityDefersTimeout() throws Exception {
+        final TestChannel channel = new TestChannel(Timeout.ofMilliseconds(1000), 10000);
+        wheel.register(channel);
+
+        channel.lastEventTime = 10800;
+        wheel.expire(11100);
+        Assert.assertEquals(0, channel.timeoutCount);
+        Assert.assertEquals(1, wheel.size());
+        wheel.expire(11700);
+        Assert.assertEquals(0, channel.timeoutCount);
+        wheel.expire(11900);
+        Assert.assertEquals(1, channel.timeoutCount);
+    }
+
+    @Test
+    public void testTimeoutLongerThanWheelRevolution() throws Exception {
+        final TestChannel channel = new TestChannel(Timeout.ofMilliseconds(5000), 10000);
+        wheel.register(channel);
+
+        for (long now = 10100; now <= 15000; now += 100) {
+            wheel.expire(now);
+            Assert.assertEquals(0, channel.timeoutCount);
+        }
+        wheel.expire(15100);
+        Assert.assertEquals(1, channel.timeoutCount);
+    }
+
+    @Test
+    public void testRearmOnShorterTimeout() throws Exception {
+        final TestChannel channel = new TestChannel(Timeout.ofMilliseconds(60000), 10000);
+        wheel.register(channel);
+
+        channel.timeout = Timeout.ofMilliseconds(200);
+        channel.lastEventTime = 10100;
+        wheel.rearm(channel);
+        wheel.expire(10400);
+        Assert.assertEquals(1, channel.timeoutCount);
+    }
+
+    @Test
+    public void testDisabledTimeout() throws Exception {
+        final TestChannel channel = new TestChannel(Timeout.DISABLED, 10000);
+        wheel.register(channel);
+        Assert.assertEquals(0, wheel.size());
+        wheel.expire(100000);
+        Assert.assertEquals(0, channel.timeoutCount);
+
+        channel.timeout = Timeout.ofMilliseconds(1000);
+        channel.lastEventTime = 100000;
+        wheel.rearm(channel);
+        wheel.expire(100100);
+        Assert.assertEquals(1, wheel.size());
+        wheel.expire(101100);
+        Assert.assertEquals(1, channel.timeoutCount);
+    }
+
+    @Test
+    public void testTimedOutChannelCheckedAgainUntilClosed() throws Exception {
+        final TestChannel channel = new TestChannel(Timeout.ofMilliseconds(1000), 10000);
+        channel.closeOnTimeout = false;
+        wheel.register(channel);
+
+        wheel.expire(11100);
+        Assert.assertEquals(1, channel.timeoutCount);
+        wheel.expire(11200);
+        Assert.assertEquals(2, channel.timeoutCount);
+        channel.closed = true;
+        wheel.expire(11300);
+        Assert.assertEquals(2, channel.timeoutCount);
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testUnregister() throws Exception {
+        final TestChannel channel1 = new TestChannel(Timeout.ofMilliseconds(1000), 10000);
+        final TestChannel channel2 = new TestChannel(Timeout.ofMilliseconds(1000), 10000);
+        wheel.register(channel1);
+        wheel.register(channel2);
+        Assert.assertEquals(2, wheel.size());
+
+        wheel.unregister(channel1);
+        wheel.rearm(channel1);
+        Assert.assertEquals(1, wheel.size());
+        wheel.expire(11100);
+        Assert.assertEquals(0, channel1.timeoutCount);
+        Assert.assertEquals(1, channel2.timeoutCount);
+    }
+
+}
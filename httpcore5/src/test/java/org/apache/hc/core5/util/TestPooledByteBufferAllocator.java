@@ -0,0 +1,140 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.core5.util;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPooledByteBufferAllocator {
+
+    @Test
+    public void testAllocateRoundsUpCapacity() {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator();
+        final ByteBuffer buffer = allocator.allocate(1000);
+        Assert.assertTrue(buffer.isDirect());
+        Assert.assertEquals(1024, buffer.capacity());
+        Assert.assertEquals(0, buffer.position());
+        Assert.assertEquals(1024, buffer.limit());
+        Assert.assertEquals(17408, allocator.allocate(16384 + 9).capacity());
+    }
+
+    @Test
+    public void testReleasedBufferRecycled() {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator();
+        final ByteBuffer buffer1 = allocator.allocate(8192);
+        buffer1.put((byte) 1);
+        allocator.release(buffer1);
+        Assert.assertEquals(1, allocator.getPooledCount());
+
+        final ByteBuffer buffer2 = allocator.allocate(8000);
+        Assert.assertSame(buffer1, buffer2);
+        Assert.assertEquals(0, buffer2.position());
+        Assert.assertEquals(8192, buffer2.limit());
+        Assert.assertEquals(0, allocator.getPooledCount());
+
+        final ByteBuffer buffer3 = allocator.allocate(4096);
+        Assert.assertNotSame(buffer1, buffer3);
+    }
+
+    @Test
+    public void testPoolSizeBounded() {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(64 * 1024, 2);
+        allocator.release(allocator.allocate(1024));
+        allocator.release(allocator.allocate(1024));
+        final ByteBuffer buffer1 = allocator.allocate(1024);
+        final ByteBuffer buffer2 = allocator.allocate(1024);
+        final ByteBuffer buffer3 = allocator.allocate(1024);
+        allocator.release(buffer1);
+        allocator.release(buffer2);
+        allocator.release(buffer3);
+        Assert.assertEquals(2, allocator.getPooledCount());
+    }
+
+    @Test
+    public void testForeignBuffersNotPooled() {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(64 * 1024, 16);
+        allocator.release(null);
+        allocator.release(ByteBuffer.allocate(1024));
+        allocator.release(ByteBuffer.allocateDirect(1000));
+        allocator.release(ByteBuffer.allocateDirect(1024).asReadOnlyBuffer());
+        final ByteBuffer large = allocator.allocate(128 * 1024);
+        Assert.assertTrue(large.isDirect());
+        allocator.release(large);
+        Assert.assertEquals(0, allocator.getPooledCount());
+    }
+
+    @Test
+    public void testPoolsAreThreadLocal() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator();
+        allocator.release(allocator.allocate(1024));
+        final int[] count = new int[1];
+        final Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                count[0] = allocator.getPooledCount();
+            }
+
+        });
+        thread.start();
+        thread.join();
+        Assert.assertEquals(0, count[0]);
+        Assert.assertEquals(1, allocator.getPooledCount());
+    }
+
+    @Test
+    public void testOverflowHandedOverToSharedPool() throws Exception {
+        final PooledByteBufferAllocator allocator = new PooledByteBufferAllocator(64 * 1024, 1, 1);
+        final ByteBuffer buffer1 = allocator.allocate(1024);
+        final ByteBuffer buffer2 = allocator.allocate(1024);
+        final ByteBuffer buffer3 = allocator.allocate(1024);
+        allocator.release(buffer1);
+        allocator.release(buffer2);
+        allocator.release(buffer3);
+        Assert.assertEquals(1, allocator.getPooledCount());
+        Assert.assertEquals(1, allocator.getSharedCount());
+
+        final ByteBuffer[] allocated = new ByteBuffer[1];
+        final Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                allocated[0] = allocator.allocate(1000);
+            }
+
+        });
+        thread.start();
+        thread.join();
+        Assert.assertSame(buffer2, allocated[0]);
+        Assert.assertEquals(0, allocator.getSharedCount());
+        Assert.assertEquals(1, allocator.getPooledCount());
+    }
+
+}